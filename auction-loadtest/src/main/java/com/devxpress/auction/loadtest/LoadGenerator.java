@@ -0,0 +1,219 @@
+package com.devxpress.auction.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Issues requests at a constant arrival rate (an open model), so a slow response delays no later request.
+ * <p>
+ * Latency is measured from when each request was due to be sent, not from when a connection became free to send
+ * it, so time spent queued behind slow requests is included rather than hidden.
+ */
+@Slf4j
+public class LoadGenerator {
+
+    private static final String BID_JSON = "{\"itemId\":%d,\"userId\":\"%s\",\"amount\":%d}";
+    private static final String USER_ID_FORMAT = "load-user-%d";
+
+    // Pending requests per connection before further requests are dropped
+    private static final int QUEUE_DEPTH_PER_CONNECTION = 1_000;
+
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final long[] itemIds;
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    // Next bid amount per item, so that most bids are accepted
+    private final AtomicLong[] nextAmounts;
+
+    private final Map<Operation, Recorder> latencyRecorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder[]> outcomeCounters = new EnumMap<>(Operation.class);
+
+    // Measured requests completed before the end of the measured period, from which throughput is reported
+    private final LongAdder completedInPeriod = new LongAdder();
+    private volatile long measureUntil;
+
+    public LoadGenerator(String baseUrl, LoadTestOptions options, long[] itemIds) {
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.itemIds = itemIds;
+
+        this.operations = options.getMix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.getMix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+
+        this.nextAmounts = new AtomicLong[itemIds.length];
+        for (int i = 0; i < itemIds.length; i++) {
+            nextAmounts[i] = new AtomicLong();
+        }
+
+        for (Operation operation : operations) {
+            latencyRecorders.put(operation, new Recorder(3));
+            outcomeCounters.put(operation, LoadReport.newOutcomeCounters());
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        ThreadPoolExecutor connections = new ThreadPoolExecutor(options.getConnections(), options.getConnections(),
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(options.getConnections() * QUEUE_DEPTH_PER_CONNECTION));
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.getRate());
+        long start = System.nanoTime();
+        long measureFrom = start + options.getWarmup().toNanos();
+        long end = measureFrom + options.getDuration().toNanos();
+        measureUntil = end;
+
+        log.info("Warming up for {} then measuring for {} at {} requests/s", options.getWarmup(),
+                options.getDuration(), options.getRate());
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+
+            if (intended >= end) {
+                break;
+            }
+
+            // Requests that have fallen behind schedule are sent immediately
+            for (long now = System.nanoTime(); now < intended; now = System.nanoTime()) {
+                LockSupport.parkNanos(intended - now);
+            }
+
+            Operation operation = nextOperation();
+            boolean measured = intended >= measureFrom;
+
+            try {
+                connections.execute(() -> execute(operation, intended, measured));
+            } catch (RejectedExecutionException e) {
+                if (measured) {
+                    outcomeCounters.get(operation)[LoadReport.DROPPED].increment();
+                }
+            }
+        }
+
+        connections.shutdown();
+        connections.awaitTermination(1, TimeUnit.MINUTES);
+
+        return new LoadReport(options, latencyRecorders, outcomeCounters, completedInPeriod.sum());
+    }
+
+    private void execute(Operation operation, long intended, boolean measured) {
+        int outcome;
+
+        try {
+            int status = send(operation);
+            outcome = status < 400 ? LoadReport.SUCCEEDED : status < 500 ? LoadReport.REJECTED : LoadReport.FAILED;
+        } catch (IOException | RuntimeException e) {
+            log.debug("{} failed", operation.getEndpoint(), e);
+            outcome = LoadReport.FAILED;
+        }
+
+        if (measured) {
+            long now = System.nanoTime();
+
+            latencyRecorders.get(operation).recordValue(now - intended);
+            outcomeCounters.get(operation)[outcome].increment();
+
+            if (now < measureUntil) {
+                completedInPeriod.increment();
+            }
+        }
+    }
+
+    private int send(Operation operation) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        int itemIndex = random.nextInt(itemIds.length);
+        long itemId = itemIds[itemIndex];
+        String userId = String.format(USER_ID_FORMAT, random.nextInt(options.getUsers()));
+
+        switch (operation) {
+            case BID:
+                return post("/v1/items/" + itemId + "/bids",
+                        String.format(BID_JSON, itemId, userId, nextAmounts[itemIndex].incrementAndGet()));
+            case WINNING_BID:
+                return get("/v1/items/" + itemId + "/bids/winning");
+            case ITEM_BIDS:
+                return get("/v1/items/" + itemId + "/bids");
+            case ITEMS:
+                return get("/v1/items");
+            case USER_ITEMS:
+                return get("/v1/items?bid-user-id=" + userId);
+            case USER_WINNING_BIDS:
+                return get("/v1/users/" + userId + "/bids/winning");
+            default:
+                throw new IllegalStateException(String.format("Unsupported operation : %s", operation));
+        }
+    }
+
+    private int get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        return complete(connection);
+    }
+
+    private int post(String path, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return complete(connection);
+    }
+
+    // The response body is read in full, so that the connection is returned to the keep-alive cache
+    private static int complete(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+
+        if (body != null) {
+            try (InputStream in = body) {
+                byte[] buffer = new byte[8192];
+                while (in.read(buffer) >= 0) {
+                    // Discard
+                }
+            }
+        }
+
+        return status;
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+
+        return operations[operations.length - 1];
+    }
+}
@@ -0,0 +1,113 @@
+package com.devxpress.auction.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency percentiles and outcome counts per endpoint, plus achieved throughput, for the measured period of a run.
+ */
+public class LoadReport {
+
+    static final int SUCCEEDED = 0;
+    // 4xx responses, e.g. outbid (422) or rate limited (429)
+    static final int REJECTED = 1;
+    // 5xx responses and I/O failures
+    static final int FAILED = 2;
+    // Not sent, as every connection was busy and the queue full
+    static final int DROPPED = 3;
+
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+
+    private final LoadTestOptions options;
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, long[]> outcomes = new EnumMap<>(Operation.class);
+    private final long completedInPeriod;
+
+    LoadReport(LoadTestOptions options, Map<Operation, Recorder> recorders, Map<Operation, LongAdder[]> counters,
+               long completedInPeriod) {
+        this.options = options;
+        this.completedInPeriod = completedInPeriod;
+
+        recorders.forEach((operation, recorder) -> latencies.put(operation, recorder.getIntervalHistogram()));
+        counters.forEach((operation, adders) -> {
+            long[] counts = new long[adders.length];
+            for (int i = 0; i < adders.length; i++) {
+                counts[i] = adders[i].sum();
+            }
+            outcomes.put(operation, counts);
+        });
+    }
+
+    static LongAdder[] newOutcomeCounters() {
+        return new LongAdder[] {new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()};
+    }
+
+    public Histogram getLatency(Operation operation) {
+        return latencies.get(operation);
+    }
+
+    public long getCount(Operation operation, int outcome) {
+        return outcomes.get(operation)[outcome];
+    }
+
+    public void print(PrintStream out) {
+        double seconds = options.getDuration().toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+
+        out.printf("%nTarget rate %.1f requests/s, measured for %s after %s warmup, %d connections%n",
+                options.getRate(), options.getDuration(), options.getWarmup(), options.getConnections());
+        out.printf("Latency in milliseconds, from when each request was due to be sent%n%n");
+
+        out.printf("%-40s %9s %9s %9s %9s %9s", "Endpoint", "sent/s", "ok", "4xx", "failed", "dropped");
+        for (double percentile : PERCENTILES) {
+            out.printf(" %9s", "p" + formatPercentile(percentile));
+        }
+        out.printf(" %9s%n", "max");
+
+        Histogram total = new Histogram(3);
+
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            Histogram latency = entry.getValue();
+            long[] counts = outcomes.get(entry.getKey());
+
+            total.add(latency);
+
+            printRow(out, entry.getKey().getEndpoint(), latency, counts, seconds);
+        }
+
+        long[] totalCounts = new long[4];
+        outcomes.values().forEach(counts -> {
+            for (int i = 0; i < counts.length; i++) {
+                totalCounts[i] += counts[i];
+            }
+        });
+
+        printRow(out, "All", total, totalCounts, seconds);
+        // Requests still outstanding when the period ended are excluded, so a saturated service shows as such
+        out.printf("%nAchieved throughput %.1f requests/s%n", completedInPeriod / seconds);
+    }
+
+    private void printRow(PrintStream out, String name, Histogram latency, long[] counts, double seconds) {
+        out.printf("%-40s %9.1f %9d %9d %9d %9d", name, latency.getTotalCount() / seconds,
+                counts[SUCCEEDED], counts[REJECTED], counts[FAILED], counts[DROPPED]);
+
+        for (double percentile : PERCENTILES) {
+            out.printf(" %9.3f", toMillis(latency.getValueAtPercentile(percentile)));
+        }
+
+        out.printf(" %9.3f%n", toMillis(latency.getMaxValue()));
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
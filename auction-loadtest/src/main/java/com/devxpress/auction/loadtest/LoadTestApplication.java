@@ -0,0 +1,65 @@
+package com.devxpress.auction.loadtest;
+
+import com.devxpress.auction.AuctionServiceApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Boots the auction service in this JVM on an ephemeral port and drives it over HTTP, so that the servlet
+ * container, JSON mapping and exception handling are all measured. Nothing beyond this process is required.
+ */
+@Slf4j
+public class LoadTestApplication {
+
+    // Defaults for the service under test, each of which may be overridden on the command line
+    private static final String[] SERVICE_PROPERTIES = {
+            "server.port=0",
+            // Rate limiting would reject most bids from a small set of load test users
+            "auction.bid.rate-limit.enabled=false",
+            // Per-request INFO logging would interleave with the report
+            "logging.level.com.devxpress.auction=WARN"
+    };
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        // Keep-alive cache, which otherwise holds only 5 connections per destination
+        System.setProperty("http.maxConnections", Integer.toString(options.getConnections()));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AuctionServiceApplication.class)
+                .properties(SERVICE_PROPERTIES)
+                .run(options.getApplicationArgs().toArray(new String[0]))) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+
+            long[] itemIds = findItemIds(baseUrl);
+            log.info("Auction service started on port {} with {} item(s)", port, itemIds.length);
+
+            LoadReport report = new LoadGenerator(baseUrl, options, itemIds).run();
+            report.print(System.out);
+        }
+    }
+
+    private static long[] findItemIds(String baseUrl) throws IOException {
+        JsonNode items = new ObjectMapper().readTree(new URL(baseUrl + "/v1/items"));
+
+        if (items.size() == 0) {
+            throw new IllegalStateException("Auction service has no items to bid on");
+        }
+
+        long[] itemIds = new long[items.size()];
+        for (int i = 0; i < itemIds.length; i++) {
+            itemIds[i] = items.get(i).get("id").asLong();
+        }
+
+        return itemIds;
+    }
+}
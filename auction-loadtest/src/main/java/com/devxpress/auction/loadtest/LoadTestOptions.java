@@ -0,0 +1,112 @@
+package com.devxpress.auction.loadtest;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options of the form {@code --name=value}. Options which are not recognised here are passed through
+ * to the auction service, e.g. {@code --auction.bid.storage.type=off-heap}.
+ */
+@Getter
+@ToString
+public class LoadTestOptions {
+
+    static final String DEFAULT_MIX = "bid:40,winning-bid:30,item-bids:10,items:5,user-items:10,user-winning-bids:5";
+
+    // Requests per second, issued at a constant rate whether or not earlier requests have completed
+    private double rate = 500;
+
+    // Results from the warmup are discarded
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(60);
+
+    // Maximum concurrent requests, each on its own kept-alive connection
+    private int connections = 64;
+
+    // Number of distinct users bidding and querying
+    private int users = 1_000;
+
+    // Operation -> relative weight
+    private Map<Operation, Integer> mix = parseMix(DEFAULT_MIX);
+
+    private List<String> applicationArgs = new ArrayList<>();
+
+    public static LoadTestOptions parse(String... args) {
+        LoadTestOptions options = new LoadTestOptions();
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException(String.format("Expected --name=value but found : %s", arg));
+            }
+
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+
+            switch (name) {
+                case "rate":
+                    options.rate = Double.parseDouble(value);
+                    break;
+                case "warmup":
+                    options.warmup = DurationStyle.detectAndParse(value);
+                    break;
+                case "duration":
+                    options.duration = DurationStyle.detectAndParse(value);
+                    break;
+                case "connections":
+                    options.connections = Integer.parseInt(value);
+                    break;
+                case "users":
+                    options.users = Integer.parseInt(value);
+                    break;
+                case "mix":
+                    options.mix = parseMix(value);
+                    break;
+                default:
+                    options.applicationArgs.add(arg);
+            }
+        }
+
+        if (options.rate <= 0 || options.connections <= 0 || options.users <= 0 || options.duration.isZero()) {
+            throw new IllegalArgumentException("Rate, duration, connections and users must be greater than zero");
+        }
+
+        return options;
+    }
+
+    /**
+     * @param mix comma separated operation:weight pairs, e.g. bid:80,winning-bid:20
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split(":");
+
+            if (pair.length != 2) {
+                throw new IllegalArgumentException(String.format("Expected operation:weight but found : %s", entry));
+            }
+
+            int weight = Integer.parseInt(pair[1].trim());
+
+            if (weight > 0) {
+                weights.put(Operation.fromKey(pair[0].trim()), weight);
+            }
+        }
+
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException(String.format("No operations in mix : %s", mix));
+        }
+
+        return Collections.unmodifiableMap(weights);
+    }
+}
@@ -0,0 +1,40 @@
+package com.devxpress.auction.loadtest;
+
+/**
+ * Requests issued by the load generator, each reported as a separate endpoint.
+ */
+public enum Operation {
+
+    BID("bid", "POST /v1/items/{item-id}/bids"),
+    WINNING_BID("winning-bid", "GET /v1/items/{item-id}/bids/winning"),
+    ITEM_BIDS("item-bids", "GET /v1/items/{item-id}/bids"),
+    ITEMS("items", "GET /v1/items"),
+    USER_ITEMS("user-items", "GET /v1/items?bid-user-id={user-id}"),
+    USER_WINNING_BIDS("user-winning-bids", "GET /v1/users/{user-id}/bids/winning");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Unknown operation : %s", key));
+    }
+}
@@ -0,0 +1,46 @@
+package com.devxpress.auction.loadtest;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LoadTestOptionsTest {
+
+    @Test
+    public void optionsParsedAndOthersPassedThrough() {
+
+        LoadTestOptions options = LoadTestOptions.parse("--rate=2000", "--duration=30s", "--warmup=0s",
+                "--connections=16", "--users=50", "--mix=bid:3,items:0,winning-bid:1",
+                "--auction.bid.storage.type=off-heap");
+
+        assertThat(options.getRate(), is(2000.0));
+        assertThat(options.getDuration(), is(Duration.ofSeconds(30)));
+        assertThat(options.getWarmup(), is(Duration.ZERO));
+        assertThat(options.getConnections(), is(16));
+        assertThat(options.getUsers(), is(50));
+        assertThat(options.getMix().size(), is(2));
+        assertThat(options.getMix().get(Operation.BID), is(3));
+        assertThat(options.getMix().get(Operation.WINNING_BID), is(1));
+        assertThat(options.getApplicationArgs(),
+                is(Collections.singletonList("--auction.bid.storage.type=off-heap")));
+    }
+
+    @Test
+    public void defaultMixCoversEveryOperation() {
+        assertThat(LoadTestOptions.parse().getMix().size(), is(Operation.values().length));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownOperationRejected() {
+        LoadTestOptions.parse("--mix=bid:1,delete-everything:1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bareArgumentRejected() {
+        LoadTestOptions.parse("rate");
+    }
+}
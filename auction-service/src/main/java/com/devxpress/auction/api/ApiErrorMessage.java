@@ -6,6 +6,8 @@ public class ApiErrorMessage {
     public static final String AUTHORIZATION_ERROR_MSG = "Authorization error";
     public static final String INVALID_RESOURCE_MSG = "Invalid resource";
     public static final String MISSING_OR_INVALID_ARGUMENT_MSG = "Missing or invalid argument";
+    public static final String RATE_LIMIT_EXCEEDED_MSG = "Rate limit exceeded";
+    public static final String READ_ONLY_REPLICA_MSG = "Read only replica";
     public static final String RESOURCE_NOT_FOUND_MSG = "Resource not found";
     public static final String RESOURCE_OPERATION_ERROR_MSG = "Resource operation error";
     public static final String SYSTEM_ERROR_MSG = "System error";
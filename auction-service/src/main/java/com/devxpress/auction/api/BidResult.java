@@ -0,0 +1,71 @@
+package com.devxpress.auction.api;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Outcome of submitting a bid. Rejection is the most frequent outcome during a bidding war,
+ * so it is reported as a value rather than by throwing an exception.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class BidResult<T> {
+
+    public enum Status {
+        ACCEPTED,
+        OUTBID,
+        INVALID
+    }
+
+    public static final String AMOUNT_NOT_HIGHEST = "Amount bid must be greater than current highest";
+
+    private static final List<String> OUTBID_REASONS = Collections.singletonList(AMOUNT_NOT_HIGHEST);
+
+    @SuppressWarnings("rawtypes")
+    private static final BidResult OUTBID = new BidResult<>(Status.OUTBID, null, OUTBID_REASONS);
+
+    private final Status status;
+    private final T bid;
+    private final List<String> reasons;
+
+    private BidResult(Status status, T bid, List<String> reasons) {
+        this.status = status;
+        this.bid = bid;
+        this.reasons = reasons;
+    }
+
+    public static <T> BidResult<T> accepted(T bid) {
+        return new BidResult<>(Status.ACCEPTED, bid, Collections.emptyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> BidResult<T> outbid() {
+        return (BidResult<T>) OUTBID;
+    }
+
+    public static <T> BidResult<T> invalid(List<String> reasons) {
+        return new BidResult<>(Status.INVALID, null, Collections.unmodifiableList(reasons));
+    }
+
+    public boolean isAccepted() {
+        return status == Status.ACCEPTED;
+    }
+
+    /**
+     * Convert the accepted bid (if any) whilst retaining the outcome and reasons.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> BidResult<R> map(Function<? super T, ? extends R> mapper) {
+        if (bid == null) {
+            return (BidResult<R>) this;
+        }
+
+        return new BidResult<>(status, mapper.apply(bid), reasons);
+    }
+}
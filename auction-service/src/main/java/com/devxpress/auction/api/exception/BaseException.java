@@ -25,4 +25,12 @@ public class BaseException extends RuntimeException {
         this.errorCode = errorCode;
     }
 
+    /**
+     * For exceptions raised on hot paths, where capturing the stack trace costs more than handling the error.
+     */
+    protected BaseException(String exceptionMessage, Integer errorCode, boolean writableStackTrace) {
+        super(exceptionMessage, null, false, writableStackTrace);
+        this.errorCode = errorCode;
+    }
+
 }
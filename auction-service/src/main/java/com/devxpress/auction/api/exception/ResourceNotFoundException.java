@@ -21,4 +21,8 @@ public class ResourceNotFoundException extends BaseException {
         super(message, errorCode);
     }
 
+    public ResourceNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace);
+    }
+
 }
@@ -0,0 +1,19 @@
+package com.devxpress.auction.api.exception;
+
+import static com.devxpress.auction.api.ApiErrorCode.RETRYABLE_ERROR;
+
+/**
+ * Exception to be thrown when a request could not be served as a resource it depends on (e.g. bid storage) is
+ * failing, so that the request may be retried once it recovers
+ */
+public class ServiceUnavailableException extends BaseException {
+
+    public ServiceUnavailableException(String exceptionMessage) {
+        super(exceptionMessage, RETRYABLE_ERROR);
+    }
+
+    public ServiceUnavailableException(String exceptionMessage, Throwable cause) {
+        super(exceptionMessage, RETRYABLE_ERROR);
+        initCause(cause);
+    }
+}
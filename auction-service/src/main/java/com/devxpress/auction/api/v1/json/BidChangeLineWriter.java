@@ -0,0 +1,69 @@
+package com.devxpress.auction.api.v1.json;
+
+import com.devxpress.auction.api.v1.model.BidChange;
+import com.devxpress.auction.entity.BidEntity;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.ZoneId;
+
+/**
+ * Writes bids one per line, each exactly as its {@link BidChange} would be written, but straight from the
+ * {@link BidEntity}. Not thread safe.
+ */
+public class BidChangeLineWriter {
+
+    // BidChange property names, in BidChange declaration order
+    private static final String SEQUENCE = "sequence";
+    private static final String ITEM_ID = "itemId";
+    private static final String USER_ID = "userId";
+    private static final String AMOUNT = "amount";
+    private static final String CREATED_DATE_TIME = "createdDateTime";
+
+    private final JsonGenerator gen;
+
+    // As per BidMapper, timestamps are in the system default zone
+    private final LocalDateTimeFormat timestamps = new LocalDateTimeFormat(ZoneId.systemDefault());
+
+    public BidChangeLineWriter(JsonGenerator gen) {
+        this.gen = gen;
+        gen.setRootValueSeparator(null);
+    }
+
+    public void write(long sequence, BidEntity bid) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField(SEQUENCE, sequence);
+
+        gen.writeFieldName(ITEM_ID);
+        if (bid.getItemId() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(bid.getItemId());
+        }
+
+        gen.writeStringField(USER_ID, bid.getUserId());
+
+        BigDecimal amount = bid.getAmount();
+        gen.writeFieldName(AMOUNT);
+        if (amount == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(amount);
+        }
+
+        gen.writeFieldName(CREATED_DATE_TIME);
+        if (bid.getSubmittedAt() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(timestamps.format(bid.getSubmittedAt()));
+        }
+
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+    }
+
+    public void flush() throws IOException {
+        gen.flush();
+    }
+}
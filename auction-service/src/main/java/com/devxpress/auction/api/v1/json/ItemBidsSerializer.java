@@ -0,0 +1,77 @@
+package com.devxpress.auction.api.v1.json;
+
+import com.devxpress.auction.api.v1.model.BidDetail;
+import com.devxpress.auction.api.v1.model.ItemBids;
+import com.devxpress.auction.entity.BidEntity;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Writes {@link ItemBids} exactly as a list of {@link BidDetail} would be written, field for field and byte for
+ * byte, but straight from each {@link BidEntity}.
+ */
+public class ItemBidsSerializer extends StdSerializer<ItemBids> {
+
+    // BidDetail property names, in BidDetail declaration order
+    private static final String ITEM_ID = "itemId";
+    private static final String ITEM_DESCRIPTION = "itemDescription";
+    private static final String USER_ID = "userId";
+    private static final String AMOUNT = "amount";
+    private static final String CREATED_DATE_TIME = "createdDateTime";
+
+    public ItemBidsSerializer() {
+        super(ItemBids.class);
+    }
+
+    @Override
+    public void serialize(ItemBids itemBids, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        // As per BidMapper, timestamps are in the system default zone, resolved once per response
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTimeFormat timestamps = provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) ?
+                null : new LocalDateTimeFormat(zone);
+
+        gen.writeStartArray();
+
+        for (BidEntity bid : itemBids.getBids()) {
+            gen.writeStartObject();
+
+            gen.writeFieldName(ITEM_ID);
+            if (bid.getItemId() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(bid.getItemId());
+            }
+
+            gen.writeStringField(ITEM_DESCRIPTION, itemBids.getItemDescription());
+            gen.writeStringField(USER_ID, bid.getUserId());
+
+            BigDecimal amount = bid.getAmount();
+            gen.writeFieldName(AMOUNT);
+            if (amount == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(amount);
+            }
+
+            gen.writeFieldName(CREATED_DATE_TIME);
+            if (bid.getSubmittedAt() == null) {
+                gen.writeNull();
+            } else if (timestamps == null) {
+                provider.defaultSerializeValue(LocalDateTime.ofInstant(bid.getSubmittedAt(), zone), gen);
+            } else {
+                gen.writeString(timestamps.format(bid.getSubmittedAt()));
+            }
+
+            gen.writeEndObject();
+        }
+
+        gen.writeEndArray();
+    }
+}
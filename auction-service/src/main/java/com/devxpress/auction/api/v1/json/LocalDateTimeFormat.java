@@ -0,0 +1,67 @@
+package com.devxpress.auction.api.v1.json;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneRules;
+
+/**
+ * Formats instants as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} in a given zone, which is how Jackson writes a
+ * {@link LocalDateTime}. The date and time up to the second is cached, so that a run of timestamps within the same
+ * second only formats the fraction. Not thread safe.
+ */
+class LocalDateTimeFormat {
+
+    private static final int NANO_DIGITS = 9;
+
+    private final ZoneRules rules;
+    private final StringBuilder buffer = new StringBuilder(32);
+
+    private long cachedEpochSecond = Long.MIN_VALUE;
+    private int cachedPrefixLength;
+
+    LocalDateTimeFormat(ZoneId zone) {
+        this.rules = zone.getRules();
+    }
+
+    String format(Instant instant) {
+        long epochSecond = instant.getEpochSecond();
+
+        if (epochSecond != cachedEpochSecond) {
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(epochSecond, 0, rules.getOffset(instant));
+
+            buffer.setLength(0);
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(dateTime, buffer);
+
+            cachedEpochSecond = epochSecond;
+            cachedPrefixLength = buffer.length();
+        }
+
+        buffer.setLength(cachedPrefixLength);
+        appendFraction(instant.getNano());
+
+        return buffer.toString();
+    }
+
+    // As ISO_LOCAL_TIME : omitted if zero, otherwise without trailing zeros
+    private void appendFraction(int nano) {
+        if (nano == 0) {
+            return;
+        }
+
+        int digits = NANO_DIGITS;
+        while (nano % 10 == 0) {
+            nano /= 10;
+            digits--;
+        }
+
+        buffer.append('.');
+
+        String value = Integer.toString(nano);
+        for (int i = value.length(); i < digits; i++) {
+            buffer.append('0');
+        }
+        buffer.append(value);
+    }
+}
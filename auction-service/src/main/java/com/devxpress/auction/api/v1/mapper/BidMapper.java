@@ -1,8 +1,14 @@
 package com.devxpress.auction.api.v1.mapper;
 
 import com.devxpress.auction.api.v1.model.Bid;
+import com.devxpress.auction.api.v1.model.BidChange;
 import com.devxpress.auction.api.v1.model.BidDetail;
+import com.devxpress.auction.api.v1.model.ItemStats;
+import com.devxpress.auction.api.v1.model.ProxyBid;
+import com.devxpress.auction.entity.BidChangeEntity;
 import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ItemStatsEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
@@ -23,7 +29,22 @@ public interface BidMapper {
 
     BidEntity bidToBidEntity(Bid bid);
 
+    ProxyBidEntity proxyBidToProxyBidEntity(ProxyBid proxyBid);
+
+    @Mappings({
+            @Mapping(source = "lastBidAt", target = "lastBidDateTime")
+    })
+    ItemStats itemStatsEntityToItemStats(ItemStatsEntity itemStatsEntity);
+
+    @Mappings({
+            @Mapping(source = "bid.itemId", target = "itemId"),
+            @Mapping(source = "bid.userId", target = "userId"),
+            @Mapping(source = "bid.amount", target = "amount"),
+            @Mapping(source = "bid.submittedAt", target = "createdDateTime")
+    })
+    BidChange bidChangeEntityToBidChange(BidChangeEntity bidChangeEntity);
+
     default LocalDateTime instantToLocalDateTime(Instant instant) {
-        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
     }
 }
@@ -0,0 +1,29 @@
+package com.devxpress.auction.api.v1.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class BidChange {
+
+    @ApiModelProperty(notes = "Position of the bid in the order bids were accepted, unique and increasing")
+    private long sequence;
+
+    @ApiModelProperty(notes = "Unique item identifier", position = 1)
+    private Long itemId;
+
+    @ApiModelProperty(notes = "User identifier", position = 2)
+    private String userId;
+
+    @ApiModelProperty(notes = "Bid amount", position = 3)
+    private BigDecimal amount;
+
+    @ApiModelProperty(notes = "Bid creation timestamp (in ISO date/time format for UTC)", position = 4)
+    private LocalDateTime createdDateTime;
+
+}
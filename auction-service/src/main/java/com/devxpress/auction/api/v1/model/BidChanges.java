@@ -0,0 +1,25 @@
+package com.devxpress.auction.api.v1.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BidChanges {
+
+    @ApiModelProperty(notes = "Accepted bids, in sequence order")
+    private List<BidChange> changes;
+
+    @ApiModelProperty(notes = "Sequence of the last change returned (or the requested sequence, if none were), "
+            + "from which to request the next changes", position = 1)
+    private long lastSequence;
+
+    @ApiModelProperty(notes = "Sequence of the latest accepted bid", position = 2)
+    private long latestSequence;
+
+}
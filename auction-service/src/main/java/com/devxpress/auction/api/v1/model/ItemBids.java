@@ -0,0 +1,22 @@
+package com.devxpress.auction.api.v1.model;
+
+import com.devxpress.auction.api.v1.json.ItemBidsSerializer;
+import com.devxpress.auction.entity.BidEntity;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * All bids for an item, serialized as a list of {@link BidDetail} directly from the stored bids, without mapping
+ * each to a DTO first.
+ */
+@Getter
+@RequiredArgsConstructor
+@JsonSerialize(using = ItemBidsSerializer.class)
+public class ItemBids {
+
+    private final Iterable<BidEntity> bids;
+
+    private final String itemDescription;
+
+}
@@ -0,0 +1,40 @@
+package com.devxpress.auction.api.v1.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class ItemStats {
+
+    @ApiModelProperty(notes = "Unique item identifier")
+    private Long itemId;
+
+    @ApiModelProperty(notes = "Item description", position = 1)
+    private String itemDescription;
+
+    @ApiModelProperty(notes = "Number of bids", position = 2)
+    private long bidCount;
+
+    @ApiModelProperty(notes = "Number of distinct bidders", position = 3)
+    private long bidderCount;
+
+    @ApiModelProperty(notes = "Whether the number of bidders is an estimate (to within about 1%), "
+            + "as the item has too many bidders to count exactly", position = 4)
+    private boolean bidderCountApproximate;
+
+    @ApiModelProperty(notes = "Amount of the first bid, absent if there are no bids", position = 5)
+    private BigDecimal openingPrice;
+
+    @ApiModelProperty(notes = "Amount of the highest bid, absent if there are no bids", position = 6)
+    private BigDecimal currentPrice;
+
+    @ApiModelProperty(notes = "Timestamp of the latest bid (in ISO date/time format for UTC), "
+            + "absent if there are no bids", position = 7)
+    private LocalDateTime lastBidDateTime;
+
+}
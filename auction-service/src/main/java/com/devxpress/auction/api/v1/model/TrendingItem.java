@@ -0,0 +1,25 @@
+package com.devxpress.auction.api.v1.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+public class TrendingItem {
+
+    @ApiModelProperty(notes = "Unique item identifier")
+    private Long itemId;
+
+    @ApiModelProperty(notes = "Item description", position = 1)
+    private String itemDescription;
+
+    @ApiModelProperty(notes = "Number of bids accepted within the window", position = 2)
+    private long bidCount;
+
+    @ApiModelProperty(notes = "Rise in the highest bid within the window", position = 3)
+    private BigDecimal priceIncrease;
+
+}
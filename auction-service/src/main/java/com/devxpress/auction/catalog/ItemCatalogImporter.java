@@ -0,0 +1,73 @@
+package com.devxpress.auction.catalog;
+
+import com.devxpress.auction.configuration.CatalogImportProperties;
+import com.devxpress.auction.repository.ItemCatalog;
+import com.devxpress.auction.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports the catalog file at startup, failing startup if the file cannot be imported, and then on the configured
+ * schedule, when a failed import is logged and the current catalog retained.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemCatalogImporter implements ApplicationRunner {
+
+    private final CatalogImportProperties properties;
+    private final ItemRepository itemRepository;
+
+    private final ItemCatalogParser parser = new ItemCatalogParser();
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (properties.getImportFile() != null) {
+            importCatalog(Paths.get(properties.getImportFile()));
+        }
+    }
+
+    @Scheduled(cron = "${auction.catalog.import-cron:-}")
+    public void scheduledImport() {
+        if (properties.getImportFile() == null) {
+            return;
+        }
+
+        try {
+            importCatalog(Paths.get(properties.getImportFile()));
+        } catch (IOException | RuntimeException e) {
+            log.error("Catalog import failed - retaining current catalog", e);
+        }
+    }
+
+    public synchronized ItemCatalog importCatalog(Path file) throws IOException {
+        long start = System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, properties.getParallelism()));
+        ItemCatalog.Builder builder;
+
+        try {
+            builder = parser.parse(file, properties.getFormat(), pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        ItemCatalog catalog = builder.build();
+        itemRepository.replaceAll(catalog);
+
+        log.info("Imported {} items from catalog : {}, in {} ms ({} duplicate ids replaced)", catalog.size(), file,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), builder.replaced());
+
+        return catalog;
+    }
+}
@@ -0,0 +1,312 @@
+package com.devxpress.auction.catalog;
+
+import com.devxpress.auction.configuration.CatalogImportProperties;
+import com.devxpress.auction.entity.ItemEntity;
+import com.devxpress.auction.repository.ItemCatalog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses a catalog file into an {@link ItemCatalog}.
+ * <p>
+ * The file is divided into fixed size chunks which are memory-mapped and parsed in parallel. Each chunk parses the
+ * lines which start within it, reading past its end to complete its last line, so chunks need no coordination.
+ * The parsed chunks are then added to the catalog in file order.
+ * <p>
+ * CSV fields may be quoted (with "" for a quote), but no field may span lines. An item's closing time (an ISO
+ * instant) and reserve are optional, as two further CSV fields or JSON properties, either of which may be empty.
+ */
+public class ItemCatalogParser {
+
+    static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    // Longest line accepted, which is how far a chunk may read beyond its end
+    static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private static final String CSV_HEADER_ID = "id";
+
+    private static final ObjectReader JSON_READER = new ObjectMapper().reader();
+
+    private final int chunkSize;
+
+    public ItemCatalogParser() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    ItemCatalogParser(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public ItemCatalog.Builder parse(Path file, CatalogImportProperties.Format format, ForkJoinPool pool)
+            throws IOException {
+
+        boolean csv = format == CatalogImportProperties.Format.CSV ||
+                (format == CatalogImportProperties.Format.AUTO &&
+                        file.getFileName().toString().toLowerCase().endsWith(".csv"));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            List<ChunkParser> chunks = new ArrayList<>();
+            for (long start = 0; start < size; start += chunkSize) {
+                chunks.add(new ChunkParser(channel, size, start, Math.min(size, start + chunkSize), csv));
+            }
+
+            pool.invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    ForkJoinTask.invokeAll(chunks);
+                    return null;
+                }
+            });
+
+            int itemCount = 0;
+            for (ChunkParser chunk : chunks) {
+                itemCount += chunk.join().size();
+            }
+
+            ItemCatalog.Builder builder = new ItemCatalog.Builder(itemCount);
+            chunks.forEach(chunk -> chunk.join().forEach(builder::add));
+
+            return builder;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ChunkParser extends RecursiveTask<List<ItemEntity>> {
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private final long start;
+        private final long end;
+        private final boolean csv;
+
+        private ChunkParser(FileChannel channel, long fileSize, long start, long end, boolean csv) {
+            this.channel = channel;
+            this.fileSize = fileSize;
+            this.start = start;
+            this.end = end;
+            this.csv = csv;
+        }
+
+        @Override
+        protected List<ItemEntity> compute() {
+            try {
+                // Mapped from the byte before the chunk, to tell whether the chunk starts a new line
+                long mapStart = Math.max(0, start - 1);
+                long mapEnd = Math.min(fileSize, end + MAX_LINE_LENGTH);
+
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+                int limit = (int) (end - mapStart);
+                int position = (int) (start - mapStart);
+
+                if (start > 0 && buffer.get(position - 1) != '\n') {
+                    position = nextLine(buffer, position);
+                }
+
+                List<ItemEntity> items = new ArrayList<>();
+                byte[] line = new byte[256];
+
+                while (position < limit) {
+                    int lineEnd = lineEnd(buffer, position, mapStart);
+                    int length = lineEnd - position;
+
+                    if (length > line.length) {
+                        line = new byte[Math.max(length, line.length * 2)];
+                    }
+
+                    buffer.position(position);
+                    buffer.get(line, 0, length);
+
+                    // Trailing carriage return of a CRLF line ending
+                    if (length > 0 && line[length - 1] == '\r') {
+                        length--;
+                    }
+
+                    if (length > 0) {
+                        ItemEntity item = csv ?
+                                parseCsv(line, length, mapStart + position) :
+                                parseJson(line, length, mapStart + position);
+
+                        if (item != null) {
+                            items.add(item);
+                        }
+                    }
+
+                    position = lineEnd + 1;
+                }
+
+                return items;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static int nextLine(MappedByteBuffer buffer, int position) {
+            while (position < buffer.limit() && buffer.get(position) != '\n') {
+                position++;
+            }
+
+            return position + 1;
+        }
+
+        private int lineEnd(MappedByteBuffer buffer, int position, long mapStart) {
+            int lineEnd = position;
+
+            while (lineEnd < buffer.limit() && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+
+            if (lineEnd == buffer.limit() && mapStart + lineEnd < fileSize) {
+                throw new IllegalArgumentException(String.format(
+                        "Catalog line at offset %d exceeds %d bytes", mapStart + position, MAX_LINE_LENGTH));
+            }
+
+            return lineEnd;
+        }
+
+        private static ItemEntity parseCsv(byte[] line, int length, long offset) {
+            List<String> fields = new ArrayList<>(5);
+            StringBuilder quoted = new StringBuilder();
+
+            int i = 0;
+            while (i <= length) {
+                if (i < length && line[i] == '"') {
+                    // Quoted field, up to the closing quote
+                    int fieldStart = ++i;
+                    quoted.setLength(0);
+
+                    while (true) {
+                        if (i >= length) {
+                            throw malformed(offset, "unterminated quoted field");
+                        }
+
+                        if (line[i] == '"') {
+                            quoted.append(new String(line, fieldStart, i - fieldStart, StandardCharsets.UTF_8));
+
+                            if (i + 1 < length && line[i + 1] == '"') {
+                                quoted.append('"');
+                                fieldStart = i += 2;
+                                continue;
+                            }
+
+                            i++;
+                            break;
+                        }
+
+                        i++;
+                    }
+
+                    if (i < length && line[i] != ',') {
+                        throw malformed(offset, "unexpected character after quoted field");
+                    }
+
+                    fields.add(quoted.toString());
+                } else {
+                    int fieldStart = i;
+
+                    while (i < length && line[i] != ',') {
+                        i++;
+                    }
+
+                    fields.add(new String(line, fieldStart, i - fieldStart, StandardCharsets.UTF_8));
+                }
+
+                // Skip the comma
+                i++;
+            }
+
+            if (offset == 0 && CSV_HEADER_ID.equalsIgnoreCase(fields.get(0).trim())) {
+                return null;
+            }
+
+            if (fields.size() != 3 && fields.size() != 5) {
+                throw malformed(offset, "expected id,description,category[,closesAt,reserve]");
+            }
+
+            return new ItemEntity(parseId(fields.get(0).trim(), offset), fields.get(1), emptyToNull(fields.get(2)),
+                    fields.size() == 3 ? null : parseClosesAt(fields.get(3).trim(), offset),
+                    fields.size() == 3 ? null : parseReserve(fields.get(4).trim(), offset));
+        }
+
+        private static ItemEntity parseJson(byte[] line, int length, long offset) throws IOException {
+            JsonNode node;
+
+            try {
+                node = JSON_READER.readTree(new String(line, 0, length, StandardCharsets.UTF_8));
+            } catch (JsonProcessingException e) {
+                throw malformed(offset, e.getOriginalMessage());
+            }
+
+            if (node == null || !node.isObject() || !node.hasNonNull("id")) {
+                throw malformed(offset, "expected an object with an id");
+            }
+
+            JsonNode id = node.get("id");
+
+            // A fractional or out of range number would otherwise be truncated to some other item's id
+            if (id.isNumber() && !(id.isIntegralNumber() && id.canConvertToLong())) {
+                throw malformed(offset, "invalid id : " + id.asText());
+            }
+
+            return new ItemEntity(
+                    id.isNumber() ? id.asLong() : parseId(id.asText(), offset),
+                    node.hasNonNull("description") ? node.get("description").asText() : null,
+                    node.hasNonNull("category") ? emptyToNull(node.get("category").asText()) : null,
+                    node.hasNonNull("closesAt") ? parseClosesAt(node.get("closesAt").asText(), offset) : null,
+                    node.hasNonNull("reserve") ? parseReserve(node.get("reserve").asText(), offset) : null);
+        }
+
+        private static Long parseId(String id, long offset) {
+            try {
+                return Long.valueOf(id);
+            } catch (NumberFormatException e) {
+                throw malformed(offset, "invalid id : " + id);
+            }
+        }
+
+        private static Instant parseClosesAt(String closesAt, long offset) {
+            try {
+                return closesAt.isEmpty() ? null : Instant.parse(closesAt);
+            } catch (DateTimeParseException e) {
+                throw malformed(offset, "invalid closing time : " + closesAt);
+            }
+        }
+
+        private static BigDecimal parseReserve(String reserve, long offset) {
+            try {
+                return reserve.isEmpty() ? null : new BigDecimal(reserve);
+            } catch (NumberFormatException e) {
+                throw malformed(offset, "invalid reserve : " + reserve);
+            }
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+
+        private static IllegalArgumentException malformed(long offset, String reason) {
+            return new IllegalArgumentException(String.format("Malformed catalog line at offset %d - %s",
+                    offset, reason));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.devxpress.auction.cluster;
+
+import com.devxpress.auction.configuration.ClusterProperties;
+import com.devxpress.auction.entity.BidEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP calls between cluster nodes. Every call is marked as forwarded so that the receiving node always
+ * serves it locally.
+ */
+@Component
+@ConditionalOnProperty(name = "auction.cluster.enabled", havingValue = "true")
+public class ClusterClient {
+
+    static final String FORWARDED_BY_HEADER = "X-Auction-Forwarded-By";
+    static final String LOCAL_USER_BIDS_PATH = "/cluster/v1/users/{user-id}/bids";
+
+    private final ClusterMembership membership;
+
+    // Forwarded responses are relayed as is, whatever their status
+    private final RestTemplate forwardingTemplate;
+    private final RestTemplate queryTemplate;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "cluster-client");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ClusterClient(ClusterMembership membership, ClusterProperties properties, RestTemplateBuilder builder) {
+        this.membership = membership;
+
+        RestTemplateBuilder timed = builder
+                .setConnectTimeout(properties.getRequestTimeout())
+                .setReadTimeout(properties.getRequestTimeout());
+
+        this.queryTemplate = timed.build();
+        this.forwardingTemplate = timed.errorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        }).build();
+    }
+
+    public ResponseEntity<byte[]> forward(String nodeId, HttpMethod method, String pathAndQuery,
+                                          HttpHeaders headers, byte[] body) {
+        HttpHeaders forwardHeaders = new HttpHeaders();
+        forwardHeaders.putAll(headers);
+        forwardHeaders.set(FORWARDED_BY_HEADER, membership.getSelfId());
+
+        URI uri = URI.create(membership.baseUrlOf(nodeId) + pathAndQuery);
+
+        return forwardingTemplate.exchange(uri, method, new HttpEntity<>(body, forwardHeaders), byte[].class);
+    }
+
+    public List<BidEntity> findLocalBidsByUser(String nodeId, String userId) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(membership.baseUrlOf(nodeId))
+                .path(LOCAL_USER_BIDS_PATH)
+                .buildAndExpand(userId)
+                .encode()
+                .toUri();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(FORWARDED_BY_HEADER, membership.getSelfId());
+
+        BidEntity[] bids = queryTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), BidEntity[].class)
+                .getBody();
+
+        return bids == null ? Collections.emptyList() : Arrays.asList(bids);
+    }
+
+    ExecutorService executor() {
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,27 @@
+package com.devxpress.auction.cluster;
+
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.repository.LocalBidRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Node to node endpoints, used for scatter-gather queries. Not part of the public API.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auction.cluster.enabled", havingValue = "true")
+public class ClusterController {
+
+    private final LocalBidRepository localBidRepository;
+
+    @GetMapping(value = ClusterClient.LOCAL_USER_BIDS_PATH, produces = "application/json")
+    public ResponseEntity<Iterable<BidEntity>> getLocalBidsForUser(@PathVariable("user-id") String userId) {
+        return new ResponseEntity<>(localBidRepository.findByUserId(userId), HttpStatus.OK);
+    }
+}
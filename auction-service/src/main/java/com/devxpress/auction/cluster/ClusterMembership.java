@@ -0,0 +1,86 @@
+package com.devxpress.auction.cluster;
+
+import com.devxpress.auction.configuration.ClusterProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Static cluster membership, read once at start up from configuration or the members file.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "auction.cluster.enabled", havingValue = "true")
+public class ClusterMembership {
+
+    private final String selfId;
+    private final Map<String, String> members;
+    private final ConsistentHashRing ring;
+
+    public ClusterMembership(ClusterProperties properties) {
+        this.members = Collections.unmodifiableMap(loadMembers(properties));
+        this.selfId = properties.getNodeId();
+
+        if (selfId == null || !members.containsKey(selfId)) {
+            throw new IllegalStateException(
+                    String.format("Cluster node id : %s, is not one of the members : %s", selfId, members.keySet()));
+        }
+
+        this.ring = new ConsistentHashRing(members.keySet(), properties.getVirtualNodes());
+
+        log.info("Cluster node : {}, joined members : {}", selfId, members);
+    }
+
+    public String getSelfId() {
+        return selfId;
+    }
+
+    public String ownerOf(long itemId) {
+        return ring.nodeFor(itemId);
+    }
+
+    public boolean isLocal(long itemId) {
+        return selfId.equals(ownerOf(itemId));
+    }
+
+    public String baseUrlOf(String nodeId) {
+        return members.get(nodeId);
+    }
+
+    public Map<String, String> peers() {
+        Map<String, String> peers = new LinkedHashMap<>(members);
+        peers.remove(selfId);
+        return peers;
+    }
+
+    private static Map<String, String> loadMembers(ClusterProperties properties) {
+        if (properties.getMembersFile() == null) {
+            return new LinkedHashMap<>(properties.getMembers());
+        }
+
+        Properties file = new Properties();
+
+        try (InputStream in = Files.newInputStream(Paths.get(properties.getMembersFile()))) {
+            file.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read cluster members file : " + properties.getMembersFile(), e);
+        }
+
+        // Sorted so that every node sees the members in the same order
+        Map<String, String> members = new TreeMap<>();
+        file.stringPropertyNames().forEach(id -> members.put(id, file.getProperty(id).trim()));
+
+        return members;
+    }
+}
@@ -0,0 +1,130 @@
+package com.devxpress.auction.cluster;
+
+import com.devxpress.auction.api.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.devxpress.auction.api.ApiErrorCode.RETRYABLE_ERROR;
+import static com.devxpress.auction.api.ApiErrorMessage.SYSTEM_ERROR_MSG;
+import static com.devxpress.auction.cluster.ClusterClient.FORWARDED_BY_HEADER;
+
+/**
+ * Forwards item scoped requests ({@code /v1/items/{item-id}/...}) to the node which owns the item.
+ * Requests already forwarded by another node are always served locally, so membership disagreement
+ * between nodes cannot cause a forwarding loop.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auction.cluster.enabled", havingValue = "true")
+public class ClusterRoutingFilter extends OncePerRequestFilter {
+
+    private static final Pattern ITEM_PATH = Pattern.compile("^/v1/items/(\\d{1,18})(/.*)?$");
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            HttpHeaders.CONNECTION.toLowerCase(),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.HOST.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.UPGRADE.toLowerCase())));
+
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Matcher matcher = ITEM_PATH.matcher(path);
+
+        if (!matcher.matches() || request.getHeader(FORWARDED_BY_HEADER) != null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String owner = membership.ownerOf(Long.parseLong(matcher.group(1)));
+
+        if (owner.equals(membership.getSelfId())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        forward(owner, path, request, response);
+    }
+
+    private void forward(String owner, String path, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        String pathAndQuery = request.getQueryString() == null ? path : path + "?" + request.getQueryString();
+
+        HttpHeaders headers = new HttpHeaders();
+        Collections.list(request.getHeaderNames()).stream()
+                .filter(name -> !HOP_BY_HOP_HEADERS.contains(name.toLowerCase()))
+                .forEach(name -> headers.put(name, Collections.list(request.getHeaders(name))));
+
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+
+        ResponseEntity<byte[]> forwarded;
+
+        try {
+            forwarded = clusterClient.forward(owner, HttpMethod.resolve(request.getMethod()), pathAndQuery,
+                    headers, body.length == 0 ? null : body);
+        } catch (RestClientException e) {
+            String msg = String.format("Failed to forward request : %s %s, to node : %s - %s",
+                    request.getMethod(), pathAndQuery, owner, e.getMessage());
+            log.error(msg);
+            writeUnavailable(response, msg);
+            return;
+        }
+
+        response.setStatus(forwarded.getStatusCodeValue());
+        forwarded.getHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+
+        if (forwarded.getBody() != null) {
+            response.setContentLength(forwarded.getBody().length);
+            response.getOutputStream().write(forwarded.getBody());
+        }
+    }
+
+    private void writeUnavailable(HttpServletResponse response, String contextDetail) throws IOException {
+        ApiError error = ApiError.ApiErrorBuilder
+                .createInstance(HttpStatus.SERVICE_UNAVAILABLE)
+                .withMessage(SYSTEM_ERROR_MSG)
+                .withCode(RETRYABLE_ERROR)
+                .withContextDetail(contextDetail)
+                .build();
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
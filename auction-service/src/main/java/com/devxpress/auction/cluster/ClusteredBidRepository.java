@@ -0,0 +1,96 @@
+package com.devxpress.auction.cluster;
+
+import com.devxpress.auction.api.BidResult;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
+import com.devxpress.auction.repository.BidRepository;
+import com.devxpress.auction.repository.LocalBidRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Bid repository for a clustered node. Item scoped requests are routed to the owning node before they reach
+ * this repository (see {@link ClusterRoutingFilter}) so they are served from the local partition, whereas
+ * bids by user are gathered from every node.
+ */
+@Primary
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auction.cluster.enabled", havingValue = "true")
+public class ClusteredBidRepository implements BidRepository {
+
+    private final LocalBidRepository localBidRepository;
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+
+    // Local partition only
+    @Override
+    public Iterable<BidEntity> findAll() {
+        return localBidRepository.findAll();
+    }
+
+    // Local partition only
+    @Override
+    public Iterable<Long> findItemIds() {
+        return localBidRepository.findItemIds();
+    }
+
+    @Override
+    public Iterable<BidEntity> findByItemId(long itemId) {
+        return localBidRepository.findByItemId(itemId);
+    }
+
+    @Override
+    public Iterable<BidEntity> findByItemId(long itemId, int limit) {
+        return localBidRepository.findByItemId(itemId, limit);
+    }
+
+    @Override
+    public Iterable<BidEntity> findByItemId(long itemId, Instant since, Instant until) {
+        return localBidRepository.findByItemId(itemId, since, until);
+    }
+
+    @Override
+    public BidEntity findHighestBefore(long itemId, Instant before) {
+        return localBidRepository.findHighestBefore(itemId, before);
+    }
+
+    @Override
+    public Iterable<BidEntity> findByUserId(String userId) {
+        List<CompletableFuture<List<BidEntity>>> peerBids = membership.peers().keySet().stream()
+                .map(nodeId -> CompletableFuture.supplyAsync(
+                        () -> clusterClient.findLocalBidsByUser(nodeId, userId), clusterClient.executor()))
+                .collect(Collectors.toList());
+
+        List<BidEntity> bids = new ArrayList<>();
+        localBidRepository.findByUserId(userId).forEach(bids::add);
+
+        // A node which cannot be reached fails the whole query rather than returning a partial result
+        peerBids.forEach(f -> bids.addAll(f.join()));
+
+        return bids;
+    }
+
+    @Override
+    public BidResult<BidEntity> save(BidEntity bid, Instant closesAt) {
+        return localBidRepository.save(bid, closesAt);
+    }
+
+    @Override
+    public BidResult<BidEntity> saveProxy(ProxyBidEntity proxyBid, Instant closesAt) {
+        return localBidRepository.saveProxy(proxyBid, closesAt);
+    }
+
+    @Override
+    public boolean applyAccepted(BidEntity bid) {
+        return localBidRepository.applyAccepted(bid);
+    }
+}
@@ -0,0 +1,55 @@
+package com.devxpress.auction.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maps item ids to node ids. Each node is placed on the ring at a number of pseudo-random points so that adding
+ * or removing a node only moves the items adjacent to its points.
+ */
+public final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        if (nodeIds.isEmpty()) {
+            throw new IllegalArgumentException("Consistent hash ring requires at least one node");
+        }
+
+        for (String nodeId : nodeIds) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+    }
+
+    public String nodeFor(long itemId) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(mix(itemId));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    // 64 bit FNV-1a, finished with the same mix as item ids for an even spread of points
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+
+        return mix(h);
+    }
+
+    // MurmurHash3 64 bit finaliser
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
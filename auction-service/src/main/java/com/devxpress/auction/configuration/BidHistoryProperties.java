@@ -0,0 +1,30 @@
+package com.devxpress.auction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Per-item bid history. The most recent bids for each item are held on-heap (the hot tier) and older bids are
+ * spilled, a segment at a time, to compressed files which are read back only when the history is iterated.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.bid.history")
+public class BidHistoryProperties {
+
+    // Minimum number of bids per item held on-heap, 0 to hold all bids on-heap and never spill
+    private int hotBidsPerItem = 10_000;
+
+    // Number of bids written to each spill segment
+    private int segmentSize = 1_000;
+
+    // Directory for spill segments, a temporary directory is created (and removed on shutdown) if not set
+    private String spillDirectory;
+
+    // Wait before a segment which failed to spill is written again, being held on-heap until written
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+}
@@ -0,0 +1,93 @@
+package com.devxpress.auction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Where accepted bids are held. The default keeps bid objects on the heap, whereas off-heap storage keeps them as
+ * fixed width records in direct memory, materialising objects only when bids are read, and embedded storage keeps
+ * them durably in an embedded (H2) database.
+ * <p>
+ * Durable storage can be fronted by a write-behind cache, which accepts bids in memory and writes them to storage
+ * afterwards, see {@code WriteBehindBidRepository}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.bid.storage")
+public class BidStorageProperties {
+
+    public enum Type {
+        MEMORY,
+        OFF_HEAP,
+        EMBEDDED
+    }
+
+    private Type type = Type.MEMORY;
+
+    private OffHeap offHeap = new OffHeap();
+
+    private Embedded embedded = new Embedded();
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    @Data
+    public static class OffHeap {
+
+        // Direct memory is allocated in chunks of this size, as bids arrive
+        private DataSize chunkSize = DataSize.ofMegabytes(64);
+
+        // Upper bound on direct memory used for bids, beyond which bids are refused
+        private DataSize maxSize = DataSize.ofGigabytes(8);
+
+    }
+
+    @Data
+    public static class Embedded {
+
+        // JDBC URL of the database, created (with its schema) if it does not exist
+        private String url = "jdbc:h2:file:./data/bids";
+
+        private String username = "sa";
+
+        private String password = "";
+
+        // Connections shared by reads, writes having a connection of their own
+        private int readConnections = 4;
+
+        // Most writes committed in a single transaction
+        private int maxBatchSize = 256;
+
+    }
+
+    @Data
+    public static class WriteBehind {
+
+        private boolean enabled = false;
+
+        // Items are partitioned across this many writers, each writing its items' bids in the order accepted
+        private int writerThreads = 4;
+
+        // Bids accepted but not yet written, per writer, beyond which bidding blocks until the writer catches up
+        private int queueCapacity = 16384;
+
+        // Most bids written to storage at once
+        private int maxBatchSize = 256;
+
+        // Most recent bids held in memory per item (bids not yet written are always held)
+        private int recentBidsPerItem = 50;
+
+        // Wait before a failed write is tried again
+        private Duration retryDelay = Duration.ofSeconds(1);
+
+        // Failed writes tried again before bids on the writer's items are refused, until it writes again
+        private int maxRetries = 5;
+
+        // Most items held in memory, beyond which those held longest are evicted once written
+        private int maxCachedItems = 100_000;
+
+    }
+}
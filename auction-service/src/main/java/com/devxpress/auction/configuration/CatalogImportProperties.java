@@ -0,0 +1,34 @@
+package com.devxpress.auction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bulk import of the item catalog from a CSV ({@code id,description,category[,closesAt,reserve]}) or NDJSON file,
+ * replacing the current catalog once the whole file has been parsed.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.catalog")
+public class CatalogImportProperties {
+
+    public enum Format {
+        // By file extension : .csv, otherwise NDJSON
+        AUTO,
+        CSV,
+        NDJSON
+    }
+
+    // Imported at startup and on each scheduled import, if set
+    private String importFile;
+
+    private Format format = Format.AUTO;
+
+    // Spring cron expression for re-importing the file, "-" to import only at startup
+    private String importCron = "-";
+
+    // Threads used to parse the file
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+}
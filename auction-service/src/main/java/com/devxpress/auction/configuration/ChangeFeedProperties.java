@@ -0,0 +1,58 @@
+package com.devxpress.auction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Feed of accepted bids in global sequence order. The most recent changes are served from an in-memory ring, and
+ * older changes from a journal of segment files, until the journal's oldest segments are dropped.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.bid.changes")
+public class ChangeFeedProperties {
+
+    // Most recent changes held in memory. Bid acceptance waits if the journal falls this far behind.
+    private int ringCapacity = 65_536;
+
+    // Upper bound on the changes returned by one request
+    private int maxLimit = 1_000;
+
+    private Journal journal = new Journal();
+
+    /**
+     * When a submitted bid is acknowledged, relative to its change being journalled.
+     */
+    public enum Durability {
+        // Once accepted in memory, the change being journalled in the background
+        MEMORY,
+        // Once written to the journal file, so surviving a process crash but not an OS crash
+        PAGE_CACHE,
+        // Once forced to disk, bids accepted concurrently sharing each force
+        FSYNC
+    }
+
+    @Data
+    public static class Journal {
+
+        // Directory for journal segments, a temporary directory is created (and removed on shutdown) if not set.
+        // Sequence numbers continue from the journal found in this directory at startup.
+        private String directory;
+
+        // Changes written to each segment file
+        private int segmentSize = 100_000;
+
+        // Segments retained, the oldest being deleted as each new segment is started, or 0 to retain every segment.
+        // Only retained changes are replayed into the bid repository at startup.
+        private int retainedSegments = 64;
+
+        private Durability durability = Durability.MEMORY;
+
+        // How often the journal is written when idle, so that changes are batched into fewer writes
+        private Duration flushInterval = Duration.ofMillis(10);
+
+    }
+}
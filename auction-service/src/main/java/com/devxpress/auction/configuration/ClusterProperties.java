@@ -0,0 +1,36 @@
+package com.devxpress.auction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Item-partitioned cluster membership. Members are listed either here, as node id to base URL, or in a
+ * properties file of the same form.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.cluster")
+public class ClusterProperties {
+
+    private boolean enabled = false;
+
+    // Identifier of this node, which must be one of the members
+    private String nodeId;
+
+    // Node id -> base URL, e.g. node-a=http://localhost:8081
+    private Map<String, String> members = new LinkedHashMap<>();
+
+    // Alternative to 'members' : path of a properties file mapping node id -> base URL
+    private String membersFile;
+
+    // Points per node on the consistent hash ring
+    private int virtualNodes = 128;
+
+    private Duration requestTimeout = Duration.ofSeconds(5);
+
+}
@@ -0,0 +1,22 @@
+package com.devxpress.auction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Dedupe cache for bid submissions carrying an {@code Idempotency-Key} header.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.bid.idempotency")
+public class IdempotencyProperties {
+
+    private int maxEntries = 100_000;
+
+    // How long a key is remembered (and its outcome replayed) after first use
+    private Duration ttl = Duration.ofMinutes(10);
+
+}
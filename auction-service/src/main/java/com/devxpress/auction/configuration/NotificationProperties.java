@@ -0,0 +1,50 @@
+package com.devxpress.auction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Notifications to users whose leading bid has been outbid. Events are gathered per user, then delivered in batches
+ * to the configured sink, in the background.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.notification")
+public class NotificationProperties {
+
+    public enum Sink {
+        // Most recent notifications retained in memory
+        MEMORY,
+        // Notifications appended to a file, one JSON object per line
+        FILE
+    }
+
+    private boolean enabled = true;
+
+    private Sink sink = Sink.MEMORY;
+
+    // File appended to by the file sink
+    private String file;
+
+    // Notifications retained by the memory sink
+    private int retained = 1_000;
+
+    // Wait between deliveries, during which a user's events are gathered into a single notification
+    private Duration batchInterval = Duration.ofSeconds(1);
+
+    // Most notifications passed to the sink at once
+    private int maxBatchSize = 500;
+
+    // Users with notifications awaiting delivery, beyond which further users' events are dropped
+    private int maxPendingUsers = 100_000;
+
+    // Events awaiting delivery per user (one per item, the latest), beyond which the oldest is dropped
+    private int maxEventsPerUser = 20;
+
+    // Bids submitted longer ago than this, e.g. replayed at startup, do not notify
+    private Duration maxEventAge = Duration.ofMinutes(1);
+
+}
@@ -0,0 +1,20 @@
+package com.devxpress.auction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Proxy (maximum) bidding, where the bid placed on a user's behalf rises by the increment each time they are
+ * outbid, up to their maximum.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.bid.proxy")
+public class ProxyBidProperties {
+
+    private BigDecimal increment = new BigDecimal("1.00");
+
+}
@@ -0,0 +1,51 @@
+package com.devxpress.auction.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-user admission control for bid submission. Each user is assigned a tier (the default tier unless listed in
+ * {@code user-tiers}) and each tier defines the token bucket used to limit that user's bids.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.bid.rate-limit")
+public class RateLimitProperties {
+
+    public static final String DEFAULT_TIER = "standard";
+
+    private boolean enabled = true;
+
+    // Upper bound on the number of users tracked at any one time, beyond which new users are refused until one is idle
+    private int maxTrackedUsers = 100_000;
+
+    private String defaultTier = DEFAULT_TIER;
+
+    private Map<String, Tier> tiers = new HashMap<>();
+
+    // User id -> tier name
+    private Map<String, String> userTiers = new HashMap<>();
+
+    public RateLimitProperties() {
+        tiers.put(DEFAULT_TIER, new Tier(20, 10.0));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tier {
+
+        // Maximum burst of bids
+        private int capacity;
+
+        // Sustained bid rate
+        private double refillPerSecond;
+
+    }
+}
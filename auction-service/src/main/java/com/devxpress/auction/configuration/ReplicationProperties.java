@@ -0,0 +1,38 @@
+package com.devxpress.auction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Log-shipping read replicas. A primary streams every accepted bid over a local socket to each connected
+ * replica, and a replica applies them to its own repository and serves only reads.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.replication")
+public class ReplicationProperties {
+
+    public enum Role {
+        NONE,
+        PRIMARY,
+        REPLICA
+    }
+
+    private Role role = Role.NONE;
+
+    // Primary : address and port on which replicas are accepted. Replica : address and port of the primary.
+    private String host = "127.0.0.1";
+    private int port = 7470;
+
+    // Sent by the primary when it has nothing else to send, so that replica lag stays current when idle
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+
+    // Bids buffered per replica. A replica which falls this far behind is disconnected, and re-synchronises.
+    private int replicaQueueCapacity = 100_000;
+
+    private Duration reconnectDelay = Duration.ofSeconds(1);
+
+}
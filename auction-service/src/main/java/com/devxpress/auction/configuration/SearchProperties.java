@@ -0,0 +1,29 @@
+package com.devxpress.auction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Full-text search over item descriptions. Matching items are ranked by the number of bids they have received
+ * within the activity window, which is counted by the trending items view and so is capped at its max-window.
+ * <p>
+ * A query's last term is also matched as a prefix of longer terms once it has min-prefix-length characters, unless
+ * it is the prefix of more than max-prefix-terms terms, in which case it is matched as a whole term only.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.search")
+public class SearchProperties {
+
+    private Duration activityWindow = Duration.ofMinutes(15);
+
+    private int maxLimit = 100;
+
+    private int minPrefixLength = 2;
+
+    private int maxPrefixTerms = 1_000;
+
+}
@@ -0,0 +1,28 @@
+package com.devxpress.auction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settlement of auctions once they close, determining each item's winner against its reserve. Items closed since
+ * the last settlement are settled in parallel, and written to a settlement report.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.settlement")
+public class SettlementProperties {
+
+    private boolean enabled = true;
+
+    // Spring cron expression for settling the items closed since the last settlement, "-" to never settle
+    private String cron = "*/5 * * * * *";
+
+    // Threads used to settle items
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // Directory for settlement reports, from which settlement also resumes at startup. If not set, reports are only
+    // logged, and every closed item is settled again after a restart.
+    private String reportDirectory;
+
+}
@@ -0,0 +1,25 @@
+package com.devxpress.auction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Trending items, ranked by bid activity over a sliding window. Activity is counted in fixed duration buckets,
+ * so windows are measured in whole buckets.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auction.trending")
+public class TrendingProperties {
+
+    private Duration bucketDuration = Duration.ofSeconds(10);
+
+    // Longest window which may be requested, which is also how long an item's activity is retained
+    private Duration maxWindow = Duration.ofHours(1);
+
+    private int maxLimit = 500;
+
+}
@@ -1,16 +1,25 @@
 package com.devxpress.auction.controller;
 
 import com.devxpress.auction.api.ApiError;
+import com.devxpress.auction.api.BidResult;
 import com.devxpress.auction.api.exception.BaseException;
-import com.devxpress.auction.api.exception.InvalidResourceException;
 import com.devxpress.auction.api.exception.ResourceCrudException;
 import com.devxpress.auction.api.exception.ResourceNotFoundException;
+import com.devxpress.auction.api.exception.StaleResourceException;
 import com.devxpress.auction.api.v1.model.Bid;
+import com.devxpress.auction.api.v1.model.BidChanges;
 import com.devxpress.auction.api.v1.model.BidDetail;
 import com.devxpress.auction.api.v1.model.Item;
+import com.devxpress.auction.api.v1.model.ItemBids;
+import com.devxpress.auction.api.v1.model.ItemStats;
+import com.devxpress.auction.api.v1.model.ProxyBid;
+import com.devxpress.auction.api.v1.model.TrendingItem;
+import com.devxpress.auction.feed.BidExportFormat;
+import com.devxpress.auction.service.BidRateLimiter;
 import com.devxpress.auction.service.BidService;
 import com.devxpress.auction.service.ItemService;
 import com.devxpress.auction.utils.ControllerUtils;
+import com.devxpress.auction.view.TrendingItemsView;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -18,28 +27,41 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import static com.devxpress.auction.api.ApiErrorCode.UNEXPECTED_ERROR;
 import static com.devxpress.auction.api.ApiErrorMessage.INVALID_RESOURCE_MSG;
+import static com.devxpress.auction.api.ApiErrorMessage.MISSING_OR_INVALID_ARGUMENT_MSG;
+import static com.devxpress.auction.api.ApiErrorMessage.RATE_LIMIT_EXCEEDED_MSG;
 import static com.devxpress.auction.api.ApiErrorMessage.RESOURCE_NOT_FOUND_MSG;
 import static com.devxpress.auction.api.ApiErrorMessage.RESOURCE_OPERATION_ERROR_MSG;
 import static com.devxpress.auction.api.ApiErrorMessage.SYSTEM_ERROR_MSG;
+import static com.devxpress.auction.controller.ControllerExceptionHandler.invalidResourceResponse;
+import static com.devxpress.auction.controller.ControllerExceptionHandler.tooManyRequestsResponse;
 import static com.devxpress.auction.utils.ExceptionUtils.getMessage;
 
 @RestController
@@ -56,11 +78,27 @@ public class AuctionController {
     static final String EMPTY_USER_ID = "User id must be specified";
     static final String EMPTY_AMOUNT = "Amount must be specified";
     static final String INVALID_AMOUNT = "Amount must be greater than zero";
+    static final String BID_RATE_EXCEEDED = "Too many bids submitted by user : %s";
+    static final String PROXY_BID_CREATION_FAILED = "Failed to create proxy bid : ";
+    static final String EMPTY_MAX_AMOUNT = "Maximum amount must be specified";
+    static final String INVALID_MAX_AMOUNT = "Maximum amount must be greater than zero";
+    static final String INVALID_TIMESTAMP = "Timestamp : %s, is neither an ISO instant nor an ISO local date/time";
+    static final String INVALID_TRENDING_QUERY = "Invalid trending window : %s, or ranking : %s";
+    static final String INVALID_EXPORT_FORMAT = "Export format : %s, is neither ndjson nor binary";
+
+    static final String DEFAULT_TRENDING_WINDOW = "5m";
+    static final String DEFAULT_TRENDING_LIMIT = "50";
+    static final String DEFAULT_CHANGES_LIMIT = "100";
+    static final String DEFAULT_SEARCH_LIMIT = "20";
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     private static final String BID_CREATED = "Successfully submitted a bid";
+    private static final String PROXY_BID_CREATED = "Successfully submitted a proxy bid, which now leads";
 
     private final ItemService itemService;
     private final BidService bidService;
+    private final BidRateLimiter bidRateLimiter;
 
     // Example URL:
     //      http://localhost:8080/v1/items
@@ -106,34 +144,133 @@ public class AuctionController {
     }
 
     // Example URL:
+    //      http://localhost:8080/v1/items/trending?window=5m&by=bids&limit=50
+    @GetMapping(value = "/v1/items/trending", produces = "application/json")
+    @ApiOperation(value = "Return the trending auction items",
+            notes = "Rank auction items by the number of bids (by=bids), or the rise in their highest bid (by=price), "
+                    + "within a recent window. Each node ranks the bids it holds.",
+            response = TrendingItem.class,
+            responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful retrieval of trending items",
+                    response = TrendingItem.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = MISSING_OR_INVALID_ARGUMENT_MSG, response = ApiError.class),
+            @ApiResponse(code = 500, message = SYSTEM_ERROR_MSG, response = ApiError.class)
+    })
+    public ResponseEntity<List<TrendingItem>> getTrendingItems(
+            @ApiParam(value = "Window, e.g. 30s, 5m or 1h")
+            @RequestParam(value = "window", defaultValue = DEFAULT_TRENDING_WINDOW) String window,
+            @ApiParam(value = "Ranking, by bid count (bids) or price rise (price)")
+            @RequestParam(value = "by", defaultValue = "bids") String by,
+            @ApiParam(value = "Maximum number of items")
+            @RequestParam(value = "limit", defaultValue = DEFAULT_TRENDING_LIMIT) int limit) {
+
+        log.info("Retrieving up to {} trending auction item(s) by {} over {}", limit, by, window);
+
+        Duration windowDuration;
+        TrendingItemsView.Metric metric;
+
+        try {
+            windowDuration = DurationStyle.detectAndParse(window);
+            metric = TrendingItemsView.Metric.valueOf(by.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(INVALID_TRENDING_QUERY, window, by));
+        }
+
+        try {
+            List<TrendingItem> items = itemService.getTrendingItems(windowDuration, metric, limit);
+
+            log.info("Retrieved {} trending auction item(s)", items.size());
+            return new ResponseEntity<>(items, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.error(getMessage(e));
+            throw e;
+        } catch (Exception e) {
+            String msg = String.format("Failed to retrieve trending auction items - %s", getMessage(e));
+            log.error(msg);
+            throw new BaseException(msg, UNEXPECTED_ERROR);
+        }
+    }
+
+    // Example URL:
+    //      http://localhost:8080/v1/items/search?q=magnificent+it&limit=20
+    @GetMapping(value = "/v1/items/search", produces = "application/json")
+    @ApiOperation(value = "Search auction items by description",
+            notes = "Return the auction items whose description contains every word of the query, ignoring case and "
+                    + "accents, where the last word also matches longer words it begins (unless the query ends with "
+                    + "a space). Items with the most recent bids come first. Each node ranks by the bids it holds.",
+            response = Item.class,
+            responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful search of auction items",
+                    response = Item.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = MISSING_OR_INVALID_ARGUMENT_MSG, response = ApiError.class),
+            @ApiResponse(code = 500, message = SYSTEM_ERROR_MSG, response = ApiError.class)
+    })
+    public ResponseEntity<List<Item>> searchItems(
+            @ApiParam(value = "Words to search for", required = true)
+            @RequestParam(value = "q") String query,
+            @ApiParam(value = "Maximum number of items")
+            @RequestParam(value = "limit", defaultValue = DEFAULT_SEARCH_LIMIT) int limit) {
+
+        log.info("Searching for up to {} auction item(s) matching : {}", limit, query);
+
+        try {
+            List<Item> items = itemService.searchItems(query, limit);
+
+            log.info("Found {} auction item(s) matching : {}", items.size(), query);
+            return new ResponseEntity<>(items, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.error(getMessage(e));
+            throw e;
+        } catch (Exception e) {
+            String msg = String.format("Failed to search for auction items matching : %s - %s", query, getMessage(e));
+            log.error(msg);
+            throw new BaseException(msg, UNEXPECTED_ERROR);
+        }
+    }
+
+    // Example URLs:
     //      http://localhost:8080/v1/items/4/bids
+    //      http://localhost:8080/v1/items/4/bids?since=2020-02-01T12:00:00.123456789
     @GetMapping(value = "/v1/items/{item-id}/bids", produces = "application/json")
     @ApiOperation(value = "Return all bids for an auction item",
-            notes = "Retrieve all bids for a specified auction item",
+            notes = "Retrieve all bids for a specified auction item, newest first, optionally only those submitted "
+                    + "after since and up to until. Passing the newest createdDateTime already seen as since "
+                    + "returns only the bids submitted after it.",
             response = BidDetail.class,
             responseContainer = "List")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successful retrieval of item bids",
                     response = BidDetail.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = MISSING_OR_INVALID_ARGUMENT_MSG, response = ApiError.class),
             @ApiResponse(code = 404, message = RESOURCE_NOT_FOUND_MSG, response = ApiError.class),
             @ApiResponse(code = 500, message = SYSTEM_ERROR_MSG, response = ApiError.class)
     })
-    public ResponseEntity<List<BidDetail>> getAllBidsForItem(
+    public ResponseEntity<ItemBids> getAllBidsForItem(
             @ApiParam(value = "Item identifier", required = true)
-            @PathVariable("item-id") String itemIdStr) {
+            @PathVariable("item-id") String itemIdStr,
+            @ApiParam(value = "Only bids submitted after this time (exclusive), as an ISO instant or a local "
+                    + "date/time as written for createdDateTime")
+            @RequestParam(value = "since", required = false) String sinceStr,
+            @ApiParam(value = "Only bids submitted at or before this time (inclusive), in the same formats as since")
+            @RequestParam(value = "until", required = false) String untilStr) {
 
         Long itemId = ControllerUtils.convertStringToResourceId(itemIdStr, EMPTY_ITEM_ID,
                 String.format(INVALID_ITEM_ID_FORMAT, itemIdStr));
 
+        Instant since = ControllerUtils.convertStringToInstant(sinceStr, String.format(INVALID_TIMESTAMP, sinceStr));
+        Instant until = ControllerUtils.convertStringToInstant(untilStr, String.format(INVALID_TIMESTAMP, untilStr));
+
         log.info(String.format("Retrieving all bids on auction item with id : %s", itemId));
 
         Item item = itemService.getItem(itemId);
 
         try {
-            List<BidDetail> bids = bidService.getBidsForItem(itemId);
-            bids.forEach(b -> b.setItemDescription(item.getDescription()));
+            // Bids are written straight from the bid store as the response is serialized
+            ItemBids bids = bidService.getItemBids(itemId, item.getDescription(), since, until);
 
-            log.info(String.format("Retrieved %s bid(s) on auction item with id : %s", bids.size(), itemId));
+            log.info(String.format("Retrieved bid(s) on auction item with id : %s", itemId));
             return new ResponseEntity<>(bids, HttpStatus.OK);
         } catch (Exception e) {
             String msg = String.format("Failed to retrieve bid(s) on auction item with id : %s - %s",
@@ -186,6 +323,212 @@ public class AuctionController {
         }
     }
 
+    // Example URL:
+    //      http://localhost:8080/v1/items/4/stats
+    @GetMapping(value = "/v1/items/{item-id}/stats", produces = "application/json")
+    @ApiOperation(value = "Return bid statistics for an auction item",
+            notes = "Retrieve the number of bids and bidders, opening and current price, and time of the latest bid "
+                    + "for a specified auction item",
+            response = ItemStats.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful retrieval of item statistics",
+                    response = ItemStats.class),
+            @ApiResponse(code = 404, message = RESOURCE_NOT_FOUND_MSG, response = ApiError.class),
+            @ApiResponse(code = 500, message = SYSTEM_ERROR_MSG, response = ApiError.class)
+    })
+    public ResponseEntity<ItemStats> getStatsForItem(
+            @ApiParam(value = "Item identifier", required = true)
+            @PathVariable("item-id") String itemIdStr) {
+
+        Long itemId = ControllerUtils.convertStringToResourceId(itemIdStr, EMPTY_ITEM_ID,
+                String.format(INVALID_ITEM_ID_FORMAT, itemIdStr));
+
+        log.info("Retrieving statistics for auction item with id : {}", itemId);
+
+        Item item = itemService.getItem(itemId);
+
+        try {
+            ItemStats stats = bidService.getItemStats(itemId);
+            stats.setItemDescription(item.getDescription());
+
+            log.info("Retrieved statistics for auction item with id : {}", itemId);
+            return new ResponseEntity<>(stats, HttpStatus.OK);
+        } catch (Exception e) {
+            String msg = String.format("Failed to retrieve statistics for auction item with id : %s - %s",
+                    itemId, getMessage(e));
+            log.error(msg);
+            throw new BaseException(msg, UNEXPECTED_ERROR);
+        }
+    }
+
+    // Example URL:
+    //      http://localhost:8080/v1/users/bob/bids/highest
+    @GetMapping(value = "/v1/users/{user-id}/bids/highest", produces = "application/json")
+    @ApiOperation(value = "Return a user's highest bid on each item they have bid on",
+            notes = "Retrieve the highest bid by a specified user on each auction item",
+            response = BidDetail.class,
+            responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful retrieval of user's highest bids",
+                    response = BidDetail.class, responseContainer = "List"),
+            @ApiResponse(code = 500, message = SYSTEM_ERROR_MSG, response = ApiError.class)
+    })
+    public ResponseEntity<List<BidDetail>> getHighestBidsForUser(
+            @ApiParam(value = "User identifier", required = true)
+            @PathVariable("user-id") String userId) {
+
+        log.info("Retrieving highest bid(s) on each auction item by user : {}", userId);
+
+        try {
+            List<BidDetail> bids = bidService.getHighestBidsForUser(userId);
+            bids.forEach(b -> b.setItemDescription(itemService.getItem(b.getItemId()).getDescription()));
+
+            log.info("Retrieved {} highest bid(s) by user : {}", bids.size(), userId);
+            return new ResponseEntity<>(bids, HttpStatus.OK);
+        } catch (Exception e) {
+            String msg = String.format("Failed to retrieve highest bid(s) by user : %s - %s", userId, getMessage(e));
+            log.error(msg);
+            throw new BaseException(msg, UNEXPECTED_ERROR);
+        }
+    }
+
+    // Example URL:
+    //      http://localhost:8080/v1/users/bob/bids/winning
+    @GetMapping(value = "/v1/users/{user-id}/bids/winning", produces = "application/json")
+    @ApiOperation(value = "Return a user's currently winning bids",
+            notes = "Retrieve the bids by a specified user which are currently winning their auction item",
+            response = BidDetail.class,
+            responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful retrieval of user's winning bids",
+                    response = BidDetail.class, responseContainer = "List"),
+            @ApiResponse(code = 500, message = SYSTEM_ERROR_MSG, response = ApiError.class)
+    })
+    public ResponseEntity<List<BidDetail>> getWinningBidsForUser(
+            @ApiParam(value = "User identifier", required = true)
+            @PathVariable("user-id") String userId) {
+
+        log.info("Retrieving winning bid(s) by user : {}", userId);
+
+        try {
+            List<BidDetail> bids = bidService.getWinningBidsForUser(userId);
+            bids.forEach(b -> b.setItemDescription(itemService.getItem(b.getItemId()).getDescription()));
+
+            log.info("Retrieved {} winning bid(s) by user : {}", bids.size(), userId);
+            return new ResponseEntity<>(bids, HttpStatus.OK);
+        } catch (Exception e) {
+            String msg = String.format("Failed to retrieve winning bid(s) by user : %s - %s", userId, getMessage(e));
+            log.error(msg);
+            throw new BaseException(msg, UNEXPECTED_ERROR);
+        }
+    }
+
+    // Example URL:
+    //      http://localhost:8080/v1/bids/changes?after-seq=1200&limit=500
+    @GetMapping(value = "/v1/bids/changes", produces = "application/json")
+    @ApiOperation(value = "Return the bids accepted after a sequence number",
+            notes = "Follow the feed of accepted bids, in the order they were accepted, by requesting the changes "
+                    + "after the lastSequence of the previous response (0 to start from the oldest retained). "
+                    + "Each node has its own feed.",
+            response = BidChanges.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful retrieval of bid changes", response = BidChanges.class),
+            @ApiResponse(code = 400, message = MISSING_OR_INVALID_ARGUMENT_MSG, response = ApiError.class),
+            @ApiResponse(code = 422, message = INVALID_RESOURCE_MSG + " : changes no longer retained",
+                    response = ApiError.class),
+            @ApiResponse(code = 500, message = SYSTEM_ERROR_MSG, response = ApiError.class)
+    })
+    public ResponseEntity<BidChanges> getBidChanges(
+            @ApiParam(value = "Sequence after which to return changes")
+            @RequestParam(value = "after-seq", defaultValue = "0") long afterSequence,
+            @ApiParam(value = "Maximum number of changes")
+            @RequestParam(value = "limit", defaultValue = DEFAULT_CHANGES_LIMIT) int limit) {
+
+        log.info("Retrieving up to {} bid changes after sequence : {}", limit, afterSequence);
+
+        try {
+            BidChanges changes = bidService.getBidChanges(afterSequence, limit);
+
+            log.info("Retrieved {} bid changes after sequence : {}", changes.getChanges().size(), afterSequence);
+            return new ResponseEntity<>(changes, HttpStatus.OK);
+        } catch (IllegalArgumentException | StaleResourceException e) {
+            log.error(getMessage(e));
+            throw e;
+        } catch (Exception e) {
+            String msg = String.format("Failed to retrieve bid changes after sequence : %s - %s",
+                    afterSequence, getMessage(e));
+            log.error(msg);
+            throw new BaseException(msg, UNEXPECTED_ERROR);
+        }
+    }
+
+    // Example URL:
+    //      http://localhost:8080/v1/bids/export?format=binary
+    @GetMapping(value = "/v1/bids/export")
+    @ApiOperation(value = "Export every bid",
+            notes = "Stream every bid held by this node, as lines of JSON in the form of a bid change (ndjson), or "
+                    + "as binary bid change journal records (binary). Where the journal holds every bid, bids are "
+                    + "exported in the order they were accepted, with their sequence, otherwise with a sequence of 0. "
+                    + "The export is gzip encoded if the request accepts it. Should the export fail once begun, the "
+                    + "connection is closed without completing the response.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful export of bids"),
+            @ApiResponse(code = 400, message = MISSING_OR_INVALID_ARGUMENT_MSG, response = ApiError.class),
+            @ApiResponse(code = 500, message = SYSTEM_ERROR_MSG, response = ApiError.class)
+    })
+    public void exportBids(
+            @ApiParam(value = "Export format, ndjson or binary")
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+
+        log.info("Exporting bids as : {}", format);
+
+        try {
+            BidExportFormat exportFormat;
+
+            try {
+                exportFormat = BidExportFormat.of(format);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format(INVALID_EXPORT_FORMAT, format));
+            }
+
+            boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+            response.setContentType(exportFormat.getContentType());
+
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+
+            OutputStream out = gzip ?
+                    new GZIPOutputStream(response.getOutputStream(), 64 * 1024) : response.getOutputStream();
+            boolean fromJournal = bidService.exportBids(exportFormat, out);
+
+            // Closing the gzip stream writes its trailer, which also closes the response, so only once every bid
+            // has been written
+            out.close();
+
+            log.info("Exported bids as : {}, from the {}", format, fromJournal ? "journal" : "bid storage");
+        } catch (IllegalArgumentException e) {
+            log.error(getMessage(e));
+            throw e;
+        } catch (Exception e) {
+            String msg = String.format("Failed to export bids as : %s - %s", format, getMessage(e));
+            log.error(msg);
+
+            // Once part of the export has been sent, the connection is closed rather than the response ended, so that
+            // the client cannot take what it has read for every bid. Thrown without a cause, as one would be
+            // reported by the exception handlers, ending the response.
+            if (response.isCommitted()) {
+                throw new IOException(msg);
+            }
+
+            response.reset();
+            throw new BaseException(msg, UNEXPECTED_ERROR);
+        }
+    }
+
     @PostMapping(value = "/v1/items/{item-id}/bids", consumes = "application/json", produces = "application/json")
     @ApiOperation(value = "Create a new bid",
             notes = "Submit a new bid for an item",
@@ -194,11 +537,16 @@ public class AuctionController {
             @ApiResponse(code = 201, message = BID_CREATED, response = BidDetail.class),
             @ApiResponse(code = 409, message = RESOURCE_OPERATION_ERROR_MSG, response = ApiError.class),
             @ApiResponse(code = 422, message = INVALID_RESOURCE_MSG, response = ApiError.class),
-            @ApiResponse(code = 500, message = SYSTEM_ERROR_MSG, response = ApiError.class)
+            @ApiResponse(code = 429, message = RATE_LIMIT_EXCEEDED_MSG, response = ApiError.class),
+            @ApiResponse(code = 500, message = SYSTEM_ERROR_MSG, response = ApiError.class),
+            @ApiResponse(code = 503, message = SYSTEM_ERROR_MSG, response = ApiError.class)
     })
-    public ResponseEntity<BidDetail> createBid(
+    public ResponseEntity<?> createBid(
             @ApiParam(value = "Item identifier", required = true)
             @PathVariable("item-id") String itemIdStr,
+            @ApiParam(value = "Client generated key, unique per user, which makes retrying the request safe. "
+                    + "Reused for a different bid, the request is invalid")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody Bid bid) {
 
         Long itemId = ControllerUtils.convertStringToResourceId(itemIdStr, EMPTY_ITEM_ID,
@@ -210,45 +558,124 @@ public class AuctionController {
             throw new IllegalArgumentException(ITEM_ID_MISMATCH);
         }
 
+        if (!bidRateLimiter.tryAcquire(bid.getUserId())) {
+            log.warn("Rate limited bid on item : {}, for user : {}", bid.getItemId(), bid.getUserId());
+            return tooManyRequestsResponse(String.format(BID_RATE_EXCEEDED, bid.getUserId()));
+        }
+
         Item item = itemService.getItem(itemId);
 
         List<String> errors = validateBid(bid);
 
         if (!errors.isEmpty()) {
-            String msg = String.format(
-                    "Invalid bid on item : %s, for user : %s", bid.getItemId(), bid.getUserId());
-            log.error(msg);
-            InvalidResourceException ire = new InvalidResourceException(msg);
-            errors.forEach(ire::addReason);
-            throw ire;
+            log.error("Invalid bid on item : {}, for user : {}", bid.getItemId(), bid.getUserId());
+            return invalidResourceResponse(null, errors);
         }
 
+        BidResult<BidDetail> result;
+
         try {
-            BidDetail createdBidDetail = bidService.createBid(bid);
-            createdBidDetail.setItemDescription(item.getDescription());
+            result = bidService.createBid(bid, idempotencyKey);
+        } catch (BaseException e) {
+            // Storage failures keep their own (server error) status
+            log.error(BID_CREATION_FAILED + getMessage(e));
+            throw e;
+        } catch (Exception e) {
+            String msg = BID_CREATION_FAILED + getMessage(e);
+            log.error(msg);
+            throw new ResourceCrudException(msg);
+        }
 
-            log.info("Created a new bid on item : {}, for user : {}",
-                    createdBidDetail.getItemId(), createdBidDetail.getUserId());
+        if (!result.isAccepted()) {
+            log.info("Rejected bid on item : {}, for user : {} - {}",
+                    bid.getItemId(), bid.getUserId(), result.getStatus());
+            return invalidResourceResponse(null, result.getReasons());
+        }
 
-            return new ResponseEntity<>(createdBidDetail, HttpStatus.CREATED);
-        } catch (InvalidResourceException e) {
-            log.error(getMessage(e));
+        BidDetail createdBidDetail = result.getBid();
+        createdBidDetail.setItemDescription(item.getDescription());
+
+        log.info("Created a new bid on item : {}, for user : {}",
+                createdBidDetail.getItemId(), createdBidDetail.getUserId());
+
+        return new ResponseEntity<>(createdBidDetail, HttpStatus.CREATED);
+    }
+
+    @PostMapping(value = "/v1/items/{item-id}/proxy-bids", consumes = "application/json",
+            produces = "application/json")
+    @ApiOperation(value = "Create or raise a proxy bid",
+            notes = "Submit the maximum a user will bid for an item, which is then bid on their behalf "
+                    + "by the increment needed to lead. The maximum itself is never revealed.",
+            response = BidDetail.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = PROXY_BID_CREATED, response = BidDetail.class),
+            @ApiResponse(code = 409, message = RESOURCE_OPERATION_ERROR_MSG, response = ApiError.class),
+            @ApiResponse(code = 422, message = INVALID_RESOURCE_MSG, response = ApiError.class),
+            @ApiResponse(code = 429, message = RATE_LIMIT_EXCEEDED_MSG, response = ApiError.class),
+            @ApiResponse(code = 500, message = SYSTEM_ERROR_MSG, response = ApiError.class),
+            @ApiResponse(code = 503, message = SYSTEM_ERROR_MSG, response = ApiError.class)
+    })
+    public ResponseEntity<?> createProxyBid(
+            @ApiParam(value = "Item identifier", required = true)
+            @PathVariable("item-id") String itemIdStr,
+            @Valid @RequestBody ProxyBid proxyBid) {
+
+        Long itemId = ControllerUtils.convertStringToResourceId(itemIdStr, EMPTY_ITEM_ID,
+                String.format(INVALID_ITEM_ID_FORMAT, itemIdStr));
+
+        log.info("Creating new proxy bid on item : {}, for user : {}", proxyBid.getItemId(), proxyBid.getUserId());
+
+        if (!itemId.equals(proxyBid.getItemId())) {
+            throw new IllegalArgumentException(ITEM_ID_MISMATCH);
+        }
+
+        if (!bidRateLimiter.tryAcquire(proxyBid.getUserId())) {
+            log.warn("Rate limited proxy bid on item : {}, for user : {}", proxyBid.getItemId(),
+                    proxyBid.getUserId());
+            return tooManyRequestsResponse(String.format(BID_RATE_EXCEEDED, proxyBid.getUserId()));
+        }
+
+        Item item = itemService.getItem(itemId);
+
+        List<String> errors = validateProxyBid(proxyBid);
+
+        if (!errors.isEmpty()) {
+            log.error("Invalid proxy bid on item : {}, for user : {}", proxyBid.getItemId(), proxyBid.getUserId());
+            return invalidResourceResponse(null, errors);
+        }
+
+        BidResult<BidDetail> result;
+
+        try {
+            result = bidService.createProxyBid(proxyBid);
+        } catch (BaseException e) {
+            // Storage failures keep their own (server error) status
+            log.error(PROXY_BID_CREATION_FAILED + getMessage(e));
             throw e;
         } catch (Exception e) {
-            String msg = BID_CREATION_FAILED + getMessage(e);
+            String msg = PROXY_BID_CREATION_FAILED + getMessage(e);
             log.error(msg);
             throw new ResourceCrudException(msg);
         }
+
+        if (!result.isAccepted()) {
+            log.info("Rejected proxy bid on item : {}, for user : {} - {}",
+                    proxyBid.getItemId(), proxyBid.getUserId(), result.getStatus());
+            return invalidResourceResponse(null, result.getReasons());
+        }
+
+        BidDetail winningBidDetail = result.getBid();
+        winningBidDetail.setItemDescription(item.getDescription());
+
+        log.info("Created a new proxy bid on item : {}, for user : {}",
+                proxyBid.getItemId(), proxyBid.getUserId());
+
+        return new ResponseEntity<>(winningBidDetail, HttpStatus.CREATED);
     }
 
     private List<String> validateBid(Bid bid) {
         List<String> errors = new ArrayList<>();
 
-        // TODO : if each item were to have a timestamp indicating
-        //        when the auction on that item finishes we can validate
-        //        whether or not the bid relates to an item for which the
-        //        auction has already ended
-
         if (bid.getUserId() == null || bid.getUserId().trim().length() == 0) {
             errors.add(EMPTY_USER_ID);
         }
@@ -262,4 +689,20 @@ public class AuctionController {
         return errors;
     }
 
+    private List<String> validateProxyBid(ProxyBid proxyBid) {
+        List<String> errors = new ArrayList<>();
+
+        if (proxyBid.getUserId() == null || proxyBid.getUserId().trim().length() == 0) {
+            errors.add(EMPTY_USER_ID);
+        }
+
+        if (proxyBid.getMaxAmount() == null) {
+            errors.add(EMPTY_MAX_AMOUNT);
+        } else if (proxyBid.getMaxAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            errors.add(INVALID_MAX_AMOUNT);
+        }
+
+        return errors;
+    }
+
 }
@@ -5,6 +5,7 @@ import com.devxpress.auction.api.exception.BaseException;
 import com.devxpress.auction.api.exception.InvalidResourceException;
 import com.devxpress.auction.api.exception.ResourceCrudException;
 import com.devxpress.auction.api.exception.ResourceNotFoundException;
+import com.devxpress.auction.api.exception.ServiceUnavailableException;
 import com.devxpress.auction.api.exception.StaleResourceException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -13,8 +14,13 @@ import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.util.Collection;
+import java.util.Collections;
+
+import static com.devxpress.auction.api.ApiErrorCode.RETRYABLE_ERROR;
 import static com.devxpress.auction.api.ApiErrorMessage.INVALID_RESOURCE_MSG;
 import static com.devxpress.auction.api.ApiErrorMessage.MISSING_OR_INVALID_ARGUMENT_MSG;
+import static com.devxpress.auction.api.ApiErrorMessage.RATE_LIMIT_EXCEEDED_MSG;
 import static com.devxpress.auction.api.ApiErrorMessage.RESOURCE_NOT_FOUND_MSG;
 import static com.devxpress.auction.api.ApiErrorMessage.RESOURCE_OPERATION_ERROR_MSG;
 import static com.devxpress.auction.api.ApiErrorMessage.SYSTEM_ERROR_MSG;
@@ -37,20 +43,37 @@ public class ControllerExceptionHandler {
 
     @ExceptionHandler(InvalidResourceException.class)
     public ResponseEntity<Object> handleInvalidResourceException(InvalidResourceException ex) {
+        return invalidResourceResponse(ex.getErrorCode(),
+                ex.getReasons().isEmpty() ? Collections.singleton(ex.getMessage()) : ex.getReasons());
+    }
+
+    // Shared with controllers that report a rejected resource as a value rather than by throwing
+    static ResponseEntity<Object> invalidResourceResponse(Integer code, Collection<String> reasons) {
         ApiError.ApiErrorBuilder builder = ApiError.ApiErrorBuilder
                 .createInstance(HttpStatus.UNPROCESSABLE_ENTITY)
                 .withMessage(INVALID_RESOURCE_MSG)
-                .withCode(ex.getErrorCode());
+                .withCode(code);
 
-        if (!ex.getReasons().isEmpty()) {
-            ex.getReasons().forEach(builder::withContextDetail);
-        } else {
-            builder.withContextDetail(ex.getMessage());
-        }
+        reasons.forEach(builder::withContextDetail);
 
         return new ResponseEntity<>(builder.build(), new HttpHeaders(), HttpStatus.UNPROCESSABLE_ENTITY);
     }
 
+    // Admission control rejections are expected under load so are reported without an exception being thrown
+    static ResponseEntity<Object> tooManyRequestsResponse(String contextDetail) {
+        ApiError error = ApiError.ApiErrorBuilder
+                .createInstance(HttpStatus.TOO_MANY_REQUESTS)
+                .withMessage(RATE_LIMIT_EXCEEDED_MSG)
+                .withCode(RETRYABLE_ERROR)
+                .withContextDetail(contextDetail)
+                .build();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+
+        return new ResponseEntity<>(error, headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
     @ExceptionHandler(StaleResourceException.class)
     public ResponseEntity<Object> handleStaleResourceException(StaleResourceException ex) {
         ApiError.ApiErrorBuilder builder = ApiError.ApiErrorBuilder
@@ -84,6 +107,21 @@ public class ControllerExceptionHandler {
         return new ResponseEntity<>(error, new HttpHeaders(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Object> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        ApiError error = ApiError.ApiErrorBuilder
+                .createInstance(HttpStatus.SERVICE_UNAVAILABLE)
+                .withMessage(SYSTEM_ERROR_MSG)
+                .withCode(ex.getErrorCode())
+                .withContextDetail(ex.getMessage())
+                .build();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+
+        return new ResponseEntity<>(error, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(BaseException.class)
     public ResponseEntity<Object> handleBaseException(BaseException ex) {
         ApiError error = ApiError.ApiErrorBuilder
@@ -0,0 +1,17 @@
+package com.devxpress.auction.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * An accepted bid, with its position in the global order of accepted bids.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class BidChangeEntity {
+
+    private final long sequence;
+
+    private final BidEntity bid;
+
+}
@@ -1,7 +1,10 @@
 package com.devxpress.auction.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -12,10 +15,19 @@ public class BidEntity {
 
     private Long itemId;
 
+    // Replaced by the single copy held by the store once accepted, where the store interns user ids
+    // (see UserSymbolTable)
     private String userId;
 
     private BigDecimal amount;
 
     private Instant submittedAt;
 
+    // Position in the global order of accepted bids once sequenced by the change feed, or 0 if not (e.g. once read
+    // back from storage), so not part of the bid itself
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private long sequence;
+
 }
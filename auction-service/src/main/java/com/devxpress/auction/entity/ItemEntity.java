@@ -3,6 +3,9 @@ package com.devxpress.auction.entity;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+
 @Data
 @AllArgsConstructor
 public class ItemEntity {
@@ -13,7 +16,13 @@ public class ItemEntity {
 
     private String category;
 
-    // TODO : as an auction item we should also include a timestamp
-    //        representing when the auction for the item finishes
+    // When the auction for the item finishes, bids being refused from then on, or null if it never finishes
+    private Instant closesAt;
+
+    // Lowest winning bid, or null if any bid wins
+    private BigDecimal reserve;
 
+    public ItemEntity(Long id, String description, String category) {
+        this(id, description, category, null, null);
+    }
 }
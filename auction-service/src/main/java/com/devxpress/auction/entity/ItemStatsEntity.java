@@ -0,0 +1,35 @@
+package com.devxpress.auction.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Aggregate statistics of the bids on an item, as at its latest bid.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class ItemStatsEntity {
+
+    private final long itemId;
+
+    private final long bidCount;
+
+    private final long bidderCount;
+
+    // Whether bidderCount is an estimate, as the item has too many bidders to count exactly
+    private final boolean bidderCountApproximate;
+
+    private final BigDecimal openingPrice;
+
+    private final BigDecimal currentPrice;
+
+    private final Instant lastBidAt;
+
+    public static ItemStatsEntity noBids(long itemId) {
+        return new ItemStatsEntity(itemId, 0, 0, false, null, null, null);
+    }
+
+}
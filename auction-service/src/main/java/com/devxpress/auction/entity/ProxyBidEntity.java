@@ -0,0 +1,19 @@
+package com.devxpress.auction.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+public class ProxyBidEntity {
+
+    private Long itemId;
+
+    private String userId;
+
+    // Most the user is prepared to bid, which is never made visible
+    private BigDecimal maxAmount;
+
+}
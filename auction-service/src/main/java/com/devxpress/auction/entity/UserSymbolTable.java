@@ -0,0 +1,75 @@
+package com.devxpress.auction.entity;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps user ids to dense int handles, so that a bid store holds a single copy of each user id and can refer to users
+ * by handle. Each store has a table of its own, into which only the users of bids it has accepted are interned.
+ * Handles are allocated in order from zero and are never reused, so they are only meaningful to the table's store.
+ */
+public final class UserSymbolTable {
+
+    public static final int NO_USER = -1;
+
+    private final Map<String, Integer> USER_HANDLE_MAP = new ConcurrentHashMap<>();
+
+    private final Object allocationLock = new Object();
+
+    // Handle -> user id. Written before the handle is published via the map, and replaced (never mutated)
+    // once full, so any thread that holds a handle can resolve it
+    private volatile String[] userIds = new String[1024];
+    private int size;
+
+    /**
+     * @return the handle for the user id, allocating one if it has not been seen before
+     */
+    public int intern(String userId) {
+        Integer handle = USER_HANDLE_MAP.get(userId);
+
+        if (handle != null) {
+            return handle;
+        }
+
+        synchronized (allocationLock) {
+            handle = USER_HANDLE_MAP.get(userId);
+
+            if (handle == null) {
+                String[] ids = userIds;
+
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                }
+
+                ids[size] = userId;
+                userIds = ids;
+
+                handle = size++;
+                USER_HANDLE_MAP.put(userId, handle);
+            }
+
+            return handle;
+        }
+    }
+
+    /**
+     * @return the single copy of the user id held by the table, interning it if it has not been seen before, or
+     * null if the user id is null
+     */
+    public String canonical(String userId) {
+        return userId == null ? null : resolve(intern(userId));
+    }
+
+    /**
+     * @return the handle for the user id, or {@link #NO_USER} if it has never been interned
+     */
+    public int lookup(String userId) {
+        Integer handle = userId == null ? null : USER_HANDLE_MAP.get(userId);
+        return handle == null ? NO_USER : handle;
+    }
+
+    public String resolve(int handle) {
+        return handle == NO_USER ? null : userIds[handle];
+    }
+}
@@ -0,0 +1,351 @@
+package com.devxpress.auction.feed;
+
+import com.devxpress.auction.api.exception.BaseException;
+import com.devxpress.auction.api.exception.ServiceUnavailableException;
+import com.devxpress.auction.api.exception.StaleResourceException;
+import com.devxpress.auction.configuration.ChangeFeedProperties;
+import com.devxpress.auction.entity.BidChangeEntity;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.repository.AcceptedBidListener;
+import com.devxpress.auction.repository.BidRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.devxpress.auction.api.ApiErrorCode.CRITICAL_ERROR;
+
+/**
+ * Assigns every accepted bid the next global sequence number, and serves the changes after any sequence to
+ * consumers which follow the feed with a cursor.
+ * <p>
+ * Changes are published to a ring of the most recent changes, from which a background writer appends them, in
+ * sequence order, to the {@link BidJournal}. A ring slot is only reused once its change has been journalled, so
+ * every change is either in the ring or in the journal. Bids on different items are sequenced concurrently and may
+ * be published out of order, so a consumer is only ever given an unbroken run of sequences.
+ * <p>
+ * The journal is also what makes an acknowledged bid durable. Callers wait for their change to be journalled at the
+ * configured {@link ChangeFeedProperties.Durability}, and as the writer journals every change published since its
+ * last batch with a single flush (and force), every caller waiting on the batch is released together. At startup,
+ * the journalled bids are replayed into the bid repository.
+ * <p>
+ * With a durability above {@link ChangeFeedProperties.Durability#MEMORY}, a change which cannot be journalled is
+ * fatal to bidding : its caller is told the bid is not durable, and every later bid is refused (see
+ * {@link #checkAccepting()}) until the node is restarted, when the bids held are rebuilt from the journal. The bids
+ * accepted but not journalled are therefore never acknowledged, and are lost on restart. Without a durability, the
+ * changes are abandoned and bidding continues.
+ */
+@Component
+@Slf4j
+public class BidChangeFeed implements AcceptedBidListener {
+
+    static final String INVALID_CURSOR = "Sequence must not be negative, and limit must be between 1 and %d";
+    static final String CURSOR_NOT_RETAINED =
+            "Changes after sequence : %d, are no longer retained - the oldest retained change is : %d";
+    static final String NOT_DURABLE = "Bid change : %d, was accepted but could not be journalled";
+    static final String JOURNAL_FAILED = "Bids are refused as bid changes can no longer be journalled";
+    static final String DURABILITY_WITHOUT_DIRECTORY =
+            "Durability : %s, requires auction.bid.changes.journal.directory to be set";
+    static final String DURABILITY_WITH_RETAINED_SEGMENTS =
+            "Durability : %s, requires auction.bid.changes.journal.retained-segments=0, so that every bid is recovered";
+
+    // Changes journalled between flushes whilst the writer has a backlog
+    private static final int MAX_BATCH = 4096;
+
+
+    private static final long BACKPRESSURE_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final ChangeFeedProperties properties;
+    private final ChangeFeedProperties.Durability durability;
+    private final BidJournal journal;
+
+    private final AtomicLong sequence;
+    private final AtomicReferenceArray<BidChangeEntity> ring;
+
+    // Changes up to this sequence have been journalled (or abandoned), so their ring slots may be reused
+    private volatile long releasedSequence;
+
+    // Callers waiting for changes to be journalled, by the latest change they are waiting for
+    private final ConcurrentNavigableMap<Long, CompletableFuture<Void>> durabilityWaiters =
+            new ConcurrentSkipListMap<>();
+
+    // Bids replayed from the journal by this thread are already sequenced
+    private volatile Thread replayingThread;
+
+    private final Thread writer;
+    private volatile boolean stopped;
+
+    // Why changes could not be journalled, once they could not with a durability, or null
+    private volatile Exception journalFailure;
+
+    public BidChangeFeed(ChangeFeedProperties properties) throws IOException {
+        this.properties = properties;
+        this.durability = properties.getJournal().getDurability();
+
+        // Durable only if journalled where found on restart, and replayed in full
+        if (durability != ChangeFeedProperties.Durability.MEMORY) {
+            if (properties.getJournal().getDirectory() == null) {
+                throw new IllegalStateException(String.format(DURABILITY_WITHOUT_DIRECTORY, durability));
+            }
+
+            if (properties.getJournal().getRetainedSegments() != 0) {
+                throw new IllegalStateException(String.format(DURABILITY_WITH_RETAINED_SEGMENTS, durability));
+            }
+        }
+
+        this.journal = new BidJournal(properties.getJournal());
+        this.sequence = new AtomicLong(journal.lastSequence());
+        this.releasedSequence = journal.lastSequence();
+        this.ring = new AtomicReferenceArray<>(properties.getRingCapacity());
+
+        this.writer = new Thread(this::writeJournal, "bid-change-journal");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopped = true;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+
+        journal.close();
+    }
+
+    /**
+     * Called with the item locked, so each item's changes are sequenced in the order its bids were accepted. The bid
+     * is given its sequence, for its submitter to wait on (see {@link #awaitDurable(long)}).
+     */
+    @Override
+    public void onBidAccepted(BidEntity bid, BidEntity previousHighest) {
+        if (Thread.currentThread() == replayingThread) {
+            return;
+        }
+
+        long next = sequence.incrementAndGet();
+
+        // The slot's previous change must reach the journal before it is overwritten
+        while (next - ring.length() > releasedSequence && !stopped) {
+            LockSupport.parkNanos(BACKPRESSURE_WAIT_NANOS);
+        }
+
+        bid.setSequence(next);
+        ring.set(slot(next), new BidChangeEntity(next, bid));
+    }
+
+    /**
+     * @throws ServiceUnavailableException if bids are refused, as changes can no longer be journalled
+     */
+    public void checkAccepting() {
+        Exception failure = journalFailure;
+
+        if (failure != null) {
+            throw new ServiceUnavailableException(JOURNAL_FAILED, failure);
+        }
+    }
+
+    /**
+     * @return the sequence of the latest accepted bid
+     */
+    public long latestSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * @return up to limit changes after the sequence, in sequence order, or none if there are none yet
+     * @throws StaleResourceException if changes after the sequence are no longer retained
+     */
+    public List<BidChangeEntity> findAfter(long afterSequence, int limit) {
+        if (afterSequence < 0 || limit < 1 || limit > properties.getMaxLimit()) {
+            throw new IllegalArgumentException(String.format(INVALID_CURSOR, properties.getMaxLimit()));
+        }
+
+        List<BidChangeEntity> changes = new ArrayList<>(Math.min(limit, 256));
+        long next = afterSequence + 1;
+
+        while (changes.size() < limit) {
+            BidChangeEntity change = ring.get(slot(next));
+
+            if (change != null && change.getSequence() == next) {
+                changes.add(change);
+                next++;
+            } else if ((change != null && change.getSequence() > next) || next <= journal.lastSequence()) {
+                // Overwritten in the ring (or from before a restart), so only in the journal
+                List<BidChangeEntity> journalled = journal.read(next - 1, limit - changes.size());
+
+                if (journalled.isEmpty() || journalled.get(0).getSequence() != next) {
+                    throw new StaleResourceException(String.format(CURSOR_NOT_RETAINED, next - 1,
+                            journal.firstSequence()));
+                }
+
+                changes.addAll(journalled);
+                next += journalled.size();
+            } else {
+                // Not yet published
+                break;
+            }
+        }
+
+        return changes;
+    }
+
+    /**
+     * Wait until every change up to the sequence is durable at the configured level, which for
+     * {@link ChangeFeedProperties.Durability#MEMORY} it already is.
+     *
+     * @throws BaseException if the change could not be journalled, so was accepted but is not durable
+     */
+    public void awaitDurable(long sequence) {
+        if (durability == ChangeFeedProperties.Durability.MEMORY || sequence <= releasedSequence) {
+            return;
+        }
+
+        CompletableFuture<Void> durable = durabilityWaiters.computeIfAbsent(sequence, k -> new CompletableFuture<>());
+
+        // Released whilst registering, so the writer may have missed it
+        if (sequence <= releasedSequence || stopped) {
+            durable.complete(null);
+        }
+
+        LockSupport.unpark(writer);
+
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            BaseException notDurable = new BaseException(String.format(NOT_DURABLE, sequence), CRITICAL_ERROR);
+            notDurable.initCause(e.getCause());
+            throw notDurable;
+        }
+    }
+
+    /**
+     * Apply every retained change to the repository, without sequencing the replayed bids again. Bids already held by
+     * the repository are ignored by it, so replaying is safe whatever the repository holds.
+     *
+     * @return the number of bids applied
+     */
+    public long replay(BidRepository repository) {
+        long applied = 0;
+        long after = journal.firstSequence() - 1;
+
+        replayingThread = Thread.currentThread();
+
+        try {
+            List<BidChangeEntity> changes;
+
+            // A segment at a time, as each read scans its first segment from the start
+            while (!(changes = journal.read(after, properties.getJournal().getSegmentSize())).isEmpty()) {
+                for (BidChangeEntity change : changes) {
+                    if (repository.applyAccepted(change.getBid())) {
+                        applied++;
+                    }
+                }
+
+                after = changes.get(changes.size() - 1).getSequence();
+            }
+        } finally {
+            replayingThread = null;
+        }
+
+        return applied;
+    }
+
+    BidJournal journal() {
+        return journal;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % ring.length());
+    }
+
+    private void writeJournal() {
+        long next = journal.lastSequence() + 1;
+        long idleNanos = properties.getJournal().getFlushInterval().toNanos();
+
+        while (true) {
+            // Read before draining, so that everything published before stopping is journalled
+            boolean stopping = stopped;
+            long first = next;
+            boolean appending = false;
+            Exception failure = null;
+
+            try {
+                BidChangeEntity change;
+
+                while (next - first < MAX_BATCH && (change = ring.get(slot(next))) != null
+                        && change.getSequence() == next) {
+                    appending = true;
+                    journal.append(change);
+                    appending = false;
+                    next++;
+                }
+
+                if (next > first) {
+                    journal.flush();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Released regardless, so that bid acceptance never stalls on a failing disk
+                log.error("Failed to journal bid changes from sequence : {} - abandoning them", first, e);
+                journal.abandonSegment();
+
+                if (durability != ChangeFeedProperties.Durability.MEMORY && journalFailure == null) {
+                    log.error("Refusing bids until restarted, as bid changes can no longer be journalled");
+                    journalFailure = e;
+                }
+
+                if (appending) {
+                    next++;
+                }
+
+                failure = e;
+            }
+
+            releasedSequence = next - 1;
+
+            if (next > first) {
+                releaseWaiters(next - 1, failure);
+            }
+
+            if (next == first) {
+                if (stopping) {
+                    // Anyone still waiting is waiting on a change which will now never be journalled
+                    releaseWaiters(Long.MAX_VALUE, new IllegalStateException("Bid change feed stopped"));
+                    return;
+                }
+
+                LockSupport.parkNanos(idleNanos);
+            }
+        }
+    }
+
+    private void releaseWaiters(long upToSequence, Exception failure) {
+        Map<Long, CompletableFuture<Void>> released = durabilityWaiters.headMap(upToSequence, true);
+
+        for (CompletableFuture<Void> durable : released.values()) {
+            if (failure == null) {
+                durable.complete(null);
+            } else {
+                durable.completeExceptionally(failure);
+            }
+        }
+
+        released.clear();
+    }
+}
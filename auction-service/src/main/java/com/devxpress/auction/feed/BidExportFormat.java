@@ -0,0 +1,29 @@
+package com.devxpress.auction.feed;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+
+/**
+ * Forms in which every bid can be exported.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum BidExportFormat {
+
+    // One JSON object per line, its sequence included when exported from the journal
+    NDJSON("application/x-ndjson"),
+
+    // Each bid as its journal record (see BidJournal), with a sequence of 0 when exported from bid storage
+    BINARY("application/octet-stream");
+
+    private final String contentType;
+
+    /**
+     * @throws IllegalArgumentException if there is no format of the name, in any case
+     */
+    public static BidExportFormat of(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
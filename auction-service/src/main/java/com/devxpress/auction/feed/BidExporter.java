@@ -0,0 +1,125 @@
+package com.devxpress.auction.feed;
+
+import com.devxpress.auction.api.v1.json.BidChangeLineWriter;
+import com.devxpress.auction.configuration.ChangeFeedProperties;
+import com.devxpress.auction.entity.BidChangeEntity;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.repository.BidRecordCodec;
+import com.devxpress.auction.repository.BidRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.List;
+
+/**
+ * Writes every bid held by this node, in one of the {@link BidExportFormat}s.
+ * <p>
+ * Where the journal holds every bid (see {@link BidJournal#holdsEveryChange()}), bids are exported from it, in the
+ * order they were accepted : binary exports copy the journal segments as they are, and line exports decode the
+ * segments directly into lines. Otherwise, bids are read from bid storage an item at a time, so that only the item
+ * being written is held in memory.
+ * <p>
+ * Should an export fail part way, whatever has been written is left incomplete : it is for the caller to abort the
+ * stream rather than end it, so that a partial export is never taken for a whole one.
+ */
+@Component
+public class BidExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BidRepository bidRepository;
+    private final BidChangeFeed bidChangeFeed;
+    private final ChangeFeedProperties properties;
+    private final JsonFactory jsonFactory;
+
+    public BidExporter(BidRepository bidRepository, BidChangeFeed bidChangeFeed, ChangeFeedProperties properties,
+                       ObjectMapper objectMapper) {
+        this.bidRepository = bidRepository;
+        this.bidChangeFeed = bidChangeFeed;
+        this.properties = properties;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Write every bid to the stream, which is flushed but left open.
+     *
+     * @return whether the bids were exported from the journal
+     */
+    public boolean export(BidExportFormat format, OutputStream out) throws IOException {
+        BidJournal journal = bidChangeFeed.journal();
+        boolean fromJournal = journal.holdsEveryChange();
+
+        if (format == BidExportFormat.BINARY) {
+            if (fromJournal) {
+                journal.transferTo(Channels.newChannel(out));
+                out.flush();
+            } else {
+                writeRecords(out);
+            }
+        } else {
+            try (JsonGenerator gen = jsonFactory.createGenerator(out)) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                BidChangeLineWriter lines = new BidChangeLineWriter(gen);
+
+                if (fromJournal) {
+                    writeJournalLines(journal, lines);
+                } else {
+                    writeLines(lines);
+                }
+
+                lines.flush();
+            }
+        }
+
+        return fromJournal;
+    }
+
+    private void writeRecords(OutputStream out) throws IOException {
+        DataOutputStream records = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+
+        for (Long itemId : bidRepository.findItemIds()) {
+            for (BidEntity bid : bidRepository.findByItemId(itemId)) {
+                records.writeLong(0);
+                BidRecordCodec.write(records, bid);
+            }
+        }
+
+        records.flush();
+    }
+
+    private void writeLines(BidChangeLineWriter lines) throws IOException {
+        for (Long itemId : bidRepository.findItemIds()) {
+            for (BidEntity bid : bidRepository.findByItemId(itemId)) {
+                lines.write(0, bid);
+            }
+        }
+    }
+
+    // Up to the last change journalled when the export started, so that it ends whilst bids are still accepted
+    private void writeJournalLines(BidJournal journal, BidChangeLineWriter lines) throws IOException {
+        long last = journal.lastSequence();
+        long after = 0;
+        List<BidChangeEntity> changes;
+
+        // A segment at a time, as each read scans its first segment from the start
+        while (after < last
+                && !(changes = journal.read(after, properties.getJournal().getSegmentSize())).isEmpty()) {
+            for (BidChangeEntity change : changes) {
+                if (change.getSequence() > last) {
+                    return;
+                }
+
+                lines.write(change.getSequence(), change.getBid());
+            }
+
+            after = changes.get(changes.size() - 1).getSequence();
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package com.devxpress.auction.feed;
+
+import com.devxpress.auction.configuration.ChangeFeedProperties;
+import com.devxpress.auction.entity.BidChangeEntity;
+import com.devxpress.auction.repository.BidRecordCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of bid changes in sequence order, as segment files each named by the sequence of its first
+ * change. Each change is its sequence followed by its bid record (see {@link BidRecordCodec}).
+ * <p>
+ * Changes are appended by a single writer, and are readable once flushed. Any number of readers may read
+ * concurrently with the writer. With {@link ChangeFeedProperties.Durability#FSYNC} durability, each flush also
+ * forces the segment to disk, as does starting a new segment, along with the directory entry for the new segment.
+ * <p>
+ * Every segment but the one being written holds only whole changes, so retained segments can be copied as they are,
+ * the current segment up to its last flush.
+ * <p>
+ * Each segment is indexed by the file offset of every {@value #INDEX_INTERVAL}th change, so a read seeks close to
+ * its first change rather than scanning the segment from its start. The index of the segment being written is kept
+ * by the writer, and that of any other is built when the segment is first read.
+ */
+@Slf4j
+public class BidJournal {
+
+    private static final String SEGMENT_FILE_SUFFIX = ".changes";
+    static final String SEGMENT_FILE_FORMAT = "%020d" + SEGMENT_FILE_SUFFIX;
+
+    // Changes between indexed offsets within a segment
+    static final int INDEX_INTERVAL = 64;
+
+    private final ChangeFeedProperties.Journal properties;
+    private final Path directory;
+    private final boolean temporaryDirectory;
+
+    // Segment files by the sequence of their first change
+    private final ConcurrentNavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+
+    // Segment offsets by change sequence, by the sequence of the segment's first change
+    private final Map<Long, NavigableMap<Long, Long>> segmentIndexes = new ConcurrentHashMap<>();
+
+    // Sequence of the last change flushed, and so readable
+    private volatile long lastSequence;
+
+    // Readable length of the latest segment
+    private volatile FlushedSegment flushedSegment;
+
+    // Whether changes have been abandoned since this journal was opened
+    private volatile boolean abandoned;
+
+    private final boolean force;
+
+    // Only used by the writer
+    private DataOutputStream out;
+    private CountingOutputStream counter;
+    private FileChannel channel;
+    private Path segmentPath;
+    private long segmentStart;
+    private int segmentChanges;
+    private long lastAppended;
+
+    public BidJournal(ChangeFeedProperties.Journal properties) throws IOException {
+        this.properties = properties;
+        this.force = properties.getDurability() == ChangeFeedProperties.Durability.FSYNC;
+
+        if (properties.getDirectory() == null) {
+            this.directory = Files.createTempDirectory("auction-bid-changes");
+            this.temporaryDirectory = true;
+        } else {
+            this.directory = Files.createDirectories(Paths.get(properties.getDirectory()));
+            this.temporaryDirectory = false;
+        }
+
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + SEGMENT_FILE_SUFFIX)) {
+            for (Path path : paths) {
+                String name = path.getFileName().toString();
+
+                try {
+                    segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_FILE_SUFFIX.length())),
+                            path);
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring file not named as a bid change journal segment : {}", path);
+                }
+            }
+        }
+
+        // Changes are appended to a new segment, so any partly written change at the end of the last is dropped
+        if (!segments.isEmpty()) {
+            Path path = segments.lastEntry().getValue();
+            SegmentScan lastSegment = scanSegment(path);
+            lastSequence = lastSegment.changes == 0 ? segments.lastKey() - 1 : lastSegment.lastSequence;
+
+            truncate(path, lastSegment.size);
+            segmentIndexes.put(segments.lastKey(), lastSegment.index);
+            flushedSegment = new FlushedSegment(segments.lastKey(), lastSegment.size);
+        }
+
+        lastAppended = lastSequence;
+
+        log.info("Journalling bid changes to : {}, from sequence : {}", directory, lastSequence + 1);
+    }
+
+    /**
+     * @return the sequence of the last readable change, or 0 if there are none
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return the sequence of the oldest change retained
+     */
+    public long firstSequence() {
+        Map.Entry<Long, Path> first = segments.firstEntry();
+        return first == null ? lastSequence + 1 : first.getKey();
+    }
+
+    void append(BidChangeEntity change) throws IOException {
+        if (out == null || segmentChanges >= properties.getSegmentSize()) {
+            startSegment(change.getSequence());
+        }
+
+        // Readers only seek to an indexed change once it has been flushed
+        if (segmentChanges % INDEX_INTERVAL == 0) {
+            segmentIndexes.get(segmentStart).put(change.getSequence(), counter.count);
+        }
+
+        out.writeLong(change.getSequence());
+        BidRecordCodec.write(out, change.getBid());
+
+        segmentChanges++;
+        lastAppended = change.getSequence();
+    }
+
+    /**
+     * @return whether the journal holds every change ever sequenced, none having been dropped or abandoned, which
+     * is only known of a journal kept in a configured directory
+     */
+    public boolean holdsEveryChange() {
+        return !temporaryDirectory && properties.getRetainedSegments() == 0 && firstSequence() == 1 && !abandoned;
+    }
+
+    void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+
+            if (force) {
+                channel.force(false);
+            }
+
+            flushedSegment = new FlushedSegment(segmentStart, channel.position());
+        }
+
+        lastSequence = lastAppended;
+    }
+
+    /**
+     * Abandon the current segment after a failed write, so that the next change starts a new one. Changes appended
+     * since the last flush are lost.
+     */
+    void abandonSegment() {
+        Path path = segmentPath;
+        FlushedSegment flushed = flushedSegment;
+
+        abandoned = true;
+        closeSegment();
+
+        // Closing writes what was buffered, which must not be read as journalled
+        if (path != null && flushed != null) {
+            NavigableMap<Long, Long> index = segmentIndexes.get(flushed.start);
+
+            if (index != null) {
+                index.values().removeIf(offset -> offset >= flushed.size);
+            }
+
+            try {
+                truncate(path, flushed.size);
+            } catch (IOException e) {
+                log.warn("Failed to truncate abandoned bid change journal segment : {}", path, e);
+            }
+        }
+    }
+
+    /**
+     * @return up to limit changes after the sequence, in sequence order
+     */
+    public List<BidChangeEntity> read(long afterSequence, int limit) {
+        List<BidChangeEntity> changes = new ArrayList<>();
+        long last = lastSequence;
+
+        if (afterSequence >= last) {
+            return changes;
+        }
+
+        // From the segment holding the next change, or the oldest segment if that has been dropped
+        Long segmentStart = segments.floorKey(afterSequence + 1);
+        Map<Long, Path> fromSegments = segmentStart == null ? segments : segments.tailMap(segmentStart);
+
+        for (Map.Entry<Long, Path> segment : fromSegments.entrySet()) {
+            Path path = segment.getValue();
+
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(
+                         file.position(offsetOf(segment.getKey(), path, afterSequence + 1)))))) {
+                while (changes.size() < limit) {
+                    long sequence = in.readLong();
+
+                    if (sequence > last) {
+                        return changes;
+                    }
+
+                    if (sequence > afterSequence) {
+                        changes.add(new BidChangeEntity(sequence, BidRecordCodec.read(in)));
+                    } else {
+                        BidRecordCodec.read(in);
+                    }
+                }
+
+                return changes;
+            } catch (EOFException | NoSuchFileException e) {
+                // End of the segment, or a segment dropped whilst being read
+            } catch (IOException e) {
+                throw new IllegalStateException(String.format("Failed to read bid change journal : %s", path), e);
+            }
+        }
+
+        return changes;
+    }
+
+    /**
+     * Copy every retained change, as journalled, up to the last flush. Segments are copied with
+     * {@link FileChannel#transferTo}, so that where the target allows, their bytes are copied by the OS without
+     * passing through the heap.
+     */
+    public void transferTo(WritableByteChannel target) throws IOException {
+        FlushedSegment flushed = flushedSegment;
+        Map<Long, Path> toCopy = flushed == null ? Collections.emptyMap() : segments.headMap(flushed.start, true);
+
+        for (Map.Entry<Long, Path> segment : toCopy.entrySet()) {
+            try (FileChannel source = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                long size = segment.getKey() == flushed.start ? flushed.size : source.size();
+                long position = 0;
+
+                while (position < size) {
+                    position += source.transferTo(position, size - position, target);
+                }
+            } catch (NoSuchFileException e) {
+                // Dropped whilst being copied
+            }
+        }
+    }
+
+    void close() {
+        closeSegment();
+
+        if (temporaryDirectory) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            } catch (IOException e) {
+                log.warn("Failed to remove bid change journal directory : {}", directory, e);
+            }
+        }
+    }
+
+    private void startSegment(long firstSequence) throws IOException {
+        if (out != null) {
+            // Changes appended to the segment since the last flush must be as durable as those which follow
+            flush();
+            closeSegment();
+        }
+
+        Path path = directory.resolve(String.format(SEGMENT_FILE_FORMAT, firstSequence));
+        FileOutputStream file = new FileOutputStream(path.toFile());
+        channel = file.getChannel();
+        counter = new CountingOutputStream(new BufferedOutputStream(file));
+        out = new DataOutputStream(counter);
+        segmentChanges = 0;
+        segmentPath = path;
+        segmentStart = firstSequence;
+        segmentIndexes.put(firstSequence, new ConcurrentSkipListMap<>());
+        segments.put(firstSequence, path);
+        flushedSegment = new FlushedSegment(firstSequence, 0);
+
+        if (force) {
+            forceDirectory();
+        }
+
+        while (properties.getRetainedSegments() > 0 && segments.size() > properties.getRetainedSegments()) {
+            Map.Entry<Long, Path> dropped = segments.pollFirstEntry();
+            Path oldest = dropped.getValue();
+            segmentIndexes.remove(dropped.getKey());
+
+            try {
+                Files.deleteIfExists(oldest);
+            } catch (IOException e) {
+                log.warn("Failed to delete bid change journal segment : {}", oldest, e);
+            }
+        }
+    }
+
+    private void closeSegment() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.warn("Failed to close bid change journal segment - {}", e.getMessage());
+            }
+
+            out = null;
+            counter = null;
+            channel = null;
+            segmentPath = null;
+        }
+    }
+
+    // Not every platform can open a directory, in which case its entry is left to the file system
+    private void forceDirectory() {
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            log.debug("Unable to force bid change journal directory : {} - {}", directory, e.getMessage());
+        }
+    }
+
+    // Offset within the segment of the latest indexed change up to the sequence
+    private long offsetOf(long segmentStart, Path path, long sequence) throws IOException {
+        NavigableMap<Long, Long> index = segmentIndexes.get(segmentStart);
+
+        if (index == null) {
+            // Only the writer's segment changes, and that is indexed as it is written
+            index = scanSegment(path).index;
+
+            if (segments.containsKey(segmentStart)) {
+                NavigableMap<Long, Long> existing = segmentIndexes.putIfAbsent(segmentStart, index);
+                index = existing == null ? index : existing;
+            }
+        }
+
+        Map.Entry<Long, Long> indexed = index.floorEntry(sequence);
+        return indexed == null ? 0 : indexed.getValue();
+    }
+
+    // Reads the segment's whole changes, up to any partly written change at its end
+    private static SegmentScan scanSegment(Path path) throws IOException {
+        SegmentScan scan = new SegmentScan();
+        CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(path)));
+
+        try (DataInputStream in = new DataInputStream(counter)) {
+            while (true) {
+                long sequence = in.readLong();
+                BidRecordCodec.read(in);
+
+                if (scan.changes % INDEX_INTERVAL == 0) {
+                    scan.index.put(sequence, scan.size);
+                }
+
+                scan.changes++;
+                scan.lastSequence = sequence;
+                scan.size = counter.count;
+            }
+        } catch (EOFException e) {
+            // End of the segment
+        }
+
+        return scan;
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (file.size() > size) {
+                log.warn("Dropping partly written bid changes at the end of journal segment : {}", path);
+                file.truncate(size);
+            }
+        }
+    }
+
+    private static final class SegmentScan {
+
+        private final NavigableMap<Long, Long> index = new ConcurrentSkipListMap<>();
+        private int changes;
+        private long lastSequence;
+
+        // Bytes taken by the whole changes
+        private long size;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            count += b < 0 ? 0 : 1;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            count += Math.max(0, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    private static final class FlushedSegment {
+
+        private final long start;
+        private final long size;
+
+        private FlushedSegment(long start, long size) {
+            this.start = start;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.devxpress.auction.feed;
+
+import com.devxpress.auction.configuration.BidStorageProperties;
+import com.devxpress.auction.configuration.ChangeFeedProperties;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.repository.LocalBidRepository;
+import com.devxpress.auction.repository.StorageCapability;
+import com.devxpress.auction.view.ItemStatsView;
+import com.devxpress.auction.view.UserBidView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restores the bids held in memory (or off-heap) from the bid change journal at startup, once every bean and
+ * listener exists but before the web server accepts bids, then rebuilds the views of the bids held.
+ * <p>
+ * There is nothing to restore from a temporary journal, nor into storage which is durable by itself. The views are
+ * rebuilt regardless, as they are only told of bids accepted (or replayed) since startup, not those already held.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BidJournalRecovery {
+
+    private final ChangeFeedProperties changeFeedProperties;
+    private final BidStorageProperties bidStorageProperties;
+    private final BidChangeFeed bidChangeFeed;
+    private final LocalBidRepository localBidRepository;
+    private final UserBidView userBidView;
+    private final ItemStatsView itemStatsView;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void recover() {
+        if (changeFeedProperties.getJournal().getDirectory() != null
+                && !localBidRepository.capabilities().contains(StorageCapability.DURABLE)) {
+            long start = System.nanoTime();
+            long applied = bidChangeFeed.replay(localBidRepository);
+
+            log.info("Replayed {} journalled bid(s) into {} bid storage, in {} ms", applied,
+                    bidStorageProperties.getType(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        long start = System.nanoTime();
+        Iterable<BidEntity> bids = localBidRepository.findAll();
+
+        userBidView.rebuild(bids);
+        itemStatsView.rebuild(bids);
+
+        log.info("Rebuilt bid views in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
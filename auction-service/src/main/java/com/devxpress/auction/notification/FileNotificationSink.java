@@ -0,0 +1,69 @@
+package com.devxpress.auction.notification;
+
+import com.devxpress.auction.configuration.NotificationProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends notifications to a file, one JSON object per line, each batch flushed as a whole.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "auction.notification.sink", havingValue = "file")
+public class FileNotificationSink implements OutbidNotificationSink {
+
+    private static final String FILE_NOT_SET_MSG = "auction.notification.file must be set for the file sink";
+
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+
+    public FileNotificationSink(NotificationProperties properties, ObjectMapper objectMapper) throws IOException {
+        if (properties.getFile() == null) {
+            throw new IllegalStateException(FILE_NOT_SET_MSG);
+        }
+
+        Path file = Paths.get(properties.getFile());
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        this.objectMapper = objectMapper;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        log.info("Appending outbid notifications to : {}", file.toAbsolutePath());
+    }
+
+    @Override
+    public void deliver(List<OutbidNotification> notifications) {
+        try {
+            for (OutbidNotification notification : notifications) {
+                writer.write(objectMapper.writeValueAsString(notification));
+                writer.newLine();
+            }
+
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        writer.close();
+    }
+}
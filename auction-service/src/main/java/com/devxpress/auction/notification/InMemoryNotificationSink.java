@@ -0,0 +1,45 @@
+package com.devxpress.auction.notification;
+
+import com.devxpress.auction.configuration.NotificationProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Retains the most recent notifications in memory, for testing and local use.
+ */
+@Component
+@ConditionalOnProperty(name = "auction.notification.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryNotificationSink implements OutbidNotificationSink {
+
+    private final int retained;
+
+    // Oldest first
+    private final Deque<OutbidNotification> notifications = new ArrayDeque<>();
+
+    public InMemoryNotificationSink(NotificationProperties properties) {
+        this.retained = Math.max(1, properties.getRetained());
+    }
+
+    @Override
+    public synchronized void deliver(List<OutbidNotification> delivered) {
+        for (OutbidNotification notification : delivered) {
+            if (notifications.size() == retained) {
+                notifications.removeFirst();
+            }
+
+            notifications.addLast(notification);
+        }
+    }
+
+    /**
+     * @return the notifications retained, oldest first
+     */
+    public synchronized List<OutbidNotification> recent() {
+        return new ArrayList<>(notifications);
+    }
+}
@@ -0,0 +1,25 @@
+package com.devxpress.auction.notification;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A user's leading bid on an item has been outbid.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class OutbidEvent {
+
+    private final long itemId;
+
+    // The user's bid, no longer the highest
+    private final BigDecimal outbidAmount;
+
+    private final BigDecimal newAmount;
+
+    private final Instant outbidAt;
+
+}
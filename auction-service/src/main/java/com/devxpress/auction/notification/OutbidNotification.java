@@ -0,0 +1,19 @@
+package com.devxpress.auction.notification;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The events for a user gathered since their last notification, oldest first.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class OutbidNotification {
+
+    private final String userId;
+
+    private final List<OutbidEvent> events;
+
+}
@@ -0,0 +1,19 @@
+package com.devxpress.auction.notification;
+
+import java.util.List;
+
+/**
+ * Delivers outbid notifications onwards, e.g. to a messaging service. Exactly one is active, selected by
+ * {@code auction.notification.sink}.
+ * <p>
+ * Called from a single thread, so deliveries are never concurrent. A slow sink delays only later notifications,
+ * which are dropped once too many users are waiting, never bidding.
+ */
+public interface OutbidNotificationSink {
+
+    /**
+     * @throws RuntimeException if the notifications could not be delivered, in which case they are dropped
+     */
+    void deliver(List<OutbidNotification> notifications);
+
+}
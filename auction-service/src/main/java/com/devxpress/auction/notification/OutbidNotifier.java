@@ -0,0 +1,188 @@
+package com.devxpress.auction.notification;
+
+import com.devxpress.auction.configuration.NotificationProperties;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.repository.AcceptedBidListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tells the previous leader of an item that they have been outbid.
+ * <p>
+ * Accepting a bid only records the event against the outbid user, in a map bounded by user and by events per user,
+ * so that bidding never waits for notification : events beyond either bound are dropped, and a user outbid again on
+ * the same item before being notified is told only of the latest. A single dispatcher thread then takes each user's
+ * events as one notification, passing them to the {@link OutbidNotificationSink} in batches.
+ * <p>
+ * Replicas do not notify, as their primary already has.
+ */
+@Component
+@Slf4j
+@ConditionalOnExpression("${auction.notification.enabled:true} and '${auction.replication.role:none}' != 'replica'")
+public class OutbidNotifier implements AcceptedBidListener {
+
+    private final Map<String, PendingEvents> PENDING_USER_MAP = new ConcurrentHashMap<>();
+
+    private final OutbidNotificationSink sink;
+    private final long batchIntervalMillis;
+    private final int maxBatchSize;
+    private final int maxPendingUsers;
+    private final int maxEventsPerUser;
+    private final long maxEventAgeMillis;
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong deliveredNotifications = new AtomicLong();
+
+    private final Thread dispatcher;
+
+    private volatile boolean stopped;
+
+    public OutbidNotifier(NotificationProperties properties, OutbidNotificationSink sink) {
+        this.sink = sink;
+        this.batchIntervalMillis = Math.max(1, properties.getBatchInterval().toMillis());
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        this.maxPendingUsers = Math.max(1, properties.getMaxPendingUsers());
+        this.maxEventsPerUser = Math.max(1, properties.getMaxEventsPerUser());
+        this.maxEventAgeMillis = properties.getMaxEventAge().toMillis();
+
+        this.dispatcher = new Thread(this::dispatchPeriodically, "outbid-notifier");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Delivers the notifications already pending before stopping.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopped = true;
+        dispatcher.interrupt();
+        dispatcher.join();
+    }
+
+    @Override
+    public void onBidAccepted(BidEntity bid, BidEntity previousHighest) {
+        // Raising their own bid does not outbid the user
+        if (previousHighest == null || previousHighest.getUserId().equals(bid.getUserId())) {
+            return;
+        }
+
+        Instant outbidAt = bid.getSubmittedAt() == null ? Instant.now() : bid.getSubmittedAt();
+
+        if (outbidAt.toEpochMilli() < System.currentTimeMillis() - maxEventAgeMillis) {
+            return;
+        }
+
+        OutbidEvent event = new OutbidEvent(previousHighest.getItemId(), previousHighest.getAmount(),
+                bid.getAmount(), outbidAt);
+
+        PENDING_USER_MAP.compute(previousHighest.getUserId(), (k, v) -> {
+            if (v == null && PENDING_USER_MAP.size() >= maxPendingUsers) {
+                droppedEvents.incrementAndGet();
+                return null;
+            }
+
+            PendingEvents pending = v == null ? new PendingEvents() : v;
+            pending.add(event);
+
+            return pending;
+        });
+    }
+
+    long droppedEvents() {
+        return droppedEvents.get();
+    }
+
+    long deliveredNotifications() {
+        return deliveredNotifications.get();
+    }
+
+    /**
+     * Takes every user's pending events as a notification, delivering them in batches.
+     */
+    void dispatch() {
+        List<OutbidNotification> batch = new ArrayList<>(Math.min(maxBatchSize, PENDING_USER_MAP.size()));
+
+        for (String userId : PENDING_USER_MAP.keySet()) {
+            // Once removed, the user's events are no longer added to, which starts a new notification
+            PendingEvents pending = PENDING_USER_MAP.remove(userId);
+
+            if (pending != null) {
+                batch.add(new OutbidNotification(userId, new ArrayList<>(pending.byItem.values())));
+            }
+
+            if (batch.size() == maxBatchSize) {
+                deliver(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            deliver(batch);
+        }
+    }
+
+    private void deliver(List<OutbidNotification> batch) {
+        try {
+            sink.deliver(batch);
+            deliveredNotifications.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            long events = batch.stream().mapToLong(n -> n.getEvents().size()).sum();
+            droppedEvents.addAndGet(events);
+
+            log.warn("Failed to deliver {} outbid notification(s), dropping {} event(s)", batch.size(), events, e);
+        }
+    }
+
+    private void dispatchPeriodically() {
+        long reportedDropped = 0;
+
+        while (!stopped) {
+            try {
+                Thread.sleep(batchIntervalMillis);
+            } catch (InterruptedException e) {
+                // Woken to stop, so deliver what is pending
+            }
+
+            dispatch();
+
+            long dropped = droppedEvents.get();
+
+            if (dropped > reportedDropped) {
+                log.warn("Dropped {} outbid event(s) in all", dropped);
+                reportedDropped = dropped;
+            }
+        }
+
+        // Events recorded whilst stopping
+        dispatch();
+    }
+
+    private final class PendingEvents {
+
+        // Latest event per item, in the order the items were last outbid
+        private final LinkedHashMap<Long, OutbidEvent> byItem = new LinkedHashMap<>();
+
+        private void add(OutbidEvent event) {
+            if (byItem.remove(event.getItemId()) == null && byItem.size() == maxEventsPerUser) {
+                Iterator<OutbidEvent> oldest = byItem.values().iterator();
+                oldest.next();
+                oldest.remove();
+                droppedEvents.incrementAndGet();
+            }
+
+            byItem.put(event.getItemId(), event);
+        }
+    }
+}
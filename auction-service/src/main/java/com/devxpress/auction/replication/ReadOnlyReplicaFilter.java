@@ -0,0 +1,59 @@
+package com.devxpress.auction.replication;
+
+import com.devxpress.auction.api.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static com.devxpress.auction.api.ApiErrorMessage.READ_ONLY_REPLICA_MSG;
+
+/**
+ * Restricts a replica to reads, and reports its replication lag on every response.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auction.replication.role", havingValue = "replica")
+public class ReadOnlyReplicaFilter extends OncePerRequestFilter {
+
+    static final String REPLICA_LAG_HEADER = "X-Replica-Lag-Millis";
+
+    private final ReplicationSubscriber subscriber;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        response.setHeader(REPLICA_LAG_HEADER, String.valueOf(subscriber.lagMillis()));
+
+        HttpMethod method = HttpMethod.resolve(request.getMethod());
+
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ApiError error = ApiError.ApiErrorBuilder
+                .createInstance(HttpStatus.METHOD_NOT_ALLOWED)
+                .withMessage(READ_ONLY_REPLICA_MSG)
+                .withContextDetail(String.format("%s %s must be sent to the primary",
+                        request.getMethod(), request.getRequestURI()))
+                .build();
+
+        response.setStatus(HttpStatus.METHOD_NOT_ALLOWED.value());
+        response.setHeader("Allow", "GET, HEAD, OPTIONS");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -0,0 +1,14 @@
+package com.devxpress.auction.replication;
+
+/**
+ * Frame types on the replication stream. Each frame is a type byte followed by its body : a bid record
+ * (see {@link com.devxpress.auction.repository.BidRecordCodec}) or, for a heartbeat, the primary's clock in
+ * epoch milliseconds.
+ */
+final class ReplicationFrame {
+
+    static final byte BID = 'B';
+    static final byte HEARTBEAT = 'H';
+
+    private ReplicationFrame() {}
+}
@@ -0,0 +1,179 @@
+package com.devxpress.auction.replication;
+
+import com.devxpress.auction.configuration.ReplicationProperties;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.repository.AcceptedBidListener;
+import com.devxpress.auction.repository.BidRecordCodec;
+import com.devxpress.auction.repository.BidRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primary side of bid replication. Each replica which connects is first sent a snapshot of all bids, oldest
+ * first, then every bid accepted from then on. Replicas ignore bids they already hold, so a bid accepted whilst
+ * the snapshot is being taken may safely be sent twice.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "auction.replication.role", havingValue = "primary")
+public class ReplicationPublisher implements AcceptedBidListener {
+
+    private final ReplicationProperties properties;
+    private final BidRepository bidRepository;
+
+    private final Set<ReplicaSession> sessions = new CopyOnWriteArraySet<>();
+
+    private ServerSocket serverSocket;
+
+    public ReplicationPublisher(ReplicationProperties properties, BidRepository bidRepository) {
+        this.properties = properties;
+        this.bidRepository = bidRepository;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(properties.getPort(), 50, InetAddress.getByName(properties.getHost()));
+
+        Thread acceptor = new Thread(this::acceptReplicas, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        log.info("Accepting replicas on {}:{}", properties.getHost(), serverSocket.getLocalPort());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        serverSocket.close();
+        sessions.forEach(ReplicaSession::close);
+    }
+
+    @Override
+    public void onBidAccepted(BidEntity bid, BidEntity previousHighest) {
+        sessions.forEach(session -> session.offer(bid));
+    }
+
+    int replicaCount() {
+        return sessions.size();
+    }
+
+    private void acceptReplicas() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                ReplicaSession session = new ReplicaSession(socket);
+
+                // Registered before the snapshot is taken so that no bid is missed
+                sessions.add(session);
+
+                Thread sender = new Thread(session, "replication-sender-" + socket.getPort());
+                sender.setDaemon(true);
+                sender.start();
+
+                log.info("Replica connected from {}", socket.getRemoteSocketAddress());
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.error("Failed to accept replica - {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private List<BidEntity> snapshot() {
+        List<BidEntity> bids = new ArrayList<>();
+        bidRepository.findAll().forEach(bids::add);
+
+        // Bids on an item increase in amount over time, so this order is valid for the replica to apply
+        bids.sort(Comparator.comparing(BidEntity::getSubmittedAt));
+        return bids;
+    }
+
+    private final class ReplicaSession implements Runnable {
+
+        private final Socket socket;
+        private final BlockingQueue<BidEntity> queue;
+
+        private volatile boolean closed;
+
+        private ReplicaSession(Socket socket) {
+            this.socket = socket;
+            this.queue = new ArrayBlockingQueue<>(properties.getReplicaQueueCapacity());
+        }
+
+        private void offer(BidEntity bid) {
+            if (!closed && !queue.offer(bid)) {
+                log.warn("Replica at {} is too far behind - disconnecting", socket.getRemoteSocketAddress());
+                close();
+            }
+        }
+
+        @Override
+        public void run() {
+            long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                for (BidEntity bid : snapshot()) {
+                    writeBid(out, bid);
+                }
+                out.flush();
+
+                while (!closed) {
+                    BidEntity bid = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+
+                    if (bid == null) {
+                        out.writeByte(ReplicationFrame.HEARTBEAT);
+                        out.writeLong(System.currentTimeMillis());
+                    } else {
+                        // Send everything that is already waiting before flushing
+                        do {
+                            writeBid(out, bid);
+                        } while ((bid = queue.poll()) != null);
+                    }
+
+                    out.flush();
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("Replica at {} disconnected - {}", socket.getRemoteSocketAddress(), e.getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private void writeBid(DataOutputStream out, BidEntity bid) throws IOException {
+            out.writeByte(ReplicationFrame.BID);
+            BidRecordCodec.write(out, bid);
+        }
+
+        private void close() {
+            closed = true;
+            sessions.remove(this);
+
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Failed to close replica socket - {}", e.getMessage());
+            }
+        }
+    }
+}
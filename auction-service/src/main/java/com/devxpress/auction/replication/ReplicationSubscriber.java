@@ -0,0 +1,124 @@
+package com.devxpress.auction.replication;
+
+import com.devxpress.auction.configuration.ReplicationProperties;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.repository.BidRecordCodec;
+import com.devxpress.auction.repository.BidRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Replica side of bid replication. Tails the primary's stream of accepted bids, applying each to the local
+ * repository, and reconnects (receiving a fresh snapshot) whenever the stream is lost.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "auction.replication.role", havingValue = "replica")
+public class ReplicationSubscriber implements Runnable {
+
+    private final ReplicationProperties properties;
+    private final BidRepository bidRepository;
+
+    private volatile boolean running;
+    private volatile Socket socket;
+
+    // Delay between the primary stamping the latest bid or heartbeat and it being applied here,
+    // and when that was, or -1 if never synchronised
+    private volatile long applyDelayMillis = -1;
+    private volatile long appliedAtMillis;
+
+    public ReplicationSubscriber(ReplicationProperties properties, BidRepository bidRepository) {
+        this.properties = properties;
+        this.bidRepository = bidRepository;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+
+        Thread receiver = new Thread(this, "replication-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+
+        Socket s = socket;
+        if (s != null) {
+            s.close();
+        }
+    }
+
+    /**
+     * @return how far this replica trails the primary in milliseconds, or -1 if it has never synchronised
+     */
+    public long lagMillis() {
+        long applyDelay = applyDelayMillis;
+
+        if (applyDelay < 0) {
+            return -1;
+        }
+
+        // Once a heartbeat is overdue, the primary may have moved on without this replica knowing
+        long overdue = System.currentTimeMillis() - appliedAtMillis - properties.getHeartbeatInterval().toMillis();
+
+        return Math.max(0, Math.max(applyDelay, overdue));
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try (Socket s = new Socket(properties.getHost(), properties.getPort())) {
+                socket = s;
+                log.info("Replicating from primary at {}:{}", properties.getHost(), properties.getPort());
+
+                DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+
+                while (running) {
+                    byte type = in.readByte();
+
+                    if (type == ReplicationFrame.BID) {
+                        BidEntity bid = BidRecordCodec.read(in);
+                        bidRepository.applyAccepted(bid);
+                        applied(bid.getSubmittedAt().toEpochMilli());
+                    } else if (type == ReplicationFrame.HEARTBEAT) {
+                        applied(in.readLong());
+                    } else {
+                        throw new IOException("Unknown replication frame type : " + type);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Lost replication stream from {}:{} - {}",
+                            properties.getHost(), properties.getPort(), e.getMessage());
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void applied(long primaryTimeMillis) {
+        long now = System.currentTimeMillis();
+        appliedAtMillis = now;
+        applyDelayMillis = Math.max(0, now - primaryTimeMillis);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.getReconnectDelay().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.api.BidResult;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The bid resolution shared by every {@link LocalBidRepository} backend. Whilst holding the item's lock, a bid (or
+ * proxy bid) is resolved against the item's highest bid and leading proxy, any visible bid is given its submission
+ * time, and the outcome is stored, before the listeners are told of the accepted bid. Backends differ only in how an
+ * item is locked, and how its state is read and stored.
+ * <p>
+ * A backend may store an outcome only once its item's lock is released, so that the next bid on the item is resolved
+ * whilst the last is still being written. Its listeners are then told once the outcome is stored, in the order stored,
+ * and the bid's submitter waits until then.
+ *
+ * @param <I> the state held for each item
+ */
+abstract class AbstractLocalBidRepository<I> implements LocalBidRepository, SmartInitializingSingleton {
+
+    protected final ProxyBidEngine proxyBidEngine;
+
+    // Already stored, for outcomes stored whilst holding the item's lock
+    protected static final CompletableFuture<Void> STORED = CompletableFuture.completedFuture(null);
+
+    private static final String STORE_FAILED_MSG = "Failed to store bid";
+
+    private final RepositoryListeners<AcceptedBidListener> listeners;
+
+    protected AbstractLocalBidRepository(RepositoryListeners<AcceptedBidListener> listeners,
+                                         ProxyBidEngine proxyBidEngine) {
+        this.listeners = listeners;
+        this.proxyBidEngine = proxyBidEngine;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        listeners.resolve();
+    }
+
+    // Bids rise in amount and submission time, so only a bid accepted without a closing time (e.g. applied from
+    // elsewhere) can lead the item but have been submitted since, in which case the item's bids are read instead
+    @Override
+    public BidEntity findHighestBefore(long itemId, Instant before) {
+        BidEntity highest = locked(itemId, this::highest);
+
+        if (highest == null || highest.getSubmittedAt().isBefore(before)) {
+            return highest;
+        }
+
+        Iterator<BidEntity> bids = findByItemId(itemId, null, before.minusNanos(1)).iterator();
+        return bids.hasNext() ? bids.next() : null;
+    }
+
+    // A bid for an amount which could not be stored is invalid, rather than failing
+    @Override
+    public BidResult<BidEntity> save(BidEntity bid, Instant closesAt) {
+        String unstorable = unstorableAmount(bid.getAmount());
+
+        if (unstorable != null) {
+            return BidResult.invalid(Collections.singletonList(unstorable));
+        }
+
+        return resolve(bid.getItemId(), closesAt, (highest, leadingProxy) ->
+                proxyBidEngine.resolveBid(highest, leadingProxy, bid));
+    }
+
+    @Override
+    public BidResult<BidEntity> saveProxy(ProxyBidEntity proxyBid, Instant closesAt) {
+        String unstorable = unstorableAmount(proxyBid.getMaxAmount());
+
+        if (unstorable != null) {
+            return BidResult.invalid(Collections.singletonList(unstorable));
+        }
+
+        return resolve(proxyBid.getItemId(), closesAt, (highest, leadingProxy) ->
+                proxyBidEngine.resolveProxy(highest, leadingProxy, proxyBid));
+    }
+
+    @Override
+    public boolean applyAccepted(BidEntity bid) {
+        checkAmount(bid.getAmount());
+
+        return awaitStored(locked(bid.getItemId(), item -> {
+            BidEntity previous = highest(item);
+
+            // Already applied
+            if (previous != null && bid.getAmount().compareTo(previous.getAmount()) <= 0) {
+                return CompletableFuture.completedFuture(false);
+            }
+
+            return store(item, bid.getItemId(), bid, false, leadingProxy(item)).thenApply(stored -> {
+                notifyAccepted(bid, previous);
+                return true;
+            });
+        }));
+    }
+
+    // Every outcome is handed to storage before waiting for any, so that they can be stored together
+    @Override
+    public void applyResolved(List<ResolvedBid> resolved) {
+        for (ResolvedBid outcome : resolved) {
+            if (outcome.getBid() != null) {
+                checkAmount(outcome.getBid().getAmount());
+            }
+        }
+
+        List<CompletableFuture<Void>> stored = new ArrayList<>(resolved.size());
+
+        for (ResolvedBid outcome : resolved) {
+            stored.add(locked(outcome.getItemId(), item -> {
+                BidEntity previous = highest(item);
+                BidEntity bid = outcome.getBid() != null && previous != null
+                        && outcome.getBid().getAmount().compareTo(previous.getAmount()) <= 0 ? null : outcome.getBid();
+
+                if (bid == null && !outcome.isProxyChanged()) {
+                    return STORED;
+                }
+
+                return store(item, outcome.getItemId(), bid, outcome.isProxyChanged(), outcome.getLeadingProxy())
+                        .thenRun(() -> {
+                            if (bid != null) {
+                                notifyAccepted(bid, previous);
+                            }
+                        });
+            }));
+        }
+
+        stored.forEach(AbstractLocalBidRepository::awaitStored);
+    }
+
+    /**
+     * Run the action whilst holding the item's lock, creating the item's state if it has none.
+     */
+    protected abstract <T> T locked(long itemId, Function<I, T> action);
+
+    /**
+     * @return the item's highest bid, or null if none, whilst holding its lock
+     */
+    protected abstract BidEntity highest(I item);
+
+    /**
+     * @return the proxy held by the item's highest bidder, or null if none, whilst holding its lock
+     */
+    protected abstract ProxyBidEntity leadingProxy(I item);
+
+    /**
+     * Store an outcome resolved for the item, whilst holding its lock. The item's state reflects the outcome once
+     * this returns, whereas the outcome itself may be stored later, in the order the item's outcomes were resolved.
+     * Should storing fail, the item's state must be restored as stored before another outcome is resolved against it.
+     *
+     * @param bid the item's new highest bid, or null if only the leading proxy has changed
+     * @param proxyChanged whether leadingProxy replaces the item's leading proxy
+     * @return completed once the outcome is stored, e.g. {@link #STORED}
+     */
+    protected abstract CompletableFuture<Void> store(I item, long itemId, BidEntity bid, boolean proxyChanged,
+                                                     ProxyBidEntity leadingProxy);
+
+    protected void notifyAccepted(BidEntity bid, BidEntity previousHighest) {
+        listeners.forEach(l -> l.onBidAccepted(bid, previousHighest));
+    }
+
+    // A bid submitted once the item has closed is refused, so settlement sees every bid accepted before it closed
+    private BidResult<BidEntity> resolve(long itemId, Instant closesAt,
+                                         BiFunction<BidEntity, ProxyBidEntity, ProxyBidEngine.Resolution> resolver) {
+        return awaitStored(locked(itemId, item -> {
+            BidEntity previous = highest(item);
+            ProxyBidEntity leadingProxy = leadingProxy(item);
+            Instant submittedAt = SubmissionClock.next(previous == null ? null : previous.getSubmittedAt());
+
+            if (closesAt != null && !submittedAt.isBefore(closesAt)) {
+                return CompletableFuture.completedFuture(BidResult.<BidEntity>invalid(
+                        Collections.singletonList(String.format(AUCTION_CLOSED, itemId, closesAt))));
+            }
+
+            // Valid bid must be for an amount greater than current highest, and must beat any leading proxy
+            ProxyBidEngine.Resolution resolution = resolver.apply(previous, leadingProxy);
+
+            BidEntity visibleBid = resolution.getVisibleBid();
+            boolean proxyChanged = resolution.getLeadingProxy() != leadingProxy;
+
+            if (visibleBid != null) {
+                String unstorable = unstorableAmount(visibleBid.getAmount());
+
+                if (unstorable != null) {
+                    return CompletableFuture.completedFuture(
+                            BidResult.<BidEntity>invalid(Collections.singletonList(unstorable)));
+                }
+
+                visibleBid.setSubmittedAt(submittedAt);
+            }
+
+            CompletableFuture<Void> stored = visibleBid != null || proxyChanged ?
+                    store(item, itemId, visibleBid, proxyChanged, resolution.getLeadingProxy()) : STORED;
+
+            return stored.thenApply(done -> {
+                if (visibleBid != null) {
+                    notifyAccepted(visibleBid, previous);
+                }
+
+                return resolution.getResult();
+            });
+        }));
+    }
+
+    // Waits outside the item's lock, as the outcome may only be stored once released
+    private static <T> T awaitStored(CompletableFuture<T> stored) {
+        try {
+            return stored.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException(STORE_FAILED_MSG, e.getCause());
+        }
+    }
+}
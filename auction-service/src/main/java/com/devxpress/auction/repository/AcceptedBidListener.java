@@ -0,0 +1,18 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.entity.BidEntity;
+
+/**
+ * Notified of each bid accepted by a {@link BidRepository}, whilst the item's bids are still locked. Bids on an
+ * item are therefore delivered in the order they were accepted, but implementations must return quickly and must
+ * not call back into the repository for the same item.
+ */
+public interface AcceptedBidListener {
+
+    /**
+     * @param bid the accepted bid, which is now the highest for its item
+     * @param previousHighest the bid it displaced, or null if it is the first bid on the item
+     */
+    void onBidAccepted(BidEntity bid, BidEntity previousHighest);
+
+}
@@ -0,0 +1,165 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.configuration.BidHistoryProperties;
+import com.devxpress.auction.entity.BidEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes segments of old bids to gzip files, one file per segment named by item id, on a single background thread
+ * so that bid acceptance never waits on the disk. A segment which fails to be written is held on-heap and written
+ * again after the retry delay, until written. Segments are not recovered after a restart, as the rest of the bid
+ * store is not.
+ */
+@Component
+@Slf4j
+public class BidHistorySpill {
+
+    private static final String SEGMENT_FILE_FORMAT = "%d-%d.bids.gz";
+
+    private final BidHistoryProperties properties;
+    private final AtomicLong segmentSequence = new AtomicLong();
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "bid-history-spill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Path directory;
+    private boolean temporaryDirectory;
+
+    public BidHistorySpill(BidHistoryProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.getHotBidsPerItem() > 0;
+    }
+
+    public int getHotBidsPerItem() {
+        return properties.getHotBidsPerItem();
+    }
+
+    public int getSegmentSize() {
+        return properties.getSegmentSize();
+    }
+
+    /**
+     * Write the segment (oldest bid first) in the background, handing the file to the book once written. The book
+     * keeps the segment on-heap until then.
+     */
+    void write(ItemBidBook book, BidEntity[] segment) {
+        schedule(book, segment, 0);
+    }
+
+    /**
+     * @return the segment's bids, oldest first
+     */
+    BidEntity[] read(Path path) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path))))) {
+
+            BidEntity[] segment = new BidEntity[in.readInt()];
+
+            for (int i = 0; i < segment.length; i++) {
+                segment[i] = BidRecordCodec.read(in);
+            }
+
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Failed to read bid history segment : %s", path), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.shutdownNow();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+
+        if (temporaryDirectory) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            } catch (IOException e) {
+                log.warn("Failed to remove bid history directory : {}", directory, e);
+            }
+        }
+    }
+
+    private void schedule(ItemBidBook book, BidEntity[] segment, long delayMillis) {
+        try {
+            writer.schedule(() -> {
+                try {
+                    book.spilled(segment, writeSegment(book.getItemId(), segment));
+                } catch (IOException | RuntimeException e) {
+                    if (writer.isShutdown()) {
+                        return;
+                    }
+
+                    long retryDelayMillis = properties.getRetryDelay().toMillis();
+                    log.error("Failed to spill {} bids for item : {} - retaining on-heap, retrying in {} ms",
+                            segment.length, book.getItemId(), retryDelayMillis, e);
+
+                    schedule(book, segment, retryDelayMillis);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Bid history spill stopped - retaining {} bids for item : {} on-heap", segment.length,
+                    book.getItemId());
+        }
+    }
+
+    private Path writeSegment(long itemId, BidEntity[] segment) throws IOException {
+        Path path = directory().resolve(
+                String.format(SEGMENT_FILE_FORMAT, itemId, segmentSequence.incrementAndGet()));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(path))))) {
+
+            out.writeInt(segment.length);
+
+            for (BidEntity bid : segment) {
+                BidRecordCodec.write(out, bid);
+            }
+        }
+
+        return path;
+    }
+
+    // Only called on the writer thread
+    private Path directory() throws IOException {
+        if (directory == null) {
+            if (properties.getSpillDirectory() == null) {
+                Path temporary = Files.createTempDirectory("auction-bid-history");
+                temporaryDirectory = true;
+                directory = temporary;
+            } else {
+                directory = Files.createDirectories(Paths.get(properties.getSpillDirectory()));
+            }
+
+            log.info("Spilling bid history to : {}", directory);
+        }
+
+        return directory;
+    }
+}
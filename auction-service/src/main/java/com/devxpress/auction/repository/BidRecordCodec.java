@@ -0,0 +1,55 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.entity.BidEntity;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+
+/**
+ * Compact binary form of an accepted bid, used wherever bids leave the heap.
+ * The amount keeps its scale, so a decoded bid is equal to the one encoded, whatever its scale or precision.
+ */
+public final class BidRecordCodec {
+
+    private static final String CORRUPT_AMOUNT_MSG = "Corrupt bid record amount of length : %d";
+
+    private BidRecordCodec() {}
+
+    public static void write(DataOutput out, BidEntity bid) throws IOException {
+        out.writeLong(bid.getItemId());
+        out.writeUTF(bid.getUserId());
+
+        byte[] unscaled = bid.getAmount().unscaledValue().toByteArray();
+        out.writeInt(bid.getAmount().scale());
+        out.writeInt(unscaled.length);
+        out.write(unscaled);
+
+        out.writeLong(bid.getSubmittedAt().getEpochSecond());
+        out.writeInt(bid.getSubmittedAt().getNano());
+    }
+
+    public static BidEntity read(DataInput in) throws IOException {
+        BidEntity bid = new BidEntity();
+        bid.setItemId(in.readLong());
+        bid.setUserId(in.readUTF());
+
+        int scale = in.readInt();
+        int length = in.readInt();
+
+        if (length <= 0) {
+            throw new IOException(String.format(CORRUPT_AMOUNT_MSG, length));
+        }
+
+        byte[] unscaled = new byte[length];
+        in.readFully(unscaled);
+        bid.setAmount(new BigDecimal(new BigInteger(unscaled), scale));
+
+        bid.setSubmittedAt(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+
+        return bid;
+    }
+}
@@ -1,15 +1,92 @@
 package com.devxpress.auction.repository;
 
+import com.devxpress.auction.api.BidResult;
 import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
+
+import java.time.Instant;
+import java.util.stream.StreamSupport;
 
 public interface BidRepository {
 
+    String AUCTION_CLOSED = "Auction for item : %d, closed at : %s";
+
     Iterable<BidEntity> findAll();
 
+    /**
+     * @return the id of every item with bids (and possibly of items without), so that each item's bids can be read
+     * in turn
+     */
+    Iterable<Long> findItemIds();
+
     Iterable<BidEntity> findByItemId(long itemId);
 
+    /**
+     * As {@link #findByItemId(long)}, but only the item's newest (and highest) bids, reading no more than those.
+     */
+    default Iterable<BidEntity> findByItemId(long itemId, int limit) {
+        return () -> StreamSupport.stream(findByItemId(itemId).spliterator(), false).limit(limit).iterator();
+    }
+
+    /**
+     * As {@link #findByItemId(long)}, but only the bids submitted within the range. Submission times strictly
+     * increase within an item, so the latest time already seen, as since, selects exactly the bids after it.
+     *
+     * @param since exclusive lower bound on submission time, or null for no lower bound
+     * @param until inclusive upper bound on submission time, or null for no upper bound
+     */
+    Iterable<BidEntity> findByItemId(long itemId, Instant since, Instant until);
+
     Iterable<BidEntity> findByUserId(String userId);
 
-    BidEntity save(BidEntity bid);
+    /**
+     * @return the item's highest bid submitted before the time, or null if none. Read whilst holding the item's lock,
+     * so once no bid submitted before the time can be accepted (see {@link #AUCTION_CLOSED}), every such bid is seen,
+     * whether or not it has yet been stored.
+     */
+    BidEntity findHighestBefore(long itemId, Instant before);
+
+    /**
+     * Save the bid if it is higher than the item's current highest and any leading proxy. A bid outbid by the leading
+     * proxy is not saved, but raises the proxy's visible bid.
+     */
+    default BidResult<BidEntity> save(BidEntity bid) {
+        return save(bid, null);
+    }
+
+    /**
+     * As {@link #save(BidEntity)}, but refused as {@link #AUCTION_CLOSED} unless submitted before the item closes. The
+     * submission time is taken whilst holding the item's lock, so no bid is accepted once the item has closed.
+     *
+     * @param closesAt when the item's auction closes, or null if it never closes
+     */
+    BidResult<BidEntity> save(BidEntity bid, Instant closesAt);
+
+    /**
+     * Resolve the proxy against the item's current highest bid and leading proxy, saving only the resulting
+     * visible bid (if the price changes).
+     *
+     * @return the item's highest bid, if the proxy now leads
+     */
+    default BidResult<BidEntity> saveProxy(ProxyBidEntity proxyBid) {
+        return saveProxy(proxyBid, null);
+    }
+
+    /**
+     * As {@link #saveProxy(ProxyBidEntity)}, but refused as {@link #AUCTION_CLOSED} unless submitted before the item
+     * closes.
+     *
+     * @param closesAt when the item's auction closes, or null if it never closes
+     */
+    BidResult<BidEntity> saveProxy(ProxyBidEntity proxyBid, Instant closesAt);
+
+    /**
+     * Apply a bid which has already been accepted elsewhere (e.g. by a replicated primary), keeping its
+     * submission time. A bid which is not higher than the item's current highest has already been applied,
+     * so is ignored.
+     *
+     * @return true if the bid was applied
+     */
+    boolean applyAccepted(BidEntity bid);
 
 }
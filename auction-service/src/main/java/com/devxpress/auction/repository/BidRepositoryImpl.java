@@ -1,73 +1,163 @@
 package com.devxpress.auction.repository;
 
-import com.devxpress.auction.api.exception.InvalidResourceException;
+import com.devxpress.auction.configuration.ProxyBidProperties;
 import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
+import com.devxpress.auction.entity.UserSymbolTable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 @Component
-public class BidRepositoryImpl implements BidRepository {
+@ConditionalOnProperty(name = "auction.bid.storage.type", havingValue = "memory", matchIfMissing = true)
+public class BidRepositoryImpl extends AbstractLocalBidRepository<ItemBidBook> {
 
-    private final Map<Long, LinkedList<BidEntity>> ITEM_BID_MAP = new ConcurrentHashMap<>();
+    // Each item's bids are ordered by time, so a range is found by binary search
+    private static final Set<StorageCapability> CAPABILITIES = Collections.unmodifiableSet(
+            EnumSet.of(StorageCapability.RANGE_QUERIES));
+
+    private final Map<Long, ItemBidBook> ITEM_BID_MAP = new ConcurrentHashMap<>();
+
+    private final BidHistorySpill historySpill;
+
+    // Users of the bids held, interned as each bid is stored
+    private final UserSymbolTable userSymbols = new UserSymbolTable();
+
+    public BidRepositoryImpl(AcceptedBidListener... listeners) {
+        this(null, listeners);
+    }
+
+    BidRepositoryImpl(BidHistorySpill historySpill, AcceptedBidListener... listeners) {
+        super(RepositoryListeners.of(listeners), new ProxyBidEngine(new ProxyBidProperties()));
+        this.historySpill = historySpill;
+    }
+
+    @Autowired
+    public BidRepositoryImpl(ObjectProvider<AcceptedBidListener> listenerProvider, BidHistorySpill historySpill,
+                             ProxyBidEngine proxyBidEngine) {
+        super(RepositoryListeners.provided(listenerProvider), proxyBidEngine);
+        this.historySpill = historySpill;
+    }
 
     @Override
     public Iterable<BidEntity> findAll() {
         return ITEM_BID_MAP.values()
                 .stream()
-                .flatMap(Collection::stream)
+                .flatMap(book -> StreamSupport.stream(book.spliterator(), false))
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Iterable<Long> findItemIds() {
+        return ITEM_BID_MAP.keySet();
+    }
+
+    /**
+     * @return the item's bids, newest first, read lazily from any spilled history
+     */
     @Override
     public Iterable<BidEntity> findByItemId(long itemId) {
-        return new ArrayList<>(ITEM_BID_MAP.getOrDefault(itemId, new LinkedList<>()));
+        ItemBidBook book = ITEM_BID_MAP.get(itemId);
+        return book == null ? Collections.emptyList() : book;
+    }
+
+    /**
+     * @return the item's bids within the range, newest first, found by binary search and read lazily from any
+     * spilled history which overlaps the range
+     */
+    @Override
+    public Iterable<BidEntity> findByItemId(long itemId, Instant since, Instant until) {
+        ItemBidBook book = ITEM_BID_MAP.get(itemId);
+        return book == null ? Collections.emptyList() : book.between(since, until);
     }
 
     @Override
     public Iterable<BidEntity> findByUserId(String userId) {
+        int userHandle = userSymbols.lookup(userId);
+
+        // No bid by a user never interned is held
+        if (userHandle == UserSymbolTable.NO_USER) {
+            return Collections.emptyList();
+        }
+
         return ITEM_BID_MAP.values()
                 .stream()
-                .flatMap(Collection::stream)
-                .filter(bid -> bid.getUserId().equals(userId))
+                .flatMap(book -> book.byUser(userHandle).stream())
                 .collect(Collectors.toList());
     }
 
     @Override
-    public BidEntity save(BidEntity bid) {
-        ITEM_BID_MAP.compute(bid.getItemId(),
+    public Set<StorageCapability> capabilities() {
+        return CAPABILITIES;
+    }
+
+    @Override
+    public ProxyBidEntity findLeadingProxy(long itemId) {
+        // Read whilst the item is locked, as the book's proxy is written only under its lock
+        ProxyBidEntity[] leadingProxy = new ProxyBidEntity[1];
+
+        ITEM_BID_MAP.computeIfPresent(itemId,
                 (k, v) -> {
-                    LinkedList<BidEntity> vals = v;
-
-                    if (vals == null) {
-                        vals = new LinkedList<>();
-
-                        bid.setSubmittedAt(Instant.now());
-                        vals.addFirst(bid);
-                    } else {
-                        // Valid bid must be for an amount greater than current highest
-                        // which is the first bid in the linked list
-                        if (bid.getAmount().compareTo(vals.getFirst().getAmount()) > 0) {
-                            bid.setSubmittedAt(Instant.now());
-                            vals.addFirst(bid);
-                        } else {
-                            String msg = String.format(
-                                    "Invalid bid on item : %s, for user : %s", bid.getItemId(), bid.getUserId());
-                            InvalidResourceException ire = new InvalidResourceException(msg);
-                            ire.addReason("Amount bid must be greater than current highest");
-                            throw ire;
-                        }
-                    }
+                    leadingProxy[0] = v.getLeadingProxy();
+                    return v;
+                });
+
+        return leadingProxy[0];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> T locked(long itemId, Function<ItemBidBook, T> action) {
+        // Captured from within the compute function, so that the action runs whilst the item is locked
+        Object[] result = new Object[1];
 
+        ITEM_BID_MAP.compute(itemId,
+                (k, v) -> {
+                    ItemBidBook vals = v == null ? new ItemBidBook(k, historySpill) : v;
+                    result[0] = action.apply(vals);
                     return vals;
                 });
 
-        return bid;
+        return (T) result[0];
+    }
+
+    // The newest bid in the book
+    @Override
+    protected BidEntity highest(ItemBidBook book) {
+        return book.highest();
+    }
+
+    @Override
+    protected ProxyBidEntity leadingProxy(ItemBidBook book) {
+        return book.getLeadingProxy();
+    }
+
+    @Override
+    protected CompletableFuture<Void> store(ItemBidBook book, long itemId, BidEntity bid, boolean proxyChanged,
+                                            ProxyBidEntity leadingProxy) {
+        if (bid != null) {
+            int userHandle = userSymbols.intern(bid.getUserId());
+
+            bid.setUserId(userSymbols.resolve(userHandle));
+            book.add(bid, userHandle);
+        }
+
+        if (proxyChanged) {
+            book.setLeadingProxy(leadingProxy);
+        }
+
+        return STORED;
     }
 }
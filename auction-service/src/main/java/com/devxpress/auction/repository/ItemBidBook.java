@@ -0,0 +1,311 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Bids accepted for a single item, iterated newest (and so highest) first.
+ * <p>
+ * Bids are held in submission order, and submission times strictly increase within an item, so the bids within a
+ * time range are found by binary search. The most recent bids are held on-heap. When a spill is given, bids beyond
+ * its hot tier are handed to it a segment at a time and, once written, dropped from the heap. Iteration works from
+ * a snapshot and reads spilled segments only as it reaches them, skipping those outside the time range, so callers
+ * that stop early or ask only for recent bids never touch the disk.
+ * <p>
+ * Each bid's user is also held as its handle in the repository's {@link com.devxpress.auction.entity.UserSymbolTable},
+ * alongside the bid and kept on-heap once the bid is spilled, so a user's bids are found by comparing handles, and
+ * only the spilled segments holding one of them are read.
+ */
+public class ItemBidBook implements Iterable<BidEntity> {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final long itemId;
+    private final BidHistorySpill spill;
+
+    // Ring of the most recent bids, oldest first from hotStart, and of their users' handles
+    private BidEntity[] hot = new BidEntity[INITIAL_CAPACITY];
+    private int[] hotUsers = new int[INITIAL_CAPACITY];
+    private int hotStart;
+    private int hotSize;
+
+    // Older bids, oldest segment first, each held on-heap until the spill has written it
+    private final List<Segment> segments = new ArrayList<>();
+
+    private long size;
+
+    // Only read or written whilst holding the item's lock in the repository
+    private ProxyBidEntity leadingProxy;
+
+    ItemBidBook(long itemId, BidHistorySpill spill) {
+        this.itemId = itemId;
+        this.spill = spill != null && spill.isEnabled() ? spill : null;
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    public synchronized BidEntity highest() {
+        return hotSize == 0 ? null : hotBid(hotSize - 1);
+    }
+
+    /**
+     * @param since exclusive lower bound on submission time, or null for the first bid onwards
+     * @param until inclusive upper bound on submission time, or null for up to the latest bid
+     * @return the bids submitted within the range, newest first
+     */
+    public Iterable<BidEntity> between(Instant since, Instant until) {
+        return () -> iterator(since, until);
+    }
+
+    ProxyBidEntity getLeadingProxy() {
+        return leadingProxy;
+    }
+
+    void setLeadingProxy(ProxyBidEntity leadingProxy) {
+        this.leadingProxy = leadingProxy;
+    }
+
+    synchronized void add(BidEntity bid, int userHandle) {
+        if (hotSize == hot.length) {
+            BidEntity[] grown = new BidEntity[hot.length * 2];
+            int[] grownUsers = new int[hot.length * 2];
+
+            for (int i = 0; i < hotSize; i++) {
+                grown[i] = hotBid(i);
+                grownUsers[i] = hotUsers[(hotStart + i) % hot.length];
+            }
+
+            hot = grown;
+            hotUsers = grownUsers;
+            hotStart = 0;
+        }
+
+        hot[(hotStart + hotSize) % hot.length] = bid;
+        hotUsers[(hotStart + hotSize) % hot.length] = userHandle;
+        hotSize++;
+        size++;
+
+        if (spill != null && hotSize >= spill.getHotBidsPerItem() + spill.getSegmentSize()) {
+            BidEntity[] bids = new BidEntity[spill.getSegmentSize()];
+            int[] users = new int[bids.length];
+
+            for (int i = 0; i < bids.length; i++) {
+                bids[i] = hot[hotStart];
+                users[i] = hotUsers[hotStart];
+                hot[hotStart] = null;
+                hotStart = (hotStart + 1) % hot.length;
+            }
+
+            hotSize -= bids.length;
+
+            segments.add(new Segment(bids, users));
+            spill.write(this, bids);
+        }
+    }
+
+    /**
+     * @return the bids of the user with the handle, newest first
+     */
+    List<BidEntity> byUser(int userHandle) {
+        List<BidEntity> bids = new ArrayList<>();
+        List<Segment> holding = new ArrayList<>();
+        List<Supplier<BidEntity[]>> segmentBids = new ArrayList<>();
+
+        synchronized (this) {
+            for (int i = hotSize - 1; i >= 0; i--) {
+                if (hotUsers[(hotStart + i) % hot.length] == userHandle) {
+                    bids.add(hotBid(i));
+                }
+            }
+
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                Segment segment = segments.get(i);
+
+                if (segment.holds(userHandle)) {
+                    BidEntity[] held = segment.bids;
+                    Path path = segment.path;
+
+                    holding.add(segment);
+                    segmentBids.add(() -> held != null ? held : spill.read(path));
+                }
+            }
+        }
+
+        // Spilled segments are read outside the book's lock
+        for (int s = 0; s < holding.size(); s++) {
+            int[] users = holding.get(s).userHandles;
+            BidEntity[] segment = segmentBids.get(s).get();
+
+            for (int i = users.length - 1; i >= 0; i--) {
+                if (users[i] == userHandle) {
+                    bids.add(segment[i]);
+                }
+            }
+        }
+
+        return bids;
+    }
+
+    synchronized void spilled(BidEntity[] bids, Path path) {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+
+            if (segment.bids == bids) {
+                segment.path = path;
+                segment.bids = null;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public Iterator<BidEntity> iterator() {
+        return iterator(null, null);
+    }
+
+    private Iterator<BidEntity> iterator(Instant since, Instant until) {
+        // Slices of the range, newest slice first, each holding its bids oldest first
+        List<Supplier<BidEntity[]>> slices = new ArrayList<>();
+
+        synchronized (this) {
+            int from = since == null ? 0 : firstAfter(hotSize, this::hotBid, since);
+            int to = until == null ? hotSize : firstAfter(hotSize, this::hotBid, until);
+
+            BidEntity[] hotSlice = new BidEntity[Math.max(0, to - from)];
+            for (int i = 0; i < hotSlice.length; i++) {
+                hotSlice[i] = hotBid(from + i);
+            }
+            slices.add(() -> hotSlice);
+
+            // Segments are older than every hot bid, so are only needed if the range starts before the hot tier
+            if (from == 0) {
+                for (int i = segments.size() - 1; i >= 0; i--) {
+                    Segment segment = segments.get(i);
+
+                    if (since != null && !segment.newest.isAfter(since)) {
+                        break;
+                    }
+
+                    if (until != null && segment.oldest.isAfter(until)) {
+                        continue;
+                    }
+
+                    BidEntity[] bids = segment.bids;
+                    Path path = segment.path;
+
+                    slices.add(() -> slice(bids != null ? bids : spill.read(path), since, until));
+                }
+            }
+        }
+
+        return new NewestFirstIterator(slices.iterator());
+    }
+
+    private BidEntity hotBid(int index) {
+        return hot[(hotStart + index) % hot.length];
+    }
+
+    private static BidEntity[] slice(BidEntity[] bids, Instant since, Instant until) {
+        int from = since == null ? 0 : firstAfter(bids.length, i -> bids[i], since);
+        int to = until == null ? bids.length : firstAfter(bids.length, i -> bids[i], until);
+
+        return from == 0 && to == bids.length ? bids : Arrays.copyOfRange(bids, from, Math.max(from, to));
+    }
+
+    /**
+     * @return the index of the first of the bids (in submission order) submitted after the time, or count if none
+     */
+    private static int firstAfter(int count, IntFunction<BidEntity> bids, Instant time) {
+        int low = 0;
+        int high = count;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (bids.apply(middle).getSubmittedAt().isAfter(time)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        return low;
+    }
+
+    private static final class Segment {
+
+        private final Instant oldest;
+        private final Instant newest;
+
+        // Handles of the bids' users, oldest first, held on-heap once the bids are written
+        private final int[] userHandles;
+
+        // Bids, oldest first, until written to path
+        private BidEntity[] bids;
+        private Path path;
+
+        private Segment(BidEntity[] bids, int[] userHandles) {
+            this.bids = bids;
+            this.userHandles = userHandles;
+            this.oldest = bids[0].getSubmittedAt();
+            this.newest = bids[bids.length - 1].getSubmittedAt();
+        }
+
+        private boolean holds(int userHandle) {
+            for (int handle : userHandles) {
+                if (handle == userHandle) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    private static final class NewestFirstIterator implements Iterator<BidEntity> {
+
+        private final Iterator<Supplier<BidEntity[]>> slices;
+
+        private BidEntity[] slice;
+        private int index = -1;
+
+        private NewestFirstIterator(Iterator<Supplier<BidEntity[]>> slices) {
+            this.slices = slices;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (index < 0 && slices.hasNext()) {
+                slice = slices.next().get();
+                index = slice.length - 1;
+            }
+
+            return index >= 0;
+        }
+
+        @Override
+        public BidEntity next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return slice[index--];
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.entity.ItemEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the item catalog : items by id, in load order, and items by category. A new catalog is
+ * built in full and then swapped in, so readers never see a partly loaded catalog.
+ */
+public final class ItemCatalog {
+
+    private final Map<Long, ItemEntity> itemMap;
+    private final Map<String, List<ItemEntity>> categoryIndex;
+
+    private ItemCatalog(Map<Long, ItemEntity> itemMap, Map<String, List<ItemEntity>> categoryIndex) {
+        this.itemMap = Collections.unmodifiableMap(itemMap);
+        this.categoryIndex = Collections.unmodifiableMap(categoryIndex);
+    }
+
+    public static ItemCatalog of(Collection<ItemEntity> items) {
+        Builder builder = new Builder(items.size());
+        items.forEach(builder::add);
+        return builder.build();
+    }
+
+    public Collection<ItemEntity> items() {
+        return itemMap.values();
+    }
+
+    public ItemEntity get(Long itemId) {
+        return itemMap.get(itemId);
+    }
+
+    public List<ItemEntity> inCategory(String category) {
+        return categoryIndex.getOrDefault(category, Collections.emptyList());
+    }
+
+    public int size() {
+        return itemMap.size();
+    }
+
+    /**
+     * Builds the item map and category index together, in a single pass over the items. A later item with the
+     * same id replaces the earlier one.
+     */
+    public static final class Builder {
+
+        private final Map<Long, ItemEntity> itemMap;
+        private final Map<String, List<ItemEntity>> categoryIndex = new HashMap<>();
+
+        private int replaced;
+
+        public Builder(int expectedItems) {
+            this.itemMap = new LinkedHashMap<>(Math.max(16, (int) (expectedItems / 0.75f) + 1));
+        }
+
+        public Builder add(ItemEntity item) {
+            ItemEntity previous = itemMap.put(item.getId(), item);
+
+            if (previous != null) {
+                replaced++;
+
+                if (previous.getCategory() != null) {
+                    categoryIndex.get(previous.getCategory()).remove(previous);
+                }
+            }
+
+            if (item.getCategory() != null) {
+                categoryIndex.computeIfAbsent(item.getCategory(), k -> new ArrayList<>()).add(item);
+            }
+
+            return this;
+        }
+
+        // Items which replaced an earlier item with the same id
+        public int replaced() {
+            return replaced;
+        }
+
+        public ItemCatalog build() {
+            categoryIndex.replaceAll((category, items) -> Collections.unmodifiableList(items));
+            return new ItemCatalog(itemMap, categoryIndex);
+        }
+    }
+}
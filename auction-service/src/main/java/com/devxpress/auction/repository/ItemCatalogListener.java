@@ -0,0 +1,16 @@
+package com.devxpress.auction.repository;
+
+/**
+ * Notified each time an {@link ItemRepository}'s catalog is replaced, once the new catalog is visible to readers.
+ * Replacements are delivered one at a time and in order, starting with the initial catalog replacing an empty one,
+ * so an implementation can maintain its own state by applying only the difference between the two catalogs.
+ */
+public interface ItemCatalogListener {
+
+    /**
+     * @param previous the catalog replaced, which is empty for the initial catalog
+     * @param current the catalog now in place
+     */
+    void onCatalogReplaced(ItemCatalog previous, ItemCatalog current);
+
+}
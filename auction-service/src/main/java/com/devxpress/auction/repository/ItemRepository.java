@@ -3,11 +3,25 @@ package com.devxpress.auction.repository;
 import com.devxpress.auction.entity.ItemEntity;
 
 import java.util.Optional;
+import java.util.Set;
 
+/**
+ * The item storage SPI : exactly one backend is active, selected by {@code auction.item.storage.type}, and every
+ * backend must pass {@code ItemRepositoryConformanceTest}.
+ */
 public interface ItemRepository {
 
     Iterable<ItemEntity> findAll();
 
     Optional<ItemEntity> findById(Long itemId);
 
+    Iterable<ItemEntity> findByCategory(String category);
+
+    /**
+     * Atomically replace every item with those in the catalog, then notify each {@link ItemCatalogListener}.
+     */
+    void replaceAll(ItemCatalog catalog);
+
+    Set<StorageCapability> capabilities();
+
 }
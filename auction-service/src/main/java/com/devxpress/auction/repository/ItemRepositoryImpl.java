@@ -1,33 +1,80 @@
 package com.devxpress.auction.repository;
 
 import com.devxpress.auction.entity.ItemEntity;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.LinkedHashSet;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Component
-public class ItemRepositoryImpl implements ItemRepository {
+@ConditionalOnProperty(name = "auction.item.storage.type", havingValue = "memory", matchIfMissing = true)
+public class ItemRepositoryImpl implements ItemRepository, SmartInitializingSingleton {
 
-    private static final Map<Long, ItemEntity> ITEM_MAP_REPO = new LinkedHashMap<>();
+    // Items by category are read from the catalog's category index
+    private static final Set<StorageCapability> CAPABILITIES = Collections.unmodifiableSet(
+            EnumSet.of(StorageCapability.SECONDARY_INDEXES));
 
-    static {
-        ITEM_MAP_REPO.put(1L, new ItemEntity(1L, "Awesome item 1", "Books"));
-        ITEM_MAP_REPO.put(2L, new ItemEntity(2L, "Extraordinary item 2", "Electronics"));
-        ITEM_MAP_REPO.put(3L, new ItemEntity(3L, "Fabulous item 3", "Jewelry"));
-        ITEM_MAP_REPO.put(4L, new ItemEntity(4L, "Magnificent item 4", "Travel"));
-        ITEM_MAP_REPO.put(5L, new ItemEntity(5L, "Quite remarkable item 5", "Toys"));
+    // Told of the initial catalog once resolved
+    private final RepositoryListeners<ItemCatalogListener> listeners;
+
+    // Replaced as a whole, see ItemCatalogImporter
+    private volatile ItemCatalog catalog = ItemCatalog.of(Arrays.asList(
+            new ItemEntity(1L, "Awesome item 1", "Books"),
+            new ItemEntity(2L, "Extraordinary item 2", "Electronics"),
+            new ItemEntity(3L, "Fabulous item 3", "Jewelry"),
+            new ItemEntity(4L, "Magnificent item 4", "Travel"),
+            new ItemEntity(5L, "Quite remarkable item 5", "Toys")));
+
+    ItemRepositoryImpl(ItemCatalogListener... listeners) {
+        this.listeners = RepositoryListeners.of(listeners);
+    }
+
+    @Autowired
+    public ItemRepositoryImpl(ObjectProvider<ItemCatalogListener> listenerProvider) {
+        this.listeners = RepositoryListeners.provided(listenerProvider);
+    }
+
+    @Override
+    public synchronized void afterSingletonsInstantiated() {
+        listeners.resolve();
+
+        listeners.forEach(l -> l.onCatalogReplaced(ItemCatalog.of(Collections.emptyList()), catalog));
     }
 
     @Override
     public Iterable<ItemEntity> findAll() {
-        return new LinkedHashSet<>(ITEM_MAP_REPO.values());
+        return new LinkedHashSet<>(catalog.items());
     }
 
     @Override
     public Optional<ItemEntity> findById(Long itemId) {
-        return Optional.ofNullable(ITEM_MAP_REPO.get(itemId));
+        return Optional.ofNullable(catalog.get(itemId));
+    }
+
+    @Override
+    public Iterable<ItemEntity> findByCategory(String category) {
+        return catalog.inCategory(category);
+    }
+
+    // Synchronized so that listeners are told of each replacement in turn
+    @Override
+    public synchronized void replaceAll(ItemCatalog catalog) {
+        ItemCatalog previous = this.catalog;
+        this.catalog = catalog;
+
+        listeners.forEach(l -> l.onCatalogReplaced(previous, catalog));
+    }
+
+    @Override
+    public Set<StorageCapability> capabilities() {
+        return CAPABILITIES;
     }
 }
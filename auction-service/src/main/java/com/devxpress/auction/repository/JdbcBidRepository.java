@@ -0,0 +1,572 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.api.exception.ServiceUnavailableException;
+import com.devxpress.auction.configuration.BidStorageProperties;
+import com.devxpress.auction.configuration.ProxyBidProperties;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bid repository which holds bids durably in an embedded database, reached by JDBC.
+ * <p>
+ * Each item's highest bid and leading proxy are cached, and bids are resolved against them whilst holding the
+ * item's lock, so the highest bid check is atomic without reading the database. The resulting write is handed to a
+ * single writer thread, which commits every write waiting at the time in one batched transaction, so concurrent
+ * bids share the cost of a commit. The item is only locked until its write is queued, so the next bid on the item is
+ * resolved whilst the last is committed, and bids on the same item share commits too. A bid is still only visible
+ * (and listeners only notified, in the order committed) once it is durable.
+ * <p>
+ * A bid whose write fails is refused as unavailable, as are those queued since, which may have been resolved against
+ * it, and the state cached for their items is read again as committed.
+ * <p>
+ * Amounts are stored as a fixed point decimal alongside their scale, so that they are indexed in numeric order yet
+ * read back exactly as written. Amounts with more than 18 decimal places, or 20 integer digits, are refused.
+ */
+@Component
+@Slf4j
+@ConditionalOnExpression("'${auction.bid.storage.type:memory}' == 'embedded' "
+        + "and !${auction.bid.storage.write-behind.enabled:false}")
+public class JdbcBidRepository extends AbstractLocalBidRepository<JdbcBidRepository.ItemState>
+        implements AutoCloseable {
+
+    // Committed to disk, and bids by user are read through the user_id index
+    private static final Set<StorageCapability> CAPABILITIES = Collections.unmodifiableSet(
+            EnumSet.of(StorageCapability.DURABLE, StorageCapability.SECONDARY_INDEXES));
+
+    private static final String[] SCHEMA = {
+            // No surrogate key, as maintaining a third index would cost as much as the bid itself
+            "CREATE TABLE IF NOT EXISTS bids ("
+                    + "item_id BIGINT NOT NULL, "
+                    + "user_id VARCHAR(255) NOT NULL, "
+                    + "amount DECIMAL(38, 18) NOT NULL, "
+                    + "amount_scale SMALLINT NOT NULL, "
+                    + "submitted_at BIGINT NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS bids_item_amount ON bids (item_id, amount)",
+            "CREATE INDEX IF NOT EXISTS bids_user ON bids (user_id)",
+            "CREATE TABLE IF NOT EXISTS leading_proxies ("
+                    + "item_id BIGINT PRIMARY KEY, "
+                    + "user_id VARCHAR(255) NOT NULL, "
+                    + "max_amount DECIMAL(38, 18) NOT NULL, "
+                    + "max_amount_scale SMALLINT NOT NULL)"
+    };
+
+    private static final String BID_COLUMNS = "SELECT item_id, user_id, amount, amount_scale, submitted_at FROM bids";
+
+    private static final String INSERT_BID = "INSERT INTO bids "
+            + "(item_id, user_id, amount, amount_scale, submitted_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String MERGE_PROXY = "MERGE INTO leading_proxies "
+            + "(item_id, user_id, max_amount, max_amount_scale) KEY (item_id) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_PROXY = "DELETE FROM leading_proxies WHERE item_id = ?";
+
+    private static final String SELECT_ALL = BID_COLUMNS;
+    private static final String SELECT_ITEM_IDS = "SELECT DISTINCT item_id FROM bids";
+    private static final String SELECT_BY_ITEM = BID_COLUMNS + " WHERE item_id = ? ORDER BY amount DESC";
+    private static final String SELECT_BY_ITEM_BETWEEN = BID_COLUMNS
+            + " WHERE item_id = ? AND submitted_at > ? AND submitted_at <= ? ORDER BY amount DESC";
+    private static final String SELECT_TOP_BY_ITEM = SELECT_BY_ITEM + " LIMIT ?";
+    private static final String SELECT_BY_USER = BID_COLUMNS + " WHERE user_id = ?";
+    private static final String SELECT_PROXY = "SELECT user_id, max_amount, max_amount_scale FROM leading_proxies "
+            + "WHERE item_id = ?";
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_SCALE = 18;
+    private static final int MAX_INTEGER_DIGITS = 20;
+
+    private static final String AMOUNT_OUT_OF_RANGE_MSG = "Bid amount not supported by embedded storage : %s";
+    private static final String READ_FAILED_MSG = "Failed to read bids from embedded storage";
+    private static final String WRITE_FAILED_MSG = "Failed to write bid for item : %d to embedded storage";
+    private static final String CLOSED_MSG = "Embedded bid storage is closed";
+
+    private final Map<Long, ItemState> ITEM_STATE_MAP = new ConcurrentHashMap<>();
+
+    private final int maxBatchSize;
+    private final BlockingQueue<Connection> readConnections;
+    private final Connection writeConnection;
+    private final BlockingQueue<PendingWrite> pendingWrites = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    private volatile boolean stopped;
+
+    JdbcBidRepository(BidStorageProperties properties, AcceptedBidListener... listeners) throws SQLException {
+        this(properties, RepositoryListeners.of(listeners), new ProxyBidEngine(new ProxyBidProperties()));
+    }
+
+    @Autowired
+    public JdbcBidRepository(BidStorageProperties properties,
+                             ObjectProvider<AcceptedBidListener> listenerProvider,
+                             ProxyBidEngine proxyBidEngine) throws SQLException {
+        this(properties, RepositoryListeners.provided(listenerProvider), proxyBidEngine);
+    }
+
+    private JdbcBidRepository(BidStorageProperties properties, RepositoryListeners<AcceptedBidListener> listeners,
+                              ProxyBidEngine proxyBidEngine) throws SQLException {
+        super(listeners, proxyBidEngine);
+
+        BidStorageProperties.Embedded embedded = properties.getEmbedded();
+
+        this.maxBatchSize = Math.max(1, embedded.getMaxBatchSize());
+        this.writeConnection = DriverManager.getConnection(embedded.getUrl(), embedded.getUsername(),
+                embedded.getPassword());
+
+        try (Statement statement = writeConnection.createStatement()) {
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+        }
+
+        writeConnection.setAutoCommit(false);
+
+        int readCount = Math.max(1, embedded.getReadConnections());
+        this.readConnections = new ArrayBlockingQueue<>(readCount);
+
+        for (int i = 0; i < readCount; i++) {
+            readConnections.add(DriverManager.getConnection(embedded.getUrl(), embedded.getUsername(),
+                    embedded.getPassword()));
+        }
+
+        this.writer = new Thread(this::writeBatches, "bid-repository-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        log.info("Opened embedded bid storage : {}", embedded.getUrl());
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        // Writes already queued are committed before the writer exits
+        stopped = true;
+
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Queued once the writer had last found the queue empty, so it has exited without them
+        failQueued();
+
+        List<Connection> connections = new ArrayList<>(readConnections);
+        connections.add(writeConnection);
+
+        for (Connection connection : connections) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("Failed to close embedded bid storage connection", e);
+            }
+        }
+    }
+
+    @Override
+    public Iterable<BidEntity> findAll() {
+        return query(SELECT_ALL);
+    }
+
+    @Override
+    public Iterable<Long> findItemIds() {
+        return withReadConnection(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_ITEM_IDS);
+                 ResultSet resultSet = statement.executeQuery()) {
+                List<Long> itemIds = new ArrayList<>();
+
+                while (resultSet.next()) {
+                    itemIds.add(resultSet.getLong(1));
+                }
+
+                return itemIds;
+            }
+        });
+    }
+
+    /**
+     * @return the item's bids, newest (and highest) first
+     */
+    @Override
+    public Iterable<BidEntity> findByItemId(long itemId) {
+        return query(SELECT_BY_ITEM, itemId);
+    }
+
+    @Override
+    public Iterable<BidEntity> findByItemId(long itemId, int limit) {
+        return query(SELECT_TOP_BY_ITEM, itemId, limit);
+    }
+
+    @Override
+    public Iterable<BidEntity> findByItemId(long itemId, Instant since, Instant until) {
+        return query(SELECT_BY_ITEM_BETWEEN, itemId,
+                since == null ? Long.MIN_VALUE : toNanos(since),
+                until == null ? Long.MAX_VALUE : toNanos(until));
+    }
+
+    @Override
+    public Iterable<BidEntity> findByUserId(String userId) {
+        return query(SELECT_BY_USER, userId);
+    }
+
+    @Override
+    public Set<StorageCapability> capabilities() {
+        return CAPABILITIES;
+    }
+
+    @Override
+    public ProxyBidEntity findLeadingProxy(long itemId) {
+        return locked(itemId, state -> state.leadingProxy);
+    }
+
+    // Read from the database whilst holding the item's lock, rather than whilst creating the map's entry
+    @Override
+    protected <T> T locked(long itemId, Function<ItemState, T> action) {
+        ItemState state = ITEM_STATE_MAP.computeIfAbsent(itemId, k -> new ItemState());
+
+        synchronized (state) {
+            if (!state.loaded) {
+                load(itemId, state);
+            }
+
+            return action.apply(state);
+        }
+    }
+
+    @Override
+    protected BidEntity highest(ItemState state) {
+        return state.highest;
+    }
+
+    @Override
+    protected ProxyBidEntity leadingProxy(ItemState state) {
+        return state.leadingProxy;
+    }
+
+    // Queued in the order resolved, as the item is locked meanwhile, so its writes are committed in that order
+    @Override
+    protected CompletableFuture<Void> store(ItemState state, long itemId, BidEntity bid, boolean proxyChanged,
+                                            ProxyBidEntity leadingProxy) {
+        if (stopped) {
+            throw new ServiceUnavailableException(CLOSED_MSG);
+        }
+
+        PendingWrite write = new PendingWrite(itemId, bid, proxyChanged, leadingProxy);
+        pendingWrites.add(write);
+
+        // Closed meanwhile, so unless the writer or close has already taken the write, neither will
+        if (stopped && pendingWrites.remove(write)) {
+            throw new ServiceUnavailableException(CLOSED_MSG);
+        }
+
+        if (bid != null) {
+            state.highest = bid;
+        }
+
+        if (proxyChanged) {
+            state.leadingProxy = leadingProxy;
+        }
+
+        return write.committed;
+    }
+
+    private void writeBatches() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+
+        try (PreparedStatement insertBid = writeConnection.prepareStatement(INSERT_BID);
+             PreparedStatement mergeProxy = writeConnection.prepareStatement(MERGE_PROXY);
+             PreparedStatement deleteProxy = writeConnection.prepareStatement(DELETE_PROXY)) {
+
+            while (!stopped || !pendingWrites.isEmpty()) {
+                PendingWrite first = pendingWrites.poll(100, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    continue;
+                }
+
+                // Every write waiting now shares this transaction
+                batch.add(first);
+                pendingWrites.drainTo(batch, maxBatchSize - 1);
+
+                try {
+                    writeBatch(batch, insertBid, mergeProxy, deleteProxy);
+                } catch (SQLException | RuntimeException e) {
+                    log.error("Failed to commit {} bid write(s) to embedded storage", batch.size(), e);
+                    rollback();
+                    clearBatches(insertBid, mergeProxy, deleteProxy);
+                    fail(batch, e);
+                    batch.clear();
+                    continue;
+                }
+
+                // Listeners are told of each bid as its write completes, so in the order committed
+                batch.forEach(write -> write.committed.complete(null));
+
+                batch.clear();
+            }
+        } catch (SQLException e) {
+            log.error("Failed to prepare embedded bid storage writes", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Any write left, e.g. had the statements failed to prepare, is failed rather than left waiting
+        failQueued();
+    }
+
+    private void failQueued() {
+        PendingWrite write;
+
+        while ((write = pendingWrites.poll()) != null) {
+            write.committed.completeExceptionally(new ServiceUnavailableException(CLOSED_MSG));
+        }
+    }
+
+    /**
+     * Fails the writes, and those queued since, which may have been resolved against them, discarding the state
+     * cached for their items. Once an item's state is discarded, no more writes are resolved against the failed ones,
+     * so this stops once no write was queued whilst the last were failed.
+     */
+    private void fail(List<PendingWrite> failed, Exception cause) {
+        List<PendingWrite> writes = new ArrayList<>(failed);
+
+        while (!writes.isEmpty()) {
+            for (PendingWrite write : writes) {
+                ItemState state = ITEM_STATE_MAP.get(write.itemId);
+
+                // Not held whilst waiting on this writer, as the item is only locked until its write is queued
+                synchronized (state) {
+                    state.loaded = false;
+                }
+
+                write.committed.completeExceptionally(new ServiceUnavailableException(
+                        String.format(WRITE_FAILED_MSG, write.itemId), cause));
+            }
+
+            writes.clear();
+            pendingWrites.drainTo(writes);
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch, PreparedStatement insertBid, PreparedStatement mergeProxy,
+                            PreparedStatement deleteProxy) throws SQLException {
+
+        boolean bids = false;
+        boolean merges = false;
+        boolean deletes = false;
+
+        // Merges and deletes are executed as separate batches, so only each item's last proxy change is written
+        Map<Long, PendingWrite> lastProxyWrites = new HashMap<>();
+
+        for (PendingWrite write : batch) {
+            if (write.proxyChanged) {
+                lastProxyWrites.put(write.itemId, write);
+            }
+        }
+
+        for (PendingWrite write : batch) {
+            if (write.bid != null) {
+                BidEntity bid = write.bid;
+                insertBid.setLong(1, bid.getItemId());
+                insertBid.setString(2, bid.getUserId());
+                insertBid.setBigDecimal(3, bid.getAmount());
+                insertBid.setInt(4, bid.getAmount().scale());
+                insertBid.setLong(5, toNanos(bid.getSubmittedAt()));
+                insertBid.addBatch();
+                bids = true;
+            }
+
+            if (lastProxyWrites.get(write.itemId) != write) {
+                continue;
+            }
+
+            if (write.leadingProxy != null) {
+                ProxyBidEntity proxy = write.leadingProxy;
+                mergeProxy.setLong(1, write.itemId);
+                mergeProxy.setString(2, proxy.getUserId());
+                mergeProxy.setBigDecimal(3, proxy.getMaxAmount());
+                mergeProxy.setInt(4, proxy.getMaxAmount().scale());
+                mergeProxy.addBatch();
+                merges = true;
+            } else {
+                deleteProxy.setLong(1, write.itemId);
+                deleteProxy.addBatch();
+                deletes = true;
+            }
+        }
+
+        if (bids) {
+            insertBid.executeBatch();
+        }
+
+        if (merges) {
+            mergeProxy.executeBatch();
+        }
+
+        if (deletes) {
+            deleteProxy.executeBatch();
+        }
+
+        writeConnection.commit();
+    }
+
+    // Batched statements are left unexecuted should the transaction fail part way
+    private void clearBatches(PreparedStatement... statements) {
+        for (PreparedStatement statement : statements) {
+            try {
+                statement.clearBatch();
+            } catch (SQLException e) {
+                log.warn("Failed to clear embedded bid storage writes", e);
+            }
+        }
+    }
+
+    private void rollback() {
+        try {
+            writeConnection.rollback();
+        } catch (SQLException e) {
+            log.warn("Failed to roll back embedded bid storage writes", e);
+        }
+    }
+
+    private void load(long itemId, ItemState state) {
+        List<BidEntity> top = query(SELECT_TOP_BY_ITEM, itemId, 1);
+        state.highest = top.isEmpty() ? null : top.get(0);
+
+        state.leadingProxy = withReadConnection(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_PROXY)) {
+                statement.setLong(1, itemId);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        return null;
+                    }
+
+                    ProxyBidEntity proxy = new ProxyBidEntity();
+                    proxy.setItemId(itemId);
+                    proxy.setUserId(resultSet.getString(1));
+                    proxy.setMaxAmount(resultSet.getBigDecimal(2).setScale(resultSet.getInt(3)));
+                    return proxy;
+                }
+            }
+        });
+
+        state.loaded = true;
+    }
+
+    private List<BidEntity> query(String sql, Object... parameters) {
+        return withReadConnection(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+
+                List<BidEntity> bids = new ArrayList<>();
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        BidEntity bid = new BidEntity();
+                        bid.setItemId(resultSet.getLong(1));
+                        bid.setUserId(resultSet.getString(2));
+                        bid.setAmount(resultSet.getBigDecimal(3).setScale(resultSet.getInt(4)));
+                        bid.setSubmittedAt(Instant.ofEpochSecond(0, resultSet.getLong(5)));
+                        bids.add(bid);
+                    }
+                }
+
+                return bids;
+            }
+        });
+    }
+
+    private <T> T withReadConnection(SqlFunction<T> function) {
+        Connection connection;
+
+        try {
+            connection = readConnections.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(READ_FAILED_MSG, e);
+        }
+
+        try {
+            return function.apply(connection);
+        } catch (SQLException e) {
+            throw new ServiceUnavailableException(READ_FAILED_MSG, e);
+        } finally {
+            readConnections.add(connection);
+        }
+    }
+
+    @Override
+    public String unstorableAmount(BigDecimal amount) {
+        return amount.scale() > MAX_SCALE || amount.precision() - amount.scale() > MAX_INTEGER_DIGITS ?
+                String.format(AMOUNT_OUT_OF_RANGE_MSG, amount) : null;
+    }
+
+    private static long toNanos(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+    }
+
+    @FunctionalInterface
+    private interface SqlFunction<T> {
+
+        T apply(Connection connection) throws SQLException;
+
+    }
+
+    static final class ItemState {
+
+        // Only read or written whilst holding the item's lock (the state itself), and ahead of the writes queued
+        private BidEntity highest;
+        private ProxyBidEntity leadingProxy;
+
+        // Whether read from the database, since created or since its writes failed
+        private boolean loaded;
+
+    }
+
+    private static final class PendingWrite {
+
+        private final long itemId;
+
+        // Bid to insert, or null if only the leading proxy has changed
+        private final BidEntity bid;
+
+        private final boolean proxyChanged;
+        private final ProxyBidEntity leadingProxy;
+
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        private PendingWrite(long itemId, BidEntity bid, boolean proxyChanged, ProxyBidEntity leadingProxy) {
+            this.itemId = itemId;
+            this.bid = bid;
+            this.proxyChanged = proxyChanged;
+            this.leadingProxy = leadingProxy;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.entity.ProxyBidEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A {@link BidRepository} holding this process's own bids, as opposed to one which delegates elsewhere. This is the
+ * bid storage SPI : exactly one backend is active, selected by {@code auction.bid.storage.type}, and every backend
+ * must pass {@code BidRepositoryConformanceTest}.
+ */
+public interface LocalBidRepository extends BidRepository {
+
+    Set<StorageCapability> capabilities();
+
+    /**
+     * @return the proxy held by the item's highest bidder, or null if none
+     */
+    ProxyBidEntity findLeadingProxy(long itemId);
+
+    /**
+     * Apply outcomes resolved elsewhere (e.g. by {@link WriteBehindBidRepository}), in order. Each bid is applied as
+     * by {@link #applyAccepted}, and each changed leading proxy replaces the item's. Outcomes for an item must not
+     * be applied concurrently.
+     */
+    void applyResolved(List<ResolvedBid> resolved);
+
+    /**
+     * @return why a bid for the amount could not be stored, or null if it could
+     */
+    default String unstorableAmount(BigDecimal amount) {
+        return null;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a bid for the amount could not be stored
+     */
+    default void checkAmount(BigDecimal amount) {
+        String reason = unstorableAmount(amount);
+
+        if (reason != null) {
+            throw new IllegalArgumentException(reason);
+        }
+    }
+
+}
@@ -0,0 +1,369 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.api.exception.BaseException;
+import com.devxpress.auction.configuration.BidStorageProperties;
+import com.devxpress.auction.configuration.ProxyBidProperties;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
+import com.devxpress.auction.entity.UserSymbolTable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import static com.devxpress.auction.api.ApiErrorCode.CRITICAL_ERROR;
+
+/**
+ * Bid repository which holds bids as fixed width records in direct memory, so that the heap holds only one small
+ * object per item however many bids are stored.
+ * <p>
+ * Records are appended to an arena of direct buffers, allocated a chunk at a time, and never move. Each record
+ * holds the index of the previous record for the same item, so an item's bids form a chain from its newest (and
+ * highest) bid. {@link BidEntity} objects are created only as bids are read.
+ * <p>
+ * Amounts are stored as an unscaled long and a scale, so bids whose amount does not fit are refused.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "auction.bid.storage.type", havingValue = "off-heap")
+public class OffHeapBidRepository extends AbstractLocalBidRepository<OffHeapBidRepository.ItemChain> {
+
+    // Chains are walked newest first, and bids by user are found by scanning every chain
+    private static final Set<StorageCapability> CAPABILITIES = Collections.unmodifiableSet(
+            EnumSet.noneOf(StorageCapability.class));
+
+    // Record layout
+    private static final int ITEM_ID = 0;
+    private static final int USER_HANDLE = 8;
+    private static final int AMOUNT_SCALE = 12;
+    private static final int AMOUNT_UNSCALED = 16;
+    private static final int SUBMITTED_AT_NANOS = 24;
+    private static final int PREVIOUS_RECORD = 32;
+    static final int RECORD_SIZE = 40;
+
+    private static final long NO_RECORD = -1;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final String ARENA_FULL_MSG = "Off-heap bid storage full : %d bids";
+    private static final String AMOUNT_OUT_OF_RANGE_MSG = "Bid amount not supported by off-heap storage : %s";
+
+    private final Map<Long, ItemChain> ITEM_CHAIN_MAP = new ConcurrentHashMap<>();
+
+    // Users of the bids held, interned as each bid is written, so records refer to users by handle
+    private final UserSymbolTable userSymbols = new UserSymbolTable();
+
+    private final int recordsPerChunk;
+    private final long maxRecords;
+    private final AtomicReferenceArray<ByteBuffer> chunks;
+    private final AtomicLong nextRecord = new AtomicLong();
+
+    OffHeapBidRepository(BidStorageProperties properties, AcceptedBidListener... listeners) {
+        this(properties, RepositoryListeners.of(listeners), new ProxyBidEngine(new ProxyBidProperties()));
+    }
+
+    @Autowired
+    public OffHeapBidRepository(BidStorageProperties properties,
+                                ObjectProvider<AcceptedBidListener> listenerProvider,
+                                ProxyBidEngine proxyBidEngine) {
+        this(properties, RepositoryListeners.provided(listenerProvider), proxyBidEngine);
+    }
+
+    private OffHeapBidRepository(BidStorageProperties properties, RepositoryListeners<AcceptedBidListener> listeners,
+                                 ProxyBidEngine proxyBidEngine) {
+        super(listeners, proxyBidEngine);
+
+        BidStorageProperties.OffHeap offHeap = properties.getOffHeap();
+
+        this.recordsPerChunk = (int) Math.min(Integer.MAX_VALUE / RECORD_SIZE,
+                Math.max(1, offHeap.getChunkSize().toBytes() / RECORD_SIZE));
+        this.maxRecords = offHeap.getMaxSize().toBytes() / RECORD_SIZE;
+        this.chunks = new AtomicReferenceArray<>((int) ((maxRecords + recordsPerChunk - 1) / recordsPerChunk));
+    }
+
+    @Override
+    public Iterable<BidEntity> findAll() {
+        List<BidEntity> bids = new ArrayList<>();
+
+        ITEM_CHAIN_MAP.values().forEach(chain -> new ChainIterator(chain.head).forEachRemaining(bids::add));
+
+        return bids;
+    }
+
+    @Override
+    public Iterable<Long> findItemIds() {
+        return ITEM_CHAIN_MAP.keySet();
+    }
+
+    /**
+     * @return the item's bids, newest first, materialised as they are iterated
+     */
+    @Override
+    public Iterable<BidEntity> findByItemId(long itemId) {
+        ItemChain chain = ITEM_CHAIN_MAP.get(itemId);
+
+        if (chain == null) {
+            return Collections.emptyList();
+        }
+
+        long head = chain.head;
+        return () -> new ChainIterator(head);
+    }
+
+    /**
+     * @return the item's bids within the range, newest first. The chain is walked from the newest bid, reading only
+     * submission times until the range is reached, and stops at the first bid before the range.
+     */
+    @Override
+    public Iterable<BidEntity> findByItemId(long itemId, Instant since, Instant until) {
+        ItemChain chain = ITEM_CHAIN_MAP.get(itemId);
+
+        if (chain == null) {
+            return Collections.emptyList();
+        }
+
+        long head = chain.head;
+        long sinceNanos = since == null ? Long.MIN_VALUE : toNanos(since);
+        long untilNanos = until == null ? Long.MAX_VALUE : toNanos(until);
+
+        return () -> {
+            long record = head;
+
+            while (record != NO_RECORD && submittedAtNanos(record) > untilNanos) {
+                record = previousOf(record);
+            }
+
+            return new ChainIterator(record, sinceNanos);
+        };
+    }
+
+    @Override
+    public Iterable<BidEntity> findByUserId(String userId) {
+        int userHandle = userSymbols.lookup(userId);
+
+        if (userHandle == UserSymbolTable.NO_USER) {
+            return Collections.emptyList();
+        }
+
+        List<BidEntity> bids = new ArrayList<>();
+
+        for (ItemChain chain : ITEM_CHAIN_MAP.values()) {
+            for (long record = chain.head; record != NO_RECORD; record = previousOf(record)) {
+
+                // Only matching records are materialised
+                if (chunk(record).getInt(position(record) + USER_HANDLE) == userHandle) {
+                    bids.add(read(record));
+                }
+            }
+        }
+
+        return bids;
+    }
+
+    @Override
+    public Set<StorageCapability> capabilities() {
+        return CAPABILITIES;
+    }
+
+    @Override
+    public ProxyBidEntity findLeadingProxy(long itemId) {
+        // Read whilst the item is locked, as the chain's proxy is written only under its lock
+        ProxyBidEntity[] leadingProxy = new ProxyBidEntity[1];
+
+        ITEM_CHAIN_MAP.computeIfPresent(itemId,
+                (k, v) -> {
+                    leadingProxy[0] = v.leadingProxy;
+                    return v;
+                });
+
+        return leadingProxy[0];
+    }
+
+    long size() {
+        return Math.min(nextRecord.get(), maxRecords);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> T locked(long itemId, Function<ItemChain, T> action) {
+        // Captured from within the compute function, so that the action runs whilst the item is locked
+        Object[] result = new Object[1];
+
+        ITEM_CHAIN_MAP.compute(itemId,
+                (k, v) -> {
+                    ItemChain chain = v == null ? new ItemChain() : v;
+                    result[0] = action.apply(chain);
+                    return chain;
+                });
+
+        return (T) result[0];
+    }
+
+    // The head of the chain
+    @Override
+    protected BidEntity highest(ItemChain chain) {
+        return chain.head == NO_RECORD ? null : read(chain.head);
+    }
+
+    @Override
+    protected ProxyBidEntity leadingProxy(ItemChain chain) {
+        return chain.leadingProxy;
+    }
+
+    @Override
+    protected CompletableFuture<Void> store(ItemChain chain, long itemId, BidEntity bid, boolean proxyChanged,
+                                            ProxyBidEntity leadingProxy) {
+        if (bid != null) {
+            chain.head = write(bid, chain.head);
+        }
+
+        if (proxyChanged) {
+            chain.leadingProxy = leadingProxy;
+        }
+
+        return STORED;
+    }
+
+    @Override
+    public String unstorableAmount(BigDecimal amount) {
+        return amount.unscaledValue().bitLength() > 63 || amount.scale() != (byte) amount.scale() ?
+                String.format(AMOUNT_OUT_OF_RANGE_MSG, amount) : null;
+    }
+
+    private long write(BidEntity bid, long previous) {
+        long record = nextRecord.getAndIncrement();
+
+        if (record >= maxRecords) {
+            throw new BaseException(String.format(ARENA_FULL_MSG, maxRecords), CRITICAL_ERROR);
+        }
+
+        ByteBuffer chunk = chunk(record);
+        int position = position(record);
+
+        chunk.putLong(position + ITEM_ID, bid.getItemId());
+        chunk.putInt(position + USER_HANDLE, userSymbols.intern(bid.getUserId()));
+        chunk.put(position + AMOUNT_SCALE, (byte) bid.getAmount().scale());
+        chunk.putLong(position + AMOUNT_UNSCALED, bid.getAmount().unscaledValue().longValue());
+        chunk.putLong(position + SUBMITTED_AT_NANOS, toNanos(bid.getSubmittedAt()));
+        chunk.putLong(position + PREVIOUS_RECORD, previous);
+
+        return record;
+    }
+
+    private BidEntity read(long record) {
+        ByteBuffer chunk = chunk(record);
+        int position = position(record);
+
+        BidEntity bid = new BidEntity();
+        bid.setItemId(chunk.getLong(position + ITEM_ID));
+        bid.setUserId(userSymbols.resolve(chunk.getInt(position + USER_HANDLE)));
+        bid.setAmount(amountOf(record));
+        bid.setSubmittedAt(Instant.ofEpochSecond(0, chunk.getLong(position + SUBMITTED_AT_NANOS)));
+
+        return bid;
+    }
+
+    private long submittedAtNanos(long record) {
+        return chunk(record).getLong(position(record) + SUBMITTED_AT_NANOS);
+    }
+
+    private long previousOf(long record) {
+        return chunk(record).getLong(position(record) + PREVIOUS_RECORD);
+    }
+
+    private static long toNanos(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+    }
+
+    private BigDecimal amountOf(long record) {
+        ByteBuffer chunk = chunk(record);
+        int position = position(record);
+
+        return BigDecimal.valueOf(chunk.getLong(position + AMOUNT_UNSCALED), chunk.get(position + AMOUNT_SCALE));
+    }
+
+    private int position(long record) {
+        return (int) (record % recordsPerChunk) * RECORD_SIZE;
+    }
+
+    private ByteBuffer chunk(long record) {
+        int index = (int) (record / recordsPerChunk);
+        ByteBuffer chunk = chunks.get(index);
+
+        if (chunk == null) {
+            synchronized (chunks) {
+                chunk = chunks.get(index);
+
+                if (chunk == null) {
+                    chunk = ByteBuffer.allocateDirect(recordsPerChunk * RECORD_SIZE);
+                    chunks.set(index, chunk);
+
+                    log.debug("Allocated off-heap bid chunk : {}", index);
+                }
+            }
+        }
+
+        return chunk;
+    }
+
+    static final class ItemChain {
+
+        // Written only under the item's lock, after the record it refers to
+        private volatile long head = NO_RECORD;
+
+        // Only read or written whilst holding the item's lock
+        private ProxyBidEntity leadingProxy;
+
+    }
+
+    private final class ChainIterator implements Iterator<BidEntity> {
+
+        private final long sinceNanos;
+
+        private long record;
+
+        private ChainIterator(long head) {
+            this(head, Long.MIN_VALUE);
+        }
+
+        private ChainIterator(long head, long sinceNanos) {
+            this.record = head;
+            this.sinceNanos = sinceNanos;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return record != NO_RECORD && (sinceNanos == Long.MIN_VALUE || submittedAtNanos(record) > sinceNanos);
+        }
+
+        @Override
+        public BidEntity next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            BidEntity bid = read(record);
+            record = previousOf(record);
+
+            return bid;
+        }
+    }
+}
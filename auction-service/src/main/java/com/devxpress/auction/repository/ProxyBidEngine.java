@@ -0,0 +1,141 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.api.BidResult;
+import com.devxpress.auction.configuration.ProxyBidProperties;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+/**
+ * Resolves a new bid, or a new proxy bid, against an item's highest bid and leading proxy.
+ * <p>
+ * Only the leading user can hold a proxy, so resolution compares against at most one proxy and produces at most one
+ * visible bid, which is all that is recorded. Competing maximums are never revealed : the visible price is set one
+ * increment above the losing maximum, capped at the winning one, and where maximums tie the earlier proxy wins.
+ * <p>
+ * Holds no state, so the caller must hold the item's lock and store the resulting leading proxy.
+ */
+@Component
+public class ProxyBidEngine {
+
+    public static final String MAX_AMOUNT_NOT_HIGHER = "Maximum amount must be greater than current maximum";
+
+    private final BigDecimal increment;
+
+    public ProxyBidEngine(ProxyBidProperties properties) {
+        this.increment = properties.getIncrement();
+    }
+
+    /**
+     * @param highest the item's highest bid, or null if none
+     * @param leadingProxy the proxy held by the highest bidder, or null if none
+     */
+    public Resolution resolveBid(BidEntity highest, ProxyBidEntity leadingProxy, BidEntity bid) {
+        BigDecimal amount = bid.getAmount();
+
+        if (highest != null && amount.compareTo(highest.getAmount()) <= 0) {
+            return Resolution.rejected(leadingProxy);
+        }
+
+        if (leadingProxy == null) {
+            return Resolution.accepted(bid, null);
+        }
+
+        if (leadingProxy.getUserId().equals(bid.getUserId())) {
+            // Bidding beyond their own maximum exhausts the proxy
+            return Resolution.accepted(bid,
+                    amount.compareTo(leadingProxy.getMaxAmount()) < 0 ? leadingProxy : null);
+        }
+
+        if (amount.compareTo(leadingProxy.getMaxAmount()) > 0) {
+            return Resolution.accepted(bid, null);
+        }
+
+        // Proxy outbids the new bid, which is itself never recorded
+        return Resolution.outbidByProxy(counterBid(leadingProxy, amount), leadingProxy);
+    }
+
+    /**
+     * @param highest the item's highest bid, or null if none
+     * @param leadingProxy the proxy held by the highest bidder, or null if none
+     */
+    public Resolution resolveProxy(BidEntity highest, ProxyBidEntity leadingProxy, ProxyBidEntity proxy) {
+        BigDecimal maxAmount = proxy.getMaxAmount();
+
+        if (leadingProxy != null && leadingProxy.getUserId().equals(proxy.getUserId())) {
+            if (maxAmount.compareTo(leadingProxy.getMaxAmount()) <= 0) {
+                return new Resolution(BidResult.invalid(Collections.singletonList(MAX_AMOUNT_NOT_HIGHER)),
+                        null, leadingProxy);
+            }
+
+            return new Resolution(BidResult.accepted(highest), null, proxy);
+        }
+
+        if (highest != null && maxAmount.compareTo(highest.getAmount()) <= 0) {
+            return Resolution.rejected(leadingProxy);
+        }
+
+        if (leadingProxy == null) {
+            if (highest != null && highest.getUserId().equals(proxy.getUserId())) {
+                return new Resolution(BidResult.accepted(highest), null, proxy);
+            }
+
+            BigDecimal price = highest == null ? increment : highest.getAmount().add(increment);
+            return Resolution.accepted(visibleBid(proxy, price.min(maxAmount)), proxy);
+        }
+
+        if (maxAmount.compareTo(leadingProxy.getMaxAmount()) > 0) {
+            BigDecimal price = leadingProxy.getMaxAmount().add(increment).min(maxAmount);
+            return Resolution.accepted(visibleBid(proxy, price), proxy);
+        }
+
+        return Resolution.outbidByProxy(counterBid(leadingProxy, maxAmount), leadingProxy);
+    }
+
+    private BidEntity counterBid(ProxyBidEntity leadingProxy, BigDecimal challenge) {
+        return visibleBid(leadingProxy, challenge.add(increment).min(leadingProxy.getMaxAmount()));
+    }
+
+    private static BidEntity visibleBid(ProxyBidEntity proxy, BigDecimal amount) {
+        BidEntity bid = new BidEntity();
+        bid.setItemId(proxy.getItemId());
+        bid.setUserId(proxy.getUserId());
+        bid.setAmount(amount);
+        return bid;
+    }
+
+    @Getter
+    public static final class Resolution {
+
+        // Outcome for the submitter
+        private final BidResult<BidEntity> result;
+
+        // Bid to record as the new highest, or null if the visible price is unchanged
+        private final BidEntity visibleBid;
+
+        // Proxy held by the highest bidder once resolved, or null if none
+        private final ProxyBidEntity leadingProxy;
+
+        private Resolution(BidResult<BidEntity> result, BidEntity visibleBid, ProxyBidEntity leadingProxy) {
+            this.result = result;
+            this.visibleBid = visibleBid;
+            this.leadingProxy = leadingProxy;
+        }
+
+        private static Resolution accepted(BidEntity visibleBid, ProxyBidEntity leadingProxy) {
+            return new Resolution(BidResult.accepted(visibleBid), visibleBid, leadingProxy);
+        }
+
+        private static Resolution rejected(ProxyBidEntity leadingProxy) {
+            return new Resolution(BidResult.outbid(), null, leadingProxy);
+        }
+
+        private static Resolution outbidByProxy(BidEntity counterBid, ProxyBidEntity leadingProxy) {
+            return new Resolution(BidResult.outbid(), counterBid, leadingProxy);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.devxpress.auction.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The listeners told of a repository's changes. Listeners may themselves depend on the repository, so those provided
+ * as beans are only found by {@link #resolve()}, once every bean exists, and until then there are none.
+ */
+final class RepositoryListeners<L> implements Iterable<L> {
+
+    private final ObjectProvider<L> provider;
+
+    private volatile List<L> listeners;
+
+    private RepositoryListeners(ObjectProvider<L> provider, List<L> listeners) {
+        this.provider = provider;
+        this.listeners = listeners;
+    }
+
+    // None if there is no provider
+    static <L> RepositoryListeners<L> provided(ObjectProvider<L> provider) {
+        return new RepositoryListeners<>(provider, Collections.emptyList());
+    }
+
+    @SafeVarargs
+    static <L> RepositoryListeners<L> of(L... listeners) {
+        return new RepositoryListeners<>(null, Arrays.asList(listeners));
+    }
+
+    /**
+     * Find the listeners provided as beans, in their declared order. Called once every bean exists, see
+     * {@link org.springframework.beans.factory.SmartInitializingSingleton}.
+     */
+    void resolve() {
+        if (provider != null) {
+            listeners = provider.orderedStream().collect(Collectors.toList());
+        }
+    }
+
+    boolean isEmpty() {
+        return listeners.isEmpty();
+    }
+
+    @Override
+    public Iterator<L> iterator() {
+        return listeners.iterator();
+    }
+}
@@ -0,0 +1,26 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The outcome of resolving a bid (or proxy bid) against an item, to be applied as it stands by a repository
+ * which did not resolve it, see {@link LocalBidRepository#applyResolved}.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class ResolvedBid {
+
+    private final long itemId;
+
+    // Bid now visible as the item's highest, or null if only the leading proxy changed
+    private final BidEntity bid;
+
+    private final boolean proxyChanged;
+
+    // Proxy held by the item's highest bidder once resolved, or null if none
+    private final ProxyBidEntity leadingProxy;
+
+}
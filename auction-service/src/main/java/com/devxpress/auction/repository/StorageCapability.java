@@ -0,0 +1,18 @@
+package com.devxpress.auction.repository;
+
+/**
+ * What a storage backend provides beyond the contract of its repository interface, so that callers (and the
+ * conformance tests) can tell backends apart without knowing which is configured.
+ */
+public enum StorageCapability {
+
+    // Held data survives a restart without being replayed from elsewhere
+    DURABLE,
+
+    // Time range reads only visit the stored data within the range, rather than filtering everything for the key
+    RANGE_QUERIES,
+
+    // Reads by attributes other than the primary key (e.g. bids by user, items by category) are served by an index
+    SECONDARY_INDEXES
+
+}
@@ -0,0 +1,21 @@
+package com.devxpress.auction.repository;
+
+import java.time.Instant;
+
+/**
+ * Submission times for accepted bids. Times strictly increase within an item, even when the clock does not advance
+ * between bids (or steps back), so a submission time identifies a single position in the item's history.
+ */
+final class SubmissionClock {
+
+    private SubmissionClock() {}
+
+    /**
+     * @param previous submission time of the item's latest bid, or null if it has none
+     */
+    static Instant next(Instant previous) {
+        Instant now = Instant.now();
+
+        return previous == null || now.isAfter(previous) ? now : previous.plusNanos(1);
+    }
+}
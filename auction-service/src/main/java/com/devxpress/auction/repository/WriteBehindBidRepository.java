@@ -0,0 +1,605 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.api.exception.ServiceUnavailableException;
+import com.devxpress.auction.configuration.BidStorageProperties;
+import com.devxpress.auction.configuration.ProxyBidProperties;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind cache in front of a slower (durable) bid repository. Bids are resolved against each item's highest
+ * bid and leading proxy held in memory, which is authoritative, so a bid is accepted (and its listeners told) at
+ * memory speed. The outcomes are then written to the backing repository by writer threads, each owning a partition
+ * of the items, so that an item's outcomes are written in the order they were accepted, in batches of whatever has
+ * queued meanwhile. Each writer's queue is bounded, and once full bidding on its items blocks until it catches up.
+ * A failed write is retried until written, but once it has failed {@code max-retries} times, bids on the writer's
+ * items are refused as unavailable until it succeeds, rather than accepting bids which may never be written.
+ * <p>
+ * An item's most recent bids, and any not yet written, are held in memory, so its highest bid and recent history are
+ * read without touching the backing repository. Older history is read from the backing repository, as are bids by
+ * user (and all bids), once the bids queued at the time of reading have been written. At most
+ * {@code max-cached-items} items are held, those held longest being evicted once every bid on them is written, and
+ * read again (only their recent bids) should they be bid on.
+ * <p>
+ * Bids accepted but not yet written are lost should the process stop abruptly, so the cache is not durable by
+ * itself (see BidJournalRecovery).
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "auction.bid.storage.write-behind.enabled", havingValue = "true")
+public class WriteBehindBidRepository extends AbstractLocalBidRepository<WriteBehindBidRepository.CachedItem> {
+
+    private static final String WRITE_BEHIND_NOT_SUPPORTED_MSG = "Write-behind is not supported by %s bid storage";
+    private static final String CLOSED_MSG = "Write-behind bid storage is closed";
+    private static final String INTERRUPTED_MSG = "Interrupted whilst waiting for bids to be written";
+    private static final String WRITER_FAILING_MSG = "Bids for item : %d cannot currently be written";
+    private static final String WRITERS_FAILING_MSG = "Bids cannot currently be written";
+
+    // Most held items considered for eviction by each bid, so that none waits long on eviction
+    private static final int MAX_EVICTION_ATTEMPTS = 8;
+
+    private final Map<Long, CachedItem> ITEM_CACHE_MAP = new ConcurrentHashMap<>();
+
+    // Ids of the items held, longest held first, some perhaps already evicted
+    private final Queue<Long> evictionQueue = new ConcurrentLinkedQueue<>();
+
+    private final LocalBidRepository backing;
+    private final int recentBidsPerItem;
+    private final int maxBatchSize;
+    private final long retryDelayMillis;
+    private final int maxRetries;
+    private final int maxCachedItems;
+    private final Writer[] writers;
+
+    private volatile boolean stopped;
+
+    WriteBehindBidRepository(LocalBidRepository backing, BidStorageProperties.WriteBehind properties,
+                             AcceptedBidListener... listeners) {
+        this(backing, properties, RepositoryListeners.of(listeners), new ProxyBidEngine(new ProxyBidProperties()));
+    }
+
+    @Autowired
+    public WriteBehindBidRepository(BidStorageProperties properties,
+                                    ObjectProvider<AcceptedBidListener> listenerProvider,
+                                    ProxyBidEngine proxyBidEngine) throws SQLException {
+
+        // Backing repository has no listeners of its own, as they are told of bids once accepted here
+        this(createBacking(properties, proxyBidEngine), properties.getWriteBehind(),
+                RepositoryListeners.provided(listenerProvider), proxyBidEngine);
+    }
+
+    private WriteBehindBidRepository(LocalBidRepository backing, BidStorageProperties.WriteBehind properties,
+                                     RepositoryListeners<AcceptedBidListener> listeners,
+                                     ProxyBidEngine proxyBidEngine) {
+        super(listeners, proxyBidEngine);
+
+        this.backing = backing;
+        this.recentBidsPerItem = Math.max(1, properties.getRecentBidsPerItem());
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        this.retryDelayMillis = properties.getRetryDelay().toMillis();
+        this.maxRetries = Math.max(0, properties.getMaxRetries());
+        this.maxCachedItems = Math.max(1, properties.getMaxCachedItems());
+
+        this.writers = new Writer[Math.max(1, properties.getWriterThreads())];
+
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Writer(Math.max(1, properties.getQueueCapacity()), "bid-write-behind-" + i);
+        }
+
+        log.info("Started write-behind bid storage with {} writer(s)", writers.length);
+    }
+
+    private static LocalBidRepository createBacking(BidStorageProperties properties, ProxyBidEngine proxyBidEngine)
+            throws SQLException {
+
+        if (properties.getType() != BidStorageProperties.Type.EMBEDDED) {
+            throw new IllegalStateException(String.format(WRITE_BEHIND_NOT_SUPPORTED_MSG, properties.getType()));
+        }
+
+        return new JdbcBidRepository(properties, null, proxyBidEngine);
+    }
+
+    /**
+     * Writes every bid already accepted before closing the backing repository.
+     */
+    @PreDestroy
+    public void close() {
+        stopped = true;
+
+        for (Writer writer : writers) {
+            try {
+                writer.thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (backing instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) backing).close();
+            } catch (Exception e) {
+                log.warn("Failed to close backing bid storage", e);
+            }
+        }
+    }
+
+    @Override
+    public Iterable<BidEntity> findAll() {
+        awaitWritten();
+        return backing.findAll();
+    }
+
+    @Override
+    public Iterable<Long> findItemIds() {
+        awaitWritten();
+        return backing.findItemIds();
+    }
+
+    @Override
+    public Iterable<BidEntity> findByItemId(long itemId) {
+        return findByItemId(itemId, null, null);
+    }
+
+    /**
+     * @return the item's bids, newest first, from memory as far as they are held, then from the backing repository
+     * only once iterated past those held, so that reading the newest bids never reads the item's history
+     */
+    @Override
+    public Iterable<BidEntity> findByItemId(long itemId, Instant since, Instant until) {
+        List<BidEntity> held = new ArrayList<>();
+
+        // Submission time of the oldest bid held, or null if every bid is held
+        Instant oldestHeld = locked(itemId, item -> {
+            if (discardIfEmpty(itemId, item)) {
+                return null;
+            }
+
+            trim(item);
+
+            for (BidEntity bid : item.recent) {
+                if ((since == null || bid.getSubmittedAt().isAfter(since))
+                        && (until == null || !bid.getSubmittedAt().isAfter(until))) {
+                    held.add(bid);
+                }
+            }
+
+            return item.complete ? null : item.recent.peekLast().getSubmittedAt();
+        });
+
+        if (oldestHeld == null || (since != null && !since.isBefore(oldestHeld))) {
+            return held;
+        }
+
+        // Bids older than those held have all been written, as every bid not yet written is held
+        Instant olderUntil = oldestHeld.minusNanos(1);
+        Instant heldUntil = until == null || until.isAfter(olderUntil) ? olderUntil : until;
+
+        return () -> new HeldThenWritten(held.iterator(),
+                () -> backing.findByItemId(itemId, since, heldUntil).iterator());
+    }
+
+    @Override
+    public Iterable<BidEntity> findByUserId(String userId) {
+        awaitWritten();
+        return backing.findByUserId(userId);
+    }
+
+    // Not durable by itself, as bids accepted but not yet written are lost with the process
+    @Override
+    public Set<StorageCapability> capabilities() {
+        Set<StorageCapability> capabilities = EnumSet.noneOf(StorageCapability.class);
+        capabilities.addAll(backing.capabilities());
+        capabilities.remove(StorageCapability.DURABLE);
+
+        return Collections.unmodifiableSet(capabilities);
+    }
+
+    @Override
+    public ProxyBidEntity findLeadingProxy(long itemId) {
+        return locked(itemId, item -> discardIfEmpty(itemId, item) ? null : item.leadingProxy);
+    }
+
+    @Override
+    public String unstorableAmount(BigDecimal amount) {
+        return backing.unstorableAmount(amount);
+    }
+
+    /**
+     * The item is locked until its outcome is queued, so its outcomes are queued (and written) in order. An item not
+     * held is read from the backing repository whilst holding its own lock, rather than the cache's, and an item
+     * evicted meanwhile is held afresh.
+     */
+    @Override
+    protected <T> T locked(long itemId, Function<CachedItem, T> action) {
+        if (ITEM_CACHE_MAP.size() > maxCachedItems) {
+            evict();
+        }
+
+        while (true) {
+            CachedItem item = ITEM_CACHE_MAP.computeIfAbsent(itemId, k -> new CachedItem());
+
+            synchronized (item) {
+                if (item.evicted) {
+                    continue;
+                }
+
+                if (!item.loaded) {
+                    load(itemId, item);
+                }
+
+                return action.apply(item);
+            }
+        }
+    }
+
+    @Override
+    protected BidEntity highest(CachedItem item) {
+        return item.highest;
+    }
+
+    @Override
+    protected ProxyBidEntity leadingProxy(CachedItem item) {
+        return item.leadingProxy;
+    }
+
+    @Override
+    protected CompletableFuture<Void> store(CachedItem item, long itemId, BidEntity bid, boolean proxyChanged,
+                                            ProxyBidEntity leadingProxy) {
+        Writer writer = writerOf(itemId);
+
+        if (writer.failing) {
+            throw new ServiceUnavailableException(String.format(WRITER_FAILING_MSG, itemId));
+        }
+
+        // Counted before queueing, as the writer may write it at once
+        item.unwritten.incrementAndGet();
+
+        try {
+            enqueue(writer, new ResolvedBid(itemId, bid, proxyChanged, leadingProxy));
+        } catch (RuntimeException e) {
+            item.unwritten.decrementAndGet();
+            throw e;
+        }
+
+        hold(itemId, item);
+
+        if (bid != null) {
+            item.highest = bid;
+            item.recent.addFirst(bid);
+            trim(item);
+        }
+
+        if (proxyChanged) {
+            item.leadingProxy = leadingProxy;
+        }
+
+        return STORED;
+    }
+
+    // Drops the oldest bids beyond those to be held, once written, whilst holding the item's lock
+    private void trim(CachedItem item) {
+        while (item.recent.size() > recentBidsPerItem && item.writtenThrough != null
+                && !item.recent.peekLast().getSubmittedAt().isAfter(item.writtenThrough)) {
+            item.recent.removeLast();
+            item.complete = false;
+        }
+    }
+
+    /**
+     * Read the item's recent bids and leading proxy from the backing repository, whilst holding its lock. Every
+     * write passes through the item held in memory, and an item is only evicted once written, so the backing
+     * repository is current for an item not held.
+     */
+    private void load(long itemId, CachedItem item) {
+        // Newest (and highest) first, reading one more than held to learn whether there are older bids
+        Iterator<BidEntity> bids = backing.findByItemId(itemId, recentBidsPerItem + 1).iterator();
+
+        while (bids.hasNext() && item.recent.size() < recentBidsPerItem) {
+            item.recent.addLast(bids.next());
+        }
+
+        item.complete = !bids.hasNext();
+        item.highest = item.recent.peekFirst();
+        item.writtenThrough = item.highest == null ? null : item.highest.getSubmittedAt();
+        item.leadingProxy = backing.findLeadingProxy(itemId);
+        item.loaded = true;
+
+        hold(itemId, item);
+    }
+
+    // Items with bids (or a proxy) are held until evicted, whilst holding the item's lock
+    private void hold(long itemId, CachedItem item) {
+        if (!item.queuedForEviction && (item.highest != null || item.leadingProxy != null
+                || item.unwritten.get() > 0)) {
+            item.queuedForEviction = true;
+            evictionQueue.add(itemId);
+        }
+    }
+
+    /**
+     * Items without bids are not held, so that reads for them are not, whilst holding the item's lock.
+     *
+     * @return whether the item was discarded
+     */
+    private boolean discardIfEmpty(long itemId, CachedItem item) {
+        if (item.highest != null || item.leadingProxy != null || item.unwritten.get() > 0) {
+            return false;
+        }
+
+        item.evicted = true;
+        ITEM_CACHE_MAP.remove(itemId, item);
+
+        return true;
+    }
+
+    /**
+     * Evict the items held longest, once every bid on them is written, considering only a few so that the bid
+     * evicting them does not wait long. Those with bids not yet written are held again, as if just held. Called
+     * without holding any item's lock.
+     */
+    private void evict() {
+        for (int i = 0; i < MAX_EVICTION_ATTEMPTS && ITEM_CACHE_MAP.size() > maxCachedItems; i++) {
+            Long itemId = evictionQueue.poll();
+
+            if (itemId == null) {
+                return;
+            }
+
+            CachedItem item = ITEM_CACHE_MAP.get(itemId);
+
+            // Already discarded, or to be held again by whoever holds it next
+            if (item == null) {
+                continue;
+            }
+
+            synchronized (item) {
+                if (item.evicted) {
+                    continue;
+                }
+
+                if (item.unwritten.get() > 0) {
+                    evictionQueue.add(itemId);
+                } else {
+                    item.evicted = true;
+                    ITEM_CACHE_MAP.remove(itemId, item);
+                }
+            }
+        }
+    }
+
+    // Items held in memory, for tests
+    int cachedItems() {
+        return ITEM_CACHE_MAP.size();
+    }
+
+    private Writer writerOf(long itemId) {
+        return writers[(int) Math.floorMod(itemId, (long) writers.length)];
+    }
+
+    // Blocks whilst the writer's queue is full
+    private void enqueue(Writer writer, ResolvedBid outcome) {
+        if (stopped) {
+            throw new IllegalStateException(CLOSED_MSG);
+        }
+
+        try {
+            writer.queue.put(outcome);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(INTERRUPTED_MSG, e);
+        }
+
+        synchronized (writer) {
+            writer.queued++;
+        }
+    }
+
+    // Blocks until every bid queued when called has been written
+    private void awaitWritten() {
+        for (Writer writer : writers) {
+            synchronized (writer) {
+                long queued = writer.queued;
+
+                while (writer.written < queued && writer.thread.isAlive()) {
+                    if (writer.failing) {
+                        throw new ServiceUnavailableException(WRITERS_FAILING_MSG);
+                    }
+
+                    try {
+                        writer.wait(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(INTERRUPTED_MSG, e);
+                    }
+                }
+            }
+        }
+    }
+
+    // The bids held, then those written before them, which are only read once every bid held has been iterated
+    private static final class HeldThenWritten implements Iterator<BidEntity> {
+
+        private final Iterator<BidEntity> held;
+        private final Supplier<Iterator<BidEntity>> written;
+
+        private Iterator<BidEntity> current;
+
+        private HeldThenWritten(Iterator<BidEntity> held, Supplier<Iterator<BidEntity>> written) {
+            this.held = held;
+            this.written = written;
+            this.current = held;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!current.hasNext() && current == held) {
+                current = written.get();
+            }
+
+            return current.hasNext();
+        }
+
+        @Override
+        public BidEntity next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return current.next();
+        }
+    }
+
+    static final class CachedItem {
+
+        // Only read or written whilst holding the item's lock (the item itself), other than writtenThrough and
+        // unwritten
+        private BidEntity highest;
+        private ProxyBidEntity leadingProxy;
+
+        // Newest first, holding every bid not yet written
+        private final Deque<BidEntity> recent = new ArrayDeque<>(4);
+
+        // Whether recent holds all of the item's bids
+        private boolean complete;
+
+        // Submission time of the newest bid written, or null if none. Written only by the item's writer
+        private volatile Instant writtenThrough;
+
+        // Outcomes queued but not yet written, whilst which the item is not evicted
+        private final AtomicInteger unwritten = new AtomicInteger();
+
+        // Whether read from the backing repository, whether in the eviction queue, and whether evicted
+        private boolean loaded;
+        private boolean queuedForEviction;
+        private boolean evicted;
+
+    }
+
+    private final class Writer implements Runnable {
+
+        private final BlockingQueue<ResolvedBid> queue;
+        private final Thread thread;
+
+        // Guarded by the writer itself
+        private long queued;
+        private long written;
+
+        // Whether writes have failed more than max-retries times, and have not succeeded since
+        private volatile boolean failing;
+
+        private Writer(int queueCapacity, String name) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, name);
+
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            List<ResolvedBid> batch = new ArrayList<>(maxBatchSize);
+
+            try {
+                while (true) {
+                    // Read before draining, so that nothing queued before stopping is left behind
+                    boolean stopping = stopped;
+                    ResolvedBid first = queue.poll(100, TimeUnit.MILLISECONDS);
+
+                    if (first == null) {
+                        if (stopping) {
+                            return;
+                        }
+
+                        continue;
+                    }
+
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+
+                    write(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (!batch.isEmpty() || !queue.isEmpty()) {
+                    log.error("Write-behind writer {} stopped with {} bid(s) not written", thread.getName(),
+                            batch.size() + queue.size());
+                }
+            }
+        }
+
+        // Retried until written, as applying an outcome already applied changes nothing
+        private void write(List<ResolvedBid> batch) throws InterruptedException {
+            for (int failures = 1; ; failures++) {
+                try {
+                    backing.applyResolved(batch);
+                    break;
+                } catch (RuntimeException e) {
+                    if (failures > maxRetries && !failing) {
+                        failing = true;
+                        log.error("Failed to write {} bid(s) behind {} times, refusing bids on writer {} until written",
+                                batch.size(), failures, thread.getName(), e);
+                    } else {
+                        log.warn("Failed to write {} bid(s) behind, retrying in {} ms", batch.size(),
+                                retryDelayMillis, e);
+                    }
+
+                    Thread.sleep(retryDelayMillis);
+                }
+            }
+
+            if (failing) {
+                failing = false;
+                log.info("Writer {} is writing bids behind again", thread.getName());
+            }
+
+            // Not under the item's lock, which may be held by a bidder waiting for this writer's queue. The item is
+            // held until its outcomes are written
+            for (ResolvedBid outcome : batch) {
+                CachedItem item = ITEM_CACHE_MAP.get(outcome.getItemId());
+
+                if (outcome.getBid() != null) {
+                    item.writtenThrough = outcome.getBid().getSubmittedAt();
+                }
+
+                item.unwritten.decrementAndGet();
+            }
+
+            synchronized (this) {
+                written += batch.size();
+                notifyAll();
+            }
+        }
+    }
+}
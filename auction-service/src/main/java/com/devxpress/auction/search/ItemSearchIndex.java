@@ -0,0 +1,366 @@
+package com.devxpress.auction.search;
+
+import com.devxpress.auction.configuration.SearchProperties;
+import com.devxpress.auction.entity.ItemEntity;
+import com.devxpress.auction.repository.ItemCatalog;
+import com.devxpress.auction.repository.ItemCatalogListener;
+import com.devxpress.auction.view.TrendingItemsView;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index of item descriptions, from each term to the sorted ids of the items whose description contains it.
+ * <p>
+ * Descriptions are split into terms at anything other than a letter or digit, then lower cased with accents
+ * removed. A query matches the items containing all of its terms, where its last term also matches any longer term
+ * it is a prefix of (unless the query ends with a separator), so results can be returned as a query is typed.
+ * Terms are held in a sorted map, so a prefix is expanded by a range scan, and the posting lists are intersected
+ * smallest first by binary search, so a query costs little more than its most selective term. A prefix shorter than
+ * the minimum, or expanding to more terms than the maximum, is matched as a whole term only, so that no query
+ * merges the posting lists of a large part of the index.
+ * <p>
+ * Matches are ranked by their bid count within the activity window, most bids first, then by ascending id.
+ * <p>
+ * The index is maintained from the difference between successive catalogs, and each changed term's posting list
+ * is replaced whole, so a query sees each term either before or after a catalog change (but may see some terms
+ * before, and others after, whilst a change is being applied).
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex implements ItemCatalogListener {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final long[] NO_ITEMS = new long[0];
+
+    private final NavigableMap<String, long[]> TERM_POSTINGS_MAP = new ConcurrentSkipListMap<>();
+
+    private final TrendingItemsView trendingItemsView;
+    private final Duration activityWindow;
+    private final int minPrefixLength;
+    private final int maxPrefixTerms;
+
+    public ItemSearchIndex(TrendingItemsView trendingItemsView, SearchProperties properties) {
+        this.trendingItemsView = trendingItemsView;
+        this.activityWindow = properties.getActivityWindow();
+        this.minPrefixLength = Math.max(1, properties.getMinPrefixLength());
+        this.maxPrefixTerms = Math.max(1, properties.getMaxPrefixTerms());
+    }
+
+    // Catalog replacements are delivered one at a time, so the index has a single writer
+    @Override
+    public void onCatalogReplaced(ItemCatalog previous, ItemCatalog current) {
+        long start = System.nanoTime();
+
+        Map<String, PostingChanges> changes = new HashMap<>();
+
+        for (ItemEntity item : previous.items()) {
+            ItemEntity replacement = current.get(item.getId());
+
+            if (replacement == null || !Objects.equals(item.getDescription(), replacement.getDescription())) {
+                for (String term : terms(item.getDescription())) {
+                    changes.computeIfAbsent(term, k -> new PostingChanges()).removed.add(item.getId());
+                }
+            }
+        }
+
+        for (ItemEntity item : current.items()) {
+            ItemEntity replaced = previous.get(item.getId());
+
+            if (replaced == null || !Objects.equals(item.getDescription(), replaced.getDescription())) {
+                for (String term : terms(item.getDescription())) {
+                    changes.computeIfAbsent(term, k -> new PostingChanges()).added.add(item.getId());
+                }
+            }
+        }
+
+        changes.forEach((term, termChanges) -> {
+            long[] postings = termChanges.applyTo(TERM_POSTINGS_MAP.getOrDefault(term, NO_ITEMS));
+
+            if (postings.length == 0) {
+                TERM_POSTINGS_MAP.remove(term);
+            } else {
+                TERM_POSTINGS_MAP.put(term, postings);
+            }
+        });
+
+        log.info("Updated search index with {} changed term(s), in {} ms", changes.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * @return up to limit of the items matching the query, most active first, or none if the query has no terms
+     */
+    public List<Hit> search(String query, int limit) {
+        long[] matches = match(query);
+
+        // Least active of the top hits at the head, to be displaced by any more active match
+        Comparator<Hit> ranking = Comparator.comparingLong(Hit::getBidCount)
+                .thenComparing(Hit::getItemId, Comparator.reverseOrder());
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, ranking);
+
+        // Rank from whichever is smaller, the matches or the items with recent activity
+        Set<Long> activeItemIds = trendingItemsView.activeItemIds();
+
+        if (activeItemIds.size() < matches.length) {
+            for (Long itemId : activeItemIds) {
+                if (Arrays.binarySearch(matches, itemId) >= 0) {
+                    offer(top, itemId, limit);
+                }
+            }
+        } else {
+            for (long itemId : matches) {
+                offer(top, itemId, limit);
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(Collections.reverseOrder(ranking));
+
+        // Fewer active matches than the limit, so every active match is a hit, and the rest are inactive
+        Set<Long> activeHits = new HashSet<>();
+        hits.forEach(hit -> activeHits.add(hit.getItemId()));
+
+        for (int i = 0; i < matches.length && hits.size() < limit; i++) {
+            if (!activeHits.contains(matches[i])) {
+                hits.add(new Hit(matches[i], 0));
+            }
+        }
+
+        return hits;
+    }
+
+    /**
+     * @return the ids of the items matching the query, in ascending order
+     */
+    long[] match(String query) {
+        List<String> queryTerms = terms(query);
+
+        if (queryTerms.isEmpty()) {
+            return NO_ITEMS;
+        }
+
+        boolean prefixLast = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+        List<long[]> postingLists = new ArrayList<>(queryTerms.size());
+
+        for (int i = 0; i < queryTerms.size(); i++) {
+            String term = queryTerms.get(i);
+            long[] postings = prefixLast && i == queryTerms.size() - 1 ?
+                    prefixPostings(term) : TERM_POSTINGS_MAP.getOrDefault(term, NO_ITEMS);
+
+            if (postings.length == 0) {
+                return NO_ITEMS;
+            }
+
+            postingLists.add(postings);
+        }
+
+        postingLists.sort(Comparator.comparingInt(postings -> postings.length));
+
+        long[] matches = postingLists.get(0);
+
+        for (int i = 1; i < postingLists.size() && matches.length > 0; i++) {
+            matches = intersect(matches, postingLists.get(i));
+        }
+
+        return matches;
+    }
+
+    /**
+     * @return the distinct terms of the text, in order of first occurrence
+     */
+    static List<String> terms(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String normalized = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        Set<String> terms = new LinkedHashSet<>();
+        int start = -1;
+
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean termChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                terms.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+
+        return new ArrayList<>(terms);
+    }
+
+    private long[] prefixPostings(String prefix) {
+        if (prefix.length() < minPrefixLength) {
+            return TERM_POSTINGS_MAP.getOrDefault(prefix, NO_ITEMS);
+        }
+
+        // Counted no further than the maximum, so a common prefix is not walked in full
+        Collection<long[]> expansion = new ArrayList<>();
+
+        for (long[] postings : TERM_POSTINGS_MAP.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (expansion.size() == maxPrefixTerms) {
+                return TERM_POSTINGS_MAP.getOrDefault(prefix, NO_ITEMS);
+            }
+
+            expansion.add(postings);
+        }
+
+        if (expansion.size() <= 1) {
+            return expansion.isEmpty() ? NO_ITEMS : expansion.iterator().next();
+        }
+
+        // Union of the expanded terms, where an item containing several of them is counted once
+        long[] union = new long[expansion.stream().mapToInt(postings -> postings.length).sum()];
+        int length = 0;
+
+        for (long[] postings : expansion) {
+            System.arraycopy(postings, 0, union, length, postings.length);
+            length += postings.length;
+        }
+
+        Arrays.sort(union);
+        return distinct(union, union.length);
+    }
+
+    private void offer(PriorityQueue<Hit> top, long itemId, int limit) {
+        long bidCount = trendingItemsView.bidCount(itemId, activityWindow);
+
+        if (bidCount > 0) {
+            top.add(new Hit(itemId, bidCount));
+
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+    }
+
+    // Walks the smaller list, searching the larger only from the last match onwards
+    private static long[] intersect(long[] smaller, long[] larger) {
+        long[] intersection = new long[smaller.length];
+        int length = 0;
+        int from = 0;
+
+        for (long itemId : smaller) {
+            int index = Arrays.binarySearch(larger, from, larger.length, itemId);
+
+            if (index >= 0) {
+                intersection[length++] = itemId;
+                from = index + 1;
+            } else {
+                from = -index - 1;
+            }
+
+            if (from == larger.length) {
+                break;
+            }
+        }
+
+        return Arrays.copyOf(intersection, length);
+    }
+
+    private static long[] distinct(long[] sorted, int length) {
+        int distinct = 0;
+
+        for (int i = 0; i < length; i++) {
+            if (distinct == 0 || sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+
+        return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Hit {
+
+        private final long itemId;
+
+        // Bids within the activity window
+        private final long bidCount;
+
+    }
+
+    private static final class PostingChanges {
+
+        private final LongList removed = new LongList();
+        private final LongList added = new LongList();
+
+        // Merges the sorted postings with the changes into a new, sorted list
+        private long[] applyTo(long[] postings) {
+            long[] removedIds = removed.sorted();
+            long[] addedIds = added.sorted();
+
+            long[] merged = new long[postings.length + addedIds.length];
+            int length = 0;
+            int a = 0;
+
+            for (long itemId : postings) {
+                while (a < addedIds.length && addedIds[a] < itemId) {
+                    merged[length++] = addedIds[a++];
+                }
+
+                if (Arrays.binarySearch(removedIds, itemId) < 0) {
+                    merged[length++] = itemId;
+                }
+            }
+
+            while (a < addedIds.length) {
+                merged[length++] = addedIds[a++];
+            }
+
+            // An item whose description changed is both removed and added under terms common to both descriptions,
+            // so is kept once
+            return distinct(merged, length);
+        }
+    }
+
+    private static final class LongList {
+
+        private long[] values = new long[4];
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = value;
+        }
+
+        private long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
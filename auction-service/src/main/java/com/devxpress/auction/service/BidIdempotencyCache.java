@@ -0,0 +1,160 @@
+package com.devxpress.auction.service;
+
+import com.devxpress.auction.api.BidResult;
+import com.devxpress.auction.configuration.IdempotencyProperties;
+import com.devxpress.auction.entity.BidEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, time-expiring record of bid outcomes by idempotency key.
+ * <p>
+ * Every key lives for the same time, so insertion order is also expiry order and a single queue serves both
+ * expiry and size-bound eviction. A duplicate which arrives whilst the original is still in progress waits
+ * for, and then shares, the original outcome. A submission which fails with an exception is forgotten so that
+ * it can be retried.
+ * <p>
+ * Each outcome is recorded with the item bid on and a hash of the request, so a key reused for a different bid is
+ * refused as {@link #KEY_REUSED}, rather than replaying an outcome which was never the bid's.
+ */
+@Component
+public class BidIdempotencyCache {
+
+    public static final String KEY_REUSED = "Idempotency key was already used for a different bid";
+
+    private final Map<String, Entry> KEY_ENTRY_MAP = new ConcurrentHashMap<>();
+    private final Queue<Entry> INSERTION_ORDER = new ConcurrentLinkedQueue<>();
+
+    private final IdempotencyProperties properties;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public BidIdempotencyCache(IdempotencyProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    BidIdempotencyCache(IdempotencyProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Return the outcome previously recorded against the key, or submit the bid and record its outcome.
+     *
+     * @return invalid as {@link #KEY_REUSED}, without submitting the bid, if the key was recorded for a different
+     * item or request
+     */
+    public BidResult<BidEntity> computeIfAbsent(String key, long itemId, byte[] requestHash,
+                                                Supplier<BidResult<BidEntity>> submission) {
+        long now = nanoClock.getAsLong();
+        evictExpired(now);
+
+        Entry entry = new Entry(key, itemId, requestHash, now);
+
+        while (true) {
+            Entry existing = KEY_ENTRY_MAP.putIfAbsent(key, entry);
+
+            if (existing == null) {
+                break;
+            }
+
+            if (!existing.isExpired(now, ttlNanos())) {
+                return existing.matches(itemId, requestHash) ?
+                        existing.await() : BidResult.invalid(Collections.singletonList(KEY_REUSED));
+            }
+
+            if (KEY_ENTRY_MAP.replace(key, existing, entry)) {
+                break;
+            }
+        }
+
+        INSERTION_ORDER.add(entry);
+        evictOverflow();
+
+        try {
+            BidResult<BidEntity> result = submission.get();
+            entry.outcome.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            KEY_ENTRY_MAP.remove(key, entry);
+            entry.outcome.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int size() {
+        return KEY_ENTRY_MAP.size();
+    }
+
+    private long ttlNanos() {
+        return properties.getTtl().toNanos();
+    }
+
+    private void evictExpired(long now) {
+        Entry head;
+
+        while ((head = INSERTION_ORDER.peek()) != null && head.isExpired(now, ttlNanos())) {
+            if (INSERTION_ORDER.remove(head)) {
+                KEY_ENTRY_MAP.remove(head.key, head);
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        while (KEY_ENTRY_MAP.size() > properties.getMaxEntries()) {
+            Entry head = INSERTION_ORDER.poll();
+
+            if (head == null) {
+                return;
+            }
+
+            KEY_ENTRY_MAP.remove(head.key, head);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final long itemId;
+        private final byte[] requestHash;
+        private final long createdNanos;
+        private final CompletableFuture<BidResult<BidEntity>> outcome = new CompletableFuture<>();
+
+        private Entry(String key, long itemId, byte[] requestHash, long createdNanos) {
+            this.key = key;
+            this.itemId = itemId;
+            this.requestHash = requestHash;
+            this.createdNanos = createdNanos;
+        }
+
+        private boolean matches(long itemId, byte[] requestHash) {
+            return this.itemId == itemId && MessageDigest.isEqual(this.requestHash, requestHash);
+        }
+
+        private boolean isExpired(long now, long ttlNanos) {
+            return now - createdNanos >= ttlNanos;
+        }
+
+        private BidResult<BidEntity> await() {
+            try {
+                return outcome.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
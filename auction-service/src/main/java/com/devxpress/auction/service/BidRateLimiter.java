@@ -0,0 +1,181 @@
+package com.devxpress.auction.service;
+
+import com.devxpress.auction.configuration.RateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per user, used to reject excessive bid submission before any item or bid lookup is performed.
+ * <p>
+ * The bucket table is bounded, and split into stripes by user, each locked on its own and holding its users in
+ * access order. A bucket which has refilled to capacity is indistinguishable from a new one, so once a stripe is
+ * full its least recently used bucket is evicted for the new user if idle. Otherwise the stripe's users are still
+ * being limited, so the new user is refused rather than admitted untracked, which would let any number of users bid
+ * without limit whilst the table is full.
+ */
+@Component
+@Slf4j
+public class BidRateLimiter {
+
+    // Each stripe holds at least this many users, so that a small table is not split into stripes of a few users
+    private static final int MIN_USERS_PER_STRIPE = 1024;
+    private static final int MAX_STRIPES = 16;
+
+    private final Stripe[] stripes;
+
+    private final RateLimitProperties properties;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public BidRateLimiter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    BidRateLimiter(RateLimitProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+
+        int maxTrackedUsers = Math.max(1, properties.getMaxTrackedUsers());
+        int stripeCount = Integer.highestOneBit(
+                Math.max(1, Math.min(MAX_STRIPES, maxTrackedUsers / MIN_USERS_PER_STRIPE)));
+
+        this.stripes = new Stripe[stripeCount];
+
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(maxTrackedUsers / stripeCount);
+        }
+    }
+
+    /**
+     * @return true if the user may submit a bid now, consuming one token, or false if the user has no tokens left
+     * or cannot be tracked
+     */
+    public boolean tryAcquire(String userId) {
+        if (!properties.isEnabled() || userId == null) {
+            return true;
+        }
+
+        long now = nanoClock.getAsLong();
+        TokenBucket bucket = bucketFor(userId, now);
+
+        if (bucket == null) {
+            log.warn("Rate limiter tracking maximum of {} users - refusing user : {}",
+                    properties.getMaxTrackedUsers(), userId);
+            return false;
+        }
+
+        return bucket.tryAcquire(now);
+    }
+
+    int trackedUsers() {
+        int trackedUsers = 0;
+
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                trackedUsers += stripe.USER_BUCKET_MAP.size();
+            }
+        }
+
+        return trackedUsers;
+    }
+
+    // The user's bucket, created in place of its stripe's least recently used if idle, or null if the stripe is full
+    private TokenBucket bucketFor(String userId, long now) {
+        int hash = userId.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+
+        synchronized (stripe) {
+            TokenBucket bucket = stripe.USER_BUCKET_MAP.get(userId);
+
+            if (bucket != null) {
+                return bucket;
+            }
+
+            if (stripe.USER_BUCKET_MAP.size() >= stripe.maxUsers) {
+                Iterator<TokenBucket> leastRecentlyUsed = stripe.USER_BUCKET_MAP.values().iterator();
+
+                if (!leastRecentlyUsed.next().isFull(now)) {
+                    return null;
+                }
+
+                leastRecentlyUsed.remove();
+            }
+
+            bucket = new TokenBucket(tierFor(userId), now);
+            stripe.USER_BUCKET_MAP.put(userId, bucket);
+
+            return bucket;
+        }
+    }
+
+    private RateLimitProperties.Tier tierFor(String userId) {
+        String tierName = properties.getUserTiers().getOrDefault(userId, properties.getDefaultTier());
+        RateLimitProperties.Tier tier = properties.getTiers().get(tierName);
+
+        if (tier == null) {
+            throw new IllegalStateException(String.format("Undefined rate limit tier : %s", tierName));
+        }
+
+        return tier;
+    }
+
+    private static final class Stripe {
+
+        // Access ordered, so the least recently used bucket is first
+        private final Map<String, TokenBucket> USER_BUCKET_MAP = new LinkedHashMap<>(16, 0.75f, true);
+
+        private final int maxUsers;
+
+        private Stripe(int maxUsers) {
+            this.maxUsers = maxUsers;
+        }
+    }
+
+    private static final class TokenBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+
+        private double tokens;
+        private long lastRefillNanos;
+
+        private TokenBucket(RateLimitProperties.Tier tier, long now) {
+            this.capacity = tier.getCapacity();
+            this.tokensPerNano = tier.getRefillPerSecond() / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = capacity;
+            this.lastRefillNanos = now;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            refill(now);
+
+            if (tokens < 1.0) {
+                return false;
+            }
+
+            tokens -= 1.0;
+            return true;
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefillNanos;
+
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+                lastRefillNanos = now;
+            }
+        }
+    }
+}
@@ -1,8 +1,17 @@
 package com.devxpress.auction.service;
 
+import com.devxpress.auction.api.BidResult;
 import com.devxpress.auction.api.v1.model.Bid;
+import com.devxpress.auction.api.v1.model.BidChanges;
 import com.devxpress.auction.api.v1.model.BidDetail;
+import com.devxpress.auction.api.v1.model.ItemBids;
+import com.devxpress.auction.api.v1.model.ItemStats;
+import com.devxpress.auction.api.v1.model.ProxyBid;
+import com.devxpress.auction.feed.BidExportFormat;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,12 +19,55 @@ public interface BidService {
 
     List<BidDetail> getAllBids();
 
+    /**
+     * As getAllBids, but written to the stream in the format as the bids are read, without creating a DTO per bid.
+     *
+     * @return whether the bids were exported from the bid change journal, rather than bid storage
+     */
+    boolean exportBids(BidExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * @return up to limit bids accepted after the sequence, in the order they were accepted
+     */
+    BidChanges getBidChanges(long afterSequence, int limit);
+
     List<BidDetail> getBidsForItem(long itemId);
 
+    /**
+     * As getBidsForItem, but without creating a DTO per bid, and only those submitted within the range.
+     *
+     * @param since exclusive lower bound on submission time, or null for no lower bound
+     * @param until inclusive upper bound on submission time, or null for no upper bound
+     */
+    ItemBids getItemBids(long itemId, String itemDescription, Instant since, Instant until);
+
     Optional<BidDetail> getWinningBidForItem(long itemId);
 
+    // Aggregates of the item's bids, without reading the bids themselves
+    ItemStats getItemStats(long itemId);
+
     List<BidDetail> getBidsForUser(String userId);
 
-    BidDetail createBid(Bid bid);
+    // User's highest bid on each item they have bid on
+    List<BidDetail> getHighestBidsForUser(String userId);
+
+    // User's bids which are currently the winning bid for their item
+    List<BidDetail> getWinningBidsForUser(String userId);
+
+    BidResult<BidDetail> createBid(Bid bid);
+
+    /**
+     * As {@link #createBid(Bid)}, but a repeated idempotency key from the same user replays the original outcome
+     * without submitting the bid again, whereas the key repeated for a different item or request is invalid. A null key
+     * behaves exactly as {@link #createBid(Bid)}.
+     */
+    BidResult<BidDetail> createBid(Bid bid, String idempotencyKey);
+
+    /**
+     * Register (or raise) the user's maximum for an item, bidding on their behalf only as far as needed to lead.
+     *
+     * @return the item's winning bid, if the user now holds it
+     */
+    BidResult<BidDetail> createProxyBid(ProxyBid proxyBid);
 
 }
@@ -1,15 +1,36 @@
 package com.devxpress.auction.service;
 
+import com.devxpress.auction.api.BidResult;
 import com.devxpress.auction.api.v1.mapper.BidMapper;
 import com.devxpress.auction.api.v1.model.Bid;
+import com.devxpress.auction.api.v1.model.BidChanges;
 import com.devxpress.auction.api.v1.model.BidDetail;
+import com.devxpress.auction.api.v1.model.ItemBids;
+import com.devxpress.auction.api.v1.model.ItemStats;
+import com.devxpress.auction.api.v1.model.ProxyBid;
+import com.devxpress.auction.entity.BidChangeEntity;
 import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ItemEntity;
+import com.devxpress.auction.feed.BidChangeFeed;
+import com.devxpress.auction.feed.BidExportFormat;
+import com.devxpress.auction.feed.BidExporter;
 import com.devxpress.auction.repository.BidRepository;
+import com.devxpress.auction.repository.ItemRepository;
+import com.devxpress.auction.view.ItemStatsView;
+import com.devxpress.auction.view.UserBidView;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -17,8 +38,17 @@ import java.util.stream.StreamSupport;
 @RequiredArgsConstructor
 public class BidServiceImpl implements BidService {
 
+    // Available on every Java platform
+    private static final String REQUEST_HASH_ALGORITHM = "SHA-256";
+
     private final BidRepository bidRepository;
     private final BidMapper bidMapper;
+    private final BidIdempotencyCache idempotencyCache;
+    private final UserBidView userBidView;
+    private final ItemStatsView itemStatsView;
+    private final BidChangeFeed bidChangeFeed;
+    private final BidExporter bidExporter;
+    private final ItemRepository itemRepository;
 
     @Override
     public List<BidDetail> getAllBids() {
@@ -31,6 +61,23 @@ public class BidServiceImpl implements BidService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public boolean exportBids(BidExportFormat format, OutputStream out) throws IOException {
+        return bidExporter.export(format, out);
+    }
+
+    @Override
+    public BidChanges getBidChanges(long afterSequence, int limit) {
+        // Read first, so that the latest sequence is never behind the changes returned
+        List<BidChangeEntity> changes = bidChangeFeed.findAfter(afterSequence, limit);
+        long latestSequence = bidChangeFeed.latestSequence();
+
+        return new BidChanges(
+                changes.stream().map(bidMapper::bidChangeEntityToBidChange).collect(Collectors.toList()),
+                changes.isEmpty() ? afterSequence : changes.get(changes.size() - 1).getSequence(),
+                latestSequence);
+    }
+
     @Override
     public List<BidDetail> getBidsForItem(long itemId) {
 
@@ -42,9 +89,24 @@ public class BidServiceImpl implements BidService {
                 .collect(Collectors.toList());
     }
 
+    // Read in full before the response is written, so that failing to read older bids (e.g. spilled history) is
+    // reported as an error, rather than as a truncated response once committed
+    @Override
+    public ItemBids getItemBids(long itemId, String itemDescription, Instant since, Instant until) {
+        Iterable<BidEntity> bids = since == null && until == null ?
+                bidRepository.findByItemId(itemId) :
+                bidRepository.findByItemId(itemId, since, until);
+
+        List<BidEntity> read = new ArrayList<>();
+        bids.forEach(read::add);
+
+        return new ItemBids(read, itemDescription);
+    }
+
+    // Reads only the highest bid, which storage may serve without reading the item's history
     @Override
     public Optional<BidDetail> getWinningBidForItem(long itemId) {
-        Iterable<BidEntity> bids = bidRepository.findByItemId(itemId);
+        Iterable<BidEntity> bids = bidRepository.findByItemId(itemId, 1);
 
         return StreamSupport
                 .stream(bids.spliterator(), false)
@@ -52,6 +114,11 @@ public class BidServiceImpl implements BidService {
                 .map(bidMapper::bidEntityToBidDetail);
     }
 
+    @Override
+    public ItemStats getItemStats(long itemId) {
+        return bidMapper.itemStatsEntityToItemStats(itemStatsView.findByItemId(itemId));
+    }
+
     @Override
     public List<BidDetail> getBidsForUser(String userId) {
 
@@ -64,8 +131,75 @@ public class BidServiceImpl implements BidService {
     }
 
     @Override
-    public BidDetail createBid(Bid bid) {
-        return bidMapper.bidEntityToBidDetail(
-                bidRepository.save(bidMapper.bidToBidEntity(bid)));
+    public List<BidDetail> getHighestBidsForUser(String userId) {
+        return userBidView.findHighestBidsByUserId(userId)
+                .stream()
+                .map(bidMapper::bidEntityToBidDetail)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<BidDetail> getWinningBidsForUser(String userId) {
+        return userBidView.findWinningBidsByUserId(userId)
+                .stream()
+                .map(bidMapper::bidEntityToBidDetail)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public BidResult<BidDetail> createBid(Bid bid) {
+        return submit(bid.getItemId(), closesAt -> bidRepository.save(bidMapper.bidToBidEntity(bid), closesAt))
+                .map(bidMapper::bidEntityToBidDetail);
+    }
+
+    @Override
+    public BidResult<BidDetail> createBid(Bid bid, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createBid(bid);
+        }
+
+        // Keys are only required to be unique per user. A fresh DTO is mapped for each replay as callers mutate it.
+        return idempotencyCache.computeIfAbsent(bid.getUserId() + '\u0000' + idempotencyKey, bid.getItemId(),
+                requestHash(bid),
+                () -> submit(bid.getItemId(),
+                        closesAt -> bidRepository.save(bidMapper.bidToBidEntity(bid), closesAt)))
+                .map(bidMapper::bidEntityToBidDetail);
+    }
+
+    @Override
+    public BidResult<BidDetail> createProxyBid(ProxyBid proxyBid) {
+        return submit(proxyBid.getItemId(),
+                closesAt -> bidRepository.saveProxy(bidMapper.proxyBidToProxyBidEntity(proxyBid), closesAt))
+                .map(bidMapper::bidEntityToBidDetail);
+    }
+
+    // Every field of the request, the amount at the scale submitted, as a bid at another scale is stored as such
+    private static byte[] requestHash(Bid bid) {
+        String request = bid.getItemId() + "\u0000" + bid.getUserId() + "\u0000" + bid.getAmount();
+
+        try {
+            return MessageDigest.getInstance(REQUEST_HASH_ALGORITHM).digest(request.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Refused by the repository unless submitted before the auction closes, and refused outright once bids can no
+    // longer be made durable
+    private BidResult<BidEntity> submit(Long itemId, Function<Instant, BidResult<BidEntity>> save) {
+        bidChangeFeed.checkAccepting();
+
+        Instant closesAt = itemRepository.findById(itemId).map(ItemEntity::getClosesAt).orElse(null);
+
+        return durable(save.apply(closesAt));
+    }
+
+    // Acknowledged only once durable at the configured level, as sequenced by the change feed
+    private BidResult<BidEntity> durable(BidResult<BidEntity> result) {
+        if (result.isAccepted() && result.getBid().getSequence() > 0) {
+            bidChangeFeed.awaitDurable(result.getBid().getSequence());
+        }
+
+        return result;
     }
 }
@@ -1,7 +1,11 @@
 package com.devxpress.auction.service;
 
 import com.devxpress.auction.api.v1.model.Item;
+import com.devxpress.auction.api.v1.model.TrendingItem;
+import com.devxpress.auction.view.TrendingItemsView;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Set;
 
 public interface ItemService {
@@ -10,4 +14,10 @@ public interface ItemService {
 
     Item getItem(Long itemId);
 
+    // Items with the most bid activity within the window, most active first
+    List<TrendingItem> getTrendingItems(Duration window, TrendingItemsView.Metric metric, int limit);
+
+    // Items whose description matches the query, most recent bid activity first
+    List<Item> searchItems(String query, int limit);
+
 }
@@ -3,12 +3,20 @@ package com.devxpress.auction.service;
 import com.devxpress.auction.api.exception.ResourceNotFoundException;
 import com.devxpress.auction.api.v1.mapper.ItemMapper;
 import com.devxpress.auction.api.v1.model.Item;
+import com.devxpress.auction.api.v1.model.TrendingItem;
+import com.devxpress.auction.configuration.SearchProperties;
+import com.devxpress.auction.configuration.TrendingProperties;
 import com.devxpress.auction.entity.ItemEntity;
 import com.devxpress.auction.repository.ItemRepository;
+import com.devxpress.auction.search.ItemSearchIndex;
+import com.devxpress.auction.view.TrendingItemsView;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -19,9 +27,17 @@ import java.util.stream.StreamSupport;
 public class ItemServiceImpl implements ItemService {
 
     static final String ITEM_NOT_EXIST_MSG = "Item does not exist for identifier : %s";
+    static final String INVALID_TRENDING_WINDOW = "Window must be positive and no longer than %s";
+    static final String INVALID_TRENDING_LIMIT = "Limit must be between 1 and %d";
+    static final String INVALID_SEARCH_QUERY = "Search query must contain at least one letter or digit";
+    static final String INVALID_SEARCH_LIMIT = "Limit must be between 1 and %d";
 
     private final ItemRepository itemRepository;
     private final ItemMapper itemMapper;
+    private final TrendingItemsView trendingItemsView;
+    private final TrendingProperties trendingProperties;
+    private final ItemSearchIndex itemSearchIndex;
+    private final SearchProperties searchProperties;
 
     @Override
     public Set<Item> getAllItems() {
@@ -36,7 +52,56 @@ public class ItemServiceImpl implements ItemService {
 
         return iOpt.map(itemMapper::itemEntityToItem)
                 .orElseThrow(() ->
-                        new ResourceNotFoundException(String.format(ITEM_NOT_EXIST_MSG, itemId)));
+                        new ResourceNotFoundException(String.format(ITEM_NOT_EXIST_MSG, itemId), false));
+    }
+
+    @Override
+    public List<TrendingItem> getTrendingItems(Duration window, TrendingItemsView.Metric metric, int limit) {
+        if (window.isNegative() || window.isZero() || window.compareTo(trendingProperties.getMaxWindow()) > 0) {
+            throw new IllegalArgumentException(String.format(INVALID_TRENDING_WINDOW,
+                    trendingProperties.getMaxWindow()));
+        }
+
+        if (limit < 1 || limit > trendingProperties.getMaxLimit()) {
+            throw new IllegalArgumentException(String.format(INVALID_TRENDING_LIMIT,
+                    trendingProperties.getMaxLimit()));
+        }
+
+        List<TrendingItem> trendingItems = new ArrayList<>();
+
+        for (TrendingItemsView.Trend trend : trendingItemsView.findTrending(window, metric, limit)) {
+            // Items no longer in the catalog are omitted
+            itemRepository.findById(trend.getItemId()).ifPresent(item -> {
+                TrendingItem trendingItem = new TrendingItem();
+                trendingItem.setItemId(item.getId());
+                trendingItem.setItemDescription(item.getDescription());
+                trendingItem.setBidCount(trend.getBidCount());
+                trendingItem.setPriceIncrease(trend.getPriceIncrease());
+                trendingItems.add(trendingItem);
+            });
+        }
+
+        return trendingItems;
+    }
+
+    @Override
+    public List<Item> searchItems(String query, int limit) {
+        if (query == null || query.chars().noneMatch(Character::isLetterOrDigit)) {
+            throw new IllegalArgumentException(INVALID_SEARCH_QUERY);
+        }
+
+        if (limit < 1 || limit > searchProperties.getMaxLimit()) {
+            throw new IllegalArgumentException(String.format(INVALID_SEARCH_LIMIT, searchProperties.getMaxLimit()));
+        }
+
+        List<Item> items = new ArrayList<>();
+
+        for (ItemSearchIndex.Hit hit : itemSearchIndex.search(query, limit)) {
+            // Items removed from the catalog whilst the index is being updated are omitted
+            itemRepository.findById(hit.getItemId()).map(itemMapper::itemEntityToItem).ifPresent(items::add);
+        }
+
+        return items;
     }
 
 }
@@ -0,0 +1,30 @@
+package com.devxpress.auction.settlement;
+
+import com.devxpress.auction.entity.BidEntity;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Outcome of an item's auction.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ItemSettlement {
+
+    private final long itemId;
+
+    private final Instant closesAt;
+
+    private final SettlementOutcome outcome;
+
+    // Highest bid submitted before closing, which wins if the outcome is SOLD, or null if there were none
+    private final BidEntity highestBid;
+
+    private final BigDecimal reserve;
+
+}
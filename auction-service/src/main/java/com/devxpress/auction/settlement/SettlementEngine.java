@@ -0,0 +1,256 @@
+package com.devxpress.auction.settlement;
+
+import com.devxpress.auction.cluster.ClusterMembership;
+import com.devxpress.auction.configuration.SettlementProperties;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ItemEntity;
+import com.devxpress.auction.repository.BidRepository;
+import com.devxpress.auction.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settles the auctions which have closed since the last settlement.
+ * <p>
+ * Each settlement takes the closed items from a snapshot of the catalog, then settles them in parallel, a range of
+ * items per fork-join task. An item's winner is read whilst holding only that item's lock, so settlement never holds
+ * up bidding on the items still open. A bid is refused unless submitted before its item closes, with the submission
+ * time taken whilst holding the item's lock, so the winner is read once every bid the item will ever accept has
+ * been, even if not yet stored. In a cluster, each node settles the items it owns. Replicas do not settle, as their
+ * primary already has.
+ * <p>
+ * Each settlement with closed items is written to a report file, named by the time it settled items up to, one line
+ * per item : {@value #REPORT_HEADER}. Settlement resumes from the latest report at startup. Reports are named to the
+ * millisecond, whereas items are settled up to the exact time given.
+ */
+@Component
+@Slf4j
+@ConditionalOnExpression("${auction.settlement.enabled:true} and '${auction.replication.role:none}' != 'replica'")
+public class SettlementEngine {
+
+    static final String REPORT_HEADER = "itemId,closesAt,outcome,userId,amount,reserve";
+
+    private static final String REPORT_FILE_PREFIX = "settlement-";
+    private static final String REPORT_FILE_SUFFIX = ".csv";
+    private static final String REPORT_FILE_FORMAT = REPORT_FILE_PREFIX + "%020d" + REPORT_FILE_SUFFIX;
+
+    // Items settled by a task without forking further
+    private static final int TASK_ITEMS = 256;
+
+    private final ItemRepository itemRepository;
+    private final BidRepository bidRepository;
+    private final int parallelism;
+    private final Path reportDirectory;
+
+    // Null unless clustered
+    private final ClusterMembership membership;
+
+    // Items closing up to this time have been settled
+    private Instant settledUpTo = Instant.MIN;
+
+    @Autowired
+    public SettlementEngine(ItemRepository itemRepository, BidRepository bidRepository,
+                            SettlementProperties properties, ObjectProvider<ClusterMembership> membership)
+            throws IOException {
+        this(itemRepository, bidRepository, properties, membership.getIfAvailable());
+    }
+
+    // Unclustered
+    SettlementEngine(ItemRepository itemRepository, BidRepository bidRepository, SettlementProperties properties)
+            throws IOException {
+        this(itemRepository, bidRepository, properties, (ClusterMembership) null);
+    }
+
+    private SettlementEngine(ItemRepository itemRepository, BidRepository bidRepository,
+                             SettlementProperties properties, ClusterMembership membership) throws IOException {
+        this.itemRepository = itemRepository;
+        this.bidRepository = bidRepository;
+        this.parallelism = Math.max(1, properties.getParallelism());
+        this.membership = membership;
+
+        if (properties.getReportDirectory() == null) {
+            this.reportDirectory = null;
+        } else {
+            this.reportDirectory = Files.createDirectories(Paths.get(properties.getReportDirectory()));
+
+            try (DirectoryStream<Path> reports = Files.newDirectoryStream(reportDirectory,
+                    REPORT_FILE_PREFIX + "*" + REPORT_FILE_SUFFIX)) {
+                // Named to the millisecond, so an item closing within the last millisecond settled is settled again
+                // rather than missed
+                for (Path report : reports) {
+                    String name = report.getFileName().toString();
+                    Instant upTo = Instant.ofEpochMilli(Long.parseLong(name.substring(REPORT_FILE_PREFIX.length(),
+                            name.length() - REPORT_FILE_SUFFIX.length())));
+
+                    if (upTo.isAfter(settledUpTo)) {
+                        settledUpTo = upTo;
+                    }
+                }
+            }
+
+            log.info("Writing settlement reports to : {}, settling items closed after : {}", reportDirectory,
+                    settledUpTo == Instant.MIN ? "(none settled)" : settledUpTo);
+        }
+    }
+
+    @Scheduled(cron = "${auction.settlement.cron:-}")
+    public void scheduledSettlement() {
+        try {
+            settle(Instant.now());
+        } catch (IOException | RuntimeException e) {
+            log.error("Settlement failed - items will be settled again by the next settlement", e);
+        }
+    }
+
+    /**
+     * Settle the items closed after the last settlement, up to the time given.
+     *
+     * @return the report of the items settled, which is only recorded as settled once its report is written
+     */
+    public synchronized SettlementReport settle(Instant upTo) throws IOException {
+        long start = System.nanoTime();
+
+        List<ItemEntity> closed = new ArrayList<>();
+
+        for (ItemEntity item : itemRepository.findAll()) {
+            Instant closesAt = item.getClosesAt();
+
+            if (closesAt != null && closesAt.isAfter(settledUpTo) && !closesAt.isAfter(upTo)
+                    && (membership == null || membership.isLocal(item.getId()))) {
+                closed.add(item);
+            }
+        }
+
+        if (closed.isEmpty()) {
+            settledUpTo = upTo;
+            return new SettlementReport(upTo, Collections.emptyList());
+        }
+
+        ItemSettlement[] settlements = new ItemSettlement[closed.size()];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            pool.invoke(new SettleTask(closed, settlements, 0, settlements.length));
+        } finally {
+            pool.shutdown();
+        }
+
+        SettlementReport report = new SettlementReport(upTo, Arrays.asList(settlements));
+
+        if (reportDirectory != null) {
+            writeReport(report);
+        }
+
+        settledUpTo = upTo;
+
+        log.info("Settled {} item(s) closed up to : {}, in {} ms - {} sold, {} reserve not met, {} without bids",
+                settlements.length, upTo, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                report.count(SettlementOutcome.SOLD), report.count(SettlementOutcome.RESERVE_NOT_MET),
+                report.count(SettlementOutcome.NO_BIDS));
+
+        return report;
+    }
+
+    private ItemSettlement settle(ItemEntity item) {
+        BidEntity highest = bidRepository.findHighestBefore(item.getId(), item.getClosesAt());
+
+        SettlementOutcome outcome;
+
+        if (highest == null) {
+            outcome = SettlementOutcome.NO_BIDS;
+        } else if (item.getReserve() != null && highest.getAmount().compareTo(item.getReserve()) < 0) {
+            outcome = SettlementOutcome.RESERVE_NOT_MET;
+        } else {
+            outcome = SettlementOutcome.SOLD;
+        }
+
+        return new ItemSettlement(item.getId(), item.getClosesAt(), outcome, highest, item.getReserve());
+    }
+
+    // Written in full before being named as a report, so that a partly written report never counts as settled
+    private void writeReport(SettlementReport report) throws IOException {
+        Path file = reportDirectory.resolve(String.format(REPORT_FILE_FORMAT, report.getClosedUpTo().toEpochMilli()));
+        Path partFile = reportDirectory.resolve(file.getFileName() + ".part");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(partFile, StandardCharsets.UTF_8)) {
+            writer.write(REPORT_HEADER);
+            writer.newLine();
+
+            for (ItemSettlement settlement : report.getSettlements()) {
+                BidEntity highest = settlement.getHighestBid();
+
+                writer.write(Long.toString(settlement.getItemId()));
+                writer.write(',');
+                writer.write(settlement.getClosesAt().toString());
+                writer.write(',');
+                writer.write(settlement.getOutcome().name());
+                writer.write(',');
+                writer.write(highest == null ? "" : csvField(highest.getUserId()));
+                writer.write(',');
+                writer.write(highest == null ? "" : highest.getAmount().toPlainString());
+                writer.write(',');
+                writer.write(settlement.getReserve() == null ? "" : settlement.getReserve().toPlainString());
+                writer.newLine();
+            }
+        }
+
+        Files.move(partFile, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private final class SettleTask extends RecursiveAction {
+
+        private final List<ItemEntity> items;
+        private final ItemSettlement[] settlements;
+        private final int start;
+        private final int end;
+
+        private SettleTask(List<ItemEntity> items, ItemSettlement[] settlements, int start, int end) {
+            this.items = items;
+            this.settlements = settlements;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= TASK_ITEMS) {
+                for (int i = start; i < end; i++) {
+                    settlements[i] = settle(items.get(i));
+                }
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new SettleTask(items, settlements, start, middle),
+                        new SettleTask(items, settlements, middle, end));
+            }
+        }
+    }
+}
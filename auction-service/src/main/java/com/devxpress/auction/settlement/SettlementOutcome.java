@@ -0,0 +1,10 @@
+package com.devxpress.auction.settlement;
+
+public enum SettlementOutcome {
+    // Highest bid met the reserve, if any
+    SOLD,
+    // Highest bid was below the reserve
+    RESERVE_NOT_MET,
+    // No bid before the auction closed
+    NO_BIDS
+}
@@ -0,0 +1,23 @@
+package com.devxpress.auction.settlement;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Items settled by one settlement, in catalog order : those closed after the previous settlement, up to this one.
+ */
+@Getter
+@RequiredArgsConstructor
+public class SettlementReport {
+
+    private final Instant closedUpTo;
+
+    private final List<ItemSettlement> settlements;
+
+    public long count(SettlementOutcome outcome) {
+        return settlements.stream().filter(s -> s.getOutcome() == outcome).count();
+    }
+}
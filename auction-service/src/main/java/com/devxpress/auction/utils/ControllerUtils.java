@@ -1,5 +1,10 @@
 package com.devxpress.auction.utils;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
 public final class ControllerUtils {
 
     private ControllerUtils() {
@@ -17,4 +22,27 @@ public final class ControllerUtils {
             throw new IllegalArgumentException(nonNumericMessage);
         }
     }
+
+    /**
+     * Convert an ISO instant (e.g. 2020-02-01T12:00:00Z) or an ISO local date/time, as written for bid timestamps
+     * (e.g. 2020-02-01T12:00:00.123456789), to an instant.
+     *
+     * @return the instant, or null if none is given
+     */
+    public static Instant convertStringToInstant(String dateTimeStr, String invalidMessage) {
+
+        if (dateTimeStr == null || dateTimeStr.trim().length() == 0) {
+            return null;
+        }
+
+        try {
+            return Instant.parse(dateTimeStr.trim());
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(dateTimeStr.trim()).atZone(ZoneId.systemDefault()).toInstant();
+            } catch (DateTimeParseException e2) {
+                throw new IllegalArgumentException(invalidMessage);
+            }
+        }
+    }
 }
@@ -0,0 +1,156 @@
+package com.devxpress.auction.view;
+
+/**
+ * Counts the distinct bidders (by user id) on an item, exactly up to {@link #EXACT_LIMIT} bidders and then
+ * approximately, with a HyperLogLog sketch of 2^{@link #PRECISION} registers (a standard error of about 0.8%).
+ * Each bidder is added in constant time and the count is maintained as bidders are added, so reading it is also
+ * constant time. Only the exact count holds the user ids, which the item's bids hold anyway; the sketch holds
+ * none, so the counter's size is bounded however many bidders there are.
+ * <p>
+ * Not thread safe : bidders must be added by one thread at a time.
+ */
+final class DistinctBidderCounter {
+
+    static final int EXACT_LIMIT = 1024;
+
+    static final int PRECISION = 14;
+
+    private static final int REGISTER_COUNT = 1 << PRECISION;
+
+    // Bias correction for the register count (Flajolet et al.)
+    private static final double ALPHA = 0.7213 / (1.0 + 1.079 / REGISTER_COUNT);
+
+    // Open addressing set of user ids (null marking an empty slot), until the sketch replaces it
+    private String[] userIds = new String[16];
+    private int exactCount;
+
+    private byte[] registers;
+    // Sum of 2^-register over all registers, and the number of registers still zero
+    private double inverseSum;
+    private int zeroRegisters;
+
+    private long count;
+
+    void add(String userId) {
+        if (registers == null) {
+            if (addExact(userId) && exactCount > EXACT_LIMIT) {
+                toSketch();
+            }
+
+            count = registers == null ? exactCount : estimate();
+        } else if (addToSketch(userId)) {
+            count = estimate();
+        }
+    }
+
+    long count() {
+        return count;
+    }
+
+    boolean isApproximate() {
+        return registers != null;
+    }
+
+    private boolean addExact(String userId) {
+        int mask = userIds.length - 1;
+        int slot = mix(userId.hashCode()) & mask;
+
+        while (userIds[slot] != null) {
+            if (userIds[slot].equals(userId)) {
+                return false;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        userIds[slot] = userId;
+        exactCount++;
+
+        // Resized at half full, keeping probe sequences short
+        if (exactCount * 2 > userIds.length && exactCount <= EXACT_LIMIT) {
+            String[] previous = userIds;
+            userIds = new String[previous.length * 2];
+            exactCount = 0;
+
+            for (String previousUserId : previous) {
+                if (previousUserId != null) {
+                    addExact(previousUserId);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void toSketch() {
+        registers = new byte[REGISTER_COUNT];
+        inverseSum = REGISTER_COUNT;
+        zeroRegisters = REGISTER_COUNT;
+
+        for (String userId : userIds) {
+            if (userId != null) {
+                addToSketch(userId);
+            }
+        }
+
+        userIds = null;
+    }
+
+    /**
+     * @return true if a register increased, and so the estimate may have changed
+     */
+    private boolean addToSketch(String userId) {
+        long hash = hash64(userId);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Position of the first set bit in the remaining bits, which are padded so the rank is bounded
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+
+        int current = registers[index];
+
+        if (rank <= current) {
+            return false;
+        }
+
+        registers[index] = (byte) rank;
+        inverseSum += Math.scalb(1.0, -rank) - Math.scalb(1.0, -current);
+
+        if (current == 0) {
+            zeroRegisters--;
+        }
+
+        return true;
+    }
+
+    private long estimate() {
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / inverseSum;
+
+        // Small range correction (linear counting), whilst registers remain empty
+        if (estimate <= 2.5 * REGISTER_COUNT && zeroRegisters > 0) {
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeroRegisters);
+        }
+
+        return Math.round(estimate);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // FNV-1a over the user id's chars, then the finalizer of MurmurHash3 to spread similar ids across the whole hash
+    private static long hash64(String userId) {
+        long h = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < userId.length(); i++) {
+            h ^= userId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
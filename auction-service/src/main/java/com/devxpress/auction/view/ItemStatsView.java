@@ -0,0 +1,88 @@
+package com.devxpress.auction.view;
+
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ItemStatsEntity;
+import com.devxpress.auction.repository.AcceptedBidListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read model of aggregate statistics per item (bid count, distinct bidders, opening and current price, time of
+ * last bid), maintained incrementally from accepted bids. Each bid updates its item's aggregates in constant
+ * time, and reading them never touches the item's bids. As only bids accepted since startup are seen, the view is
+ * rebuilt from the bids held at startup (see BidJournalRecovery).
+ */
+@Component
+public class ItemStatsView implements AcceptedBidListener {
+
+    private final Map<Long, ItemAggregates> ITEM_AGGREGATES_MAP = new ConcurrentHashMap<>();
+
+    // Called with the item locked, so each item's aggregates are updated by one thread at a time
+    @Override
+    public void onBidAccepted(BidEntity bid, BidEntity previousHighest) {
+        ITEM_AGGREGATES_MAP
+                .computeIfAbsent(bid.getItemId(), ItemAggregates::new)
+                .add(bid);
+    }
+
+    /**
+     * Replace the view with one built from the bids held, whilst no bids are being accepted (i.e. at startup).
+     */
+    public void rebuild(Iterable<BidEntity> bids) {
+        Map<Long, List<BidEntity>> itemBids = new HashMap<>();
+
+        for (BidEntity bid : bids) {
+            itemBids.computeIfAbsent(bid.getItemId(), k -> new ArrayList<>()).add(bid);
+        }
+
+        ITEM_AGGREGATES_MAP.clear();
+
+        // In the order accepted, as were they accepted now
+        itemBids.forEach((itemId, accepted) -> {
+            ItemAggregates aggregates = new ItemAggregates(itemId);
+
+            accepted.sort(Comparator.comparing(BidEntity::getSubmittedAt));
+            accepted.forEach(bid -> aggregates.add(bid));
+
+            ITEM_AGGREGATES_MAP.put(itemId, aggregates);
+        });
+    }
+
+    public ItemStatsEntity findByItemId(long itemId) {
+        ItemAggregates aggregates = ITEM_AGGREGATES_MAP.get(itemId);
+
+        return aggregates == null ? ItemStatsEntity.noBids(itemId) : aggregates.stats;
+    }
+
+    private static final class ItemAggregates {
+
+        private final DistinctBidderCounter bidders = new DistinctBidderCounter();
+
+        // Replaced as each bid is added, so readers always see the aggregates as at a single bid
+        private volatile ItemStatsEntity stats;
+
+        private ItemAggregates(long itemId) {
+            this.stats = ItemStatsEntity.noBids(itemId);
+        }
+
+        private void add(BidEntity bid) {
+            ItemStatsEntity previous = stats;
+            bidders.add(bid.getUserId());
+
+            stats = new ItemStatsEntity(
+                    previous.getItemId(),
+                    previous.getBidCount() + 1,
+                    bidders.count(),
+                    bidders.isApproximate(),
+                    previous.getOpeningPrice() == null ? bid.getAmount() : previous.getOpeningPrice(),
+                    bid.getAmount(),
+                    bid.getSubmittedAt());
+        }
+    }
+}
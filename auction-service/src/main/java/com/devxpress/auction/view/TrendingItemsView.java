@@ -0,0 +1,234 @@
+package com.devxpress.auction.view;
+
+import com.devxpress.auction.configuration.TrendingProperties;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.repository.AcceptedBidListener;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Read model of recent bid activity per item, maintained incrementally from accepted bids, from which the
+ * trending items are ranked :
+ * <ul>
+ *     <li>by bid count, the number of bids accepted within the window</li>
+ *     <li>by price, the rise in the highest bid within the window</li>
+ * </ul>
+ * Each item's activity is counted in a ring of time buckets which covers the longest window. A bid updates only
+ * its own item's ring, so recording activity never contends across items. A ranking reads only the items with
+ * activity within the longest window (dropping those without), keeping the top entries in a bounded heap.
+ * Price rises are kept exactly, at the scale of the bids' amounts, as they are summed.
+ */
+@Component
+public class TrendingItemsView implements AcceptedBidListener {
+
+    public enum Metric {
+        BIDS,
+        PRICE
+    }
+
+    private final Map<Long, ItemActivity> ITEM_ACTIVITY_MAP = new ConcurrentHashMap<>();
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final LongSupplier clock;
+
+    @Autowired
+    public TrendingItemsView(TrendingProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    TrendingItemsView(TrendingProperties properties, LongSupplier clock) {
+        this.bucketMillis = properties.getBucketDuration().toMillis();
+        this.bucketCount = (int) divideRoundingUp(properties.getMaxWindow().toMillis(), bucketMillis);
+        this.clock = clock;
+    }
+
+    // Called with the item locked, so each item's activity has a single writer at a time
+    @Override
+    public void onBidAccepted(BidEntity bid, BidEntity previousHighest) {
+        long now = clock.getAsLong();
+
+        // Bids submitted before the longest window, e.g. replayed at startup, are not recent activity
+        if (bid.getSubmittedAt() != null && bid.getSubmittedAt().toEpochMilli() <= now - bucketMillis * bucketCount) {
+            return;
+        }
+
+        long bucket = now / bucketMillis;
+
+        // The first bid on an item does not raise its price
+        BigDecimal priceIncrease = previousHighest == null ? BigDecimal.ZERO :
+                bid.getAmount().subtract(previousHighest.getAmount());
+
+        ITEM_ACTIVITY_MAP.compute(bid.getItemId(), (k, v) -> {
+            ItemActivity activity = v == null ? new ItemActivity(k, bucketCount) : v;
+            activity.record(bucket, priceIncrease);
+            return activity;
+        });
+    }
+
+    /**
+     * @return the most active items within the window (which is rounded up to whole buckets), most active first
+     */
+    public List<Trend> findTrending(Duration window, Metric metric, int limit) {
+        long currentBucket = clock.getAsLong() / bucketMillis;
+        long firstBucket = currentBucket - windowBuckets(window) + 1;
+
+        Comparator<Trend> ranking = metric == Metric.BIDS ?
+                Comparator.comparingLong(Trend::getBidCount).thenComparing(Trend::getPriceIncrease) :
+                Comparator.comparing(Trend::getPriceIncrease).thenComparingLong(Trend::getBidCount);
+
+        // Least active of the top entries at the head, to be displaced by any more active item
+        PriorityQueue<Trend> top = new PriorityQueue<>(limit + 1, ranking);
+
+        for (ItemActivity activity : ITEM_ACTIVITY_MAP.values()) {
+            if (activity.lastBucket <= currentBucket - bucketCount) {
+                // Inactive for longer than any window, unless a bid has arrived since it was read
+                ITEM_ACTIVITY_MAP.computeIfPresent(activity.itemId,
+                        (k, v) -> v.lastBucket <= currentBucket - bucketCount ? null : v);
+                continue;
+            }
+
+            Trend trend = activity.trend(firstBucket, currentBucket);
+
+            if (trend.getBidCount() > 0) {
+                top.add(trend);
+
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<Trend> trending = new ArrayList<>(top);
+        trending.sort(Collections.reverseOrder(ranking));
+
+        return trending;
+    }
+
+    /**
+     * @return the number of bids accepted on the item within the window (which is rounded up to whole buckets)
+     */
+    public long bidCount(long itemId, Duration window) {
+        ItemActivity activity = ITEM_ACTIVITY_MAP.get(itemId);
+
+        if (activity == null) {
+            return 0;
+        }
+
+        long currentBucket = clock.getAsLong() / bucketMillis;
+        return activity.bidCount(currentBucket - windowBuckets(window) + 1, currentBucket);
+    }
+
+    /**
+     * @return a live view of the items with activity within the longest window, which may also include some
+     * items which have since become inactive
+     */
+    public Set<Long> activeItemIds() {
+        return Collections.unmodifiableSet(ITEM_ACTIVITY_MAP.keySet());
+    }
+
+    private long windowBuckets(Duration window) {
+        return Math.min(bucketCount, Math.max(1, divideRoundingUp(window.toMillis(), bucketMillis)));
+    }
+
+    private static long divideRoundingUp(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Trend {
+
+        private final long itemId;
+        private final long bidCount;
+        private final BigDecimal priceIncrease;
+
+    }
+
+    private static final class ItemActivity {
+
+        private final long itemId;
+
+        // Ring of buckets, each slot holding the bucket it counts and that bucket's bid count and price increase.
+        // A slot's counts are reset before its bucket is set, so a reader which sees a bucket sees its counts.
+        private final AtomicLongArray buckets;
+        private final AtomicLongArray bidCounts;
+        private final AtomicReferenceArray<BigDecimal> priceIncreases;
+
+        private volatile long lastBucket;
+
+        private ItemActivity(long itemId, int bucketCount) {
+            this.itemId = itemId;
+            this.buckets = new AtomicLongArray(bucketCount);
+            this.bidCounts = new AtomicLongArray(bucketCount);
+            this.priceIncreases = new AtomicReferenceArray<>(bucketCount);
+
+            for (int i = 0; i < bucketCount; i++) {
+                buckets.set(i, Long.MIN_VALUE);
+                priceIncreases.set(i, BigDecimal.ZERO);
+            }
+        }
+
+        // Single writer, so plain read-modify-write of each slot is safe
+        private void record(long bucket, BigDecimal priceIncrease) {
+            int slot = (int) (bucket % buckets.length());
+
+            if (buckets.get(slot) != bucket) {
+                bidCounts.set(slot, 0);
+                priceIncreases.set(slot, BigDecimal.ZERO);
+                buckets.set(slot, bucket);
+            }
+
+            bidCounts.lazySet(slot, bidCounts.get(slot) + 1);
+            priceIncreases.lazySet(slot, priceIncreases.get(slot).add(priceIncrease));
+
+            lastBucket = bucket;
+        }
+
+        private long bidCount(long firstBucket, long currentBucket) {
+            long bidCount = 0;
+
+            for (long bucket = firstBucket; bucket <= currentBucket; bucket++) {
+                int slot = (int) (bucket % buckets.length());
+
+                if (buckets.get(slot) == bucket) {
+                    bidCount += bidCounts.get(slot);
+                }
+            }
+
+            return bidCount;
+        }
+
+        private Trend trend(long firstBucket, long currentBucket) {
+            long bidCount = 0;
+            BigDecimal priceIncrease = BigDecimal.ZERO;
+
+            for (long bucket = firstBucket; bucket <= currentBucket; bucket++) {
+                int slot = (int) (bucket % buckets.length());
+
+                if (buckets.get(slot) == bucket) {
+                    bidCount += bidCounts.get(slot);
+                    priceIncrease = priceIncrease.add(priceIncreases.get(slot));
+                }
+            }
+
+            return new Trend(itemId, bidCount, priceIncrease);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.devxpress.auction.view;
+
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.repository.AcceptedBidListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read model of the bids by each user, maintained incrementally from accepted bids :
+ * <ul>
+ *     <li>each user's highest bid on every item they have bid on</li>
+ *     <li>the items each user is currently winning, from which they are removed when outbid</li>
+ * </ul>
+ * Both queries cost time proportional to the size of the result, rather than to the number of bids held. As only
+ * bids accepted since startup are seen, the view is rebuilt from the bids held at startup (see BidJournalRecovery).
+ */
+@Component
+public class UserBidView implements AcceptedBidListener {
+
+    // Keyed by user id, as held by the bids themselves
+    private final Map<String, Map<Long, BidEntity>> USER_HIGHEST_BID_MAP = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> USER_WINNING_ITEM_MAP = new ConcurrentHashMap<>();
+
+    // Called with the item locked, so the transfer of the lead from one user to another is never interleaved
+    // with another bid on the same item
+    @Override
+    public void onBidAccepted(BidEntity bid, BidEntity previousHighest) {
+        // Bids on an item only ever increase, so the accepted bid is also the user's highest on the item
+        USER_HIGHEST_BID_MAP
+                .computeIfAbsent(bid.getUserId(), k -> new ConcurrentHashMap<>())
+                .put(bid.getItemId(), bid);
+
+        USER_WINNING_ITEM_MAP
+                .computeIfAbsent(bid.getUserId(), k -> ConcurrentHashMap.newKeySet())
+                .add(bid.getItemId());
+
+        // The previous leader is unknown if its bid was held before startup and the view has not been rebuilt
+        if (previousHighest != null && !previousHighest.getUserId().equals(bid.getUserId())) {
+            USER_WINNING_ITEM_MAP.computeIfPresent(previousHighest.getUserId(), (k, itemIds) -> {
+                itemIds.remove(bid.getItemId());
+                return itemIds;
+            });
+        }
+    }
+
+    /**
+     * Replace the view with one built from the bids held, whilst no bids are being accepted (i.e. at startup).
+     */
+    public void rebuild(Iterable<BidEntity> bids) {
+        Map<String, Map<Long, BidEntity>> highestBids = new HashMap<>();
+        Map<Long, BidEntity> itemHighestBids = new HashMap<>();
+
+        for (BidEntity bid : bids) {
+            highestBids.computeIfAbsent(bid.getUserId(), k -> new ConcurrentHashMap<>())
+                    .merge(bid.getItemId(), bid, UserBidView::higher);
+            itemHighestBids.merge(bid.getItemId(), bid, UserBidView::higher);
+        }
+
+        USER_HIGHEST_BID_MAP.clear();
+        USER_HIGHEST_BID_MAP.putAll(highestBids);
+
+        USER_WINNING_ITEM_MAP.clear();
+
+        for (BidEntity bid : itemHighestBids.values()) {
+            USER_WINNING_ITEM_MAP
+                    .computeIfAbsent(bid.getUserId(), k -> ConcurrentHashMap.newKeySet())
+                    .add(bid.getItemId());
+        }
+    }
+
+    public List<BidEntity> findHighestBidsByUserId(String userId) {
+        return new ArrayList<>(USER_HIGHEST_BID_MAP.getOrDefault(userId, Collections.emptyMap()).values());
+    }
+
+    public List<BidEntity> findWinningBidsByUserId(String userId) {
+        Map<Long, BidEntity> highestBids = USER_HIGHEST_BID_MAP.getOrDefault(userId, Collections.emptyMap());
+        List<BidEntity> winningBids = new ArrayList<>();
+
+        for (Long itemId : USER_WINNING_ITEM_MAP.getOrDefault(userId, Collections.emptySet())) {
+            BidEntity bid = highestBids.get(itemId);
+
+            // The lead may have changed hands since the winning item was read
+            if (bid != null) {
+                winningBids.add(bid);
+            }
+        }
+
+        return winningBids;
+    }
+
+    private static BidEntity higher(BidEntity bid, BidEntity other) {
+        return other.getAmount().compareTo(bid.getAmount()) > 0 ? other : bid;
+    }
+}
@@ -0,0 +1,98 @@
+package com.devxpress.auction.api.v1.json;
+
+import com.devxpress.auction.api.v1.mapper.BidMapper;
+import com.devxpress.auction.api.v1.mapper.BidMapperImpl;
+import com.devxpress.auction.api.v1.model.BidDetail;
+import com.devxpress.auction.api.v1.model.ItemBids;
+import com.devxpress.auction.entity.BidEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.devxpress.auction.utils.TestUtils.mapToJson;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ItemBidsSerializerTest {
+
+    private static final String DESCRIPTION = "Awesome \"item\" 1";
+
+    private final BidMapper bidMapper = new BidMapperImpl();
+
+    @Test
+    public void sameBytesAsBidDetails() throws JsonProcessingException {
+
+        List<BidEntity> bids = createTestBids();
+
+        assertThat(mapToJson(new ItemBids(bids, DESCRIPTION)), is(mapToJson(toBidDetails(bids, DESCRIPTION))));
+        assertThat(mapToJson(new ItemBids(bids, null)), is(mapToJson(toBidDetails(bids, null))));
+        assertThat(mapToJson(new ItemBids(new ArrayList<>(), DESCRIPTION)), is("[]"));
+    }
+
+    @Test
+    public void sameBytesAsBidDetailsWithNumericTimestamps() throws JsonProcessingException {
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        List<BidEntity> bids = createTestBids();
+
+        assertThat(objectMapper.writeValueAsString(new ItemBids(bids, DESCRIPTION)),
+                is(objectMapper.writeValueAsString(toBidDetails(bids, DESCRIPTION))));
+    }
+
+    @Test
+    public void timestampsFormattedAsIsoLocalDateTime() {
+
+        ZoneId zone = ZoneId.of("Europe/London");
+        LocalDateTimeFormat format = new LocalDateTimeFormat(zone);
+
+        // Either side of a daylight saving change, and repeated seconds with differing fractions
+        Instant change = Instant.parse("2020-03-29T01:00:00Z");
+
+        for (long second = -2; second <= 2; second++) {
+            for (int nano : new int[] {0, 1, 10, 120_000, 123_456_789, 500_000_000, 999_999_999}) {
+                Instant instant = change.plusSeconds(second).plusNanos(nano);
+
+                assertThat(format.format(instant), is(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(
+                        LocalDateTime.ofInstant(instant, zone))));
+            }
+        }
+    }
+
+    private List<BidDetail> toBidDetails(List<BidEntity> bids, String description) {
+        return bids.stream()
+                .map(bidMapper::bidEntityToBidDetail)
+                .peek(b -> b.setItemDescription(description))
+                .collect(Collectors.toList());
+    }
+
+    private List<BidEntity> createTestBids() {
+        Instant now = Instant.now();
+
+        List<BidEntity> bids = new ArrayList<>();
+        bids.add(createTestBidEntity("bob", new BigDecimal("1E+3"), now));
+        bids.add(createTestBidEntity("alice", new BigDecimal("30.75"), now.plusNanos(1)));
+        bids.add(createTestBidEntity("bob", new BigDecimal("25.50"), Instant.ofEpochSecond(now.getEpochSecond())));
+        bids.add(createTestBidEntity("élodie \\ ☃", new BigDecimal("20"), Instant.ofEpochSecond(0, 100)));
+        bids.add(createTestBidEntity(null, null, now.plusSeconds(1)));
+        return bids;
+    }
+
+    private BidEntity createTestBidEntity(String userId, BigDecimal amount, Instant submittedAt) {
+        BidEntity bid = new BidEntity();
+        bid.setItemId(1L);
+        bid.setUserId(userId);
+        bid.setAmount(amount);
+        bid.setSubmittedAt(submittedAt);
+        return bid;
+    }
+}
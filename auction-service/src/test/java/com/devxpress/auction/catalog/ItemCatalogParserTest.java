@@ -0,0 +1,178 @@
+package com.devxpress.auction.catalog;
+
+import com.devxpress.auction.configuration.CatalogImportProperties;
+import com.devxpress.auction.entity.ItemEntity;
+import com.devxpress.auction.repository.ItemCatalog;
+import org.junit.AfterClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ItemCatalogParserTest {
+
+    private static final int ITEM_COUNT = 500;
+
+    // Small enough for most chunks to start and end mid-line
+    private static final int CHUNK_SIZE = 97;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ItemCatalogParser parser = new ItemCatalogParser(CHUNK_SIZE);
+
+    @AfterClass
+    public static void tearDown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void parsesCsvAcrossChunks() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("id,description,category");
+
+        for (int i = 1; i <= ITEM_COUNT; i++) {
+            lines.add(i + ",Item " + i + "," + (i % 2 == 0 ? "even" : "odd"));
+        }
+
+        ItemCatalog catalog = parse("catalog.csv", String.join("\r\n", lines) + "\r\n");
+
+        assertThat(catalog.size(), is(ITEM_COUNT));
+        assertThat(catalog.items().stream().map(ItemEntity::getId).collect(Collectors.toList()),
+                is(lines.subList(1, lines.size()).stream()
+                        .map(line -> Long.valueOf(line.substring(0, line.indexOf(','))))
+                        .collect(Collectors.toList())));
+        assertThat(catalog.get(42L).getDescription(), is("Item 42"));
+        assertThat(catalog.inCategory("even").size(), is(ITEM_COUNT / 2));
+    }
+
+    @Test
+    public void parsesQuotedCsvFields() throws IOException {
+        ItemCatalog catalog = parse("catalog.csv",
+                "1,\"Table, oak\",\"Furniture\"\n\n2,\"12\"\" ruler\",\n3,Lamp,Lighting");
+
+        assertThat(catalog.get(1L).getDescription(), is("Table, oak"));
+        assertThat(catalog.get(1L).getCategory(), is("Furniture"));
+        assertThat(catalog.get(2L).getDescription(), is("12\" ruler"));
+        assertThat(catalog.get(2L).getCategory(), is(nullValue()));
+        assertThat(catalog.get(3L).getCategory(), is("Lighting"));
+    }
+
+    @Test
+    public void parsesNdjsonAcrossChunks() throws IOException {
+        StringBuilder content = new StringBuilder();
+
+        for (int i = 1; i <= ITEM_COUNT; i++) {
+            content.append("{\"id\":").append(i).append(",\"description\":\"Item ").append(i)
+                    .append("\",\"category\":\"cat").append(i % 5).append("\"}\n");
+        }
+
+        ItemCatalog catalog = parse("catalog.ndjson", content.toString());
+
+        assertThat(catalog.size(), is(ITEM_COUNT));
+        assertThat(catalog.get((long) ITEM_COUNT).getDescription(), is("Item " + ITEM_COUNT));
+        assertThat(catalog.inCategory("cat3").size(), is(ITEM_COUNT / 5));
+    }
+
+    @Test
+    public void parsesClosingTimeAndReserve() throws IOException {
+        ItemCatalog csv = parse("catalog.csv",
+                "1,Chair,Furniture,2030-01-01T12:00:00Z,150.00\n2,Lamp,Lighting,,\n3,Rug,,2030-01-02T00:00:00Z,\n");
+
+        assertThat(csv.get(1L).getClosesAt(), is(Instant.parse("2030-01-01T12:00:00Z")));
+        assertThat(csv.get(1L).getReserve(), is(new BigDecimal("150.00")));
+        assertThat(csv.get(2L).getClosesAt(), is(nullValue()));
+        assertThat(csv.get(2L).getReserve(), is(nullValue()));
+        assertThat(csv.get(3L).getReserve(), is(nullValue()));
+
+        ItemCatalog ndjson = parse("catalog.ndjson",
+                "{\"id\":1,\"description\":\"Chair\",\"closesAt\":\"2030-01-01T12:00:00Z\",\"reserve\":150.00}\n");
+
+        assertThat(ndjson.get(1L).getClosesAt(), is(Instant.parse("2030-01-01T12:00:00Z")));
+        assertThat(ndjson.get(1L).getReserve().compareTo(new BigDecimal("150")), is(0));
+    }
+
+    @Test
+    public void laterDuplicateReplacesEarlierItem() throws IOException {
+        Path file = write("catalog.csv", "1,Chair,Furniture\n2,Lamp,Lighting\n1,Armchair,Seating\n");
+
+        ItemCatalog.Builder builder = parser.parse(file, CatalogImportProperties.Format.AUTO, POOL);
+        ItemCatalog catalog = builder.build();
+
+        assertThat(builder.replaced(), is(1));
+        assertThat(catalog.size(), is(2));
+        assertThat(catalog.get(1L).getDescription(), is("Armchair"));
+        assertThat(catalog.inCategory("Furniture").isEmpty(), is(true));
+        assertThat(catalog.inCategory("Seating").size(), is(1));
+    }
+
+    @Test
+    public void reportsOffsetOfMalformedLine() throws IOException {
+        Path file = write("catalog.csv", "1,Chair,Furniture\nx,Lamp,Lighting\n");
+
+        try {
+            parser.parse(file, CatalogImportProperties.Format.CSV, POOL);
+            fail("Malformed line accepted");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage().contains("offset 18"), is(true));
+        }
+    }
+
+    @Test
+    public void reportsFileOffsetOfMalformedJsonLine() throws IOException {
+        StringBuilder content = new StringBuilder();
+
+        for (int i = 1; i <= 10; i++) {
+            content.append("{\"id\":").append(i).append(",\"description\":\"Item ").append(i).append("\"}\n");
+        }
+
+        // In a later chunk than the first
+        int malformedOffset = content.length();
+        content.append("{\"id\":11,\"description\":\n");
+
+        try {
+            parse("catalog.ndjson", content.toString());
+            fail("Malformed line accepted");
+        } catch (IllegalArgumentException e) {
+            assertThat(malformedOffset > CHUNK_SIZE, is(true));
+            assertThat(e.getMessage().contains("offset " + malformedOffset), is(true));
+        }
+    }
+
+    @Test
+    public void failFractionalJsonId() throws IOException {
+        try {
+            parse("catalog.ndjson", "{\"id\":1,\"description\":\"Chair\"}\n{\"id\":1.5,\"description\":\"Lamp\"}\n");
+            fail("Fractional id accepted");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage().contains("invalid id : 1.5"), is(true));
+        }
+    }
+
+    private ItemCatalog parse(String fileName, String content) throws IOException {
+        return parser.parse(write(fileName, content), CatalogImportProperties.Format.AUTO, POOL).build();
+    }
+
+    private Path write(String fileName, String content) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(fileName);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,130 @@
+package com.devxpress.auction.cluster;
+
+import com.devxpress.auction.configuration.ClusterProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClusterRoutingFilterTest {
+
+    private static final List<String> NODE_IDS = Arrays.asList("node-a", "node-b", "node-c");
+    private static final int ITEMS = 300;
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+    @Before
+    public void setUp() {
+        NODE_IDS.forEach(nodeId -> nodes.put(nodeId, new Node(nodeId)));
+    }
+
+    @Test
+    public void itemRequestsAreServedByTheirOwnerWhicheverNodeReceivesThem() throws Exception {
+        Map<String, Integer> servedCounts = new LinkedHashMap<>();
+
+        for (Node receiver : nodes.values()) {
+            for (long itemId = 1; itemId <= ITEMS; itemId++) {
+                MockHttpServletResponse response = receiver.receive("/v1/items/" + itemId + "/bids");
+
+                String owner = receiver.membership.ownerOf(itemId);
+
+                // Every node agrees on the owner, which served the request itself
+                assertThat(response.getStatus(), is(HttpStatus.OK.value()));
+                assertThat(response.getContentAsString(), is(owner + ":" + itemId));
+                servedCounts.merge(owner, 1, Integer::sum);
+            }
+        }
+
+        // Items spread across all partitions, each request served exactly once
+        assertThat(servedCounts.keySet().size(), is(NODE_IDS.size()));
+        assertThat(servedCounts.values().stream().mapToInt(Integer::intValue).sum(), is(ITEMS * NODE_IDS.size()));
+        nodes.values().forEach(node -> assertThat(node.served, is(servedCounts.get(node.membership.getSelfId()))));
+    }
+
+    @Test
+    public void unreachableOwnerIsUnavailable() throws Exception {
+        Node receiver = nodes.get("node-a");
+
+        long remoteItemId = 1;
+        while (receiver.membership.isLocal(remoteItemId)) {
+            remoteItemId++;
+        }
+
+        when(receiver.clusterClient.forward(anyString(), any(), anyString(), any(), any()))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        MockHttpServletResponse response = receiver.receive("/v1/items/" + remoteItemId + "/bids");
+
+        assertThat(response.getStatus(), is(HttpStatus.SERVICE_UNAVAILABLE.value()));
+        assertThat(receiver.served, is(0));
+    }
+
+    // A node's routing filter in front of a handler which answers with the node and item id
+    private final class Node {
+
+        private final ClusterMembership membership;
+        private final ClusterClient clusterClient = mock(ClusterClient.class);
+        private final ClusterRoutingFilter filter;
+
+        private int served;
+
+        private Node(String nodeId) {
+            ClusterProperties properties = new ClusterProperties();
+            properties.setNodeId(nodeId);
+            NODE_IDS.forEach(id -> properties.getMembers().put(id, "http://" + id));
+
+            membership = new ClusterMembership(properties);
+            filter = new ClusterRoutingFilter(membership, clusterClient, new ObjectMapper());
+
+            // Forwarded in process to the peer's own filter, marked as the client marks it
+            for (String peerId : NODE_IDS) {
+                when(clusterClient.forward(eq(peerId), eq(HttpMethod.GET), anyString(), any(), any()))
+                        .thenAnswer(invocation -> nodes.get(peerId).serveForwarded(invocation.getArgument(2), nodeId));
+            }
+        }
+
+        private MockHttpServletResponse receive(String path) throws Exception {
+            return serve(new MockHttpServletRequest("GET", path));
+        }
+
+        private ResponseEntity<byte[]> serveForwarded(String path, String forwardedBy) throws Exception {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+            request.addHeader(ClusterClient.FORWARDED_BY_HEADER, forwardedBy);
+
+            MockHttpServletResponse response = serve(request);
+
+            return ResponseEntity.status(response.getStatus()).body(response.getContentAsByteArray());
+        }
+
+        private MockHttpServletResponse serve(MockHttpServletRequest request) throws Exception {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            filter.doFilter(request, response, (req, res) -> {
+                served++;
+                String itemId = request.getRequestURI().split("/")[3];
+                res.getOutputStream().write((membership.getSelfId() + ":" + itemId).getBytes(StandardCharsets.UTF_8));
+            });
+
+            return response;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.devxpress.auction.cluster;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.oneOf;
+import static org.junit.Assert.assertThat;
+
+public class ConsistentHashRingTest {
+
+    private static final int ITEMS = 30_000;
+
+    @Test
+    public void itemsSpreadAcrossNodes() {
+
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("node-a", "node-b", "node-c"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+
+        for (long itemId = 1; itemId <= ITEMS; itemId++) {
+            counts.merge(ring.nodeFor(itemId), 1, Integer::sum);
+        }
+
+        assertThat(counts.size(), is(3));
+        counts.values().forEach(count -> assertThat(count, greaterThan(ITEMS / 5)));
+    }
+
+    @Test
+    public void addingNodeOnlyMovesItemsToThatNode() {
+
+        ConsistentHashRing before = new ConsistentHashRing(Arrays.asList("node-a", "node-b"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(Arrays.asList("node-a", "node-b", "node-c"), 128);
+
+        for (long itemId = 1; itemId <= ITEMS; itemId++) {
+            String owner = after.nodeFor(itemId);
+            assertThat(owner, oneOf(before.nodeFor(itemId), "node-c"));
+        }
+    }
+
+    @Test
+    public void sameOwnerRegardlessOfMemberOrder() {
+
+        ConsistentHashRing ring1 = new ConsistentHashRing(Arrays.asList("node-a", "node-b", "node-c"), 64);
+        ConsistentHashRing ring2 = new ConsistentHashRing(Arrays.asList("node-c", "node-a", "node-b"), 64);
+
+        for (long itemId = 1; itemId <= ITEMS; itemId++) {
+            assertThat(ring1.nodeFor(itemId), is(ring2.nodeFor(itemId)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failNoNodes() {
+        new ConsistentHashRing(Arrays.asList(), 128);
+    }
+}
@@ -1,45 +1,78 @@
 package com.devxpress.auction.controller;
 
-import com.devxpress.auction.api.exception.InvalidResourceException;
+import com.devxpress.auction.api.BidResult;
+import com.devxpress.auction.api.exception.BaseException;
 import com.devxpress.auction.api.exception.ResourceNotFoundException;
+import com.devxpress.auction.api.exception.StaleResourceException;
 import com.devxpress.auction.api.v1.model.Bid;
+import com.devxpress.auction.api.v1.model.BidChange;
+import com.devxpress.auction.api.v1.model.BidChanges;
 import com.devxpress.auction.api.v1.model.BidDetail;
 import com.devxpress.auction.api.v1.model.Item;
+import com.devxpress.auction.api.v1.model.ItemBids;
+import com.devxpress.auction.api.v1.model.ItemStats;
+import com.devxpress.auction.api.v1.model.ProxyBid;
+import com.devxpress.auction.api.v1.model.TrendingItem;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.feed.BidExportFormat;
+import com.devxpress.auction.service.BidRateLimiter;
 import com.devxpress.auction.service.BidService;
 import com.devxpress.auction.service.ItemService;
+import com.devxpress.auction.view.TrendingItemsView;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
+import static com.devxpress.auction.api.ApiErrorCode.RETRYABLE_ERROR;
+import static com.devxpress.auction.api.ApiErrorCode.CRITICAL_ERROR;
 import static com.devxpress.auction.api.ApiErrorCode.UNEXPECTED_ERROR;
 import static com.devxpress.auction.api.ApiErrorMessage.INVALID_RESOURCE_MSG;
 import static com.devxpress.auction.api.ApiErrorMessage.MISSING_OR_INVALID_ARGUMENT_MSG;
+import static com.devxpress.auction.api.ApiErrorMessage.RATE_LIMIT_EXCEEDED_MSG;
 import static com.devxpress.auction.api.ApiErrorMessage.RESOURCE_NOT_FOUND_MSG;
 import static com.devxpress.auction.api.ApiErrorMessage.RESOURCE_OPERATION_ERROR_MSG;
 import static com.devxpress.auction.api.ApiErrorMessage.SYSTEM_ERROR_MSG;
 import static com.devxpress.auction.controller.AuctionController.BID_CREATION_FAILED;
+import static com.devxpress.auction.controller.AuctionController.BID_RATE_EXCEEDED;
 import static com.devxpress.auction.controller.AuctionController.EMPTY_AMOUNT;
+import static com.devxpress.auction.controller.AuctionController.EMPTY_MAX_AMOUNT;
 import static com.devxpress.auction.controller.AuctionController.EMPTY_USER_ID;
+import static com.devxpress.auction.controller.AuctionController.IDEMPOTENCY_KEY_HEADER;
 import static com.devxpress.auction.controller.AuctionController.INVALID_AMOUNT;
+import static com.devxpress.auction.controller.AuctionController.INVALID_EXPORT_FORMAT;
 import static com.devxpress.auction.controller.AuctionController.INVALID_ITEM_ID_FORMAT;
+import static com.devxpress.auction.controller.AuctionController.INVALID_TIMESTAMP;
+import static com.devxpress.auction.controller.AuctionController.INVALID_TRENDING_QUERY;
 import static com.devxpress.auction.controller.AuctionController.ITEM_ID_MISMATCH;
 import static com.devxpress.auction.controller.AuctionController.WINNING_BID_NOT_FOUND;
 import static com.devxpress.auction.utils.TestUtils.getJacksonDateTimeConverter;
@@ -50,8 +83,12 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
@@ -61,6 +98,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -77,12 +115,17 @@ public class AuctionControllerTest {
     @Mock
     private BidService bidService;
 
+    @Mock
+    private BidRateLimiter bidRateLimiter;
+
     private MockMvc mockMvc;
 
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
 
+        when(bidRateLimiter.tryAcquire(any())).thenReturn(true);
+
         mockMvc = MockMvcBuilders.standaloneSetup(auctionController)
                 .setMessageConverters(getJacksonDateTimeConverter())
                 .setControllerAdvice(new ControllerExceptionHandler())
@@ -135,6 +178,184 @@ public class AuctionControllerTest {
         verify(itemService).getAllItems();
     }
 
+    @Test
+    public void getTrendingItems() throws Exception {
+
+        TrendingItem trendingItem = new TrendingItem();
+        trendingItem.setItemId(3L);
+        trendingItem.setItemDescription("Item 3");
+        trendingItem.setBidCount(12L);
+        trendingItem.setPriceIncrease(new BigDecimal("40.00"));
+
+        when(itemService.getTrendingItems(Duration.ofMinutes(10), TrendingItemsView.Metric.PRICE, 5))
+                .thenReturn(Collections.singletonList(trendingItem));
+
+        mockMvc.perform(get(BASE_ITEMS_URI + "/trending?window=10m&by=price&limit=5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].itemId", is(3)))
+                .andExpect(jsonPath("$[0].itemDescription", is("Item 3")))
+                .andExpect(jsonPath("$[0].bidCount", is(12)))
+                .andExpect(jsonPath("$[0].priceIncrease", is(40.0)));
+
+        verify(itemService).getTrendingItems(Duration.ofMinutes(10), TrendingItemsView.Metric.PRICE, 5);
+    }
+
+    @Test
+    public void failGetTrendingItemsInvalidRanking() throws Exception {
+
+        mockMvc.perform(get(BASE_ITEMS_URI + "/trending?window=5m&by=views")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.contextDetails[0]", is(String.format(INVALID_TRENDING_QUERY, "5m", "views"))));
+
+        verifyNoMoreInteractions(itemService);
+    }
+
+    @Test
+    public void searchItems() throws Exception {
+
+        when(itemService.searchItems("magnificent it", 5))
+                .thenReturn(Arrays.asList(createTestItem(4L, "Magnificent item 4"),
+                        createTestItem(7L, "Magnificent item 7")));
+
+        mockMvc.perform(get(BASE_ITEMS_URI + "/search?q=magnificent it&limit=5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(4)))
+                .andExpect(jsonPath("$[1].description", is("Magnificent item 7")));
+
+        verify(itemService).searchItems("magnificent it", 5);
+    }
+
+    @Test
+    public void failSearchItemsMissingQuery() throws Exception {
+
+        mockMvc.perform(get(BASE_ITEMS_URI + "/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verifyNoMoreInteractions(itemService);
+    }
+
+    @Test
+    public void getBidChanges() throws Exception {
+
+        LocalDateTime now = LocalDateTime.now();
+
+        BidChange change = new BidChange();
+        change.setSequence(1201L);
+        change.setItemId(4L);
+        change.setUserId("bob");
+        change.setAmount(new BigDecimal("30.75"));
+        change.setCreatedDateTime(now);
+
+        when(bidService.getBidChanges(1200L, 500)).thenReturn(
+                new BidChanges(Collections.singletonList(change), 1201L, 1250L));
+
+        mockMvc.perform(get("/v1/bids/changes?after-seq=1200&limit=500")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(1)))
+                .andExpect(jsonPath("$.changes[0].sequence", is(1201)))
+                .andExpect(jsonPath("$.changes[0].itemId", is(4)))
+                .andExpect(jsonPath("$.changes[0].userId", is("bob")))
+                .andExpect(jsonPath("$.changes[0].amount", is(30.75)))
+                .andExpect(jsonPath("$.lastSequence", is(1201)))
+                .andExpect(jsonPath("$.latestSequence", is(1250)));
+
+        verify(bidService).getBidChanges(1200L, 500);
+    }
+
+    @Test
+    public void failGetBidChangesNotRetained() throws Exception {
+
+        when(bidService.getBidChanges(5L, 100)).thenThrow(new StaleResourceException("Not retained"));
+
+        mockMvc.perform(get("/v1/bids/changes?after-seq=5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.contextDetails[0]", is("Not retained")));
+    }
+
+    @Test
+    public void exportBidsGzipped() throws Exception {
+
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"sequence\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return true;
+        }).when(bidService).exportBids(eq(BidExportFormat.NDJSON), any());
+
+        byte[] body = mockMvc.perform(get("/v1/bids/export?format=NDJson")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ByteArrayOutputStream unzipped = new ByteArrayOutputStream();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            byte[] buffer = new byte[256];
+            int read;
+
+            while ((read = in.read(buffer)) > 0) {
+                unzipped.write(buffer, 0, read);
+            }
+        }
+
+        assertThat(new String(unzipped.toByteArray(), StandardCharsets.UTF_8), is("{\"sequence\":1}\n"));
+    }
+
+    @Test
+    public void failExportBidsBeforeAnyIsSent() throws Exception {
+
+        when(bidService.exportBids(eq(BidExportFormat.NDJSON), any())).thenThrow(new IOException("Disk failure"));
+
+        mockMvc.perform(get("/v1/bids/export")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.code", is(UNEXPECTED_ERROR)));
+    }
+
+    @Test
+    public void failExportBidsOnceSentWithoutEndingResponse() throws Exception {
+
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(new byte[64 * 1024]);
+            throw new IOException("Disk failure");
+        }).when(bidService).exportBids(eq(BidExportFormat.BINARY), any());
+
+        try {
+            mockMvc.perform(get("/v1/bids/export?format=binary"));
+            fail("Export ended as though complete");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), startsWith("Failed to export bids as : binary"));
+            assertThat(e.getCause(), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void failExportBidsInvalidFormat() throws Exception {
+
+        mockMvc.perform(get("/v1/bids/export?format=csv"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.contextDetails[0]", is(String.format(INVALID_EXPORT_FORMAT, "csv"))));
+
+        verifyNoMoreInteractions(bidService);
+    }
+
     @Test
     public void getItemsOnWhichUserHasBid() throws Exception {
 
@@ -197,15 +418,17 @@ public class AuctionControllerTest {
 
         long itemId = 3L;
 
-        LocalDateTime now = LocalDateTime.now();
+        Instant submittedAt = Instant.now();
+        LocalDateTime now = LocalDateTime.ofInstant(submittedAt, ZoneId.systemDefault());
 
-        List<BidDetail> bidDetails = new ArrayList<>();
-        bidDetails.add(createTestBidDetail(itemId, null, "bob", new BigDecimal("20.25"), now));
-        bidDetails.add(createTestBidDetail(itemId, null, "alice", new BigDecimal("25.50"), now));
-        bidDetails.add(createTestBidDetail(itemId, null, "bob", new BigDecimal("30.75"), now));
+        List<BidEntity> bids = new ArrayList<>();
+        bids.add(createTestBidEntity(itemId, "bob", new BigDecimal("20.25"), submittedAt));
+        bids.add(createTestBidEntity(itemId, "alice", new BigDecimal("25.50"), submittedAt));
+        bids.add(createTestBidEntity(itemId, "bob", new BigDecimal("30.75"), submittedAt));
 
         when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
-        when(bidService.getBidsForItem(itemId)).thenReturn(bidDetails);
+        when(bidService.getItemBids(itemId, "Description " + itemId, null, null))
+                .thenReturn(new ItemBids(bids, "Description " + itemId));
 
         mockMvc.perform(get(BASE_ITEMS_URI + "/{item-id}/bids", itemId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -228,7 +451,7 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$[2].amount", is(30.75)))
                 .andExpect(jsonPath("$[2].createdDateTime", startsWith(now.format(DateTimeFormatter.ISO_DATE_TIME))));
 
-        verify(bidService).getBidsForItem(itemId);
+        verify(bidService).getItemBids(itemId, "Description " + itemId, null, null);
         verify(itemService).getItem(itemId);
     }
 
@@ -237,10 +460,9 @@ public class AuctionControllerTest {
 
         long itemId = 3L;
 
-        List<BidDetail> bidDetails = new ArrayList<>();
-
         when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
-        when(bidService.getBidsForItem(itemId)).thenReturn(bidDetails);
+        when(bidService.getItemBids(itemId, "Description " + itemId, null, null))
+                .thenReturn(new ItemBids(new ArrayList<>(), "Description " + itemId));
 
         mockMvc.perform(get(BASE_ITEMS_URI + "/{item-id}/bids", itemId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -248,10 +470,47 @@ public class AuctionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
 
-        verify(bidService).getBidsForItem(itemId);
+        verify(bidService).getItemBids(itemId, "Description " + itemId, null, null);
         verify(itemService).getItem(itemId);
     }
 
+    @Test
+    public void getBidsForItemSince() throws Exception {
+
+        long itemId = 3L;
+
+        Instant since = Instant.parse("2020-02-01T12:00:00.123456789Z");
+        Instant until = Instant.parse("2020-02-01T13:00:00Z");
+        String sinceLocal = LocalDateTime.ofInstant(since, ZoneId.systemDefault()).toString();
+
+        when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
+        when(bidService.getItemBids(itemId, "Description " + itemId, since, until))
+                .thenReturn(new ItemBids(new ArrayList<>(), "Description " + itemId));
+
+        mockMvc.perform(get(BASE_ITEMS_URI + "/{item-id}/bids?since={since}&until={until}", itemId, sinceLocal,
+                until.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        verify(bidService).getItemBids(itemId, "Description " + itemId, since, until);
+    }
+
+    @Test
+    public void failGetBidsForItemInvalidSince() throws Exception {
+
+        long itemId = 3L;
+
+        mockMvc.perform(get(BASE_ITEMS_URI + "/{item-id}/bids?since=yesterday", itemId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.contextDetails[0]", is(String.format(INVALID_TIMESTAMP, "yesterday"))));
+
+        verify(bidService, never()).getItemBids(anyLong(), any(), any(), any());
+    }
+
     @Test
     public void failGetAllBidsForItemNonIntegerItemId() throws Exception {
 
@@ -270,7 +529,7 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails", hasSize(1)))
                 .andExpect(jsonPath("$.contextDetails[0]", is(String.format(INVALID_ITEM_ID_FORMAT, badItemId))));
 
-        verify(bidService, never()).getBidsForItem(anyLong());
+        verify(bidService, never()).getItemBids(anyLong(), any(), any(), any());
         verify(itemService, never()).getItem(anyLong());
     }
 
@@ -294,7 +553,7 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails", hasSize(1)))
                 .andExpect(jsonPath("$.contextDetails[0]", is("Something's missing")));
 
-        verify(bidService, never()).getBidsForItem(itemId);
+        verify(bidService, never()).getItemBids(eq(itemId), any(), any(), any());
         verify(itemService).getItem(itemId);
     }
 
@@ -304,7 +563,7 @@ public class AuctionControllerTest {
         long itemId = 3L;
 
         when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
-        when(bidService.getBidsForItem(itemId)).thenThrow(new RuntimeException("Something's wrong"));
+        when(bidService.getItemBids(eq(itemId), any(), any(), any())).thenThrow(new RuntimeException("Something's wrong"));
 
         mockMvc.perform(get(BASE_ITEMS_URI + "/{item-id}/bids", itemId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -320,7 +579,7 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails[0]",
                         is("Failed to retrieve bid(s) on auction item with id : 3 - Something's wrong")));
 
-        verify(bidService).getBidsForItem(itemId);
+        verify(bidService).getItemBids(eq(itemId), any(), any(), any());
         verify(itemService).getItem(itemId);
     }
 
@@ -349,6 +608,41 @@ public class AuctionControllerTest {
         verify(itemService).getItem(itemId);
     }
 
+    @Test
+    public void getStatsForItem() throws Exception {
+
+        long itemId = 3L;
+
+        LocalDateTime now = LocalDateTime.now();
+
+        ItemStats stats = new ItemStats();
+        stats.setItemId(itemId);
+        stats.setBidCount(42L);
+        stats.setBidderCount(17L);
+        stats.setOpeningPrice(new BigDecimal("5.00"));
+        stats.setCurrentPrice(new BigDecimal("30.75"));
+        stats.setLastBidDateTime(now);
+
+        when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
+        when(bidService.getItemStats(itemId)).thenReturn(stats);
+
+        mockMvc.perform(get(BASE_ITEMS_URI + "/{item-id}/stats", itemId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is((int) itemId)))
+                .andExpect(jsonPath("$.itemDescription", is("Description " + itemId)))
+                .andExpect(jsonPath("$.bidCount", is(42)))
+                .andExpect(jsonPath("$.bidderCount", is(17)))
+                .andExpect(jsonPath("$.bidderCountApproximate", is(false)))
+                .andExpect(jsonPath("$.openingPrice", is(5.0)))
+                .andExpect(jsonPath("$.currentPrice", is(30.75)))
+                .andExpect(jsonPath("$.lastBidDateTime", startsWith(now.format(DateTimeFormatter.ISO_DATE_TIME))));
+
+        verify(bidService).getItemStats(itemId);
+        verify(itemService).getItem(itemId);
+    }
+
     @Test
     public void getWinningBidForItemWhenNoBidsExist() throws Exception {
 
@@ -392,7 +686,7 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails", hasSize(1)))
                 .andExpect(jsonPath("$.contextDetails[0]", is(String.format(INVALID_ITEM_ID_FORMAT, badItemId))));
 
-        verify(bidService, never()).getBidsForItem(anyLong());
+        verify(bidService, never()).getItemBids(anyLong(), any(), any(), any());
         verify(itemService, never()).getItem(anyLong());
     }
 
@@ -416,7 +710,7 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails", hasSize(1)))
                 .andExpect(jsonPath("$.contextDetails[0]", is("Something's missing")));
 
-        verify(bidService, never()).getBidsForItem(itemId);
+        verify(bidService, never()).getItemBids(eq(itemId), any(), any(), any());
         verify(itemService).getItem(itemId);
     }
 
@@ -447,6 +741,82 @@ public class AuctionControllerTest {
     }
 
 
+    @Test
+    public void getHighestBidsForUser() throws Exception {
+
+        String userId = "bob";
+        LocalDateTime now = LocalDateTime.now();
+
+        List<BidDetail> bidDetails = new ArrayList<>();
+        bidDetails.add(createTestBidDetail(2L, null, userId, new BigDecimal("25.00"), now));
+        bidDetails.add(createTestBidDetail(4L, null, userId, new BigDecimal("10.00"), now));
+
+        when(bidService.getHighestBidsForUser(userId)).thenReturn(bidDetails);
+        when(itemService.getItem(2L)).thenReturn(createTestItem(2L, "Description 2"));
+        when(itemService.getItem(4L)).thenReturn(createTestItem(4L, "Description 4"));
+
+        mockMvc.perform(get("/v1/users/{user-id}/bids/highest", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].itemId", is(2)))
+                .andExpect(jsonPath("$[0].itemDescription", is("Description 2")))
+                .andExpect(jsonPath("$[0].amount", is(25.0)))
+                .andExpect(jsonPath("$[1].itemId", is(4)))
+                .andExpect(jsonPath("$[1].itemDescription", is("Description 4")))
+                .andExpect(jsonPath("$[1].amount", is(10.0)));
+
+        verify(bidService).getHighestBidsForUser(userId);
+        verify(itemService, times(2)).getItem(anyLong());
+    }
+
+    @Test
+    public void getWinningBidsForUser() throws Exception {
+
+        String userId = "bob";
+        LocalDateTime now = LocalDateTime.now();
+
+        List<BidDetail> bidDetails = new ArrayList<>();
+        bidDetails.add(createTestBidDetail(3L, null, userId, new BigDecimal("30.75"), now));
+
+        when(bidService.getWinningBidsForUser(userId)).thenReturn(bidDetails);
+        when(itemService.getItem(3L)).thenReturn(createTestItem(3L, "Description 3"));
+
+        mockMvc.perform(get("/v1/users/{user-id}/bids/winning", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].itemId", is(3)))
+                .andExpect(jsonPath("$[0].itemDescription", is("Description 3")))
+                .andExpect(jsonPath("$[0].userId", is(userId)))
+                .andExpect(jsonPath("$[0].amount", is(30.75)));
+
+        verify(bidService).getWinningBidsForUser(userId);
+        verify(itemService).getItem(3L);
+    }
+
+    @Test
+    public void failGetWinningBidsForUserUnexpectedError() throws Exception {
+
+        String userId = "bob";
+
+        when(bidService.getWinningBidsForUser(userId)).thenThrow(new RuntimeException("Something went wrong"));
+
+        mockMvc.perform(get("/v1/users/{user-id}/bids/winning", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.code", is(UNEXPECTED_ERROR)))
+                .andExpect(jsonPath("$.message", is(SYSTEM_ERROR_MSG)))
+                .andExpect(jsonPath("$.contextDetails", hasSize(1)))
+                .andExpect(jsonPath("$.contextDetails[0]",
+                        is("Failed to retrieve winning bid(s) by user : bob - Something went wrong")));
+
+        verify(bidService).getWinningBidsForUser(userId);
+    }
+
     @Test
     public void createBid() throws Exception {
 
@@ -462,7 +832,7 @@ public class AuctionControllerTest {
         BidDetail returned = createTestBidDetail(itemId, "Description " + itemId, userId, amount, now);
 
         when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
-        when(bidService.createBid(any(Bid.class))).thenReturn(added);
+        when(bidService.createBid(any(Bid.class), isNull())).thenReturn(BidResult.accepted(added));
 
         mockMvc.perform(post(BASE_ITEMS_URI + "/{item-id}/bids", itemId)
                 .content(mapToJson(dto))
@@ -472,12 +842,42 @@ public class AuctionControllerTest {
                 .andExpect(content().json(mapToJson(returned)));
 
         ArgumentCaptor<Bid> dtoCaptor = ArgumentCaptor.forClass(Bid.class);
-        verify(bidService).createBid(dtoCaptor.capture());
+        verify(bidService).createBid(dtoCaptor.capture(), isNull());
         verifyNoMoreInteractions(bidService);
 
         assertThat(dtoCaptor.getValue(), is(dto));
     }
 
+    @Test
+    public void createBidWithIdempotencyKey() throws Exception {
+
+        long itemId = 999L;
+        String userId = "bob";
+        BigDecimal amount = new BigDecimal("35.58");
+        String key = "6f1c2a4e-retry";
+
+        Bid dto = createTestBid(itemId, userId, amount);
+
+        LocalDateTime now = LocalDateTime.now();
+
+        BidDetail added = createTestBidDetail(itemId, null, userId, amount, now);
+        BidDetail returned = createTestBidDetail(itemId, "Description " + itemId, userId, amount, now);
+
+        when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
+        when(bidService.createBid(any(Bid.class), eq(key))).thenReturn(BidResult.accepted(added));
+
+        mockMvc.perform(post(BASE_ITEMS_URI + "/{item-id}/bids", itemId)
+                .header(IDEMPOTENCY_KEY_HEADER, key)
+                .content(mapToJson(dto))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(content().json(mapToJson(returned)));
+
+        verify(bidService).createBid(any(Bid.class), eq(key));
+        verifyNoMoreInteractions(bidService);
+    }
+
     @Test
     public void failCreateBidNonIntegerItemId() throws Exception {
 
@@ -503,7 +903,7 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails", hasSize(1)))
                 .andExpect(jsonPath("$.contextDetails[0]", is(String.format(INVALID_ITEM_ID_FORMAT, badItemId))));
 
-        verify(bidService, never()).getBidsForItem(anyLong());
+        verify(bidService, never()).getItemBids(anyLong(), any(), any(), any());
         verify(itemService, never()).getItem(anyLong());
     }
 
@@ -530,7 +930,7 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails", hasSize(1)))
                 .andExpect(jsonPath("$.contextDetails[0]", is(ITEM_ID_MISMATCH)));
 
-        verify(bidService, never()).getBidsForItem(anyLong());
+        verify(bidService, never()).getItemBids(anyLong(), any(), any(), any());
         verify(itemService, never()).getItem(anyLong());
     }
 
@@ -559,7 +959,7 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails", hasSize(1)))
                 .andExpect(jsonPath("$.contextDetails[0]", is("Something's missing")));
 
-        verify(bidService, never()).getBidsForItem(itemId);
+        verify(bidService, never()).getItemBids(eq(itemId), any(), any(), any());
         verify(itemService).getItem(itemId);
     }
 
@@ -585,7 +985,7 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails[0]", is(EMPTY_USER_ID)))
                 .andExpect(jsonPath("$.contextDetails[1]", is(EMPTY_AMOUNT)));
 
-        verify(bidService, never()).getBidsForItem(itemId);
+        verify(bidService, never()).getItemBids(eq(itemId), any(), any(), any());
         verify(itemService).getItem(itemId);
 
         // Reset the mocks so they can be reused
@@ -611,7 +1011,7 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails[0]", is(EMPTY_USER_ID)))
                 .andExpect(jsonPath("$.contextDetails[1]", is(INVALID_AMOUNT)));
 
-        verify(bidService, never()).getBidsForItem(itemId);
+        verify(bidService, never()).getItemBids(eq(itemId), any(), any(), any());
         verify(itemService).getItem(itemId);
 
         // Reset the mocks so they can be reused
@@ -634,7 +1034,7 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails", hasSize(1)))
                 .andExpect(jsonPath("$.contextDetails[0]", is(INVALID_AMOUNT)));
 
-        verify(bidService, never()).getBidsForItem(itemId);
+        verify(bidService, never()).getItemBids(eq(itemId), any(), any(), any());
         verify(itemService).getItem(itemId);
     }
 
@@ -647,13 +1047,8 @@ public class AuctionControllerTest {
 
         Bid dto = createTestBid(itemId, userId, amount);
 
-        String msg = String.format(
-                "Invalid bid on item : %s, for user : %s", dto.getItemId(), dto.getUserId());
-        InvalidResourceException ire = new InvalidResourceException(msg);
-        ire.addReason("Amount bid must be greater than current highest");
-
         when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
-        when(bidService.createBid(any(Bid.class))).thenThrow(ire);
+        when(bidService.createBid(any(Bid.class), isNull())).thenReturn(BidResult.outbid());
 
         mockMvc.perform(post(BASE_ITEMS_URI + "/{item-id}/bids", itemId)
                 .content(mapToJson(dto))
@@ -669,10 +1064,39 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails", hasSize(1)))
                 .andExpect(jsonPath("$.contextDetails[0]", is("Amount bid must be greater than current highest")));
 
-        verify(bidService).createBid(any(Bid.class));
+        verify(bidService).createBid(any(Bid.class), isNull());
         verify(itemService).getItem(itemId);
     }
 
+    @Test
+    public void failCreateBidRateLimited() throws Exception {
+
+        long itemId = 999L;
+        String userId = "bob";
+        BigDecimal amount = new BigDecimal("35.58");
+
+        Bid dto = createTestBid(itemId, userId, amount);
+
+        when(bidRateLimiter.tryAcquire(userId)).thenReturn(false);
+
+        mockMvc.perform(post(BASE_ITEMS_URI + "/{item-id}/bids", itemId)
+                .content(mapToJson(dto))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.status", is(HttpStatus.TOO_MANY_REQUESTS.name())))
+                .andExpect(jsonPath("$.statusCode", is(HttpStatus.TOO_MANY_REQUESTS.value())))
+                .andExpect(jsonPath("$.code", is(RETRYABLE_ERROR)))
+                .andExpect(jsonPath("$.message", is(RATE_LIMIT_EXCEEDED_MSG)))
+                .andExpect(jsonPath("$.contextDetails", hasSize(1)))
+                .andExpect(jsonPath("$.contextDetails[0]", is(String.format(BID_RATE_EXCEEDED, userId))));
+
+        verify(bidRateLimiter).tryAcquire(userId);
+        verify(itemService, never()).getItem(anyLong());
+        verify(bidService, never()).createBid(any(Bid.class), isNull());
+    }
+
     @Test
     public void failCreateBidUnexpectedError() throws Exception {
 
@@ -683,7 +1107,7 @@ public class AuctionControllerTest {
         Bid dto = createTestBid(itemId, userId, amount);
 
         when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
-        when(bidService.createBid(any(Bid.class))).thenThrow(new RuntimeException("Something went wrong"));
+        when(bidService.createBid(any(Bid.class), isNull())).thenThrow(new RuntimeException("Something went wrong"));
 
         mockMvc.perform(post(BASE_ITEMS_URI + "/{item-id}/bids", itemId)
                 .content(mapToJson(dto))
@@ -699,10 +1123,108 @@ public class AuctionControllerTest {
                 .andExpect(jsonPath("$.contextDetails", hasSize(1)))
                 .andExpect(jsonPath("$.contextDetails[0]", is(BID_CREATION_FAILED + "Something went wrong")));
 
-        verify(bidService).createBid(any(Bid.class));
+        verify(bidService).createBid(any(Bid.class), isNull());
         verify(itemService).getItem(itemId);
     }
 
+    @Test
+    public void failCreateBidStorageError() throws Exception {
+
+        long itemId = 999L;
+        String userId = "bob";
+        BigDecimal amount = new BigDecimal("35.58");
+
+        Bid dto = createTestBid(itemId, userId, amount);
+
+        when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
+        when(bidService.createBid(any(Bid.class), isNull()))
+                .thenThrow(new BaseException("Off-heap bid storage full : 10 bids", CRITICAL_ERROR));
+
+        mockMvc.perform(post(BASE_ITEMS_URI + "/{item-id}/bids", itemId)
+                .content(mapToJson(dto))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.code", is(CRITICAL_ERROR)))
+                .andExpect(jsonPath("$.message", is(SYSTEM_ERROR_MSG)))
+                .andExpect(jsonPath("$.contextDetails[0]", is("Off-heap bid storage full : 10 bids")));
+
+        verify(bidService).createBid(any(Bid.class), isNull());
+    }
+
+    @Test
+    public void createProxyBid() throws Exception {
+
+        long itemId = 999L;
+        String userId = "bob";
+
+        ProxyBid dto = createTestProxyBid(itemId, userId, new BigDecimal("50.00"));
+
+        LocalDateTime now = LocalDateTime.now();
+
+        BidDetail winning = createTestBidDetail(itemId, null, userId, new BigDecimal("36.58"), now);
+        BidDetail returned = createTestBidDetail(itemId, "Description " + itemId, userId,
+                new BigDecimal("36.58"), now);
+
+        when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
+        when(bidService.createProxyBid(any(ProxyBid.class))).thenReturn(BidResult.accepted(winning));
+
+        mockMvc.perform(post(BASE_ITEMS_URI + "/{item-id}/proxy-bids", itemId)
+                .content(mapToJson(dto))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(content().json(mapToJson(returned)));
+
+        ArgumentCaptor<ProxyBid> dtoCaptor = ArgumentCaptor.forClass(ProxyBid.class);
+        verify(bidService).createProxyBid(dtoCaptor.capture());
+        verifyNoMoreInteractions(bidService);
+
+        assertThat(dtoCaptor.getValue(), is(dto));
+    }
+
+    @Test
+    public void failCreateProxyBidMissingMaxAmount() throws Exception {
+
+        long itemId = 999L;
+
+        ProxyBid dto = createTestProxyBid(itemId, "bob", null);
+
+        when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
+
+        mockMvc.perform(post(BASE_ITEMS_URI + "/{item-id}/proxy-bids", itemId)
+                .content(mapToJson(dto))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message", is(INVALID_RESOURCE_MSG)))
+                .andExpect(jsonPath("$.contextDetails", hasSize(1)))
+                .andExpect(jsonPath("$.contextDetails[0]", is(EMPTY_MAX_AMOUNT)));
+
+        verify(bidService, never()).createProxyBid(any(ProxyBid.class));
+    }
+
+    @Test
+    public void failCreateProxyBidOutbid() throws Exception {
+
+        long itemId = 999L;
+
+        ProxyBid dto = createTestProxyBid(itemId, "bob", new BigDecimal("20.00"));
+
+        when(itemService.getItem(itemId)).thenReturn(createTestItem(itemId, "Description " + itemId));
+        when(bidService.createProxyBid(any(ProxyBid.class))).thenReturn(BidResult.outbid());
+
+        mockMvc.perform(post(BASE_ITEMS_URI + "/{item-id}/proxy-bids", itemId)
+                .content(mapToJson(dto))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.contextDetails", hasSize(1)))
+                .andExpect(jsonPath("$.contextDetails[0]", is(BidResult.AMOUNT_NOT_HIGHEST)));
+
+        verify(bidService).createProxyBid(any(ProxyBid.class));
+    }
+
     private Item createTestItem(long itemId, String description) {
         return new Item(itemId, description);
     }
@@ -733,6 +1255,15 @@ public class AuctionControllerTest {
         return bd;
     }
 
+    private BidEntity createTestBidEntity(long itemId, String userId, BigDecimal amount, Instant submittedAt) {
+        BidEntity bid = new BidEntity();
+        bid.setItemId(itemId);
+        bid.setUserId(userId);
+        bid.setAmount(amount);
+        bid.setSubmittedAt(submittedAt);
+        return bid;
+    }
+
     private Bid createTestBid(long itemId, String userId, BigDecimal amount) {
 
         Bid b = new Bid();
@@ -743,4 +1274,11 @@ public class AuctionControllerTest {
         return b;
     }
 
-}
\ No newline at end of file
+    private ProxyBid createTestProxyBid(long itemId, String userId, BigDecimal maxAmount) {
+        ProxyBid proxyBid = new ProxyBid();
+        proxyBid.setItemId(itemId);
+        proxyBid.setUserId(userId);
+        proxyBid.setMaxAmount(maxAmount);
+        return proxyBid;
+    }
+}
@@ -0,0 +1,68 @@
+package com.devxpress.auction.entity;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class UserSymbolTableTest {
+
+    private final UserSymbolTable userSymbols = new UserSymbolTable();
+
+    @Test
+    public void internReturnsSameHandleForEqualIds() {
+
+        String userId = "user-" + UUID.randomUUID();
+
+        int handle = userSymbols.intern(userId);
+
+        assertThat(userSymbols.intern(new String(userId)), is(handle));
+        assertThat(userSymbols.lookup(userId), is(handle));
+        assertThat(userSymbols.resolve(handle), is(userId));
+    }
+
+    @Test
+    public void distinctIdsHaveDistinctHandles() {
+
+        Set<Integer> handles = new HashSet<>();
+
+        // Enough to grow the handle -> user id table
+        for (int i = 0; i < 5000; i++) {
+            String userId = "user-" + UUID.randomUUID();
+            int handle = userSymbols.intern(userId);
+
+            assertThat(handles.add(handle), is(true));
+            assertThat(userSymbols.resolve(handle), is(userId));
+        }
+    }
+
+    @Test
+    public void lookupDoesNotIntern() {
+
+        String userId = "user-" + UUID.randomUUID();
+
+        assertThat(userSymbols.lookup(userId), is(UserSymbolTable.NO_USER));
+        assertThat(userSymbols.lookup(userId), is(UserSymbolTable.NO_USER));
+        assertThat(userSymbols.lookup(null), is(UserSymbolTable.NO_USER));
+        assertThat(userSymbols.resolve(UserSymbolTable.NO_USER), is(nullValue()));
+    }
+
+    @Test
+    public void canonicalIdIsSharedAndTablesAreSeparate() {
+
+        String userId = "user-" + UUID.randomUUID();
+        String canonical = userSymbols.canonical(new String(userId));
+
+        assertThat(userSymbols.canonical(new String(userId)), is(sameInstance(canonical)));
+        assertThat(userSymbols.canonical(null), is(nullValue()));
+
+        // Interned by one table only
+        assertThat(new UserSymbolTable().lookup(userId), is(UserSymbolTable.NO_USER));
+    }
+}
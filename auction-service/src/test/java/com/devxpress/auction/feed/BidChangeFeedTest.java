@@ -0,0 +1,301 @@
+package com.devxpress.auction.feed;
+
+import com.devxpress.auction.api.ApiErrorCode;
+import com.devxpress.auction.api.exception.BaseException;
+import com.devxpress.auction.api.exception.ServiceUnavailableException;
+import com.devxpress.auction.api.exception.StaleResourceException;
+import com.devxpress.auction.configuration.ChangeFeedProperties;
+import com.devxpress.auction.entity.BidChangeEntity;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.repository.BidRepository;
+import com.devxpress.auction.repository.BidRepositoryImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class BidChangeFeedTest {
+
+    private static final int BID_COUNT = 20;
+
+    @Rule
+    public TemporaryFolder journalFolder = new TemporaryFolder();
+
+    private ChangeFeedProperties properties;
+    private BidChangeFeed feed;
+
+    @Before
+    public void setUp() throws IOException {
+        properties = new ChangeFeedProperties();
+        properties.setRingCapacity(8);
+        properties.setMaxLimit(100);
+        properties.getJournal().setDirectory(journalFolder.getRoot().getPath());
+        properties.getJournal().setSegmentSize(5);
+        properties.getJournal().setRetainedSegments(3);
+        properties.getJournal().setFlushInterval(Duration.ofMillis(1));
+
+        feed = startFeed();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        feed.stop();
+    }
+
+    @Test
+    public void changesReadThroughJournalAndRing() throws InterruptedException {
+        acceptBids();
+
+        // Segments of 5, of which 3 are retained, so changes 1 to 5 have been dropped
+        awaitSegmentDropped(1);
+        assertThat(sequences(awaitChanges(5, BID_COUNT - 5)), is(range(6, BID_COUNT)));
+        assertThat(sequences(feed.findAfter(12, 3)), is(range(13, 15)));
+        assertThat(feed.findAfter(BID_COUNT, 10).isEmpty(), is(true));
+
+        try {
+            feed.findAfter(0, 10);
+            fail("Changes no longer retained were returned");
+        } catch (StaleResourceException e) {
+            assertThat(e.getMessage(), is(String.format(BidChangeFeed.CURSOR_NOT_RETAINED, 0, 6)));
+        }
+    }
+
+    @Test
+    public void sequenceContinuesFromJournalAfterRestart() throws Exception {
+        acceptBids();
+        awaitChanges(5, BID_COUNT - 5);
+
+        restartFeed();
+
+        assertThat(feed.latestSequence(), is((long) BID_COUNT));
+        assertThat(sequences(feed.findAfter(15, 10)), is(range(16, BID_COUNT)));
+
+        feed.onBidAccepted(createBid(BID_COUNT + 1), null);
+        assertThat(sequences(feed.findAfter(BID_COUNT - 1, 10)), is(range(BID_COUNT, BID_COUNT + 1)));
+    }
+
+    @Test(timeout = 5_000)
+    public void fsyncAcknowledgesBidsOnceJournalled() throws Exception {
+        properties.getJournal().setDurability(ChangeFeedProperties.Durability.FSYNC);
+        properties.getJournal().setRetainedSegments(0);
+
+        // Far longer than the test may take, so waiting callers must wake the writer themselves
+        properties.getJournal().setFlushInterval(Duration.ofMinutes(1));
+        restartFeed();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Long>> acknowledged = new ArrayList<>();
+
+        for (int i = 1; i <= BID_COUNT; i++) {
+            BidEntity bid = createBid(i);
+
+            acknowledged.add(executor.submit(() -> {
+                feed.onBidAccepted(bid, null);
+                feed.awaitDurable(bid.getSequence());
+                return bid.getSequence();
+            }));
+        }
+
+        long latestAcknowledged = 0;
+
+        for (Future<Long> sequence : acknowledged) {
+            latestAcknowledged = Math.max(latestAcknowledged, sequence.get());
+        }
+
+        executor.shutdown();
+
+        // Read by a journal of its own, as after a restart
+        assertThat(new BidJournal(properties.getJournal()).lastSequence() >= latestAcknowledged, is(true));
+    }
+
+    @Test(timeout = 5_000)
+    public void bidsAreRefusedOnceChangesCannotBeJournalled() throws Exception {
+        properties.getJournal().setDurability(ChangeFeedProperties.Durability.PAGE_CACHE);
+        properties.getJournal().setRetainedSegments(0);
+        restartFeed();
+
+        for (int i = 1; i <= 5; i++) {
+            BidEntity bid = createBid(i);
+            feed.onBidAccepted(bid, null);
+            feed.awaitDurable(bid.getSequence());
+        }
+
+        feed.checkAccepting();
+
+        // The next change starts a segment, which can no longer be created
+        FileSystemUtils.deleteRecursively(journalFolder.getRoot());
+
+        BidEntity notJournalled = createBid(6);
+        feed.onBidAccepted(notJournalled, null);
+
+        try {
+            feed.awaitDurable(notJournalled.getSequence());
+            fail("Bid was acknowledged without being journalled");
+        } catch (BaseException e) {
+            assertThat(e.getErrorCode(), is(ApiErrorCode.CRITICAL_ERROR));
+        }
+
+        try {
+            feed.checkAccepting();
+            fail("Bids were accepted after changes could not be journalled");
+        } catch (ServiceUnavailableException e) {
+            assertThat(e.getMessage(), is(BidChangeFeed.JOURNAL_FAILED));
+        }
+    }
+
+    @Test
+    public void durabilityRequiresEveryChangeToBeRetained() throws Exception {
+        properties.getJournal().setDurability(ChangeFeedProperties.Durability.FSYNC);
+
+        try {
+            new BidChangeFeed(properties);
+            fail("Durability was accepted whilst dropping journal segments");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is(String.format(BidChangeFeed.DURABILITY_WITH_RETAINED_SEGMENTS,
+                    ChangeFeedProperties.Durability.FSYNC)));
+        }
+
+        properties.getJournal().setRetainedSegments(0);
+        properties.getJournal().setDirectory(null);
+
+        try {
+            new BidChangeFeed(properties);
+            fail("Durability was accepted without a journal directory");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is(String.format(BidChangeFeed.DURABILITY_WITHOUT_DIRECTORY,
+                    ChangeFeedProperties.Durability.FSYNC)));
+        }
+    }
+
+    @Test
+    public void replayRestoresBidsWithoutSequencingThemAgain() throws Exception {
+        properties.getJournal().setRetainedSegments(0);
+        restartFeed();
+
+        acceptBids();
+        awaitChanges(0, BID_COUNT);
+        restartFeed();
+
+        BidRepository repository = new BidRepositoryImpl(feed);
+
+        assertThat(feed.replay(repository), is((long) BID_COUNT));
+        assertThat(feed.latestSequence(), is((long) BID_COUNT));
+        assertThat(((List<BidEntity>) repository.findAll()).size(), is(BID_COUNT));
+
+        // Replaying again applies nothing, as every bid is already held
+        assertThat(feed.replay(repository), is(0L));
+    }
+
+    @Test
+    public void journalReadsFromAnyChangeWithinSegments() throws Exception {
+        int segmentSize = 3 * BidJournal.INDEX_INTERVAL + 10;
+        int bidCount = 2 * segmentSize + BidJournal.INDEX_INTERVAL;
+
+        properties.getJournal().setSegmentSize(segmentSize);
+        properties.getJournal().setRetainedSegments(0);
+        restartFeed();
+
+        for (int i = 1; i <= bidCount; i++) {
+            feed.onBidAccepted(createBid(i), null);
+        }
+
+        for (int i = 0; i < 100 && feed.journal().lastSequence() < bidCount; i++) {
+            Thread.sleep(20);
+        }
+
+        assertReadsFromAnyChange(feed.journal(), bidCount);
+
+        // Older segments indexed as first read, and a stray file in the directory ignored
+        Files.createFile(journalFolder.getRoot().toPath().resolve("stray.changes"));
+        restartFeed();
+
+        assertReadsFromAnyChange(feed.journal(), bidCount);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void limitBeyondMaximumIsRefused() {
+        feed.findAfter(0, properties.getMaxLimit() + 1);
+    }
+
+    private void restartFeed() throws Exception {
+        feed.stop();
+        feed = startFeed();
+    }
+
+    private BidChangeFeed startFeed() throws IOException {
+        BidChangeFeed started = new BidChangeFeed(properties);
+        started.start();
+        return started;
+    }
+
+    private void acceptBids() {
+        for (int i = 1; i <= BID_COUNT; i++) {
+            feed.onBidAccepted(createBid(i), null);
+        }
+    }
+
+    // Waits for the journal writer to catch up
+    private List<BidChangeEntity> awaitChanges(long afterSequence, int count) throws InterruptedException {
+        List<BidChangeEntity> changes = feed.findAfter(afterSequence, 100);
+
+        for (int i = 0; i < 100 && changes.size() < count; i++) {
+            Thread.sleep(20);
+            changes = feed.findAfter(afterSequence, 100);
+        }
+
+        return changes;
+    }
+
+    // Changes are published to the ring before they are journalled, and so before older segments are dropped
+    private void awaitSegmentDropped(long firstSequence) throws InterruptedException {
+        Path segment = journalFolder.getRoot().toPath().resolve(String.format(BidJournal.SEGMENT_FILE_FORMAT,
+                firstSequence));
+
+        for (int i = 0; i < 100 && Files.exists(segment); i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static void assertReadsFromAnyChange(BidJournal journal, int changeCount) {
+        for (long after = 0; after < changeCount; after += 7) {
+            assertThat(sequences(journal.read(after, 5)), is(range(after + 1, Math.min(after + 5, changeCount))));
+        }
+    }
+
+    private static BidEntity createBid(int i) {
+        BidEntity bid = new BidEntity();
+        bid.setItemId((long) (i % 3));
+        bid.setUserId("user-" + i);
+        bid.setAmount(new BigDecimal(i));
+        bid.setSubmittedAt(Instant.now());
+        return bid;
+    }
+
+    private static List<Long> sequences(List<BidChangeEntity> changes) {
+        return changes.stream().map(BidChangeEntity::getSequence).collect(Collectors.toList());
+    }
+
+    private static List<Long> range(long first, long last) {
+        return LongStream.rangeClosed(first, last).boxed().collect(Collectors.toList());
+    }
+}
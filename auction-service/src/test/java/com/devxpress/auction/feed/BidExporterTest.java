@@ -0,0 +1,153 @@
+package com.devxpress.auction.feed;
+
+import com.devxpress.auction.configuration.ChangeFeedProperties;
+import com.devxpress.auction.entity.BidChangeEntity;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.repository.BidRecordCodec;
+import com.devxpress.auction.repository.BidRepository;
+import com.devxpress.auction.repository.BidRepositoryImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BidExporterTest {
+
+    private static final int BID_COUNT = 12;
+
+    @Rule
+    public TemporaryFolder journalFolder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ChangeFeedProperties properties;
+    private BidChangeFeed feed;
+    private BidRepository bidRepository;
+    private BidExporter exporter;
+
+    @Before
+    public void setUp() throws IOException {
+        properties = new ChangeFeedProperties();
+        properties.getJournal().setDirectory(journalFolder.getRoot().getPath());
+        properties.getJournal().setSegmentSize(5);
+        properties.getJournal().setRetainedSegments(0);
+        properties.getJournal().setFlushInterval(Duration.ofMillis(1));
+
+        startFeed();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        feed.stop();
+    }
+
+    @Test
+    public void binaryExportCopiesJournalSegments() throws Exception {
+        acceptBids();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exporter.export(BidExportFormat.BINARY, out), is(true));
+
+        List<BidChangeEntity> changes = readRecords(out.toByteArray());
+
+        // Across three segments, the last of them still being written
+        assertThat(changes.size(), is(BID_COUNT));
+
+        for (int i = 0; i < BID_COUNT; i++) {
+            assertThat(changes.get(i).getSequence(), is(i + 1L));
+            assertThat(changes.get(i).getBid().getUserId(), is("user-" + (i + 1)));
+        }
+    }
+
+    @Test
+    public void lineExportReadsJournalInSequenceOrder() throws Exception {
+        acceptBids();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exporter.export(BidExportFormat.NDJSON, out), is(true));
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+
+        assertThat(lines.length, is(BID_COUNT));
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+
+        assertThat(first.get("sequence").asLong(), is(1L));
+        assertThat(first.get("itemId").asLong(), is(1L));
+        assertThat(first.get("userId").asText(), is("user-1"));
+        assertThat(lines[0].contains("\"amount\":1.50,"), is(true));
+        assertThat(objectMapper.readTree(lines[BID_COUNT - 1]).get("sequence").asLong(), is((long) BID_COUNT));
+    }
+
+    @Test
+    public void bidsAreExportedFromStorageWhenJournalDropsSegments() throws Exception {
+        properties.getJournal().setRetainedSegments(2);
+        feed.stop();
+        startFeed();
+
+        acceptBids();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exporter.export(BidExportFormat.BINARY, out), is(false));
+
+        List<BidChangeEntity> changes = readRecords(out.toByteArray());
+
+        assertThat(changes.size(), is(BID_COUNT));
+        assertThat(changes.stream().allMatch(change -> change.getSequence() == 0), is(true));
+    }
+
+    private void startFeed() throws IOException {
+        feed = new BidChangeFeed(properties);
+        feed.start();
+        bidRepository = new BidRepositoryImpl(feed);
+        exporter = new BidExporter(bidRepository, feed, properties, objectMapper);
+    }
+
+    // Waits for the journal writer to catch up
+    private void acceptBids() throws InterruptedException {
+        for (int i = 1; i <= BID_COUNT; i++) {
+            BidEntity bid = new BidEntity();
+            bid.setItemId((long) i);
+            bid.setUserId("user-" + i);
+            bid.setAmount(new BigDecimal(i + ".50"));
+            bid.setSubmittedAt(Instant.now());
+
+            bidRepository.save(bid);
+        }
+
+        for (int i = 0; i < 100 && feed.journal().lastSequence() < BID_COUNT; i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static List<BidChangeEntity> readRecords(byte[] bytes) throws IOException {
+        List<BidChangeEntity> changes = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+        while (in.available() > 0) {
+            changes.add(new BidChangeEntity(in.readLong(), BidRecordCodec.read(in)));
+        }
+
+        return changes;
+    }
+}
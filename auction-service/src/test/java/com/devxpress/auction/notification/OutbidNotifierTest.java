@@ -0,0 +1,132 @@
+package com.devxpress.auction.notification;
+
+import com.devxpress.auction.configuration.NotificationProperties;
+import com.devxpress.auction.entity.BidEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class OutbidNotifierTest {
+
+    private NotificationProperties properties;
+    private InMemoryNotificationSink sink;
+    private OutbidNotifier notifier;
+
+    @Before
+    public void setUp() {
+        properties = new NotificationProperties();
+
+        // Dispatched by the test alone
+        properties.setBatchInterval(Duration.ofHours(1));
+        properties.setMaxBatchSize(2);
+        properties.setMaxPendingUsers(3);
+        properties.setMaxEventsPerUser(2);
+
+        sink = new InMemoryNotificationSink(properties);
+        notifier = new OutbidNotifier(properties, sink);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        notifier.stop();
+    }
+
+    @Test
+    public void previousLeaderIsNotifiedOfLatestEventPerItem() {
+
+        BidEntity bob = createBid(1L, "bob", "10");
+        BidEntity alice = createBid(1L, "alice", "11");
+        BidEntity bobAgain = createBid(1L, "bob", "12");
+        BidEntity carol = createBid(1L, "carol", "13");
+
+        notifier.onBidAccepted(bob, null);
+        notifier.onBidAccepted(alice, bob);
+        notifier.onBidAccepted(bobAgain, alice);
+        notifier.onBidAccepted(carol, bobAgain);
+        notifier.onBidAccepted(createBid(2L, "bob", "5"), createBid(2L, "dave", "4"));
+        notifier.onBidAccepted(createBid(2L, "dave", "6"), createBid(2L, "bob", "5"));
+
+        // Raising their own bid does not outbid the user
+        notifier.onBidAccepted(createBid(3L, "erin", "8"), createBid(3L, "erin", "7"));
+
+        notifier.dispatch();
+
+        List<OutbidNotification> notifications = sink.recent();
+
+        assertThat(notifications.stream().map(OutbidNotification::getUserId).sorted().collect(Collectors.toList()),
+                is(listOf("alice", "bob", "dave")));
+        assertThat(notifier.deliveredNotifications(), is(3L));
+
+        OutbidNotification toBob = notifications.stream().filter(n -> n.getUserId().equals("bob")).findFirst().get();
+
+        assertThat(toBob.getEvents().stream().map(OutbidEvent::getItemId).collect(Collectors.toList()),
+                is(listOf(1L, 2L)));
+        assertThat(toBob.getEvents().get(0).getOutbidAmount(), is(new BigDecimal("12")));
+        assertThat(toBob.getEvents().get(0).getNewAmount(), is(new BigDecimal("13")));
+
+        // Nothing pending is delivered again
+        notifier.dispatch();
+        assertThat(sink.recent().size(), is(3));
+    }
+
+    @Test
+    public void eventsBeyondBoundsAreDropped() {
+
+        // Oldest of bob's three items is dropped
+        for (long itemId = 1; itemId <= 3; itemId++) {
+            notifier.onBidAccepted(createBid(itemId, "alice", "2"), createBid(itemId, "bob", "1"));
+        }
+
+        // Only three users may be pending, of whom bob is one
+        for (String user : listOf("carol", "dave", "erin")) {
+            notifier.onBidAccepted(createBid(9L, "alice", "2"), createBid(9L, user, "1"));
+        }
+
+        assertThat(notifier.droppedEvents(), is(2L));
+
+        notifier.dispatch();
+
+        OutbidNotification toBob = sink.recent().stream()
+                .filter(n -> n.getUserId().equals("bob")).findFirst().get();
+
+        assertThat(sink.recent().size(), is(3));
+        assertThat(toBob.getEvents().stream().map(OutbidEvent::getItemId).collect(Collectors.toList()),
+                is(listOf(2L, 3L)));
+    }
+
+    @Test
+    public void bidsSubmittedBeforeMaxAgeDoNotNotify() {
+
+        BidEntity replayed = createBid(1L, "alice", "11");
+        replayed.setSubmittedAt(Instant.now().minus(properties.getMaxEventAge()).minusSeconds(1));
+
+        notifier.onBidAccepted(replayed, createBid(1L, "bob", "10"));
+        notifier.dispatch();
+
+        assertThat(sink.recent().isEmpty(), is(true));
+    }
+
+    private static BidEntity createBid(long itemId, String user, String amount) {
+        BidEntity bid = new BidEntity();
+        bid.setItemId(itemId);
+        bid.setUserId(user);
+        bid.setAmount(new BigDecimal(amount));
+        bid.setSubmittedAt(Instant.now());
+        return bid;
+    }
+
+    @SafeVarargs
+    private static <T> List<T> listOf(T... values) {
+        return Arrays.asList(values);
+    }
+}
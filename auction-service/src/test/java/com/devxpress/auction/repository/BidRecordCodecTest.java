@@ -0,0 +1,78 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.entity.BidEntity;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BidRecordCodecTest {
+
+    @Test
+    public void roundTrip() throws IOException {
+
+        BidEntity first = createTestBidEntity(1L, "bob", new BigDecimal("12.50"), Instant.now());
+        BidEntity second = createTestBidEntity(Long.MAX_VALUE, "élodie", new BigDecimal("123456789012345.678"),
+                Instant.ofEpochSecond(0, 1));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            BidRecordCodec.write(out, first);
+            BidRecordCodec.write(out, second);
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertThat(BidRecordCodec.read(in), is(first));
+            assertThat(BidRecordCodec.read(in), is(second));
+        }
+    }
+
+    @Test
+    public void roundTripKeepsExtremeScaleAndPrecision() throws IOException {
+
+        BidEntity[] bids = {
+                createTestBidEntity(1L, "bob", new BigDecimal("1E+200"), Instant.now()),
+                createTestBidEntity(1L, "bob", new BigDecimal("1E-130"), Instant.now()),
+                createTestBidEntity(1L, "bob", new BigDecimal(BigInteger.TEN.pow(1000), Integer.MIN_VALUE + 1),
+                        Instant.now())
+        };
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (BidEntity bid : bids) {
+                BidRecordCodec.write(out, bid);
+            }
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (BidEntity bid : bids) {
+                BidEntity read = BidRecordCodec.read(in);
+
+                assertThat(read, is(bid));
+                assertThat(read.getAmount().scale(), is(bid.getAmount().scale()));
+            }
+        }
+    }
+
+    private BidEntity createTestBidEntity(long id, String user, BigDecimal amount, Instant inst) {
+
+        BidEntity be = new BidEntity();
+        be.setItemId(id);
+        be.setUserId(user);
+        be.setAmount(amount);
+        be.setSubmittedAt(inst);
+
+        return be;
+    }
+}
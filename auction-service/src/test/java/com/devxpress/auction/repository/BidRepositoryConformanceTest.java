@@ -0,0 +1,252 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.api.BidResult;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * The behaviour every {@link LocalBidRepository} backend must share, whichever capabilities it has. Each backend's
+ * test extends this, adding tests of its own.
+ */
+public abstract class BidRepositoryConformanceTest {
+
+    protected final List<BidEntity[]> acceptedBids = new ArrayList<>();
+
+    protected LocalBidRepository bidRepository;
+
+    /**
+     * @return a backend telling the listener of each accepted bid. A durable backend must open the same storage
+     * each time it is called within a test.
+     */
+    protected abstract LocalBidRepository createRepository(AcceptedBidListener listener) throws Exception;
+
+    protected void closeRepository(LocalBidRepository repository) {
+    }
+
+    @Before
+    public void setUpRepository() throws Exception {
+        bidRepository = createRepository(this::onBidAccepted);
+    }
+
+    @After
+    public void tearDownRepository() {
+        closeRepository(bidRepository);
+    }
+
+    @Test
+    public void savedBidsReadBackEqual() {
+
+        BidEntity first = createTestBidEntity(1L, "bob", "10.00");
+        BidEntity second = createTestBidEntity(2L, "alice", "15");
+        BidEntity third = createTestBidEntity(1L, "alice", "10.01");
+
+        assertThat(bidRepository.save(first).isAccepted(), is(true));
+        assertThat(bidRepository.save(second).isAccepted(), is(true));
+        assertThat(bidRepository.save(third).isAccepted(), is(true));
+
+        assertThat(toList(bidRepository.findByItemId(1L)), is(listOf(third, first)));
+        assertThat(toList(bidRepository.findByItemId(2L)), is(listOf(second)));
+        assertThat(toList(bidRepository.findByItemId(3L)).isEmpty(), is(true));
+        assertThat(toList(bidRepository.findByUserId("bob")), is(listOf(first)));
+        assertThat(toList(bidRepository.findByUserId("nobody")).isEmpty(), is(true));
+        assertThat(toList(bidRepository.findAll()).size(), is(3));
+
+        List<Long> itemIds = new ArrayList<>();
+        bidRepository.findItemIds().forEach(itemIds::add);
+        itemIds.sort(null);
+
+        assertThat(itemIds, is(Arrays.asList(1L, 2L)));
+    }
+
+    @Test
+    public void rangeSelectsBidsBetweenTimes() {
+
+        BidEntity first = createTestBidEntity(1L, "bob", "10.00");
+        BidEntity second = createTestBidEntity(1L, "alice", "11.00");
+        BidEntity third = createTestBidEntity(1L, "bob", "12.00");
+        BidEntity fourth = createTestBidEntity(1L, "alice", "13.00");
+
+        for (BidEntity bid : listOf(first, second, third, fourth)) {
+            bidRepository.save(bid);
+        }
+
+        assertThat(toList(bidRepository.findByItemId(1L, first.getSubmittedAt(), third.getSubmittedAt())),
+                is(listOf(third, second)));
+        assertThat(toList(bidRepository.findByItemId(1L, second.getSubmittedAt(), null)), is(listOf(fourth, third)));
+        assertThat(toList(bidRepository.findByItemId(1L, null, first.getSubmittedAt())), is(listOf(first)));
+        assertThat(toList(bidRepository.findByItemId(1L, fourth.getSubmittedAt(), null)).isEmpty(), is(true));
+    }
+
+    @Test
+    public void bidNotHigherIsOutbid() {
+
+        bidRepository.save(createTestBidEntity(1L, "bob", "10.00"));
+
+        BidResult<BidEntity> result = bidRepository.save(createTestBidEntity(1L, "alice", "10"));
+
+        assertThat(result.getStatus(), is(BidResult.Status.OUTBID));
+        assertThat(toList(bidRepository.findByItemId(1L)).size(), is(1));
+    }
+
+    @Test
+    public void bidSubmittedOnceClosedIsRefused() {
+
+        BidEntity open = createTestBidEntity(1L, "bob", "10.00");
+        assertThat(bidRepository.save(open, Instant.now().plusSeconds(60)).isAccepted(), is(true));
+
+        // Closing no later than the item's last bid, so any further bid is submitted once closed
+        Instant closesAt = open.getSubmittedAt();
+
+        BidResult<BidEntity> result = bidRepository.save(createTestBidEntity(1L, "alice", "20.00"), closesAt);
+
+        assertThat(result.getStatus(), is(BidResult.Status.INVALID));
+        assertThat(result.getReasons().get(0), is(String.format(BidRepository.AUCTION_CLOSED, 1L, closesAt)));
+        assertThat(bidRepository.saveProxy(createTestProxyBidEntity(1L, "carol", "30.00"), closesAt).getStatus(),
+                is(BidResult.Status.INVALID));
+
+        assertThat(toList(bidRepository.findByItemId(1L)), is(listOf(open)));
+        assertThat(bidRepository.findLeadingProxy(1L), is(nullValue()));
+        assertThat(acceptedBids.size(), is(1));
+    }
+
+    @Test
+    public void listenersReceivePreviousHighest() {
+
+        BidEntity first = createTestBidEntity(1L, "bob", "10.00");
+        BidEntity second = createTestBidEntity(1L, "alice", "11.00");
+
+        bidRepository.save(first);
+        bidRepository.save(second);
+
+        assertThat(acceptedBids.size(), is(2));
+        assertThat(acceptedBids.get(0)[1], is(nullValue()));
+        assertThat(acceptedBids.get(1)[1], is(first));
+    }
+
+    @Test
+    public void proxyBidsAgainstLowerBid() {
+
+        bidRepository.save(createTestBidEntity(1L, "bob", "10.00"));
+
+        BidResult<BidEntity> proxyResult = bidRepository.saveProxy(createTestProxyBidEntity(1L, "alice", "50.00"));
+
+        assertThat(proxyResult.isAccepted(), is(true));
+        assertThat(proxyResult.getBid().getAmount(), is(new BigDecimal("11.00")));
+
+        // Outbid by alice's proxy, which raises her visible bid above carol's
+        BidResult<BidEntity> result = bidRepository.save(createTestBidEntity(1L, "carol", "20.00"));
+
+        assertThat(result.getStatus(), is(BidResult.Status.OUTBID));
+
+        List<BidEntity> bids = toList(bidRepository.findByItemId(1L));
+
+        assertThat(bids.get(0).getUserId(), is("alice"));
+        assertThat(bids.get(0).getAmount(), is(new BigDecimal("21.00")));
+    }
+
+    @Test
+    public void appliedBidKeepsItsSubmissionTimeAndIsAppliedOnce() {
+
+        BidEntity bid = createTestBidEntity(1L, "bob", "10.00");
+        bid.setSubmittedAt(Instant.parse("2020-01-01T00:00:00Z"));
+
+        assertThat(bidRepository.applyAccepted(bid), is(true));
+        assertThat(bidRepository.applyAccepted(bid), is(false));
+
+        assertThat(toList(bidRepository.findByItemId(1L)), is(listOf(bid)));
+    }
+
+    @Test
+    public void highestBeforeClosingIgnoresBidsAppliedSince() {
+
+        BidEntity first = createTestBidEntity(1L, "bob", "10.00");
+        BidEntity second = createTestBidEntity(1L, "alice", "11.00");
+
+        bidRepository.save(first);
+        bidRepository.save(second);
+
+        Instant closesAt = second.getSubmittedAt().plusNanos(1);
+
+        assertThat(bidRepository.findHighestBefore(1L, closesAt), is(second));
+        assertThat(bidRepository.findHighestBefore(1L, second.getSubmittedAt()), is(first));
+        assertThat(bidRepository.findHighestBefore(1L, first.getSubmittedAt()), is(nullValue()));
+        assertThat(bidRepository.findHighestBefore(2L, closesAt), is(nullValue()));
+
+        // Accepted elsewhere once the item had closed
+        BidEntity late = createTestBidEntity(1L, "carol", "12.00");
+        late.setSubmittedAt(closesAt.plusSeconds(1));
+        bidRepository.applyAccepted(late);
+
+        assertThat(bidRepository.findHighestBefore(1L, closesAt), is(second));
+        assertThat(bidRepository.findHighestBefore(1L, late.getSubmittedAt().plusNanos(1)), is(late));
+    }
+
+    @Test
+    public void durableBackendRetainsBidsWhenReopened() throws Exception {
+        assumeTrue(bidRepository.capabilities().contains(StorageCapability.DURABLE));
+
+        BidEntity first = createTestBidEntity(1L, "bob", "10.00");
+        BidEntity second = createTestBidEntity(2L, "alice", "15");
+
+        bidRepository.save(first);
+        bidRepository.save(second);
+
+        closeRepository(bidRepository);
+        bidRepository = createRepository(this::onBidAccepted);
+
+        assertThat(toList(bidRepository.findByItemId(1L)), is(listOf(first)));
+        assertThat(toList(bidRepository.findByUserId("alice")), is(listOf(second)));
+        assertThat(bidRepository.save(createTestBidEntity(1L, "carol", "10.00")).getStatus(),
+                is(BidResult.Status.OUTBID));
+    }
+
+    protected BidEntity createTestBidEntity(long itemId, String user, String amount) {
+        BidEntity bid = new BidEntity();
+        bid.setItemId(itemId);
+        bid.setUserId(user);
+        bid.setAmount(new BigDecimal(amount));
+        return bid;
+    }
+
+    protected ProxyBidEntity createTestProxyBidEntity(long itemId, String user, String maxAmount) {
+        ProxyBidEntity proxyBid = new ProxyBidEntity();
+        proxyBid.setItemId(itemId);
+        proxyBid.setUserId(user);
+        proxyBid.setMaxAmount(new BigDecimal(maxAmount));
+        return proxyBid;
+    }
+
+    protected List<BidEntity> toList(Iterable<BidEntity> bids) {
+        List<BidEntity> list = new ArrayList<>();
+        bids.forEach(list::add);
+        return list;
+    }
+
+    protected List<BidEntity> listOf(BidEntity... bids) {
+        List<BidEntity> list = new ArrayList<>();
+        for (BidEntity bid : bids) {
+            list.add(bid);
+        }
+        return list;
+    }
+
+    private void onBidAccepted(BidEntity bid, BidEntity previousHighest) {
+        synchronized (acceptedBids) {
+            acceptedBids.add(new BidEntity[] {bid, previousHighest});
+        }
+    }
+}
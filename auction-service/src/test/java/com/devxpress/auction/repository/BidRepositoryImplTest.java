@@ -0,0 +1,29 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.entity.BidEntity;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class BidRepositoryImplTest extends BidRepositoryConformanceTest {
+
+    @Override
+    protected LocalBidRepository createRepository(AcceptedBidListener listener) {
+        return new BidRepositoryImpl(listener);
+    }
+
+    @Test
+    public void acceptedBidsShareASingleCopyOfEachUserId() {
+        bidRepository.save(createTestBidEntity(1L, new String("bob"), "1.00"));
+        bidRepository.save(createTestBidEntity(2L, new String("bob"), "1.00"));
+
+        List<BidEntity> bids = toList(bidRepository.findByUserId("bob"));
+
+        assertThat(bids.size(), is(2));
+        assertThat(bids.get(0).getUserId(), is(sameInstance(bids.get(1).getUserId())));
+    }
+}
@@ -0,0 +1,211 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.configuration.BidHistoryProperties;
+import com.devxpress.auction.entity.BidEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ItemBidBookTest {
+
+    private static final long ITEM_ID = 1L;
+    private static final int BID_COUNT = 25;
+
+    @Rule
+    public TemporaryFolder spillFolder = new TemporaryFolder();
+
+    private BidHistorySpill spill;
+    private BidRepositoryImpl bidRepository;
+
+    @Before
+    public void setUp() {
+        BidHistoryProperties properties = new BidHistoryProperties();
+        properties.setHotBidsPerItem(4);
+        properties.setSegmentSize(3);
+        properties.setSpillDirectory(spillFolder.getRoot().getPath());
+
+        spill = new BidHistorySpill(properties);
+        bidRepository = new BidRepositoryImpl(spill);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        spill.shutdown();
+    }
+
+    @Test
+    public void historyReadsThroughSpilledSegments() throws InterruptedException {
+
+        for (int i = 1; i <= BID_COUNT; i++) {
+            bidRepository.save(createTestBidEntity(i));
+        }
+
+        // Complete history is visible whether or not the spill has caught up
+        assertNewestFirst(bidRepository.findByItemId(ITEM_ID));
+
+        // 25 bids, at least 4 held on-heap, leaves 7 segments of 3 to be spilled
+        for (int i = 0; i < 100 && segmentFiles() < 7; i++) {
+            Thread.sleep(50);
+        }
+
+        assertThat(segmentFiles(), is(7));
+        assertNewestFirst(bidRepository.findByItemId(ITEM_ID));
+        assertThat(bidRepository.findByItemId(ITEM_ID).iterator().next().getAmount(), is(amount(BID_COUNT)));
+    }
+
+    @Test
+    public void rangeSkipsSegmentsOutsideIt() throws InterruptedException {
+
+        List<Instant> submittedAt = new ArrayList<>();
+
+        for (int i = 1; i <= BID_COUNT; i++) {
+            submittedAt.add(bidRepository.save(createTestBidEntity(i)).getBid().getSubmittedAt());
+        }
+
+        for (int i = 0; i < 100 && segmentFiles() < 7; i++) {
+            Thread.sleep(50);
+        }
+
+        // Times strictly increase, however quickly bids arrive
+        for (int i = 1; i < BID_COUNT; i++) {
+            assertThat(submittedAt.get(i).isAfter(submittedAt.get(i - 1)), is(true));
+        }
+
+        // Bids 6 to 20, spanning spilled segments and the hot tier
+        assertThat(amounts(bidRepository.findByItemId(ITEM_ID, submittedAt.get(4), submittedAt.get(19))),
+                is(amounts(20, 6)));
+        // Bids after the 23rd, from the hot tier only
+        assertThat(amounts(bidRepository.findByItemId(ITEM_ID, submittedAt.get(22), null)), is(amounts(25, 24)));
+        // Bids up to and including the 2nd, from the oldest segment only
+        assertThat(amounts(bidRepository.findByItemId(ITEM_ID, null, submittedAt.get(1))), is(amounts(2, 1)));
+        assertThat(amounts(bidRepository.findByItemId(ITEM_ID, submittedAt.get(24), null)).isEmpty(), is(true));
+    }
+
+    @Test
+    public void failedSpillIsRetriedUntilWritten() throws Exception {
+        spill.shutdown();
+
+        // Spilled into a directory which cannot be created whilst a file is in its place
+        File blocked = spillFolder.newFile("blocked");
+
+        BidHistoryProperties properties = new BidHistoryProperties();
+        properties.setHotBidsPerItem(4);
+        properties.setSegmentSize(3);
+        properties.setSpillDirectory(blocked.getPath());
+        properties.setRetryDelay(Duration.ofMillis(20));
+
+        spill = new BidHistorySpill(properties);
+        bidRepository = new BidRepositoryImpl(spill);
+
+        for (int i = 1; i <= BID_COUNT; i++) {
+            bidRepository.save(createTestBidEntity(i));
+        }
+
+        Thread.sleep(100);
+        assertNewestFirst(bidRepository.findByItemId(ITEM_ID));
+
+        assertThat(blocked.delete(), is(true));
+
+        for (int i = 0; i < 100 && spilledFiles(blocked) < 7; i++) {
+            Thread.sleep(50);
+        }
+
+        assertThat(spilledFiles(blocked), is(7));
+        assertNewestFirst(bidRepository.findByItemId(ITEM_ID));
+    }
+
+    @Test
+    public void userBidsReadOnlySegmentsHoldingThem() throws InterruptedException {
+
+        for (int i = 1; i <= BID_COUNT; i++) {
+            BidEntity bid = createTestBidEntity(i);
+            // The last bidder's bids are all held in the hot tier
+            bid.setUserId(i > BID_COUNT - 2 ? "user-last" : bid.getUserId());
+            bidRepository.save(bid);
+        }
+
+        for (int i = 0; i < 100 && segmentFiles() < 7; i++) {
+            Thread.sleep(50);
+        }
+
+        assertThat(segmentFiles(), is(7));
+        // Bids 1, 4, ... 22, spanning spilled segments and the hot tier
+        assertThat(amounts(bidRepository.findByUserId("user-1")), is(amounts(22, 1, 3)));
+
+        // Found without reading the spilled segments, none of which holds one of them
+        for (File segment : spillFolder.getRoot().listFiles()) {
+            assertThat(segment.delete(), is(true));
+        }
+
+        assertThat(amounts(bidRepository.findByUserId("user-last")), is(amounts(25, 24)));
+        assertThat(bidRepository.findByUserId("user-unknown").iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void unknownItemHasNoHistory() {
+        assertThat(bidRepository.findByItemId(ITEM_ID).iterator().hasNext(), is(false));
+    }
+
+    private void assertNewestFirst(Iterable<BidEntity> bids) {
+        List<BigDecimal> amounts = new ArrayList<>();
+        bids.forEach(bid -> amounts.add(bid.getAmount()));
+
+        List<BigDecimal> expected = new ArrayList<>();
+        for (int i = BID_COUNT; i >= 1; i--) {
+            expected.add(amount(i));
+        }
+
+        assertThat(amounts, is(expected));
+    }
+
+    private List<BigDecimal> amounts(Iterable<BidEntity> bids) {
+        List<BigDecimal> amounts = new ArrayList<>();
+        bids.forEach(bid -> amounts.add(bid.getAmount()));
+        return amounts;
+    }
+
+    private List<BigDecimal> amounts(int from, int to) {
+        return amounts(from, to, 1);
+    }
+
+    private List<BigDecimal> amounts(int from, int to, int step) {
+        List<BigDecimal> amounts = new ArrayList<>();
+        for (int i = from; i >= to; i -= step) {
+            amounts.add(amount(i));
+        }
+        return amounts;
+    }
+
+    private int segmentFiles() {
+        return spilledFiles(spillFolder.getRoot());
+    }
+
+    private static int spilledFiles(File directory) {
+        File[] files = directory.listFiles();
+        return files == null ? 0 : files.length;
+    }
+
+    private BidEntity createTestBidEntity(int i) {
+        BidEntity bid = new BidEntity();
+        bid.setItemId(ITEM_ID);
+        bid.setUserId("user-" + (i % 3));
+        bid.setAmount(amount(i));
+        return bid;
+    }
+
+    private BigDecimal amount(int i) {
+        return new BigDecimal(i).setScale(2);
+    }
+}
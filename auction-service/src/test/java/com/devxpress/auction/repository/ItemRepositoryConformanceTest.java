@@ -0,0 +1,70 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.entity.ItemEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * The behaviour every {@link ItemRepository} backend must share, whichever capabilities it has.
+ */
+public abstract class ItemRepositoryConformanceTest {
+
+    private final List<ItemCatalog[]> replacedCatalogs = new ArrayList<>();
+
+    protected ItemRepository itemRepository;
+
+    /**
+     * @return a backend telling the listener of each catalog replacement
+     */
+    protected abstract ItemRepository createRepository(ItemCatalogListener listener) throws Exception;
+
+    @Before
+    public void setUpRepository() throws Exception {
+        itemRepository = createRepository((previous, current) -> replacedCatalogs.add(
+                new ItemCatalog[] {previous, current}));
+    }
+
+    @Test
+    public void replacedItemsAreFoundByIdAndCategory() {
+
+        ItemEntity book = new ItemEntity(10L, "Old book", "Books");
+        ItemEntity lamp = new ItemEntity(11L, "Brass lamp", "Antiques");
+        ItemEntity atlas = new ItemEntity(12L, "World atlas", "Books");
+
+        itemRepository.replaceAll(ItemCatalog.of(Arrays.asList(book, lamp, atlas)));
+
+        assertThat(itemRepository.findById(11L), is(Optional.of(lamp)));
+        assertThat(itemRepository.findById(1L).isPresent(), is(false));
+        assertThat(toList(itemRepository.findByCategory("Books")), is(Arrays.asList(book, atlas)));
+        assertThat(toList(itemRepository.findByCategory("Toys")).isEmpty(), is(true));
+        assertThat(toList(itemRepository.findAll()), is(Arrays.asList(book, lamp, atlas)));
+    }
+
+    @Test
+    public void listenersAreToldOfEachReplacement() {
+
+        ItemCatalog first = ItemCatalog.of(Arrays.asList(new ItemEntity(10L, "Old book", "Books")));
+        ItemCatalog second = ItemCatalog.of(Arrays.asList(new ItemEntity(11L, "Brass lamp", "Antiques")));
+
+        itemRepository.replaceAll(first);
+        itemRepository.replaceAll(second);
+
+        assertThat(replacedCatalogs.size(), is(2));
+        assertThat(replacedCatalogs.get(1)[0], is(first));
+        assertThat(replacedCatalogs.get(1)[1], is(second));
+    }
+
+    private static List<ItemEntity> toList(Iterable<ItemEntity> items) {
+        List<ItemEntity> list = new ArrayList<>();
+        items.forEach(list::add);
+        return list;
+    }
+}
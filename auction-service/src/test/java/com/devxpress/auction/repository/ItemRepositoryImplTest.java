@@ -0,0 +1,9 @@
+package com.devxpress.auction.repository;
+
+public class ItemRepositoryImplTest extends ItemRepositoryConformanceTest {
+
+    @Override
+    protected ItemRepository createRepository(ItemCatalogListener listener) {
+        return new ItemRepositoryImpl(listener);
+    }
+}
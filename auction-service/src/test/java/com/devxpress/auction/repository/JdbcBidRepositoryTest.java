@@ -0,0 +1,196 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.api.BidResult;
+import com.devxpress.auction.api.exception.ServiceUnavailableException;
+import com.devxpress.auction.configuration.BidStorageProperties;
+import com.devxpress.auction.entity.BidEntity;
+import org.h2.tools.TriggerAdapter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class JdbcBidRepositoryTest extends BidRepositoryConformanceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Override
+    protected LocalBidRepository createRepository(AcceptedBidListener listener) throws Exception {
+        BidStorageProperties properties = new BidStorageProperties();
+        properties.getEmbedded().setUrl(url());
+        properties.getEmbedded().setMaxBatchSize(16);
+
+        return new JdbcBidRepository(properties, listener);
+    }
+
+    private String url() {
+        return "jdbc:h2:file:" + folder.getRoot().toPath().resolve("bids");
+    }
+
+    @Override
+    protected void closeRepository(LocalBidRepository repository) {
+        ((JdbcBidRepository) repository).close();
+    }
+
+    @Test
+    public void highestBidAndLeadingProxySurviveReopening() throws Exception {
+
+        BidEntity first = createTestBidEntity(1L, "bob", "10.00");
+        bidRepository.save(first);
+        bidRepository.saveProxy(createTestProxyBidEntity(1L, "alice", "50.00"));
+
+        closeRepository(bidRepository);
+        bidRepository = createRepository((bid, previousHighest) -> { });
+
+        // Outbid by alice's proxy, which was persisted, rather than accepted over her visible bid
+        BidResult<BidEntity> result = bidRepository.save(createTestBidEntity(1L, "carol", "20.00"));
+
+        assertThat(result.getStatus(), is(BidResult.Status.OUTBID));
+
+        List<BidEntity> bids = toList(bidRepository.findByItemId(1L));
+
+        assertThat(bids.size(), is(3));
+        assertThat(bids.get(0).getUserId(), is("alice"));
+        assertThat(bids.get(0).getAmount(), is(new BigDecimal("21.00")));
+        assertThat(bids.get(2), is(first));
+
+        // The winning bid is read alone, rather than the item's every bid
+        assertThat(toList(bidRepository.findByItemId(1L, 1)), is(bids.subList(0, 1)));
+    }
+
+    @Test
+    public void bidsSubmittedWhilstClosingAreCommittedOrRefused() throws Exception {
+
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch started = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            long itemId = t;
+
+            executor.execute(() -> {
+                started.countDown();
+
+                try {
+                    for (int i = 1; ; i++) {
+                        bidRepository.save(createTestBidEntity(itemId, "user-" + itemId, Integer.toString(i)));
+                    }
+                } catch (ServiceUnavailableException e) {
+                    // Refused once closed
+                }
+            });
+        }
+
+        started.await();
+        closeRepository(bidRepository);
+
+        // No bidder is left waiting on a write which will never complete
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void concurrentBidsAreCommittedTogetherWithoutLosingAny() throws Exception {
+
+        int threads = 8;
+        int bidsPerThread = 50;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < threads; t++) {
+            long itemId = t % 4;
+
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                for (int i = 1; i <= bidsPerThread; i++) {
+                    bidRepository.save(createTestBidEntity(itemId, "user-" + itemId, Integer.toString(i)));
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS), is(true));
+
+        // Each item's bids are accepted only whilst rising, whichever thread places them
+        assertThat(acceptedBids.size(), is(toList(bidRepository.findAll()).size()));
+
+        for (long itemId = 0; itemId < 4; itemId++) {
+            List<BidEntity> bids = toList(bidRepository.findByItemId(itemId));
+
+            assertThat(bids.get(0).getAmount(), is(new BigDecimal(bidsPerThread)));
+
+            for (int i = 1; i < bids.size(); i++) {
+                assertThat(bids.get(i - 1).getSubmittedAt().isAfter(bids.get(i).getSubmittedAt()), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void failedWriteIsUnavailableAndNotAccepted() throws Exception {
+
+        BidEntity first = createTestBidEntity(1L, "bob", "10.00");
+        bidRepository.save(first);
+
+        // Writes fail whilst the table is read only
+        try (Connection connection = DriverManager.getConnection(url(), "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TRIGGER bids_read_only BEFORE INSERT ON bids FOR EACH ROW CALL \""
+                    + ReadOnlyTrigger.class.getName() + "\"");
+
+            try {
+                bidRepository.save(createTestBidEntity(1L, "alice", "20.00"));
+                fail("Expected write to fail");
+            } catch (ServiceUnavailableException e) {
+                assertThat(e.getMessage(), is("Failed to write bid for item : 1 to embedded storage"));
+            }
+
+            statement.execute("DROP TRIGGER bids_read_only");
+        }
+
+        // Resolved against the bids committed, as the failed bid was never accepted
+        assertThat(acceptedBids.size(), is(1));
+        assertThat(bidRepository.save(createTestBidEntity(1L, "carol", "15.00")).isAccepted(), is(true));
+        assertThat(toList(bidRepository.findByItemId(1L)).size(), is(2));
+    }
+
+    @Test
+    public void amountBeyondColumnIsInvalid() {
+        BidResult<BidEntity> result = bidRepository.save(createTestBidEntity(1L, "bob", "123456789012345678901"));
+
+        assertThat(result.getStatus(), is(BidResult.Status.INVALID));
+        assertThat(bidRepository.saveProxy(createTestProxyBidEntity(1L, "bob", "1.0000000000000000001")).getStatus(),
+                is(BidResult.Status.INVALID));
+        assertThat(toList(bidRepository.findByItemId(1L)).isEmpty(), is(true));
+    }
+
+    public static final class ReadOnlyTrigger extends TriggerAdapter {
+
+        @Override
+        public void fire(Connection connection, ResultSet oldRow, ResultSet newRow) throws SQLException {
+            throw new SQLException("Bids are read only");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.api.BidResult;
+import com.devxpress.auction.api.exception.BaseException;
+import com.devxpress.auction.configuration.BidStorageProperties;
+import com.devxpress.auction.entity.BidEntity;
+import org.junit.Test;
+import org.springframework.util.unit.DataSize;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class OffHeapBidRepositoryTest extends BidRepositoryConformanceTest {
+
+    @Override
+    protected LocalBidRepository createRepository(AcceptedBidListener listener) {
+        BidStorageProperties properties = new BidStorageProperties();
+
+        // Three records per chunk, so that chains cross chunks
+        properties.getOffHeap().setChunkSize(DataSize.ofBytes(3 * OffHeapBidRepository.RECORD_SIZE));
+        properties.getOffHeap().setMaxSize(DataSize.ofBytes(10 * OffHeapBidRepository.RECORD_SIZE));
+
+        return new OffHeapBidRepository(properties, listener);
+    }
+
+    @Test
+    public void outbidBidIsNotStored() {
+
+        bidRepository.save(createTestBidEntity(1L, "bob", "10.00"));
+
+        BidResult<BidEntity> result = bidRepository.save(createTestBidEntity(1L, "alice", "10"));
+
+        assertThat(result.getStatus(), is(BidResult.Status.OUTBID));
+        assertThat(((OffHeapBidRepository) bidRepository).size(), is(1L));
+    }
+
+    @Test(expected = BaseException.class)
+    public void bidsBeyondMaxSizeAreRefused() {
+
+        for (int i = 1; i <= 11; i++) {
+            bidRepository.save(createTestBidEntity(1L, "bob", Integer.toString(i)));
+        }
+    }
+
+    @Test
+    public void amountBeyondLongIsInvalid() {
+        BidResult<BidEntity> result = bidRepository.save(createTestBidEntity(1L, "bob", "92233720368547758.08"));
+
+        assertThat(result.getStatus(), is(BidResult.Status.INVALID));
+        assertThat(((OffHeapBidRepository) bidRepository).size(), is(0L));
+    }
+}
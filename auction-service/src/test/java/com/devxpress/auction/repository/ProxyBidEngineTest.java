@@ -0,0 +1,149 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.api.BidResult;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ProxyBidEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ProxyBidEngineTest {
+
+    private static final long ITEM_ID = 1L;
+
+    private final List<BidEntity> acceptedBids = new ArrayList<>();
+
+    private BidRepositoryImpl bidRepository;
+
+    @Before
+    public void setUp() {
+        // Default increment of 1.00
+        bidRepository = new BidRepositoryImpl((bid, previousHighest) -> acceptedBids.add(bid));
+    }
+
+    @Test
+    public void firstProxyOpensAtIncrement() {
+
+        BidResult<BidEntity> result = bidRepository.saveProxy(createTestProxyBid("alice", "50.00"));
+
+        assertThat(result.isAccepted(), is(true));
+        assertVisibleBid(result.getBid(), "alice", "1.00");
+        assertThat(acceptedBids.size(), is(1));
+    }
+
+    @Test
+    public void proxyOutbidsPlainBidUpToItsMaximum() {
+
+        bidRepository.saveProxy(createTestProxyBid("alice", "50.00"));
+
+        BidResult<BidEntity> result = bidRepository.save(createTestBid("bob", "10.00"));
+
+        assertThat(result.getStatus(), is(BidResult.Status.OUTBID));
+        assertVisibleBid(highest(), "alice", "11.00");
+
+        // Bob's bid is never recorded
+        assertThat(acceptedBids.size(), is(2));
+
+        result = bidRepository.save(createTestBid("bob", "50.00"));
+
+        assertThat(result.getStatus(), is(BidResult.Status.OUTBID));
+        assertVisibleBid(highest(), "alice", "50.00");
+
+        result = bidRepository.save(createTestBid("bob", "50.01"));
+
+        assertThat(result.isAccepted(), is(true));
+        assertVisibleBid(highest(), "bob", "50.01");
+    }
+
+    @Test
+    public void higherProxyLeadsByOneIncrement() {
+
+        bidRepository.saveProxy(createTestProxyBid("alice", "50.00"));
+
+        BidResult<BidEntity> result = bidRepository.saveProxy(createTestProxyBid("carol", "80.00"));
+
+        assertThat(result.isAccepted(), is(true));
+        assertVisibleBid(result.getBid(), "carol", "51.00");
+        assertThat(acceptedBids.size(), is(2));
+    }
+
+    @Test
+    public void earlierProxyWinsTie() {
+
+        bidRepository.saveProxy(createTestProxyBid("alice", "50.00"));
+
+        BidResult<BidEntity> result = bidRepository.saveProxy(createTestProxyBid("dave", "50.00"));
+
+        assertThat(result.getStatus(), is(BidResult.Status.OUTBID));
+        assertVisibleBid(highest(), "alice", "50.00");
+    }
+
+    @Test
+    public void leaderMayOnlyRaiseMaximum() {
+
+        bidRepository.saveProxy(createTestProxyBid("alice", "50.00"));
+
+        BidResult<BidEntity> result = bidRepository.saveProxy(createTestProxyBid("alice", "40.00"));
+
+        assertThat(result.getStatus(), is(BidResult.Status.INVALID));
+        assertThat(result.getReasons().get(0), is(ProxyBidEngine.MAX_AMOUNT_NOT_HIGHER));
+
+        result = bidRepository.saveProxy(createTestProxyBid("alice", "90.00"));
+
+        // Raising the maximum leaves the visible price unchanged
+        assertThat(result.isAccepted(), is(true));
+        assertVisibleBid(result.getBid(), "alice", "1.00");
+        assertThat(acceptedBids.size(), is(1));
+
+        bidRepository.save(createTestBid("bob", "60.00"));
+
+        assertVisibleBid(highest(), "alice", "61.00");
+    }
+
+    @Test
+    public void proxyNotAboveHighestIsOutbid() {
+
+        bidRepository.save(createTestBid("bob", "20.00"));
+
+        BidResult<BidEntity> result = bidRepository.saveProxy(createTestProxyBid("alice", "20.00"));
+
+        assertThat(result.getStatus(), is(BidResult.Status.OUTBID));
+        assertThat(acceptedBids.size(), is(1));
+
+        result = bidRepository.saveProxy(createTestProxyBid("alice", "20.50"));
+
+        assertThat(result.isAccepted(), is(true));
+        assertVisibleBid(result.getBid(), "alice", "20.50");
+    }
+
+    private BidEntity highest() {
+        return bidRepository.findByItemId(ITEM_ID).iterator().next();
+    }
+
+    private void assertVisibleBid(BidEntity bid, String userId, String amount) {
+        assertThat(bid.getUserId(), is(userId));
+        assertThat(bid.getAmount(), is(new BigDecimal(amount)));
+    }
+
+    private BidEntity createTestBid(String userId, String amount) {
+        BidEntity bid = new BidEntity();
+        bid.setItemId(ITEM_ID);
+        bid.setUserId(userId);
+        bid.setAmount(new BigDecimal(amount));
+        return bid;
+    }
+
+    private ProxyBidEntity createTestProxyBid(String userId, String maxAmount) {
+        ProxyBidEntity proxyBid = new ProxyBidEntity();
+        proxyBid.setItemId(ITEM_ID);
+        proxyBid.setUserId(userId);
+        proxyBid.setMaxAmount(new BigDecimal(maxAmount));
+        return proxyBid;
+    }
+}
@@ -0,0 +1,266 @@
+package com.devxpress.auction.repository;
+
+import com.devxpress.auction.api.BidResult;
+import com.devxpress.auction.api.exception.ServiceUnavailableException;
+import com.devxpress.auction.configuration.BidStorageProperties;
+import com.devxpress.auction.entity.BidEntity;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class WriteBehindBidRepositoryTest extends BidRepositoryConformanceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Override
+    protected LocalBidRepository createRepository(AcceptedBidListener listener) throws Exception {
+        BidStorageProperties properties = new BidStorageProperties();
+        properties.getEmbedded().setUrl("jdbc:h2:file:" + folder.getRoot().toPath().resolve("bids"));
+
+        return new WriteBehindBidRepository(new JdbcBidRepository(properties), writeBehindProperties(2), listener);
+    }
+
+    @Override
+    protected void closeRepository(LocalBidRepository repository) {
+        ((WriteBehindBidRepository) repository).close();
+    }
+
+    @Test
+    public void bidsWrittenBehindSurviveReopening() throws Exception {
+
+        for (int i = 1; i <= 5; i++) {
+            bidRepository.save(createTestBidEntity(1L, "bob", Integer.toString(i)));
+        }
+
+        bidRepository.saveProxy(createTestProxyBidEntity(1L, "alice", "50.00"));
+
+        List<BidEntity> accepted = toList(bidRepository.findByItemId(1L));
+
+        closeRepository(bidRepository);
+        bidRepository = createRepository((bid, previousHighest) -> { });
+
+        // Two most recent bids held in memory, and the rest read from storage
+        assertThat(toList(bidRepository.findByItemId(1L)), is(accepted));
+        assertThat(toList(bidRepository.findByItemId(1L, accepted.get(4).getSubmittedAt(),
+                accepted.get(1).getSubmittedAt())), is(accepted.subList(1, 4)));
+
+        // Outbid by alice's proxy, which was written behind with her visible bid
+        BidResult<BidEntity> result = bidRepository.save(createTestBidEntity(1L, "carol", "20.00"));
+
+        assertThat(result.getStatus(), is(BidResult.Status.OUTBID));
+        assertThat(toList(bidRepository.findByItemId(1L)).get(0).getAmount(), is(new BigDecimal("21.00")));
+        assertThat(toList(bidRepository.findByUserId("bob")).size(), is(5));
+    }
+
+    @Test(timeout = 10_000)
+    public void bidsAreAcceptedWhilstStorageIsSlowUntilQueueIsFull() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch storageAvailable = new CountDownLatch(1);
+
+        BidRepositoryImpl slowStorage = new BidRepositoryImpl() {
+            @Override
+            public void applyResolved(List<ResolvedBid> resolved) {
+                writing.countDown();
+
+                try {
+                    storageAvailable.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                super.applyResolved(resolved);
+            }
+        };
+
+        BidStorageProperties.WriteBehind properties = writeBehindProperties(2);
+        properties.setWriterThreads(1);
+        properties.setQueueCapacity(1);
+
+        WriteBehindBidRepository repository = new WriteBehindBidRepository(slowStorage, properties);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // One bid taken by the writer, which is held up by storage, and one queued
+            repository.save(createTestBidEntity(1L, "bob", "1"));
+            writing.await();
+            repository.save(createTestBidEntity(1L, "bob", "2"));
+
+            assertThat(toList(repository.findByItemId(1L)).size(), is(2));
+            assertThat(toList(slowStorage.findByItemId(1L)).isEmpty(), is(true));
+
+            Future<BidResult<BidEntity>> blocked = executor.submit(
+                    () -> repository.save(createTestBidEntity(1L, "bob", "3")));
+
+            try {
+                blocked.get(200, TimeUnit.MILLISECONDS);
+                fail("Bid was accepted beyond the queue's capacity");
+            } catch (TimeoutException e) {
+                // Expected, until storage catches up
+            }
+
+            storageAvailable.countDown();
+
+            assertThat(blocked.get().isAccepted(), is(true));
+            assertThat(toList(repository.findByUserId("bob")).size(), is(3));
+            assertThat(toList(slowStorage.findByItemId(1L)).size(), is(3));
+        } finally {
+            storageAvailable.countDown();
+            executor.shutdown();
+            repository.close();
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void bidsAreRefusedOnceWritesKeepFailingUntilWrittenAgain() throws Exception {
+        AtomicBoolean storageAvailable = new AtomicBoolean();
+
+        BidRepositoryImpl failingStorage = new BidRepositoryImpl() {
+            @Override
+            public void applyResolved(List<ResolvedBid> resolved) {
+                if (!storageAvailable.get()) {
+                    throw new IllegalStateException("Storage unavailable");
+                }
+
+                super.applyResolved(resolved);
+            }
+        };
+
+        BidStorageProperties.WriteBehind properties = writeBehindProperties(2);
+        properties.setWriterThreads(1);
+        properties.setMaxRetries(1);
+        properties.setRetryDelay(Duration.ofMillis(10));
+
+        WriteBehindBidRepository repository = new WriteBehindBidRepository(failingStorage, properties);
+
+        try {
+            // Accepted whilst the writer retries
+            assertThat(repository.save(createTestBidEntity(1L, "bob", "1")).isAccepted(), is(true));
+
+            for (int amount = 1; ; amount++) {
+                try {
+                    repository.save(createTestBidEntity(1L, "bob", Integer.toString(amount + 1)));
+                    Thread.sleep(10);
+                } catch (ServiceUnavailableException e) {
+                    break;
+                }
+            }
+
+            // Refused without changing the item
+            List<BidEntity> accepted = toList(repository.findByItemId(1L));
+
+            storageAvailable.set(true);
+
+            // Accepted again once the writer has caught up
+            while (true) {
+                try {
+                    assertThat(repository.save(createTestBidEntity(1L, "alice", "1000")).isAccepted(), is(true));
+                    break;
+                } catch (ServiceUnavailableException e) {
+                    Thread.sleep(10);
+                }
+            }
+
+            assertThat(toList(repository.findByUserId("bob")), is(accepted));
+            assertThat(toList(failingStorage.findByItemId(1L)).size(), is(accepted.size() + 1));
+        } finally {
+            storageAvailable.set(true);
+            repository.close();
+        }
+    }
+
+    @Test
+    public void itemsAreEvictedOnceWrittenAndReadAgainWhenBidOn() throws Exception {
+        BidStorageProperties.WriteBehind properties = writeBehindProperties(2);
+        properties.setMaxCachedItems(2);
+
+        WriteBehindBidRepository repository = (WriteBehindBidRepository) bidRepository;
+        repository.close();
+
+        BidStorageProperties storageProperties = new BidStorageProperties();
+        storageProperties.getEmbedded().setUrl("jdbc:h2:file:" + folder.getRoot().toPath().resolve("evicted"));
+        bidRepository = repository = new WriteBehindBidRepository(new JdbcBidRepository(storageProperties),
+                properties);
+
+        for (long itemId = 1; itemId <= 5; itemId++) {
+            for (int i = 1; i <= 3; i++) {
+                bidRepository.save(createTestBidEntity(itemId, "bob", Integer.toString(i)));
+            }
+        }
+
+        // Once written, items held longest are evicted as others are bid on
+        toList(bidRepository.findAll());
+        bidRepository.save(createTestBidEntity(6L, "bob", "1"));
+
+        assertThat(repository.cachedItems(), is(lessThan(4)));
+
+        // Read again from storage, its recent bids held and the rest read when needed
+        assertThat(bidRepository.save(createTestBidEntity(1L, "alice", "3")).getStatus(),
+                is(BidResult.Status.OUTBID));
+        assertThat(toList(bidRepository.findByItemId(1L)).size(), is(3));
+        assertThat(bidRepository.save(createTestBidEntity(1L, "alice", "4")).isAccepted(), is(true));
+    }
+
+    @Test
+    public void newestBidsAreReadWithoutReadingWrittenHistory() throws Exception {
+        closeRepository(bidRepository);
+
+        BidStorageProperties storageProperties = new BidStorageProperties();
+        storageProperties.getEmbedded().setUrl("jdbc:h2:file:" + folder.getRoot().toPath().resolve("history"));
+        AtomicInteger historyReads = new AtomicInteger();
+
+        JdbcBidRepository storage = new JdbcBidRepository(storageProperties) {
+            @Override
+            public Iterable<BidEntity> findByItemId(long itemId, Instant since, Instant until) {
+                historyReads.incrementAndGet();
+                return super.findByItemId(itemId, since, until);
+            }
+        };
+
+        bidRepository = new WriteBehindBidRepository(storage, writeBehindProperties(2));
+
+        for (int i = 1; i <= 5; i++) {
+            bidRepository.save(createTestBidEntity(1L, "bob", Integer.toString(i)));
+        }
+
+        // Once written, only the two most recent bids are held
+        toList(bidRepository.findAll());
+
+        assertThat(toList(bidRepository.findByItemId(1L, 1)).get(0).getAmount(), is(new BigDecimal("5")));
+        assertThat(historyReads.get(), is(0));
+
+        // Read from storage only when iterated past those held
+        Iterable<BidEntity> bids = bidRepository.findByItemId(1L);
+        assertThat(historyReads.get(), is(0));
+
+        assertThat(toList(bids).size(), is(5));
+        assertThat(historyReads.get(), is(1));
+    }
+
+    private static BidStorageProperties.WriteBehind writeBehindProperties(int recentBidsPerItem) {
+        BidStorageProperties.WriteBehind properties = new BidStorageProperties.WriteBehind();
+        properties.setEnabled(true);
+        properties.setWriterThreads(2);
+        properties.setMaxBatchSize(16);
+        properties.setRecentBidsPerItem(recentBidsPerItem);
+        return properties;
+    }
+}
@@ -0,0 +1,143 @@
+package com.devxpress.auction.search;
+
+import com.devxpress.auction.configuration.SearchProperties;
+import com.devxpress.auction.configuration.TrendingProperties;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ItemEntity;
+import com.devxpress.auction.repository.ItemCatalog;
+import com.devxpress.auction.view.TrendingItemsView;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ItemSearchIndexTest {
+
+    private TrendingItemsView trendingItemsView;
+
+    // Class under test
+    private ItemSearchIndex index;
+
+    private ItemCatalog catalog = ItemCatalog.of(Collections.emptyList());
+
+    @Before
+    public void setUp() {
+        trendingItemsView = new TrendingItemsView(new TrendingProperties());
+        index = new ItemSearchIndex(trendingItemsView, new SearchProperties());
+
+        replaceCatalog(
+                new ItemEntity(1L, "Red leather sofa", "Furniture"),
+                new ItemEntity(2L, "Red wine glasses, set of six", "Kitchen"),
+                new ItemEntity(3L, "Crème brûlée torch", "Kitchen"),
+                new ItemEntity(4L, "Leather-bound notebook", "Books"),
+                new ItemEntity(5L, "Redwood garden bench", "Garden"));
+    }
+
+    @Test
+    public void matchesAllTermsIgnoringCaseAndAccents() {
+        assertThat(index.match("RED leather"), is(new long[] {1L}));
+        assertThat(index.match("creme brulee"), is(new long[] {3L}));
+        assertThat(index.match("leather"), is(new long[] {1L, 4L}));
+        assertThat(index.match("red piano"), is(new long[0]));
+        assertThat(index.match(" , "), is(new long[0]));
+    }
+
+    @Test
+    public void matchesLastTermAsPrefixUnlessQueryEndsWithSeparator() {
+        assertThat(index.match("red"), is(new long[] {1L, 2L, 5L}));
+        assertThat(index.match("red "), is(new long[] {1L, 2L}));
+        assertThat(index.match("glass"), is(new long[] {2L}));
+        assertThat(index.match("glass "), is(new long[0]));
+        assertThat(index.match("note leath"), is(new long[0]));
+        assertThat(index.match("leather note"), is(new long[] {4L}));
+    }
+
+    @Test
+    public void matchesShortOrCommonPrefixAsWholeTerm() {
+        SearchProperties properties = new SearchProperties();
+        properties.setMinPrefixLength(3);
+        properties.setMaxPrefixTerms(2);
+
+        index = new ItemSearchIndex(trendingItemsView, properties);
+        catalog = ItemCatalog.of(Collections.emptyList());
+
+        replaceCatalog(
+                new ItemEntity(1L, "Red leather sofa", "Furniture"),
+                new ItemEntity(2L, "Redwood garden bench", "Garden"),
+                new ItemEntity(3L, "Reddish lamp", "Lighting"),
+                new ItemEntity(4L, "Redder paint", "Garden"),
+                new ItemEntity(5L, "Lampshade", "Lighting"));
+
+        // Shorter than the minimum
+        assertThat(index.match("re"), is(new long[0]));
+        assertThat(index.match("la"), is(new long[0]));
+        assertThat(index.match("lam"), is(new long[] {3L, 5L}));
+
+        // Prefix of more terms than the maximum
+        assertThat(index.match("red"), is(new long[] {1L}));
+        assertThat(index.match("redd"), is(new long[] {3L, 4L}));
+    }
+
+    @Test
+    public void ranksMatchesByRecentBidsThenId() {
+        bid(5L, 1);
+        bid(2L, 3);
+
+        // Fewer active items than matches, so ranked from the active items
+        assertThat(itemIds(index.search("red", 10)), is(new Long[] {2L, 5L, 1L}));
+        assertThat(itemIds(index.search("red", 2)), is(new Long[] {2L, 5L}));
+        assertThat(index.search("red", 10).get(0).getBidCount(), is(3L));
+
+        // Fewer matches than active items, so ranked from the matches
+        bid(4L, 1);
+        assertThat(itemIds(index.search("leather", 10)), is(new Long[] {4L, 1L}));
+    }
+
+    @Test
+    public void updatesIncrementallyOnCatalogReplacement() {
+        replaceCatalog(
+                new ItemEntity(1L, "Red leather sofa", "Furniture"),
+                new ItemEntity(2L, "Blue wine glasses, set of six", "Kitchen"),
+                new ItemEntity(4L, "Leather-bound notebook", "Books"),
+                new ItemEntity(5L, "Redwood garden bench", "Garden"),
+                new ItemEntity(6L, "Red enamel teapot", "Kitchen"));
+
+        assertThat(index.match("red"), is(new long[] {1L, 5L, 6L}));
+        assertThat(index.match("wine"), is(new long[] {2L}));
+        assertThat(index.match("blue"), is(new long[] {2L}));
+        assertThat(index.match("torch"), is(new long[0]));
+
+        replaceCatalog();
+
+        assertThat(index.match("red"), is(new long[0]));
+    }
+
+    private void replaceCatalog(ItemEntity... items) {
+        ItemCatalog previous = catalog;
+        catalog = ItemCatalog.of(Arrays.asList(items));
+        index.onCatalogReplaced(previous, catalog);
+    }
+
+    private void bid(long itemId, int count) {
+        for (int i = 0; i < count; i++) {
+            BidEntity bid = new BidEntity();
+            bid.setItemId(itemId);
+            bid.setUserId("user");
+            bid.setAmount(BigDecimal.valueOf(i + 1));
+            bid.setSubmittedAt(Instant.now());
+            trendingItemsView.onBidAccepted(bid, null);
+        }
+    }
+
+    private static Long[] itemIds(List<ItemSearchIndex.Hit> hits) {
+        return hits.stream().map(ItemSearchIndex.Hit::getItemId).collect(Collectors.toList()).toArray(new Long[0]);
+    }
+}
@@ -0,0 +1,118 @@
+package com.devxpress.auction.service;
+
+import com.devxpress.auction.api.BidResult;
+import com.devxpress.auction.configuration.IdempotencyProperties;
+import com.devxpress.auction.entity.BidEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class BidIdempotencyCacheTest {
+
+    private static final byte[] REQUEST = {1, 2, 3};
+
+    // Class under test
+    private BidIdempotencyCache cache;
+
+    private IdempotencyProperties properties;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicInteger submissions = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        properties = new IdempotencyProperties();
+        properties.setMaxEntries(2);
+        properties.setTtl(Duration.ofSeconds(60));
+
+        cache = new BidIdempotencyCache(properties, clock::get);
+    }
+
+    @Test
+    public void replayWithinTtl() {
+
+        BidResult<BidEntity> first = cache.computeIfAbsent("a", 1L, REQUEST, this::submit);
+        BidResult<BidEntity> retry = cache.computeIfAbsent("a", 1L, REQUEST, this::submit);
+
+        assertThat(retry == first, is(true));
+        assertThat(submissions.get(), is(1));
+    }
+
+    @Test
+    public void replayOfDifferentBidIsInvalid() {
+
+        BidResult<BidEntity> first = cache.computeIfAbsent("a", 1L, REQUEST, this::submit);
+
+        BidResult<BidEntity> otherItem = cache.computeIfAbsent("a", 2L, REQUEST, this::submit);
+        BidResult<BidEntity> otherRequest = cache.computeIfAbsent("a", 1L, new byte[]{1, 2, 4}, this::submit);
+
+        assertThat(otherItem.getStatus(), is(BidResult.Status.INVALID));
+        assertThat(otherItem.getReasons(), is(Collections.singletonList(BidIdempotencyCache.KEY_REUSED)));
+        assertThat(otherRequest.getStatus(), is(BidResult.Status.INVALID));
+        assertThat(submissions.get(), is(1));
+
+        // The original is still replayed
+        assertThat(cache.computeIfAbsent("a", 1L, REQUEST.clone(), this::submit) == first, is(true));
+    }
+
+    @Test
+    public void expiredKeySubmittedAgain() {
+
+        cache.computeIfAbsent("a", 1L, REQUEST, this::submit);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        cache.computeIfAbsent("a", 1L, REQUEST, this::submit);
+
+        assertThat(submissions.get(), is(2));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void oldestKeyEvictedWhenFull() {
+
+        cache.computeIfAbsent("a", 1L, REQUEST, this::submit);
+        cache.computeIfAbsent("b", 1L, REQUEST, this::submit);
+        cache.computeIfAbsent("c", 1L, REQUEST, this::submit);
+
+        assertThat(cache.size(), is(2));
+
+        cache.computeIfAbsent("c", 1L, REQUEST, this::submit);
+        assertThat(submissions.get(), is(3));
+
+        cache.computeIfAbsent("a", 1L, REQUEST, this::submit);
+        assertThat(submissions.get(), is(4));
+    }
+
+    @Test
+    public void failedSubmissionForgotten() {
+
+        try {
+            cache.computeIfAbsent("a", 1L, REQUEST, () -> {
+                throw new IllegalStateException("Something went wrong");
+            });
+            fail("IllegalStateException expected to be thrown but wasn't");
+        } catch (IllegalStateException e) {
+            assertThat(cache.size(), is(0));
+        }
+
+        cache.computeIfAbsent("a", 1L, REQUEST, this::submit);
+
+        assertThat(submissions.get(), is(1));
+    }
+
+    private BidResult<BidEntity> submit() {
+        submissions.incrementAndGet();
+        return BidResult.accepted(new BidEntity());
+    }
+}
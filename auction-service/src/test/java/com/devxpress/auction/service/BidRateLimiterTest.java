@@ -0,0 +1,104 @@
+package com.devxpress.auction.service;
+
+import com.devxpress.auction.configuration.RateLimitProperties;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BidRateLimiterTest {
+
+    // Class under test
+    private BidRateLimiter rateLimiter;
+
+    private RateLimitProperties properties;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Before
+    public void setUp() {
+        properties = new RateLimitProperties();
+        properties.getTiers().put(RateLimitProperties.DEFAULT_TIER, new RateLimitProperties.Tier(3, 1.0));
+        properties.getTiers().put("restricted", new RateLimitProperties.Tier(1, 0.5));
+        properties.getUserTiers().put("bot", "restricted");
+
+        rateLimiter = new BidRateLimiter(properties, clock::get);
+    }
+
+    @Test
+    public void burstUpToCapacityThenRefill() {
+
+        assertThat(rateLimiter.tryAcquire("bob"), is(true));
+        assertThat(rateLimiter.tryAcquire("bob"), is(true));
+        assertThat(rateLimiter.tryAcquire("bob"), is(true));
+        assertThat(rateLimiter.tryAcquire("bob"), is(false));
+
+        // Other users have their own bucket
+        assertThat(rateLimiter.tryAcquire("alice"), is(true));
+
+        advanceSeconds(1);
+
+        assertThat(rateLimiter.tryAcquire("bob"), is(true));
+        assertThat(rateLimiter.tryAcquire("bob"), is(false));
+    }
+
+    @Test
+    public void userTierApplied() {
+
+        assertThat(rateLimiter.tryAcquire("bot"), is(true));
+        assertThat(rateLimiter.tryAcquire("bot"), is(false));
+
+        advanceSeconds(1);
+        assertThat(rateLimiter.tryAcquire("bot"), is(false));
+
+        advanceSeconds(1);
+        assertThat(rateLimiter.tryAcquire("bot"), is(true));
+    }
+
+    @Test
+    public void disabledOrAnonymousAlwaysAdmitted() {
+
+        assertThat(rateLimiter.tryAcquire(null), is(true));
+        assertThat(rateLimiter.tryAcquire(null), is(true));
+
+        properties.setEnabled(false);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.tryAcquire("bob"), is(true));
+        }
+    }
+
+    @Test
+    public void leastRecentlyUsedIdleUserEvictedWhenFull() {
+
+        properties.setMaxTrackedUsers(2);
+        rateLimiter = new BidRateLimiter(properties, clock::get);
+
+        assertThat(rateLimiter.tryAcquire("bob"), is(true));
+        assertThat(rateLimiter.tryAcquire("alice"), is(true));
+
+        // Table is full of active users, so the new user is refused rather than admitted untracked
+        assertThat(rateLimiter.tryAcquire("carol"), is(false));
+        assertThat(rateLimiter.trackedUsers(), is(2));
+
+        // Once refilled the existing buckets are idle, and bob's, used least recently, is evicted
+        advanceSeconds(5);
+        assertThat(rateLimiter.tryAcquire("alice"), is(true));
+
+        assertThat(rateLimiter.tryAcquire("carol"), is(true));
+        assertThat(rateLimiter.trackedUsers(), is(2));
+
+        // Alice is still tracked, so still limited
+        assertThat(rateLimiter.tryAcquire("alice"), is(true));
+        assertThat(rateLimiter.tryAcquire("alice"), is(true));
+        assertThat(rateLimiter.tryAcquire("alice"), is(false));
+    }
+
+    private void advanceSeconds(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
@@ -1,23 +1,36 @@
 package com.devxpress.auction.service;
 
-import com.devxpress.auction.api.exception.InvalidResourceException;
+import com.devxpress.auction.api.BidResult;
+import com.devxpress.auction.api.exception.ServiceUnavailableException;
 import com.devxpress.auction.api.v1.mapper.BidMapper;
 import com.devxpress.auction.api.v1.mapper.BidMapperImpl;
 import com.devxpress.auction.api.v1.model.Bid;
 import com.devxpress.auction.api.v1.model.BidDetail;
+import com.devxpress.auction.api.v1.model.ItemStats;
+import com.devxpress.auction.configuration.IdempotencyProperties;
 import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ItemEntity;
 import com.devxpress.auction.repository.BidRepository;
 import com.devxpress.auction.repository.BidRepositoryImpl;
+import com.devxpress.auction.repository.ItemRepository;
+import com.devxpress.auction.feed.BidChangeFeed;
+import com.devxpress.auction.feed.BidExporter;
+import com.devxpress.auction.view.ItemStatsView;
+import com.devxpress.auction.view.UserBidView;
 import org.hamcrest.Matcher;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,10 +44,17 @@ import static org.hamcrest.Matchers.hasProperty;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 public class BidServiceImplTest {
 
@@ -43,12 +63,19 @@ public class BidServiceImplTest {
 
     private BidRepository spyBidRepository;
 
+    private ItemRepository itemRepository;
+
     private BidMapper bidMapper = new BidMapperImpl();
 
     @Before
     public void setUp() {
-        spyBidRepository = spy(new BidRepositoryImpl());
-        bidService = new BidServiceImpl(spyBidRepository, bidMapper);
+        UserBidView userBidView = new UserBidView();
+        ItemStatsView itemStatsView = new ItemStatsView();
+        spyBidRepository = spy(new BidRepositoryImpl(userBidView, itemStatsView));
+        itemRepository = mock(ItemRepository.class);
+        bidService = new BidServiceImpl(spyBidRepository, bidMapper,
+                new BidIdempotencyCache(new IdempotencyProperties()), userBidView, itemStatsView,
+                mock(BidChangeFeed.class), mock(BidExporter.class), itemRepository);
     }
 
     @Test
@@ -166,6 +193,9 @@ public class BidServiceImplTest {
         assertThat(winningBid.getUserId(), is("bob"));
         assertThat(winningBid.getAmount(), is(new BigDecimal("16.00")));
         assertThat(winningBid.getCreatedDateTime(), greaterThanOrEqualTo(now));
+
+        // Only the highest bid is read
+        verify(spyBidRepository).findByItemId(1L, 1);
     }
 
     @Test
@@ -176,6 +206,41 @@ public class BidServiceImplTest {
         assertThat(winningBidOpt.isPresent(), is(false));
     }
 
+    @Test
+    public void getItemStats() {
+
+        LocalDateTime now = LocalDateTime.now();
+
+        spyBidRepository.save(createTestBidEntity(1L, "bob", new BigDecimal("12.00"), null));
+        spyBidRepository.save(createTestBidEntity(1L, "alice", new BigDecimal("12.50"), null));
+        spyBidRepository.save(createTestBidEntity(3L, "alice", new BigDecimal("10.00"), null));
+        spyBidRepository.save(createTestBidEntity(1L, "bob", new BigDecimal("16.00"), null));
+        // Outbid, so not counted
+        spyBidRepository.save(createTestBidEntity(1L, "carol", new BigDecimal("14.00"), null));
+
+        ItemStats stats = bidService.getItemStats(1L);
+
+        assertThat(stats.getItemId(), is(1L));
+        assertThat(stats.getBidCount(), is(3L));
+        assertThat(stats.getBidderCount(), is(2L));
+        assertThat(stats.isBidderCountApproximate(), is(false));
+        assertThat(stats.getOpeningPrice(), is(new BigDecimal("12.00")));
+        assertThat(stats.getCurrentPrice(), is(new BigDecimal("16.00")));
+        assertThat(stats.getLastBidDateTime(), greaterThanOrEqualTo(now));
+    }
+
+    @Test
+    public void getItemStatsNoBids() {
+
+        ItemStats stats = bidService.getItemStats(2L);
+
+        assertThat(stats.getItemId(), is(2L));
+        assertThat(stats.getBidCount(), is(0L));
+        assertThat(stats.getBidderCount(), is(0L));
+        assertThat(stats.getCurrentPrice(), nullValue());
+        assertThat(stats.getLastBidDateTime(), nullValue());
+    }
+
     @Test
     public void getBidsForUser() {
         LocalDateTime now = LocalDateTime.now();
@@ -210,6 +275,62 @@ public class BidServiceImplTest {
         ));
     }
 
+    @Test
+    public void getHighestBidsForUser() {
+
+        spyBidRepository.save(createTestBidEntity(1L, "bob", new BigDecimal("12.00"), null));
+        spyBidRepository.save(createTestBidEntity(1L, "alice", new BigDecimal("12.50"), null));
+        spyBidRepository.save(createTestBidEntity(3L, "alice", new BigDecimal("10.00"), null));
+        spyBidRepository.save(createTestBidEntity(1L, "bob", new BigDecimal("16.00"), null));
+        spyBidRepository.save(createTestBidEntity(2L, "bob", new BigDecimal("5.00"), null));
+
+        List<BidDetail> bids = bidService.getHighestBidsForUser("bob");
+
+        assertThat(bids.size(), is(2));
+        assertThat(bids, allOf(
+                hasItem(allOf(hasProperty("itemId", is(1L)), hasProperty("amount", is(new BigDecimal("16.00"))))),
+                hasItem(allOf(hasProperty("itemId", is(2L)), hasProperty("amount", is(new BigDecimal("5.00")))))
+        ));
+
+        bids = bidService.getHighestBidsForUser("alice");
+
+        assertThat(bids.size(), is(2));
+        assertThat(bids, allOf(
+                hasItem(allOf(hasProperty("itemId", is(1L)), hasProperty("amount", is(new BigDecimal("12.50"))))),
+                hasItem(allOf(hasProperty("itemId", is(3L)), hasProperty("amount", is(new BigDecimal("10.00")))))
+        ));
+
+        assertThat(bidService.getHighestBidsForUser("carol").isEmpty(), is(true));
+    }
+
+    @Test
+    public void getWinningBidsForUser() {
+
+        spyBidRepository.save(createTestBidEntity(1L, "bob", new BigDecimal("12.00"), null));
+        spyBidRepository.save(createTestBidEntity(1L, "alice", new BigDecimal("12.50"), null));
+        spyBidRepository.save(createTestBidEntity(3L, "alice", new BigDecimal("10.00"), null));
+
+        List<BidDetail> bids = bidService.getWinningBidsForUser("alice");
+
+        assertThat(bids.size(), is(2));
+        assertThat(bidService.getWinningBidsForUser("bob").isEmpty(), is(true));
+
+        // Bob retakes the lead on item 1
+        spyBidRepository.save(createTestBidEntity(1L, "bob", new BigDecimal("16.00"), null));
+
+        bids = bidService.getWinningBidsForUser("alice");
+
+        assertThat(bids.size(), is(1));
+        assertThat(bids.get(0).getItemId(), is(3L));
+        assertThat(bids.get(0).getAmount(), is(new BigDecimal("10.00")));
+
+        bids = bidService.getWinningBidsForUser("bob");
+
+        assertThat(bids.size(), is(1));
+        assertThat(bids.get(0).getItemId(), is(1L));
+        assertThat(bids.get(0).getAmount(), is(new BigDecimal("16.00")));
+    }
+
     @Test
     public void createBid() {
 
@@ -224,14 +345,15 @@ public class BidServiceImplTest {
         BidEntity addedBid = createTestBidEntity(itemId, user, amt, now.toInstant(ZoneOffset.UTC));
         BidDetail added = bidMapper.bidEntityToBidDetail(addedBid);
 
-        doReturn(addedBid).when(spyBidRepository).save(any(BidEntity.class));
+        doReturn(BidResult.accepted(addedBid)).when(spyBidRepository).save(any(BidEntity.class), isNull());
 
-        BidDetail bidDetail = bidService.createBid(dto);
+        BidResult<BidDetail> result = bidService.createBid(dto);
 
-        assertThat(bidDetail, is(added));
+        assertThat(result.getStatus(), is(BidResult.Status.ACCEPTED));
+        assertThat(result.getBid(), is(added));
 
         ArgumentCaptor<BidEntity> jpaCaptor = ArgumentCaptor.forClass(BidEntity.class);
-        verify(spyBidRepository).save(jpaCaptor.capture());
+        verify(spyBidRepository).save(jpaCaptor.capture(), isNull());
         verifyNoMoreInteractions(spyBidRepository);
 
         assertThat(jpaCaptor.getValue(), is(saveBid));
@@ -258,14 +380,12 @@ public class BidServiceImplTest {
 
         assertThat(bids, hasItem(allOf(bidMatchers)));
 
-        try {
-            spyBidRepository.save(createTestBidEntity(1L, "alice", new BigDecimal("12.00"), null));
-            fail("InvalidResourceException expected to be thrown but wasn't");
-        } catch(InvalidResourceException e) {
-            assertThat(e.getMessage(), is("Invalid bid on item : 1, for user : alice"));
-            assertThat(e.getReasons().size(), is(1));
-            assertThat(e.getReasons().contains("Amount bid must be greater than current highest"), is(true));
-        }
+        BidResult<BidDetail> result = bidService.createBid(createTestBid(1L, "alice", new BigDecimal("12.00")));
+
+        assertThat(result.getStatus(), is(BidResult.Status.OUTBID));
+        assertThat(result.getBid(), nullValue());
+        assertThat(result.getReasons().size(), is(1));
+        assertThat(result.getReasons().contains("Amount bid must be greater than current highest"), is(true));
 
         bids = bidService.getBidsForItem(1L);
 
@@ -275,6 +395,108 @@ public class BidServiceImplTest {
         assertThat(bids, hasItem(allOf(bidMatchers)));
     }
 
+    @Test
+    public void createBidIdempotent() {
+
+        Bid dto = createTestBid(1L, "bob", new BigDecimal("12.00"));
+
+        BidResult<BidDetail> first = bidService.createBid(dto, "key-1");
+        BidResult<BidDetail> retry = bidService.createBid(dto, "key-1");
+
+        assertThat(first.getStatus(), is(BidResult.Status.ACCEPTED));
+        assertThat(retry, is(first));
+        assertThat(retry.getBid() == first.getBid(), is(false));
+
+        // Same key from a different user is a different submission
+        BidResult<BidDetail> other = bidService.createBid(createTestBid(1L, "alice", new BigDecimal("12.00")), "key-1");
+
+        assertThat(other.getStatus(), is(BidResult.Status.OUTBID));
+
+        verify(spyBidRepository, times(2)).save(any(BidEntity.class), isNull());
+        assertThat(bidService.getBidsForItem(1L).size(), is(1));
+    }
+
+    @Test
+    public void createBidRefusesKeyReusedForDifferentBid() {
+
+        assertThat(bidService.createBid(createTestBid(1L, "bob", new BigDecimal("12.00")), "key-1").getStatus(),
+                is(BidResult.Status.ACCEPTED));
+
+        // Another item, another amount, or the same amount at another scale
+        for (Bid other : Arrays.asList(createTestBid(2L, "bob", new BigDecimal("12.00")),
+                createTestBid(1L, "bob", new BigDecimal("13.00")),
+                createTestBid(1L, "bob", new BigDecimal("12.0")))) {
+            BidResult<BidDetail> result = bidService.createBid(other, "key-1");
+
+            assertThat(result.getStatus(), is(BidResult.Status.INVALID));
+            assertThat(result.getReasons(), is(Collections.singletonList(BidIdempotencyCache.KEY_REUSED)));
+        }
+
+        verify(spyBidRepository, times(1)).save(any(BidEntity.class), isNull());
+    }
+
+    @Test
+    public void createBidOnClosedAuction() {
+
+        Instant closedAt = Instant.now().minusSeconds(1);
+
+        when(itemRepository.findById(1L)).thenReturn(
+                Optional.of(new ItemEntity(1L, "Lamp", null, closedAt, null)));
+
+        BidResult<BidDetail> result = bidService.createBid(createTestBid(1L, "bob", new BigDecimal("12.00")));
+
+        assertThat(result.getStatus(), is(BidResult.Status.INVALID));
+        assertThat(result.getReasons().get(0), is(String.format(BidRepository.AUCTION_CLOSED, 1L, closedAt)));
+
+        // Refused by the repository, whilst holding the item's lock
+        verify(spyBidRepository).save(any(BidEntity.class), eq(closedAt));
+        assertThat(bidService.getBidsForItem(1L).isEmpty(), is(true));
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void getItemBidsFailsBeforeResponseWhenHistoryCannotBeRead() {
+        doReturn((Iterable<BidEntity>) () -> {
+            throw new UncheckedIOException(new IOException("Unreadable segment"));
+        }).when(spyBidRepository).findByItemId(1L);
+
+        bidService.getItemBids(1L, "Lamp", null, null);
+    }
+
+    @Test
+    public void createBidWaitsForItsOwnChangeToBeDurable() {
+        BidChangeFeed bidChangeFeed = mock(BidChangeFeed.class);
+        BidRepository bidRepository = new BidRepositoryImpl((bid, previousHighest) -> bid.setSequence(42L));
+
+        bidService = new BidServiceImpl(bidRepository, bidMapper,
+                new BidIdempotencyCache(new IdempotencyProperties()), new UserBidView(), new ItemStatsView(),
+                bidChangeFeed, mock(BidExporter.class), itemRepository);
+
+        assertThat(bidService.createBid(createTestBid(1L, "bob", new BigDecimal("12.00"))).isAccepted(), is(true));
+
+        verify(bidChangeFeed).checkAccepting();
+        verify(bidChangeFeed).awaitDurable(42L);
+        verifyNoMoreInteractions(bidChangeFeed);
+    }
+
+    @Test
+    public void createBidRefusedOnceChangesCannotBeJournalled() {
+        BidChangeFeed bidChangeFeed = mock(BidChangeFeed.class);
+        doThrow(new ServiceUnavailableException("Journal failed")).when(bidChangeFeed).checkAccepting();
+
+        bidService = new BidServiceImpl(spyBidRepository, bidMapper,
+                new BidIdempotencyCache(new IdempotencyProperties()), new UserBidView(), new ItemStatsView(),
+                bidChangeFeed, mock(BidExporter.class), itemRepository);
+
+        try {
+            bidService.createBid(createTestBid(1L, "bob", new BigDecimal("12.00")));
+            fail("Bid was accepted after changes could not be journalled");
+        } catch (ServiceUnavailableException e) {
+            assertThat(e.getMessage(), is("Journal failed"));
+        }
+
+        verify(spyBidRepository, never()).save(any(BidEntity.class), any());
+    }
+
     private Bid createTestBid(long id, String user, BigDecimal amount) {
 
         Bid b = new Bid();
@@ -4,8 +4,12 @@ import com.devxpress.auction.api.exception.ResourceNotFoundException;
 import com.devxpress.auction.api.v1.mapper.ItemMapper;
 import com.devxpress.auction.api.v1.mapper.ItemMapperImpl;
 import com.devxpress.auction.api.v1.model.Item;
+import com.devxpress.auction.configuration.SearchProperties;
+import com.devxpress.auction.configuration.TrendingProperties;
 import com.devxpress.auction.entity.ItemEntity;
 import com.devxpress.auction.repository.ItemRepository;
+import com.devxpress.auction.search.ItemSearchIndex;
+import com.devxpress.auction.view.TrendingItemsView;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -33,10 +37,21 @@ public class ItemServiceImplTest {
 
     private ItemMapper itemMapper = new ItemMapperImpl();
 
+    private TrendingProperties trendingProperties = new TrendingProperties();
+
+    @Mock
+    private TrendingItemsView trendingItemsView;
+
+    private SearchProperties searchProperties = new SearchProperties();
+
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        itemService = new ItemServiceImpl(itemRepository, itemMapper);
+        itemService = new ItemServiceImpl(itemRepository, itemMapper, trendingItemsView, trendingProperties,
+                itemSearchIndex, searchProperties);
     }
 
     @Test
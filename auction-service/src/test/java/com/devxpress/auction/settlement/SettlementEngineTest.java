@@ -0,0 +1,185 @@
+package com.devxpress.auction.settlement;
+
+import com.devxpress.auction.configuration.SettlementProperties;
+import com.devxpress.auction.entity.BidEntity;
+import com.devxpress.auction.entity.ItemEntity;
+import com.devxpress.auction.repository.BidRepository;
+import com.devxpress.auction.repository.BidRepositoryImpl;
+import com.devxpress.auction.repository.ItemRepository;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SettlementEngineTest {
+
+    @Rule
+    public TemporaryFolder reportFolder = new TemporaryFolder();
+
+    private final List<ItemEntity> items = new ArrayList<>();
+
+    private ItemRepository itemRepository;
+    private BidRepository bidRepository;
+    private SettlementProperties properties;
+
+    @Before
+    public void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findAll()).thenReturn(items);
+
+        bidRepository = new BidRepositoryImpl();
+
+        properties = new SettlementProperties();
+        properties.setParallelism(4);
+    }
+
+    @Test
+    public void settlesClosedItemsAgainstReserve() throws Exception {
+        bid(1L, "bob", "90.00");
+        bid(1L, "alice", "120.00");
+        bid(2L, "carol", "40.00");
+        bid(4L, "dave", "10.00");
+
+        Thread.sleep(2);
+        Instant closedAt = Instant.now();
+
+        items.add(new ItemEntity(1L, "Chair", null, closedAt, new BigDecimal("100.00")));
+        items.add(new ItemEntity(2L, "Lamp", null, closedAt, new BigDecimal("50.00")));
+        items.add(new ItemEntity(3L, "Rug", null, closedAt, null));
+        items.add(new ItemEntity(4L, "Desk", null, closedAt.plusSeconds(60), null));
+        items.add(new ItemEntity(5L, "Table", null, null, null));
+
+        // Saved without its closing time, as had it been accepted as the auction closed, so submitted after it closed
+        Thread.sleep(2);
+        bid(1L, "erin", "200.00");
+
+        SettlementReport report = new SettlementEngine(itemRepository, bidRepository, properties)
+                .settle(Instant.now());
+
+        List<ItemSettlement> settlements = report.getSettlements();
+
+        assertThat(settlements.size(), is(3));
+
+        assertThat(settlements.get(0).getOutcome(), is(SettlementOutcome.SOLD));
+        assertThat(settlements.get(0).getHighestBid().getUserId(), is("alice"));
+        assertThat(settlements.get(1).getOutcome(), is(SettlementOutcome.RESERVE_NOT_MET));
+        assertThat(settlements.get(1).getHighestBid().getUserId(), is("carol"));
+        assertThat(settlements.get(2).getOutcome(), is(SettlementOutcome.NO_BIDS));
+        assertThat(settlements.get(2).getHighestBid(), is(nullValue()));
+    }
+
+    @Test
+    public void settlesManyItemsInCatalogOrder() throws Exception {
+        int itemCount = 2_000;
+
+        for (long itemId = itemCount; itemId > 0; itemId--) {
+            bid(itemId, "user-" + itemId, Long.toString(itemId));
+        }
+
+        Thread.sleep(2);
+        Instant closedAt = Instant.now();
+
+        for (long itemId = itemCount; itemId > 0; itemId--) {
+            items.add(new ItemEntity(itemId, "Item " + itemId, null, closedAt, null));
+        }
+
+        SettlementReport report = new SettlementEngine(itemRepository, bidRepository, properties)
+                .settle(closedAt);
+
+        assertThat(report.count(SettlementOutcome.SOLD), is((long) itemCount));
+
+        for (int i = 0; i < itemCount; i++) {
+            ItemSettlement settlement = report.getSettlements().get(i);
+
+            assertThat(settlement.getItemId(), is((long) (itemCount - i)));
+            assertThat(settlement.getHighestBid().getUserId(), is("user-" + settlement.getItemId()));
+        }
+    }
+
+    @Test
+    public void settlesItemsClosingWithinTheMillisecond() throws Exception {
+        bid(1L, "bob", "10.00");
+
+        Thread.sleep(2);
+        Instant closedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS).plusNanos(500_000);
+
+        items.add(new ItemEntity(1L, "Chair", null, closedAt, null));
+
+        SettlementReport report = new SettlementEngine(itemRepository, bidRepository, properties)
+                .settle(closedAt.plusNanos(1));
+
+        assertThat(report.getSettlements().size(), is(1));
+        assertThat(report.getSettlements().get(0).getOutcome(), is(SettlementOutcome.SOLD));
+    }
+
+    @Test
+    public void settlementResumesFromLatestReport() throws Exception {
+        properties.setReportDirectory(reportFolder.getRoot().getPath());
+
+        bid(1L, "bob", "90.00");
+        bid(2L, "alice", "1000.00");
+
+        Thread.sleep(2);
+        Instant closedAt = Instant.now();
+
+        items.add(new ItemEntity(1L, "Chair", null, closedAt, new BigDecimal("100")));
+        items.add(new ItemEntity(2L, "Lamp", null, closedAt, null));
+
+        Instant settledAt = closedAt.plusSeconds(1);
+
+        assertThat(new SettlementEngine(itemRepository, bidRepository, properties)
+                .settle(settledAt).getSettlements().size(), is(2));
+
+        List<String> lines = Files.readAllLines(onlyReport());
+
+        assertThat(lines.size(), is(3));
+        assertThat(lines.get(0), is(SettlementEngine.REPORT_HEADER));
+        assertThat(lines.get(1), is("1," + closedAt + ",RESERVE_NOT_MET,bob,90.00,100"));
+        assertThat(lines.get(2), is("2," + closedAt + ",SOLD,alice,1000.00,"));
+
+        // As after a restart, an item closing later is settled, but not those already settled
+        items.add(new ItemEntity(3L, "Rug", null, settledAt.plusSeconds(1), null));
+
+        SettlementReport report = new SettlementEngine(itemRepository, bidRepository, properties)
+                .settle(settledAt.plusSeconds(2));
+
+        assertThat(report.getSettlements().size(), is(1));
+        assertThat(report.getSettlements().get(0).getItemId(), is(3L));
+    }
+
+    private void bid(long itemId, String userId, String amount) {
+        BidEntity bid = new BidEntity();
+        bid.setItemId(itemId);
+        bid.setUserId(userId);
+        bid.setAmount(new BigDecimal(amount));
+
+        bidRepository.save(bid);
+    }
+
+    private Path onlyReport() throws IOException {
+        try (Stream<Path> reports = Files.list(reportFolder.getRoot().toPath())) {
+            List<Path> paths = reports.collect(Collectors.toList());
+
+            assertThat(paths.size(), is(1));
+
+            return paths.get(0);
+        }
+    }
+}
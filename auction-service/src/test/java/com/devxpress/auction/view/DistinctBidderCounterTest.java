@@ -0,0 +1,45 @@
+package com.devxpress.auction.view;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertThat;
+
+public class DistinctBidderCounterTest {
+
+    @Test
+    public void countsExactlyUpToLimit() {
+        DistinctBidderCounter counter = new DistinctBidderCounter();
+
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int bidder = 0; bidder < DistinctBidderCounter.EXACT_LIMIT; bidder++) {
+                counter.add("user" + bidder);
+            }
+        }
+
+        assertThat(counter.count(), is((long) DistinctBidderCounter.EXACT_LIMIT));
+        assertThat(counter.isApproximate(), is(false));
+    }
+
+    @Test
+    public void estimatesBeyondLimit() {
+        DistinctBidderCounter counter = new DistinctBidderCounter();
+
+        int[] bidderCounts = {2_000, 50_000, 1_000_000};
+        int bidder = 0;
+
+        for (int bidderCount : bidderCounts) {
+            while (bidder < bidderCount) {
+                counter.add("user" + bidder);
+                // Repeat bids by the same bidder leave the estimate unchanged
+                counter.add("user" + bidder / 2);
+                bidder++;
+            }
+
+            assertThat(counter.isApproximate(), is(true));
+            // Within 3 standard errors
+            assertThat((double) counter.count(), closeTo(bidderCount, bidderCount * 0.025));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.devxpress.auction.view;
+
+import com.devxpress.auction.configuration.TrendingProperties;
+import com.devxpress.auction.entity.BidEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TrendingItemsViewTest {
+
+    private static final Duration BUCKET = Duration.ofSeconds(10);
+
+    private long now = 1_000_000_000L;
+
+    private TrendingItemsView view;
+
+    @Before
+    public void setUp() {
+        TrendingProperties properties = new TrendingProperties();
+        properties.setBucketDuration(BUCKET);
+        properties.setMaxWindow(Duration.ofMinutes(5));
+
+        view = new TrendingItemsView(properties, () -> now);
+    }
+
+    @Test
+    public void ranksByBidCountWithinWindow() {
+        bid(1L, 3);
+
+        // Outside the one minute window by the time of the query
+        advance(Duration.ofMinutes(2));
+        bid(2L, 2);
+        bid(3L, 1);
+
+        assertThat(itemIds(view.findTrending(Duration.ofMinutes(1), TrendingItemsView.Metric.BIDS, 10)),
+                is(new Long[] {2L, 3L}));
+        assertThat(itemIds(view.findTrending(Duration.ofMinutes(5), TrendingItemsView.Metric.BIDS, 10)),
+                is(new Long[] {1L, 2L, 3L}));
+        assertThat(itemIds(view.findTrending(Duration.ofMinutes(5), TrendingItemsView.Metric.BIDS, 2)),
+                is(new Long[] {1L, 2L}));
+    }
+
+    @Test
+    public void ranksByPriceIncrease() {
+        // Five bids rising by 1 each, against two bids rising by 100
+        bid(1L, 5);
+        place(2L, "10.00", null);
+        place(2L, "110.00", "10.00");
+        place(2L, "210.00", "110.00");
+
+        List<TrendingItemsView.Trend> trending =
+                view.findTrending(Duration.ofMinutes(1), TrendingItemsView.Metric.PRICE, 10);
+
+        assertThat(itemIds(trending), is(new Long[] {2L, 1L}));
+        assertThat(trending.get(0).getPriceIncrease(), is(new BigDecimal("200.00")));
+        assertThat(trending.get(1).getBidCount(), is(5L));
+    }
+
+    @Test
+    public void sumsPriceIncreasesExactly() {
+        // Rises finer than a cent, summed across buckets
+        place(1L, "1.000", null);
+        place(1L, "1.0004", "1.000");
+        advance(Duration.ofSeconds(30));
+        place(1L, "1.0008", "1.0004");
+        place(1L, "1.0121", "1.0008");
+
+        List<TrendingItemsView.Trend> trending =
+                view.findTrending(Duration.ofMinutes(1), TrendingItemsView.Metric.PRICE, 10);
+
+        assertThat(trending.get(0).getPriceIncrease(), is(new BigDecimal("0.0121")));
+    }
+
+    @Test
+    public void dropsItemsInactiveForLongerThanMaxWindow() {
+        bid(1L, 1);
+
+        advance(Duration.ofMinutes(6));
+        bid(2L, 1);
+
+        assertThat(itemIds(view.findTrending(Duration.ofMinutes(5), TrendingItemsView.Metric.BIDS, 10)),
+                is(new Long[] {2L}));
+
+        // Reused bucket slots hold no stale counts
+        bid(1L, 1);
+
+        assertThat(view.findTrending(Duration.ofMinutes(5), TrendingItemsView.Metric.BIDS, 10).get(1).getBidCount(),
+                is(1L));
+    }
+
+    private void bid(long itemId, int count) {
+        for (int i = 0; i < count; i++) {
+            place(itemId, String.valueOf(i + 1), i == 0 ? null : String.valueOf(i));
+            advance(Duration.ofSeconds(1));
+        }
+    }
+
+    private void place(long itemId, String amount, String previousAmount) {
+        view.onBidAccepted(createBid(itemId, amount), previousAmount == null ? null : createBid(itemId,
+                previousAmount));
+    }
+
+    private void advance(Duration duration) {
+        now += duration.toMillis();
+    }
+
+    private static BidEntity createBid(long itemId, String amount) {
+        BidEntity bid = new BidEntity();
+        bid.setItemId(itemId);
+        bid.setUserId("user");
+        bid.setAmount(new BigDecimal(amount));
+        bid.setSubmittedAt(Instant.now());
+        return bid;
+    }
+
+    private static Long[] itemIds(List<TrendingItemsView.Trend> trending) {
+        return trending.stream().map(TrendingItemsView.Trend::getItemId).collect(Collectors.toList())
+                .toArray(new Long[0]);
+    }
+}
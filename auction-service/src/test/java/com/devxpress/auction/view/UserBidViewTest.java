@@ -0,0 +1,66 @@
+package com.devxpress.auction.view;
+
+import com.devxpress.auction.entity.BidEntity;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class UserBidViewTest {
+
+    private final UserBidView view = new UserBidView();
+
+    @Test
+    public void outbidLeaderUnknownToTheViewIsIgnored() {
+        // As were the previous leader's bid held before startup
+        view.onBidAccepted(bid(1L, "bob", "20.00"), bid(1L, "alice", "10.00"));
+
+        assertThat(itemIds(view.findWinningBidsByUserId("bob")), is(Arrays.asList(1L)));
+        assertThat(view.findWinningBidsByUserId("alice").isEmpty(), is(true));
+    }
+
+    @Test
+    public void rebuildReplacesViewWithBidsHeld() {
+        view.onBidAccepted(bid(9L, "carol", "5.00"), null);
+
+        view.rebuild(Arrays.asList(
+                bid(1L, "alice", "10.00"),
+                bid(1L, "bob", "20.00"),
+                bid(1L, "alice", "15.00"),
+                bid(2L, "alice", "30.00")));
+
+        assertThat(view.findHighestBidsByUserId("carol").isEmpty(), is(true));
+        assertThat(amounts(view.findHighestBidsByUserId("alice")), is(Arrays.asList("15.00", "30.00")));
+        assertThat(itemIds(view.findWinningBidsByUserId("alice")), is(Arrays.asList(2L)));
+        assertThat(itemIds(view.findWinningBidsByUserId("bob")), is(Arrays.asList(1L)));
+
+        // Maintained incrementally from the rebuilt view
+        view.onBidAccepted(bid(2L, "bob", "40.00"), bid(2L, "alice", "30.00"));
+
+        assertThat(view.findWinningBidsByUserId("alice").isEmpty(), is(true));
+        assertThat(itemIds(view.findWinningBidsByUserId("bob")), is(Arrays.asList(1L, 2L)));
+    }
+
+    private static BidEntity bid(long itemId, String userId, String amount) {
+        BidEntity bid = new BidEntity();
+        bid.setItemId(itemId);
+        bid.setUserId(userId);
+        bid.setAmount(new BigDecimal(amount));
+        bid.setSubmittedAt(Instant.now());
+        return bid;
+    }
+
+    private static List<Long> itemIds(List<BidEntity> bids) {
+        return bids.stream().map(BidEntity::getItemId).sorted().collect(Collectors.toList());
+    }
+
+    private static List<String> amounts(List<BidEntity> bids) {
+        return bids.stream().map(bid -> bid.getAmount().toPlainString()).sorted().collect(Collectors.toList());
+    }
+}